@@ -0,0 +1,33 @@
+package by.russianzak.benchmark;
+
+import java.io.File;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line, always attaches the
+ * GC profiler so allocation rate ({@code gc.alloc.rate.norm}) is reported next to throughput, and
+ * writes JSON results to {@code target/jmh-result.json} unless {@code -rff} is given.
+ */
+public class BenchmarkRunner {
+
+  private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    ChainedOptionsBuilder options = new OptionsBuilder()
+        .parent(commandLine)
+        .addProfiler(GCProfiler.class);
+    if (!commandLine.getResult().hasValue()) {
+      new File(DEFAULT_RESULT).getParentFile().mkdirs();
+      options.resultFormat(ResultFormatType.JSON).result(DEFAULT_RESULT);
+    }
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,96 @@
+package by.russianzak.benchmark;
+
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.servlet.dto.RequestHouseEntityDto;
+import by.russianzak.servlet.dto.RequestRoadSurfaceEntityDto;
+import by.russianzak.servlet.dto.RequestStreetEntityDto;
+import by.russianzak.servlet.dto.ResponseHouseEntityDto;
+import by.russianzak.servlet.dto.ResponseRoadSurfaceEntityDto;
+import by.russianzak.servlet.dto.ResponseStreetEntityDto;
+import by.russianzak.servlet.mapper.HouseEntityDtoMapper;
+import by.russianzak.servlet.mapper.HouseEntityDtoMapperImpl;
+import by.russianzak.servlet.mapper.RoadSurfaceEntityDtoMapper;
+import by.russianzak.servlet.mapper.RoadSurfaceEntityDtoMapperImpl;
+import by.russianzak.servlet.mapper.StreetEntityDtoMapper;
+import by.russianzak.servlet.mapper.StreetEntityDtoMapperImpl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Request-to-entity and entity-to-response mapping. {@code children} is the number of houses and
+ * road surfaces on a street, and of streets on a road surface.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DtoMapperBenchmark {
+
+  @Param({"1", "10", "100"})
+  public int children;
+
+  private final HouseEntityDtoMapper houseMapper = new HouseEntityDtoMapperImpl();
+  private final StreetEntityDtoMapper streetMapper = new StreetEntityDtoMapperImpl();
+  private final RoadSurfaceEntityDtoMapper roadSurfaceMapper = new RoadSurfaceEntityDtoMapperImpl();
+
+  private RequestHouseEntityDto houseRequest;
+  private RequestStreetEntityDto streetRequest;
+  private RequestRoadSurfaceEntityDto roadSurfaceRequest;
+  private HouseEntity house;
+  private StreetEntity street;
+  private RoadSurfaceEntity roadSurface;
+
+  @Setup
+  public void setUp() {
+    houseRequest = Fixtures.houseRequest();
+    streetRequest = Fixtures.streetRequest(children, children);
+    roadSurfaceRequest = Fixtures.roadSurfaceRequest(children);
+    house = Fixtures.house(1, Fixtures.street(7));
+    street = Fixtures.streetWithChildren(7, children, children);
+    roadSurface = Fixtures.roadSurfaceWithStreets(3, children);
+  }
+
+  @Benchmark
+  public HouseEntity houseFromRequest() {
+    return houseMapper.map(houseRequest);
+  }
+
+  @Benchmark
+  public ResponseHouseEntityDto houseToResponse() {
+    return houseMapper.map(house);
+  }
+
+  @Benchmark
+  public StreetEntity streetFromRequest() {
+    return streetMapper.map(streetRequest);
+  }
+
+  @Benchmark
+  public ResponseStreetEntityDto streetToResponse() {
+    return streetMapper.map(street);
+  }
+
+  @Benchmark
+  public RoadSurfaceEntity roadSurfaceFromRequest() {
+    return roadSurfaceMapper.map(roadSurfaceRequest);
+  }
+
+  @Benchmark
+  public ResponseRoadSurfaceEntityDto roadSurfaceToResponse() {
+    return roadSurfaceMapper.map(roadSurface);
+  }
+}
@@ -0,0 +1,163 @@
+package by.russianzak.benchmark;
+
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.servlet.dto.RequestHouseEntityDto;
+import by.russianzak.servlet.dto.RequestRoadSurfaceEntityDto;
+import by.russianzak.servlet.dto.RequestStreetEntityDto;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+
+/**
+ * Deterministic entities, DTOs and single-row result sets shared by the benchmarks. Result sets
+ * are JDK {@link CachedRowSet}s, so column lookup by label goes through a real driver-style
+ * implementation rather than a mock.
+ */
+final class Fixtures {
+
+  static final Date BUILD_DATE = Date.valueOf("1987-06-15");
+
+  private Fixtures() {}
+
+  static Gson gson() {
+    return new GsonBuilder()
+        .setDateFormat("dd-MM-yyyy")
+        .create();
+  }
+
+  static StreetEntity street(long id) {
+    return StreetEntity.builder().setId(id).setName("Nezavisimosti " + id).setPostalCode(220000 + id)
+        .build();
+  }
+
+  static HouseEntity house(long id, StreetEntity street) {
+    return HouseEntity.builder().setId(id).setHouseNumber(Long.toString(id)).setBuildDate(BUILD_DATE)
+        .setNumFloors((int) (id % 25) + 1).setType(TypeOfBuilding.values()[(int) (id % 4)])
+        .setStreet(street).build();
+  }
+
+  static RoadSurfaceEntity roadSurface(long id) {
+    return RoadSurfaceEntity.builder().setId(id).setType(TypeOfRoadSurface.values()[(int) (id % 4)])
+        .setDescription("Surface " + id).setFrictionCoefficient(0.5 + id % 5 / 10.0).build();
+  }
+
+  static StreetEntity streetWithChildren(long id, int houses, int roadSurfaces) {
+    StreetEntity street = street(id);
+    Set<HouseEntity> houseEntities = new HashSet<>();
+    for (int i = 1; i <= houses; i++) {
+      houseEntities.add(house(i, street));
+    }
+    Set<RoadSurfaceEntity> roadSurfaceEntities = new HashSet<>();
+    for (int i = 1; i <= roadSurfaces; i++) {
+      roadSurfaceEntities.add(roadSurface(i));
+    }
+    street.setHouses(houseEntities);
+    street.setRoadSurfaces(roadSurfaceEntities);
+    return street;
+  }
+
+  static RoadSurfaceEntity roadSurfaceWithStreets(long id, int streets) {
+    RoadSurfaceEntity roadSurface = roadSurface(id);
+    Set<StreetEntity> streetEntities = new HashSet<>();
+    for (int i = 1; i <= streets; i++) {
+      streetEntities.add(street(i));
+    }
+    roadSurface.setStreets(streetEntities);
+    return roadSurface;
+  }
+
+  static RequestHouseEntityDto houseRequest() {
+    return new RequestHouseEntityDto("42A", BUILD_DATE, 9, "RESIDENTIAL", "Nezavisimosti", 220004L);
+  }
+
+  static RequestStreetEntityDto streetRequest(int houses, int roadSurfaces) {
+    List<RequestStreetEntityDto.HouseDto> houseDtos = new ArrayList<>();
+    for (int i = 1; i <= houses; i++) {
+      houseDtos.add(new RequestStreetEntityDto.HouseDto(Integer.toString(i), BUILD_DATE, i % 25 + 1,
+          TypeOfBuilding.values()[i % 4].getValue()));
+    }
+    List<RequestStreetEntityDto.RoadSurfaceDto> roadSurfaceDtos = new ArrayList<>();
+    for (int i = 1; i <= roadSurfaces; i++) {
+      roadSurfaceDtos.add(new RequestStreetEntityDto.RoadSurfaceDto(
+          TypeOfRoadSurface.values()[i % 4].getValue(), "Surface " + i, 0.5 + i % 5 / 10.0));
+    }
+    return new RequestStreetEntityDto("Nezavisimosti", 220004L, houseDtos, roadSurfaceDtos);
+  }
+
+  static RequestRoadSurfaceEntityDto roadSurfaceRequest(int streets) {
+    List<RequestRoadSurfaceEntityDto.StreetDto> streetDtos = new ArrayList<>();
+    for (int i = 1; i <= streets; i++) {
+      streetDtos.add(new RequestRoadSurfaceEntityDto.StreetDto("Street " + i, 220000L + i));
+    }
+    return new RequestRoadSurfaceEntityDto("ASPHALT", "Fresh asphalt", 0.8, streetDtos);
+  }
+
+  static CachedRowSet houseRow() throws SQLException {
+    CachedRowSet rowSet = rowSet(new String[]{"id", "house_number", "build_date", "num_floors",
+        "type", "street_id"}, new int[]{Types.BIGINT, Types.VARCHAR, Types.DATE, Types.INTEGER,
+        Types.VARCHAR, Types.BIGINT});
+    rowSet.moveToInsertRow();
+    rowSet.updateLong("id", 1L);
+    rowSet.updateString("house_number", "42A");
+    rowSet.updateDate("build_date", BUILD_DATE);
+    rowSet.updateInt("num_floors", 9);
+    rowSet.updateString("type", "RESIDENTIAL");
+    rowSet.updateLong("street_id", 7L);
+    return positioned(rowSet);
+  }
+
+  static CachedRowSet streetRow() throws SQLException {
+    CachedRowSet rowSet = rowSet(new String[]{"id", "name", "postal_code"},
+        new int[]{Types.BIGINT, Types.VARCHAR, Types.BIGINT});
+    rowSet.moveToInsertRow();
+    rowSet.updateLong("id", 7L);
+    rowSet.updateString("name", "Nezavisimosti");
+    rowSet.updateLong("postal_code", 220004L);
+    return positioned(rowSet);
+  }
+
+  static CachedRowSet roadSurfaceRow() throws SQLException {
+    CachedRowSet rowSet = rowSet(new String[]{"id", "type", "description", "friction_coefficient"},
+        new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.DOUBLE});
+    rowSet.moveToInsertRow();
+    rowSet.updateLong("id", 3L);
+    rowSet.updateString("type", "ASPHALT");
+    rowSet.updateString("description", "Fresh asphalt");
+    rowSet.updateDouble("friction_coefficient", 0.8);
+    return positioned(rowSet);
+  }
+
+  private static CachedRowSet rowSet(String[] columns, int[] types) throws SQLException {
+    RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+    metaData.setColumnCount(columns.length);
+    for (int i = 0; i < columns.length; i++) {
+      metaData.setColumnName(i + 1, columns[i]);
+      metaData.setColumnLabel(i + 1, columns[i]);
+      metaData.setColumnType(i + 1, types[i]);
+    }
+    CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+    rowSet.setMetaData(metaData);
+    return rowSet;
+  }
+
+  private static CachedRowSet positioned(CachedRowSet rowSet) throws SQLException {
+    rowSet.insertRow();
+    rowSet.moveToCurrentRow();
+    rowSet.beforeFirst();
+    rowSet.next();
+    return rowSet;
+  }
+}
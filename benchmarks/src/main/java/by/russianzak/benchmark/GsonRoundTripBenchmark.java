@@ -0,0 +1,91 @@
+package by.russianzak.benchmark;
+
+import by.russianzak.servlet.dto.RequestHouseEntityDto;
+import by.russianzak.servlet.dto.RequestRoadSurfaceEntityDto;
+import by.russianzak.servlet.dto.RequestStreetEntityDto;
+import by.russianzak.servlet.dto.ResponseHouseEntityDto;
+import by.russianzak.servlet.dto.ResponseRoadSurfaceEntityDto;
+import by.russianzak.servlet.dto.ResponseStreetEntityDto;
+import by.russianzak.servlet.mapper.HouseEntityDtoMapperImpl;
+import by.russianzak.servlet.mapper.RoadSurfaceEntityDtoMapperImpl;
+import by.russianzak.servlet.mapper.StreetEntityDtoMapperImpl;
+import com.google.gson.Gson;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What the servlets do with Gson per request: parse the request body into a request DTO and
+ * serialize the response DTO, using the same Gson configuration as {@code Main}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GsonRoundTripBenchmark {
+
+  @Param({"1", "10", "100"})
+  public int children;
+
+  private Gson gson;
+  private String houseRequestJson;
+  private String streetRequestJson;
+  private String roadSurfaceRequestJson;
+  private ResponseHouseEntityDto houseResponse;
+  private ResponseStreetEntityDto streetResponse;
+  private ResponseRoadSurfaceEntityDto roadSurfaceResponse;
+
+  @Setup
+  public void setUp() {
+    gson = Fixtures.gson();
+    houseRequestJson = gson.toJson(Fixtures.houseRequest());
+    streetRequestJson = gson.toJson(Fixtures.streetRequest(children, children));
+    roadSurfaceRequestJson = gson.toJson(Fixtures.roadSurfaceRequest(children));
+    houseResponse = new HouseEntityDtoMapperImpl().map(Fixtures.house(1, Fixtures.street(7)));
+    streetResponse = new StreetEntityDtoMapperImpl().map(
+        Fixtures.streetWithChildren(7, children, children));
+    roadSurfaceResponse = new RoadSurfaceEntityDtoMapperImpl().map(
+        Fixtures.roadSurfaceWithStreets(3, children));
+  }
+
+  @Benchmark
+  public RequestHouseEntityDto houseParseRequest() {
+    return gson.fromJson(houseRequestJson, RequestHouseEntityDto.class);
+  }
+
+  @Benchmark
+  public String houseWriteResponse() {
+    return gson.toJson(houseResponse);
+  }
+
+  @Benchmark
+  public RequestStreetEntityDto streetParseRequest() {
+    return gson.fromJson(streetRequestJson, RequestStreetEntityDto.class);
+  }
+
+  @Benchmark
+  public String streetWriteResponse() {
+    return gson.toJson(streetResponse);
+  }
+
+  @Benchmark
+  public RequestRoadSurfaceEntityDto roadSurfaceParseRequest() {
+    return gson.fromJson(roadSurfaceRequestJson, RequestRoadSurfaceEntityDto.class);
+  }
+
+  @Benchmark
+  public String roadSurfaceWriteResponse() {
+    return gson.toJson(roadSurfaceResponse);
+  }
+}
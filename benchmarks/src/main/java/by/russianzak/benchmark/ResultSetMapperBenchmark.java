@@ -0,0 +1,63 @@
+package by.russianzak.benchmark;
+
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.mapper.HouseResultSetMapper;
+import by.russianzak.repository.mapper.HouseResultSetMapperImpl;
+import by.russianzak.repository.mapper.RoadSurfaceResultSetMapper;
+import by.russianzak.repository.mapper.RoadSurfaceResultSetMapperImpl;
+import by.russianzak.repository.mapper.StreetResultSetMapper;
+import by.russianzak.repository.mapper.StreetResultSetMapperImpl;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultSetMapperBenchmark {
+
+  private final HouseResultSetMapper houseMapper = new HouseResultSetMapperImpl();
+  private final StreetResultSetMapper streetMapper = new StreetResultSetMapperImpl();
+  private final RoadSurfaceResultSetMapper roadSurfaceMapper = new RoadSurfaceResultSetMapperImpl();
+
+  private ResultSet houseRow;
+  private ResultSet streetRow;
+  private ResultSet roadSurfaceRow;
+
+  @Setup
+  public void setUp() throws SQLException {
+    houseRow = Fixtures.houseRow();
+    streetRow = Fixtures.streetRow();
+    roadSurfaceRow = Fixtures.roadSurfaceRow();
+  }
+
+  @Benchmark
+  public HouseEntity house() throws SQLException {
+    return houseMapper.map(houseRow);
+  }
+
+  @Benchmark
+  public StreetEntity street() throws SQLException {
+    return streetMapper.map(streetRow);
+  }
+
+  @Benchmark
+  public RoadSurfaceEntity roadSurface() throws SQLException {
+    return roadSurfaceMapper.map(roadSurfaceRow);
+  }
+}
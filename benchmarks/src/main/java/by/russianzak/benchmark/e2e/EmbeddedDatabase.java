@@ -0,0 +1,68 @@
+package by.russianzak.benchmark.e2e;
+
+import by.russianzak.dataset.DatasetGenerator;
+import by.russianzak.dataset.DatasetLoader;
+import by.russianzak.db.impl.ConnectionManagerImpl;
+import by.russianzak.repository.sql.H2Dialect;
+import by.russianzak.repository.sql.SqlDialect;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * In-process H2 database in PostgreSQL compatibility mode standing in for the real server. The
+ * schema comes from the service's Flyway migrations and the data from {@link DatasetGenerator},
+ * whose id layout the request generators rely on.
+ */
+public class EmbeddedDatabase {
+
+  private static final String USER = "sa";
+  private static final String PASSWORD = "sa";
+  private static final SqlDialect DIALECT = new H2Dialect();
+
+  private final String jdbcUrl;
+
+  public EmbeddedDatabase(String name) {
+    this.jdbcUrl = String.format(
+        "jdbc:h2:mem:%s;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        name);
+  }
+
+  public ConnectionManagerImpl connectionManager() {
+    return new ConnectionManagerImpl(jdbcUrl, USER, PASSWORD);
+  }
+
+  public void migrate(ConnectionManagerImpl connectionManager, Path migrations) throws SQLException {
+    try (Connection connection = connectionManager.getConnection();
+        Statement statement = connection.createStatement();
+        Stream<Path> files = Files.list(migrations)) {
+      List<Path> scripts = files.filter(file -> file.getFileName().toString().endsWith(".sql"))
+          .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+          .toList();
+      for (Path script : scripts) {
+        for (String sql : Files.readString(script, StandardCharsets.UTF_8).split(";")) {
+          if (!sql.isBlank()) {
+            statement.execute(DIALECT.adaptMigration(sql));
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Failed to read migrations from %s", migrations), e);
+    }
+  }
+
+  public DatasetLoader.Summary seed(ConnectionManagerImpl connectionManager,
+      DatasetGenerator generator) throws SQLException {
+    try (Connection connection = connectionManager.getConnection()) {
+      return new DatasetLoader().load(connection, generator);
+    }
+  }
+}
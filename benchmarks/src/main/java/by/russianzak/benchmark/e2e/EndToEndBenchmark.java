@@ -0,0 +1,368 @@
+package by.russianzak.benchmark.e2e;
+
+import by.russianzak.Main;
+import by.russianzak.config.ApplicationConfig;
+import by.russianzak.dataset.DatasetGenerator;
+import by.russianzak.dataset.DatasetSpec;
+import by.russianzak.db.impl.ConnectionManagerImpl;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.repository.memory.InMemoryStore;
+import by.russianzak.repository.sql.H2Dialect;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.HdrHistogram.Histogram;
+import org.apache.catalina.startup.Tomcat;
+
+/**
+ * Boots the real {@link Main} wiring on an ephemeral port against {@link EmbeddedDatabase}, seeds
+ * a dataset and drives a closed-loop mixed workload at each configured concurrency level. Per
+ * request type it reports throughput, p50/p99/p999 latency and the number of SQL statements the
+ * server executed, read from the {@code Server-Timing} header that every request opts into.
+ *
+ * <p>Options ({@code --name=value}): {@code streets}, {@code houses}, {@code zipf} (see
+ * {@link DatasetSpec}),
+ * {@code concurrency} (comma separated), {@code warmup-seconds}, {@code duration-seconds},
+ * {@code mix}, {@code seed}, {@code migrations}, {@code result} and {@code backend}
+ * ({@code jdbc} or {@code memory}; the latter serves the dataset from the in-memory repositories
+ * through a snapshot under {@code target/}). Service settings can be overridden with {@code -D}
+ * system properties as usual.
+ */
+public class EndToEndBenchmark {
+
+  private static final Pattern DB_TIMING = Pattern.compile("(?:^|, )db;dur=[0-9.]+;desc=\"[^\"]*?(?: x(\\d+))?\"");
+  private static final int ROAD_SURFACES = TypeOfRoadSurface.values().length;
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+  private static final String DEFAULT_MIX = "GET_HOUSE=50,GET_STREET=20,GET_ROAD_SURFACE=5,"
+      + "CREATE_HOUSE=10,UPDATE_HOUSE=10,DELETE_HOUSE=5";
+
+  private final URI baseUri;
+  private final HttpClient client;
+  private final WorkloadMix mix;
+  private final DatasetGenerator dataset;
+  private final long seed;
+  private int runs;
+
+  public EndToEndBenchmark(URI baseUri, WorkloadMix mix, DatasetGenerator dataset, long seed) {
+    this.baseUri = baseUri;
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    this.mix = mix;
+    this.dataset = dataset;
+    this.seed = seed;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parseOptions(args);
+    DatasetSpec spec = DatasetSpec.builder()
+        .setStreets(Integer.parseInt(options.getOrDefault("streets", "1000")))
+        .setHouses(Long.parseLong(options.getOrDefault("houses", "20000")))
+        .setZipfExponent(Double.parseDouble(options.getOrDefault("zipf", "1.1")))
+        .build();
+    DatasetGenerator dataset = new DatasetGenerator(spec);
+    int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "5"));
+    int durationSeconds = Integer.parseInt(options.getOrDefault("duration-seconds", "20"));
+    long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+    WorkloadMix mix = WorkloadMix.parse(options.getOrDefault("mix", DEFAULT_MIX));
+    Path migrations = Path.of(options.getOrDefault("migrations", defaultMigrations()));
+    Path result = Path.of(options.getOrDefault("result", "target/e2e-result.json"));
+
+    setDefault("server.port", "0");
+    setDefault("access-log.enabled", "false");
+    setDefault("server-timing.opt-in", "true");
+
+    ConnectionManagerImpl connectionManager = null;
+    if ("memory".equals(options.getOrDefault("backend", "jdbc"))) {
+      InMemoryStore store = new InMemoryStore(64);
+      store.load(dataset);
+      Path snapshot = Path.of("target", "e2e-memory.snapshot");
+      store.snapshot(snapshot);
+      System.setProperty("repository.backend", "memory");
+      System.setProperty("repository.memory.snapshot-file", snapshot.toString());
+      System.setProperty("repository.memory.snapshot-interval-seconds", "0");
+    } else {
+      setDefault("repository.dialect", H2Dialect.NAME);
+      EmbeddedDatabase database = new EmbeddedDatabase("e2e");
+      connectionManager = database.connectionManager();
+      database.migrate(connectionManager, migrations);
+      database.seed(connectionManager, dataset);
+    }
+    Tomcat tomcat = Main.start(ApplicationConfig.load(), connectionManager);
+    try {
+      URI baseUri = URI.create("http://localhost:" + tomcat.getConnector().getLocalPort());
+      EndToEndBenchmark benchmark = new EndToEndBenchmark(baseUri, mix, dataset, seed);
+      Map<String, Object> report = new LinkedHashMap<>();
+      report.put("dataset", spec);
+      report.put("durationSeconds", durationSeconds);
+      List<Map<String, Object>> levels = new ArrayList<>();
+      for (String level : options.getOrDefault("concurrency", "1,8,32").split(",")) {
+        int concurrency = Integer.parseInt(level.trim());
+        benchmark.run(concurrency, warmupSeconds);
+        Map<RequestType, TypeStats> stats = benchmark.run(concurrency, durationSeconds);
+        print(concurrency, durationSeconds, stats);
+        levels.add(toReport(concurrency, durationSeconds, stats));
+      }
+      report.put("levels", levels);
+      write(result, report);
+    } finally {
+      tomcat.stop();
+      tomcat.destroy();
+      if (connectionManager != null) {
+        connectionManager.getDataSource().close();
+      }
+    }
+  }
+
+  public Map<RequestType, TypeStats> run(int concurrency, int seconds) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    String prefix = "r" + runs++ + "w";
+    List<Worker> workers = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < concurrency; i++) {
+      Worker worker = new Worker(prefix + i, deadline, new Random(seed * 31 + i));
+      workers.add(worker);
+      Thread thread = new Thread(worker, "e2e-worker-" + i);
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    Map<RequestType, TypeStats> merged = new EnumMap<>(RequestType.class);
+    for (Worker worker : workers) {
+      worker.stats.forEach((type, stats) -> merged.computeIfAbsent(type, key -> new TypeStats())
+          .add(stats));
+    }
+    return merged;
+  }
+
+  private final class Worker implements Runnable {
+    private final String name;
+    private final long deadline;
+    private final Random random;
+    private final Deque<Long> createdHouses = new ArrayDeque<>();
+    private final Map<RequestType, TypeStats> stats = new EnumMap<>(RequestType.class);
+    private long created;
+
+    private Worker(String name, long deadline, Random random) {
+      this.name = name;
+      this.deadline = deadline;
+      this.random = random;
+    }
+
+    @Override
+    public void run() {
+      while (System.nanoTime() < deadline) {
+        RequestType type = mix.next(random);
+        if (type == RequestType.DELETE_HOUSE && createdHouses.isEmpty()) {
+          type = RequestType.CREATE_HOUSE;
+        }
+        HttpRequest request = build(type);
+        long start = System.nanoTime();
+        try {
+          HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
+          long elapsed = System.nanoTime() - start;
+          stats.computeIfAbsent(type, key -> new TypeStats())
+              .record(elapsed, response.statusCode(), statementCount(response), response.body());
+          if (type == RequestType.CREATE_HOUSE && response.statusCode() == 201) {
+            createdHouses.push(JsonParser.parseString(response.body()).getAsJsonObject()
+                .get("id").getAsLong());
+          }
+        } catch (IOException e) {
+          stats.computeIfAbsent(type, key -> new TypeStats())
+              .record(System.nanoTime() - start, 0, 0, e.toString());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+
+    private HttpRequest build(RequestType type) {
+      int streets = dataset.getSpec().getStreets();
+      int houses = (int) dataset.getSpec().getHouses();
+      return switch (type) {
+        case GET_HOUSE -> get("/house?id=" + (1 + random.nextInt(houses)));
+        case GET_STREET -> get("/street?id=" + (1 + random.nextInt(streets)));
+        case GET_ROAD_SURFACE -> get("/road-surface?id=" + (1 + random.nextInt(ROAD_SURFACES)));
+        case CREATE_HOUSE -> {
+          long street = 1 + random.nextInt(streets);
+          yield send("POST", "/house", houseJson(name + "-" + created++, street));
+        }
+        case UPDATE_HOUSE -> {
+          long house = 1 + random.nextInt(houses);
+          yield send("PUT", "/house?id=" + house,
+              houseJson(dataset.houseNumber(house), dataset.streetOfHouse(house)));
+        }
+        case DELETE_HOUSE -> send("DELETE", "/house?id=" + createdHouses.pop(), null);
+      };
+    }
+
+    private String houseJson(String houseNumber, long street) {
+      return String.format(Locale.ROOT, "{\"houseNumber\":\"%s\",\"buildDate\":\"01-01-1990\","
+              + "\"numFloors\":%d,\"type\":\"RESIDENTIAL\",\"streetName\":\"%s\","
+              + "\"streetPostalCode\":%d}", houseNumber, 1 + random.nextInt(20),
+          DatasetGenerator.streetName(street), DatasetGenerator.postalCode(street));
+    }
+  }
+
+  private HttpRequest get(String path) {
+    return request(path).GET().build();
+  }
+
+  private HttpRequest send(String method, String path, String body) {
+    return request(path)
+        .header("Content-Type", "application/json")
+        .method(method, body == null ? BodyPublishers.noBody()
+            : BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+        .build();
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(baseUri.resolve(path))
+        .timeout(Duration.ofSeconds(30))
+        .header("X-Server-Timing", "1");
+  }
+
+  static int statementCount(HttpResponse<?> response) {
+    return response.headers().firstValue("Server-Timing").map(header -> {
+      Matcher matcher = DB_TIMING.matcher(header);
+      if (!matcher.find()) {
+        return 0;
+      }
+      return matcher.group(1) == null ? 1 : Integer.parseInt(matcher.group(1));
+    }).orElse(0);
+  }
+
+  static final class TypeStats {
+    private final Histogram latency = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private long errors;
+    private long statements;
+    private String firstError;
+
+    void record(long nanos, int status, int statementCount, String body) {
+      latency.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+      if (status < 200 || status >= 400) {
+        errors++;
+        if (firstError == null) {
+          firstError = status + " " + body;
+        }
+      }
+      statements += statementCount;
+    }
+
+    void add(TypeStats other) {
+      latency.add(other.latency);
+      errors += other.errors;
+      statements += other.statements;
+      if (firstError == null) {
+        firstError = other.firstError;
+      }
+    }
+  }
+
+  private static void print(int concurrency, int seconds, Map<RequestType, TypeStats> stats) {
+    System.out.printf(Locale.ROOT, "%nconcurrency=%d%n%-18s %10s %10s %9s %9s %9s %8s %8s%n",
+        concurrency, "type", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors",
+        "stmt/req");
+    stats.forEach((type, typeStats) -> {
+      Histogram latency = typeStats.latency;
+      long count = latency.getTotalCount();
+      System.out.printf(Locale.ROOT, "%-18s %10d %10.1f %9.2f %9.2f %9.2f %8d %8.2f%n", type, count,
+          count / (double) seconds, millis(latency.getValueAtPercentile(50)),
+          millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+          typeStats.errors, count == 0 ? 0 : typeStats.statements / (double) count);
+    });
+    stats.forEach((type, typeStats) -> {
+      if (typeStats.firstError != null) {
+        System.out.printf("first %s error: %s%n", type, typeStats.firstError);
+      }
+    });
+  }
+
+  private static Map<String, Object> toReport(int concurrency, int seconds,
+      Map<RequestType, TypeStats> stats) {
+    Map<String, Object> level = new LinkedHashMap<>();
+    level.put("concurrency", concurrency);
+    Map<String, Object> types = new LinkedHashMap<>();
+    stats.forEach((type, typeStats) -> {
+      Histogram latency = typeStats.latency;
+      long count = latency.getTotalCount();
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("requests", count);
+      entry.put("throughput", count / (double) seconds);
+      entry.put("p50Millis", millis(latency.getValueAtPercentile(50)));
+      entry.put("p99Millis", millis(latency.getValueAtPercentile(99)));
+      entry.put("p999Millis", millis(latency.getValueAtPercentile(99.9)));
+      entry.put("errors", typeStats.errors);
+      entry.put("statementsPerRequest", count == 0 ? 0 : typeStats.statements / (double) count);
+      entry.put("firstError", typeStats.firstError);
+      types.put(type.name(), entry);
+    });
+    level.put("types", types);
+    return level;
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  private static void write(Path result, Object report) throws IOException {
+    if (result.getParent() != null) {
+      Files.createDirectories(result.getParent());
+    }
+    Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    try (Writer writer = Files.newBufferedWriter(result, StandardCharsets.UTF_8)) {
+      gson.toJson(report, writer);
+    }
+    System.out.printf("%nResults written to %s%n", result.toAbsolutePath());
+  }
+
+  private static Map<String, String> parseOptions(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException(String.format("Expected --name=value but got '%s'", arg));
+      }
+      options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+    }
+    return options;
+  }
+
+  private static String defaultMigrations() {
+    String relative = "src/main/resources/db/migration";
+    return Files.isDirectory(Path.of(relative)) ? relative : "../" + relative;
+  }
+
+  private static void setDefault(String key, String value) {
+    if (System.getProperty(key) == null) {
+      System.setProperty(key, value);
+    }
+  }
+}
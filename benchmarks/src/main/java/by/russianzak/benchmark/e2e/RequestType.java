@@ -0,0 +1,20 @@
+package by.russianzak.benchmark.e2e;
+
+public enum RequestType {
+  GET_HOUSE("GET"),
+  GET_STREET("GET"),
+  GET_ROAD_SURFACE("GET"),
+  CREATE_HOUSE("POST"),
+  UPDATE_HOUSE("PUT"),
+  DELETE_HOUSE("DELETE");
+
+  private final String method;
+
+  RequestType(String method) {
+    this.method = method;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+}
@@ -0,0 +1,56 @@
+package by.russianzak.benchmark.e2e;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted request mix parsed from {@code GET_HOUSE=60,GET_STREET=20,CREATE_HOUSE=10,...}.
+ */
+public class WorkloadMix {
+
+  private final RequestType[] types;
+  private final int[] cumulativeWeights;
+  private final int totalWeight;
+
+  public WorkloadMix(Map<RequestType, Integer> weights) {
+    this.types = new RequestType[weights.size()];
+    this.cumulativeWeights = new int[weights.size()];
+    int total = 0;
+    int i = 0;
+    for (Map.Entry<RequestType, Integer> entry : weights.entrySet()) {
+      if (entry.getValue() < 0) {
+        throw new IllegalArgumentException("Weights must not be negative");
+      }
+      total += entry.getValue();
+      types[i] = entry.getKey();
+      cumulativeWeights[i++] = total;
+    }
+    if (total == 0) {
+      throw new IllegalArgumentException("Workload mix is empty");
+    }
+    this.totalWeight = total;
+  }
+
+  public static WorkloadMix parse(String spec) {
+    Map<RequestType, Integer> weights = new EnumMap<>(RequestType.class);
+    for (String part : spec.split(",")) {
+      String[] pair = part.trim().split("=");
+      if (pair.length != 2) {
+        throw new IllegalArgumentException(String.format("Invalid mix entry '%s'", part));
+      }
+      weights.put(RequestType.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+    }
+    return new WorkloadMix(weights);
+  }
+
+  public RequestType next(Random random) {
+    int roll = random.nextInt(totalWeight);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (roll < cumulativeWeights[i]) {
+        return types[i];
+      }
+    }
+    throw new IllegalStateException("Unreachable");
+  }
+}
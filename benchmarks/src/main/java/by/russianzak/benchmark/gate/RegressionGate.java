@@ -0,0 +1,194 @@
+package by.russianzak.benchmark.gate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result with a committed baseline. A benchmark regresses when its score moved
+ * the wrong way by more than the threshold and the two 99.9% confidence intervals do not overlap,
+ * so noise alone cannot fail the gate. The normalised allocation rate reported by the GC profiler
+ * is checked the same way with its own threshold. Exits with status 1 on a regression, and when a
+ * benchmark of the baseline is missing from the run, so a renamed or removed benchmark needs a
+ * rebaseline rather than passing unchecked.
+ *
+ * <p>Options ({@code --name=value}): {@code baseline}, {@code current}, {@code threshold}
+ * (relative, default 0.10), {@code alloc-threshold} (default 0.10) and {@code rebaseline=true},
+ * which replaces the baseline with the current result instead of comparing.
+ */
+public class RegressionGate {
+
+  private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+  private final double threshold;
+  private final double allocationThreshold;
+
+  public RegressionGate(double threshold, double allocationThreshold) {
+    this.threshold = threshold;
+    this.allocationThreshold = allocationThreshold;
+  }
+
+  public record Score(double value, double error, String unit) {
+    double low() {
+      return value - error;
+    }
+
+    double high() {
+      return value + error;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%.3f +/- %.3f %s", value, error, unit);
+    }
+  }
+
+  public record Comparison(String benchmark, String metric, Score baseline, Score current,
+      double change, boolean regressed) {}
+
+  public static void main(String[] args) throws IOException {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException(String.format("Expected --name=value but got '%s'", arg));
+      }
+      options.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+    Path baseline = Path.of(options.getOrDefault("baseline", "baseline/jmh-baseline.json"));
+    Path current = Path.of(options.getOrDefault("current", "target/jmh-result.json"));
+
+    if (Boolean.parseBoolean(options.getOrDefault("rebaseline", "false"))) {
+      Files.createDirectories(baseline.toAbsolutePath().getParent());
+      Files.copy(current, baseline, StandardCopyOption.REPLACE_EXISTING);
+      System.out.printf("Baseline %s replaced with %s (%d benchmarks)%n", baseline, current,
+          read(current).size());
+      return;
+    }
+    if (!Files.exists(baseline)) {
+      System.err.printf("No baseline at %s; run the gate with -Dgate.rebaseline=true first%n", baseline);
+      System.exit(1);
+    }
+
+    RegressionGate gate = new RegressionGate(
+        Double.parseDouble(options.getOrDefault("threshold", "0.10")),
+        Double.parseDouble(options.getOrDefault("alloc-threshold", "0.10")));
+    Map<String, JsonObject> baselineResults = read(baseline);
+    Map<String, JsonObject> currentResults = read(current);
+    List<Comparison> comparisons = gate.compare(baselineResults, currentResults);
+
+    System.out.println(format(comparisons));
+    currentResults.keySet().stream().filter(key -> !baselineResults.containsKey(key))
+        .forEach(key -> System.out.println("New, not in baseline: " + key));
+    List<String> missing = missing(baselineResults, currentResults);
+    missing.forEach(key -> System.out.println("Missing from this run: " + key));
+
+    long regressions = comparisons.stream().filter(Comparison::regressed).count();
+    if (regressions > 0) {
+      System.out.printf("%d regression(s) beyond %.0f%% (allocation %.0f%%)%n", regressions,
+          gate.threshold * 100, gate.allocationThreshold * 100);
+    }
+    if (!missing.isEmpty()) {
+      System.out.printf("%d baseline benchmark(s) missing from this run; rebaseline if they were "
+          + "renamed or removed%n", missing.size());
+    }
+    if (regressions > 0 || !missing.isEmpty()) {
+      System.exit(1);
+    }
+    System.out.println("No regressions");
+  }
+
+  public List<Comparison> compare(Map<String, JsonObject> baseline, Map<String, JsonObject> current) {
+    List<Comparison> comparisons = new ArrayList<>();
+    for (Map.Entry<String, JsonObject> entry : current.entrySet()) {
+      JsonObject before = baseline.get(entry.getKey());
+      if (before == null) {
+        continue;
+      }
+      JsonObject after = entry.getValue();
+      boolean higherIsBetter = "thrpt".equals(after.get("mode").getAsString());
+      comparisons.add(compare(entry.getKey(), "score", score(before.getAsJsonObject("primaryMetric")),
+          score(after.getAsJsonObject("primaryMetric")), higherIsBetter, threshold));
+
+      JsonObject allocationBefore = secondary(before, ALLOCATION_METRIC);
+      JsonObject allocationAfter = secondary(after, ALLOCATION_METRIC);
+      if (allocationBefore != null && allocationAfter != null) {
+        comparisons.add(compare(entry.getKey(), ALLOCATION_METRIC, score(allocationBefore),
+            score(allocationAfter), false, allocationThreshold));
+      }
+    }
+    return comparisons;
+  }
+
+  /** Baseline benchmarks the current run did not produce. */
+  public static List<String> missing(Map<String, JsonObject> baseline, Map<String, JsonObject> current) {
+    return baseline.keySet().stream().filter(key -> !current.containsKey(key)).toList();
+  }
+
+  private static Comparison compare(String benchmark, String metric, Score baseline, Score current,
+      boolean higherIsBetter, double threshold) {
+    double change = baseline.value() == 0 ? 0 : (current.value() - baseline.value()) / baseline.value();
+    double worsening = higherIsBetter ? -change : change;
+    boolean separated = higherIsBetter ? current.high() < baseline.low() : current.low() > baseline.high();
+    return new Comparison(benchmark, metric, baseline, current, change, worsening > threshold && separated);
+  }
+
+  /** Results keyed by benchmark name, parameters and mode. */
+  public static Map<String, JsonObject> read(Path file) throws IOException {
+    JsonArray results = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8))
+        .getAsJsonArray();
+    Map<String, JsonObject> byKey = new LinkedHashMap<>();
+    for (JsonElement element : results) {
+      JsonObject result = element.getAsJsonObject();
+      StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+      if (result.has("params")) {
+        Map<String, String> params = new TreeMap<>();
+        result.getAsJsonObject("params").entrySet()
+            .forEach(param -> params.put(param.getKey(), param.getValue().getAsString()));
+        key.append(params);
+      }
+      key.append(' ').append(result.get("mode").getAsString());
+      byKey.put(key.toString(), result);
+    }
+    return byKey;
+  }
+
+  private static JsonObject secondary(JsonObject result, String metric) {
+    JsonObject secondaries = result.getAsJsonObject("secondaryMetrics");
+    return secondaries == null || !secondaries.has(metric) ? null : secondaries.getAsJsonObject(metric);
+  }
+
+  /** A missing or non-numeric error, such as JMH's "NaN" for a single fork, counts as none. */
+  private static Score score(JsonObject metric) {
+    JsonElement scoreError = metric.get("scoreError");
+    double error = scoreError != null && scoreError.isJsonPrimitive()
+        && scoreError.getAsJsonPrimitive().isNumber() ? scoreError.getAsDouble() : 0;
+    return new Score(metric.get("score").getAsDouble(), Double.isNaN(error) ? 0 : error,
+        metric.get("scoreUnit").getAsString());
+  }
+
+  static String format(List<Comparison> comparisons) {
+    StringBuilder table = new StringBuilder();
+    table.append(String.format("%-70s %-20s %30s %30s %9s%n", "Benchmark", "Metric", "Baseline",
+        "Current", "Change"));
+    for (Comparison comparison : comparisons) {
+      String name = comparison.benchmark().replace("by.russianzak.benchmark.", "");
+      table.append(String.format("%-70s %-20s %30s %30s %+8.1f%%%s%n", name, comparison.metric(),
+          comparison.baseline(), comparison.current(), comparison.change() * 100,
+          comparison.regressed() ? "  REGRESSION" : ""));
+    }
+    return table.toString();
+  }
+}
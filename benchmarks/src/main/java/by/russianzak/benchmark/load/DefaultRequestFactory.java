@@ -0,0 +1,91 @@
+package by.russianzak.benchmark.load;
+
+import by.russianzak.benchmark.e2e.RequestType;
+import by.russianzak.dataset.DatasetGenerator;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import com.google.gson.JsonParser;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Payloads for a dataset loaded from {@link DatasetGenerator} with the same spec: reads hit seeded ids,
+ * creates go to random existing streets and deletes only remove houses this generator created, so
+ * the dataset stays stable across runs.
+ */
+public class DefaultRequestFactory implements RequestFactory {
+
+  private final DatasetGenerator dataset;
+  private final String runId = Long.toString(System.currentTimeMillis(), 36);
+  private final AtomicLong created = new AtomicLong();
+  private final ConcurrentLinkedDeque<Long> createdHouses = new ConcurrentLinkedDeque<>();
+
+  public DefaultRequestFactory(DatasetGenerator dataset) {
+    this.dataset = dataset;
+  }
+
+  @Override
+  public HttpRequest create(RequestType type, URI baseUri, Random random) {
+    int streets = dataset.getSpec().getStreets();
+    int houses = (int) dataset.getSpec().getHouses();
+    switch (type) {
+      case GET_HOUSE:
+        return get(baseUri, "/house?id=" + (1 + random.nextInt(houses)));
+      case GET_STREET:
+        return get(baseUri, "/street?id=" + (1 + random.nextInt(streets)));
+      case GET_ROAD_SURFACE:
+        return get(baseUri, "/road-surface?id="
+            + (1 + random.nextInt(TypeOfRoadSurface.values().length)));
+      case UPDATE_HOUSE: {
+        long house = 1 + random.nextInt(houses);
+        return send(baseUri, "PUT", "/house?id=" + house, houseJson(dataset.houseNumber(house),
+            dataset.streetOfHouse(house), random));
+      }
+      case DELETE_HOUSE: {
+        Long house = createdHouses.pollFirst();
+        if (house != null) {
+          return send(baseUri, "DELETE", "/house?id=" + house, null);
+        }
+        return create(RequestType.CREATE_HOUSE, baseUri, random);
+      }
+      case CREATE_HOUSE:
+      default:
+        return send(baseUri, "POST", "/house", houseJson("lg" + runId + "-" + created.incrementAndGet(),
+            1 + random.nextInt(streets), random));
+    }
+  }
+
+  @Override
+  public void onResponse(RequestType type, HttpResponse<String> response) {
+    if (response.statusCode() == 201 && "POST".equals(response.request().method())) {
+      createdHouses.add(JsonParser.parseString(response.body()).getAsJsonObject().get("id").getAsLong());
+    }
+  }
+
+  private String houseJson(String houseNumber, long street, Random random) {
+    return String.format(Locale.ROOT, "{\"houseNumber\":\"%s\",\"buildDate\":\"01-01-1990\","
+            + "\"numFloors\":%d,\"type\":\"RESIDENTIAL\",\"streetName\":\"%s\","
+            + "\"streetPostalCode\":%d}", houseNumber, 1 + random.nextInt(20),
+        DatasetGenerator.streetName(street), DatasetGenerator.postalCode(street));
+  }
+
+  private static HttpRequest get(URI baseUri, String path) {
+    return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(30)).GET().build();
+  }
+
+  private static HttpRequest send(URI baseUri, String method, String path, String body) {
+    return HttpRequest.newBuilder(baseUri.resolve(path))
+        .timeout(Duration.ofSeconds(30))
+        .header("Content-Type", "application/json")
+        .method(method, body == null ? BodyPublishers.noBody()
+            : BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+        .build();
+  }
+}
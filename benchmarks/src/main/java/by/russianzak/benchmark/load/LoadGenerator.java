@@ -0,0 +1,288 @@
+package by.russianzak.benchmark.load;
+
+import by.russianzak.benchmark.e2e.RequestType;
+import by.russianzak.benchmark.e2e.WorkloadMix;
+import by.russianzak.dataset.DatasetGenerator;
+import by.russianzak.dataset.DatasetSpec;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-loop load generator: requests are scheduled at a fixed arrival rate regardless of how fast
+ * the service answers, and latency is measured from each request's intended start time, so a
+ * stalled server shows up in the tail instead of silently lowering the offered load (coordinated
+ * omission). Service time from the actual send is recorded alongside for comparison.
+ *
+ * <p>Options ({@code --name=value}): {@code target} (base URL), {@code rate} (requests/s),
+ * {@code warmup-seconds}, {@code duration-seconds}, {@code mix}, {@code seed},
+ * {@code max-in-flight}, {@code request-factory} (class name of a {@link RequestFactory} with a
+ * public no-arg constructor), {@code streets}, {@code houses}, {@code zipf} and
+ * {@code dataset-seed} describing the loaded dataset for the default factory, {@code result} (output file prefix). Each run writes {@code <result>.json} and one
+ * {@code <result>.<TYPE>.hgrm} percentile distribution per request type.
+ */
+public class LoadGenerator {
+
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+  private static final String DEFAULT_MIX = "GET_HOUSE=50,GET_STREET=20,GET_ROAD_SURFACE=5,"
+      + "CREATE_HOUSE=10,UPDATE_HOUSE=10,DELETE_HOUSE=5";
+
+  private final URI baseUri;
+  private final HttpClient client;
+  private final ExecutorService executor;
+  private final WorkloadMix mix;
+  private final RequestFactory requestFactory;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+  private final Random random;
+
+  public LoadGenerator(URI baseUri, WorkloadMix mix, RequestFactory requestFactory, int maxInFlight,
+      long seed) {
+    this.baseUri = baseUri;
+    this.executor = newExecutor();
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(executor)
+        .build();
+    this.mix = mix;
+    this.requestFactory = requestFactory;
+    this.maxInFlight = maxInFlight;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.random = new Random(seed);
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parseOptions(args);
+    URI target = URI.create(options.getOrDefault("target", "http://localhost:8080"));
+    double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+    int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "10"));
+    int durationSeconds = Integer.parseInt(options.getOrDefault("duration-seconds", "60"));
+    String result = options.getOrDefault("result", "target/load-" + Instant.now().getEpochSecond());
+    LoadGenerator generator = new LoadGenerator(target,
+        WorkloadMix.parse(options.getOrDefault("mix", DEFAULT_MIX)), requestFactory(options),
+        Integer.parseInt(options.getOrDefault("max-in-flight", "10000")),
+        Long.parseLong(options.getOrDefault("seed", "42")));
+    try {
+      if (warmupSeconds > 0) {
+        generator.run(rate, warmupSeconds);
+      }
+      Run run = generator.run(rate, durationSeconds);
+      run.print(System.out);
+      run.write(result, options);
+    } finally {
+      generator.executor.shutdownNow();
+    }
+  }
+
+  public Run run(double ratePerSecond, int seconds) throws InterruptedException {
+    Run run = new Run(ratePerSecond, seconds);
+    long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+    long start = System.nanoTime();
+    long total = (long) (ratePerSecond * seconds);
+    for (long i = 0; i < total; i++) {
+      long intended = start + i * intervalNanos;
+      long wait;
+      while ((wait = intended - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      RequestType type = mix.next(random);
+      HttpRequest request = requestFactory.create(type, baseUri, random);
+      TypeStats stats = run.stats(type);
+      if (!inFlight.tryAcquire()) {
+        stats.skipped.increment();
+        continue;
+      }
+      executor.execute(() -> send(type, request, intended, stats));
+    }
+    // wait for the stragglers before closing the measurement window
+    inFlight.acquire(maxInFlight);
+    inFlight.release(maxInFlight);
+    run.finish(System.nanoTime() - start);
+    return run;
+  }
+
+  private void send(RequestType type, HttpRequest request, long intendedStart, TypeStats stats) {
+    long actualStart = System.nanoTime();
+    try {
+      HttpResponse<String> response = client.send(request, BodyHandlers.ofString());
+      long end = System.nanoTime();
+      stats.record(end - intendedStart, end - actualStart);
+      if (response.statusCode() >= 400) {
+        stats.errors.increment();
+      }
+      requestFactory.onResponse(type, response);
+    } catch (IOException e) {
+      long end = System.nanoTime();
+      stats.record(end - intendedStart, end - actualStart);
+      stats.errors.increment();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      inFlight.release();
+    }
+  }
+
+  static final class TypeStats {
+    private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    void record(long responseNanos, long serviceNanos) {
+      responseTime.recordValue(Math.min(responseNanos, HIGHEST_TRACKABLE_NANOS));
+      serviceTime.recordValue(Math.min(serviceNanos, HIGHEST_TRACKABLE_NANOS));
+    }
+  }
+
+  public static final class Run {
+    private final double targetRate;
+    private final int seconds;
+    private final Map<RequestType, TypeStats> stats = new EnumMap<>(RequestType.class);
+    private long elapsedNanos;
+
+    private Run(double targetRate, int seconds) {
+      this.targetRate = targetRate;
+      this.seconds = seconds;
+    }
+
+    private TypeStats stats(RequestType type) {
+      return stats.computeIfAbsent(type, key -> new TypeStats());
+    }
+
+    private void finish(long elapsedNanos) {
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public void print(PrintStream out) {
+      out.printf(Locale.ROOT, "target %.1f req/s for %ds, finished in %.1fs%n", targetRate, seconds,
+          elapsedNanos / 1e9);
+      out.printf(Locale.ROOT, "%-18s %9s %9s %8s %9s %9s %9s %9s %9s%n", "type", "requests",
+          "req/s", "errors", "skipped", "p50 ms", "p99 ms", "p999 ms", "svc p99");
+      stats.forEach((type, typeStats) -> {
+        Histogram latency = typeStats.responseTime;
+        out.printf(Locale.ROOT, "%-18s %9d %9.1f %8d %9d %9.2f %9.2f %9.2f %9.2f%n", type,
+            latency.getTotalCount(), latency.getTotalCount() / (elapsedNanos / 1e9),
+            typeStats.errors.sum(), typeStats.skipped.sum(), millis(latency.getValueAtPercentile(50)),
+            millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+            millis(typeStats.serviceTime.getValueAtPercentile(99)));
+      });
+    }
+
+    public void write(String prefix, Map<String, String> options) throws IOException {
+      Path json = Path.of(prefix + ".json");
+      if (json.getParent() != null) {
+        Files.createDirectories(json.getParent());
+      }
+      Map<String, Object> report = new LinkedHashMap<>();
+      report.put("options", options);
+      report.put("targetRate", targetRate);
+      report.put("durationSeconds", seconds);
+      report.put("elapsedSeconds", elapsedNanos / 1e9);
+      Map<String, Object> types = new LinkedHashMap<>();
+      for (Map.Entry<RequestType, TypeStats> entry : stats.entrySet()) {
+        TypeStats typeStats = entry.getValue();
+        Map<String, Object> type = new LinkedHashMap<>();
+        type.put("requests", typeStats.responseTime.getTotalCount());
+        type.put("throughput", typeStats.responseTime.getTotalCount() / (elapsedNanos / 1e9));
+        type.put("errors", typeStats.errors.sum());
+        type.put("skipped", typeStats.skipped.sum());
+        type.put("responseTimeMillis", percentiles(typeStats.responseTime));
+        type.put("serviceTimeMillis", percentiles(typeStats.serviceTime));
+        types.put(entry.getKey().name(), type);
+        try (PrintStream out = new PrintStream(
+            Files.newOutputStream(Path.of(prefix + "." + entry.getKey().name() + ".hgrm")), false,
+            StandardCharsets.UTF_8)) {
+          typeStats.responseTime.outputPercentileDistribution(out, 1_000_000.0);
+        }
+      }
+      report.put("types", types);
+      Gson gson = new GsonBuilder().setPrettyPrinting().create();
+      try (Writer writer = Files.newBufferedWriter(json, StandardCharsets.UTF_8)) {
+        gson.toJson(report, writer);
+      }
+      System.out.printf("Results written to %s%n", json.toAbsolutePath());
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+      Map<String, Double> percentiles = new LinkedHashMap<>();
+      for (double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+        percentiles.put("p" + Double.toString(percentile).replace(".0", ""),
+            millis(histogram.getValueAtPercentile(percentile)));
+      }
+      percentiles.put("max", millis(histogram.getMaxValue()));
+      return percentiles;
+    }
+  }
+
+  /**
+   * One virtual thread per request when the runtime has them, so blocking sends never limit the
+   * arrival rate; otherwise an unbounded cached pool of daemon threads.
+   */
+  static ExecutorService newExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "load-generator");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  private static RequestFactory requestFactory(Map<String, String> options)
+      throws ReflectiveOperationException {
+    String className = options.get("request-factory");
+    if (className != null) {
+      return (RequestFactory) Class.forName(className).getConstructor().newInstance();
+    }
+    return new DefaultRequestFactory(new DatasetGenerator(DatasetSpec.builder()
+        .setStreets(Integer.parseInt(options.getOrDefault("streets", "1000")))
+        .setHouses(Long.parseLong(options.getOrDefault("houses", "20000")))
+        .setZipfExponent(Double.parseDouble(options.getOrDefault("zipf", "1.1")))
+        .setSeed(Long.parseLong(options.getOrDefault("dataset-seed", "42")))
+        .build()));
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  private static Map<String, String> parseOptions(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException(String.format("Expected --name=value but got '%s'", arg));
+      }
+      options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+    }
+    return options;
+  }
+}
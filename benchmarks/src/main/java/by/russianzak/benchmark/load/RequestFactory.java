@@ -0,0 +1,19 @@
+package by.russianzak.benchmark.load;
+
+import by.russianzak.benchmark.e2e.RequestType;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+
+/**
+ * Builds the request for each scheduled arrival. Implementations are called from the scheduler
+ * thread only, but {@link #onResponse} runs concurrently on the sending threads.
+ */
+public interface RequestFactory {
+
+  HttpRequest create(RequestType type, URI baseUri, Random random);
+
+  default void onResponse(RequestType type, HttpResponse<String> response) {
+  }
+}
@@ -0,0 +1,111 @@
+package by.russianzak.benchmark.gate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.benchmark.gate.RegressionGate.Comparison;
+import com.google.gson.JsonObject;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RegressionGateTest {
+
+  private static final String BENCHMARK = "by.russianzak.benchmark.ServletBenchmark.getById";
+
+  private final RegressionGate gate = new RegressionGate(0.10, 0.05);
+
+  @Test
+  void compare_ThroughputDropped_Regresses() {
+    assertTrue(score(compare(result("thrpt", 100, 1), result("thrpt", 80, 1))).regressed());
+    assertFalse(score(compare(result("thrpt", 100, 1), result("thrpt", 120, 1))).regressed());
+  }
+
+  @Test
+  void compare_AverageTimeRose_Regresses() {
+    assertTrue(score(compare(result("avgt", 100, 1), result("avgt", 120, 1))).regressed());
+    assertFalse(score(compare(result("avgt", 100, 1), result("avgt", 80, 1))).regressed());
+  }
+
+  @Test
+  void compare_ConfidenceIntervalsOverlap_NotRegressed() {
+    Comparison comparison = score(compare(result("thrpt", 100, 15), result("thrpt", 80, 10)));
+
+    assertEquals(-0.2, comparison.change(), 1e-9);
+    assertFalse(comparison.regressed());
+  }
+
+  @Test
+  void compare_ScoreErrorNaNOrAbsent_TreatedAsExact() {
+    JsonObject baseline = result("thrpt", 100, 0);
+    baseline.getAsJsonObject("primaryMetric").addProperty("scoreError", "NaN");
+    JsonObject current = result("thrpt", 89, 0);
+    current.getAsJsonObject("primaryMetric").remove("scoreError");
+
+    Comparison comparison = score(compare(baseline, current));
+
+    assertEquals(0, comparison.baseline().error());
+    assertEquals(0, comparison.current().error());
+    assertTrue(comparison.regressed());
+  }
+
+  @Test
+  void compare_AllocationRose_CheckedAgainstAllocationThreshold() {
+    List<Comparison> beyond = compare(withAllocation(result("avgt", 100, 1), 1000),
+        withAllocation(result("avgt", 100, 1), 1070));
+    List<Comparison> within = compare(withAllocation(result("avgt", 100, 1), 1000),
+        withAllocation(result("avgt", 100, 1), 1040));
+
+    assertEquals(2, beyond.size());
+    assertFalse(beyond.get(0).regressed());
+    assertEquals("gc.alloc.rate.norm", beyond.get(1).metric());
+    assertTrue(beyond.get(1).regressed());
+    assertFalse(within.get(1).regressed());
+  }
+
+  @Test
+  void compare_NotInBaseline_Skipped() {
+    assertEquals(List.of(), gate.compare(Map.of(), Map.of(BENCHMARK, result("thrpt", 100, 1))));
+  }
+
+  @Test
+  void missing_BaselineBenchmarkAbsentFromRun_Listed() {
+    Map<String, JsonObject> baseline = Map.of(BENCHMARK, result("thrpt", 100, 1));
+
+    assertEquals(List.of(BENCHMARK), RegressionGate.missing(baseline, Map.of()));
+    assertEquals(List.of(), RegressionGate.missing(baseline, baseline));
+  }
+
+  private List<Comparison> compare(JsonObject baseline, JsonObject current) {
+    return gate.compare(Map.of(BENCHMARK, baseline), Map.of(BENCHMARK, current));
+  }
+
+  private static Comparison score(List<Comparison> comparisons) {
+    assertEquals("score", comparisons.get(0).metric());
+    return comparisons.get(0);
+  }
+
+  private static JsonObject result(String mode, double score, double error) {
+    JsonObject result = new JsonObject();
+    result.addProperty("benchmark", BENCHMARK);
+    result.addProperty("mode", mode);
+    result.add("primaryMetric", metric(score, error, "thrpt".equals(mode) ? "ops/s" : "us/op"));
+    return result;
+  }
+
+  private static JsonObject withAllocation(JsonObject result, double bytes) {
+    JsonObject secondaries = new JsonObject();
+    secondaries.add("gc.alloc.rate.norm", metric(bytes, 0, "B/op"));
+    result.add("secondaryMetrics", secondaries);
+    return result;
+  }
+
+  private static JsonObject metric(double score, double error, String unit) {
+    JsonObject metric = new JsonObject();
+    metric.addProperty("score", score);
+    metric.addProperty("scoreError", error);
+    metric.addProperty("scoreUnit", unit);
+    return metric;
+  }
+}
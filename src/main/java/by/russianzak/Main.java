@@ -1,12 +1,38 @@
 package by.russianzak;
 
+import by.russianzak.config.ApplicationConfig;
 import by.russianzak.db.ConnectionManager;
+import by.russianzak.db.JdbcEventListener;
 import by.russianzak.db.impl.ConnectionManagerImpl;
+import by.russianzak.db.impl.LatencyDistribution;
+import by.russianzak.db.impl.LatencyInjectingConnectionManager;
+import by.russianzak.db.impl.ListeningConnectionManager;
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.jfr.JfrJdbcListener;
+import by.russianzak.jfr.JfrRecorder;
+import by.russianzak.jfr.JfrRepositoryProxy;
+import by.russianzak.logging.RingBufferAppender;
+import by.russianzak.metrics.HikariPoolMetrics;
+import by.russianzak.metrics.MetricsRegistry;
+import by.russianzak.metrics.MetricsSampler;
+import by.russianzak.metrics.RequestTimingListener;
+import by.russianzak.metrics.SaturationMonitor;
+import by.russianzak.metrics.ThreadAllocation;
+import by.russianzak.metrics.TomcatExecutorMetrics;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.StreetEntity;
 import by.russianzak.repository.HouseEntityRepository;
 import by.russianzak.repository.RoadSurfaceEntityRepository;
 import by.russianzak.repository.StreetEntityRepository;
+import by.russianzak.repository.batching.BatchingHouseEntityRepository;
+import by.russianzak.repository.batching.BatchingRoadSurfaceEntityRepository;
+import by.russianzak.repository.batching.BatchingStreetEntityRepository;
+import by.russianzak.repository.batching.FindByIdBatcher;
+import by.russianzak.repository.impl.GroupCommitHouseEntityRepository;
 import by.russianzak.repository.impl.HouseEntityRepositoryImpl;
 import by.russianzak.repository.impl.RoadSurfaceEntityRepositoryImpl;
+import by.russianzak.repository.impl.StreetDocuments;
 import by.russianzak.repository.impl.StreetEntityRepositoryImpl;
 import by.russianzak.repository.mapper.HouseResultSetMapper;
 import by.russianzak.repository.mapper.HouseResultSetMapperImpl;
@@ -14,64 +40,262 @@ import by.russianzak.repository.mapper.RoadSurfaceResultSetMapper;
 import by.russianzak.repository.mapper.RoadSurfaceResultSetMapperImpl;
 import by.russianzak.repository.mapper.StreetResultSetMapper;
 import by.russianzak.repository.mapper.StreetResultSetMapperImpl;
+import by.russianzak.repository.memory.InMemoryHouseEntityRepository;
+import by.russianzak.repository.memory.InMemoryRoadSurfaceEntityRepository;
+import by.russianzak.repository.memory.InMemoryStore;
+import by.russianzak.repository.memory.InMemoryStreetEntityRepository;
+import by.russianzak.repository.sql.PostgreSqlDialect;
+import by.russianzak.repository.sql.SqlDialect;
 import by.russianzak.service.HouseEntityService;
 import by.russianzak.service.RoadSurfaceEntityService;
 import by.russianzak.service.StreetEntityService;
+import by.russianzak.service.coalescing.CoalescingHouseEntityService;
+import by.russianzak.service.coalescing.CoalescingRoadSurfaceEntityService;
+import by.russianzak.service.coalescing.CoalescingStreetEntityService;
+import by.russianzak.service.coalescing.ReadCoalescer;
 import by.russianzak.service.impl.HouseEntityServiceImpl;
 import by.russianzak.service.impl.RoadSurfaceEntityServiceImpl;
 import by.russianzak.service.impl.StreetEntityServiceImpl;
 import by.russianzak.servlet.HouseEntityServlet;
+import by.russianzak.servlet.JfrServlet;
+import by.russianzak.servlet.MetricsServlet;
 import by.russianzak.servlet.RoadSurfaceEntityServlet;
 import by.russianzak.servlet.StreetEntityServlet;
+import by.russianzak.servlet.WriteStatusServlet;
+import by.russianzak.servlet.dto.RequestHouseEntityDto;
+import by.russianzak.servlet.dto.RequestRoadSurfaceEntityDto;
+import by.russianzak.servlet.dto.RequestStreetEntityDto;
+import by.russianzak.servlet.filter.AccessLogFilter;
+import by.russianzak.servlet.filter.AdmissionControlFilter;
+import by.russianzak.servlet.filter.AllocationAccountingFilter;
+import by.russianzak.servlet.filter.JfrRequestFilter;
+import by.russianzak.servlet.filter.ServerTimingFilter;
+import by.russianzak.servlet.filter.TracingFilter;
 import by.russianzak.servlet.mapper.HouseEntityDtoMapper;
 import by.russianzak.servlet.mapper.HouseEntityDtoMapperImpl;
 import by.russianzak.servlet.mapper.RoadSurfaceEntityDtoMapper;
 import by.russianzak.servlet.mapper.RoadSurfaceEntityDtoMapperImpl;
 import by.russianzak.servlet.mapper.StreetEntityDtoMapper;
 import by.russianzak.servlet.mapper.StreetEntityDtoMapperImpl;
+import by.russianzak.tracing.NdjsonFileSpanExporter;
+import by.russianzak.tracing.Tracer;
+import by.russianzak.tracing.TracingJdbcListener;
+import by.russianzak.tracing.TracingProxy;
+import by.russianzak.writebehind.JournalRecord;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import by.russianzak.writebehind.WriteBehindQueue;
+import by.russianzak.writebehind.WriteJournal;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import jakarta.servlet.Filter;
 import jakarta.servlet.http.HttpServlet;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.apache.catalina.Context;
 import org.apache.catalina.LifecycleException;
 import org.apache.catalina.startup.Tomcat;
+import org.apache.log4j.Appender;
+import org.apache.log4j.LogManager;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class Main {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
+
+  private static final String[] ENTITY_URL_PATTERNS = {"/house/*", "/street/*", "/road-surface/*"};
+
   public static void main(String[] args) throws LifecycleException {
+    ApplicationConfig config = ApplicationConfig.load();
+    boolean inMemory = "memory".equals(config.getString("repository.backend", "jdbc"));
+    Tomcat tomcat = start(config, inMemory ? null : new ConnectionManagerImpl());
+    tomcat.getServer().await();
+  }
+
+  /**
+   * Wires the application against the given pool and starts Tomcat on {@code server.port}
+   * ({@code 0} picks an ephemeral port, see {@code tomcat.getConnector().getLocalPort()}). Without
+   * a pool ({@code null}, as {@link #main} passes for {@code repository.backend=memory}) the
+   * repositories keep their entities in memory.
+   */
+  public static Tomcat start(ApplicationConfig config, ConnectionManagerImpl pooledConnectionManager)
+      throws LifecycleException {
     Gson gson = new GsonBuilder()
         .setDateFormat("dd-MM-yyyy")
         .create();
-    ConnectionManager connectionManager = new ConnectionManagerImpl();
-    HouseResultSetMapper houseResultSetMapper = new HouseResultSetMapperImpl();
-    StreetResultSetMapper streetResultSetMapper = new StreetResultSetMapperImpl();
-    RoadSurfaceResultSetMapper roadSurfaceResultSetMapper = new RoadSurfaceResultSetMapperImpl();
-    HouseEntityRepository houseEntityRepository = new HouseEntityRepositoryImpl(houseResultSetMapper, streetResultSetMapper,
-        connectionManager);
-    StreetEntityRepository streetEntityRepository = new StreetEntityRepositoryImpl(houseResultSetMapper, streetResultSetMapper, roadSurfaceResultSetMapper,
-        connectionManager);
-    RoadSurfaceEntityRepository roadSurfaceEntityRepository = new RoadSurfaceEntityRepositoryImpl(roadSurfaceResultSetMapper, streetResultSetMapper,
-        connectionManager);
 
-    HouseEntityService houseEntityService = new HouseEntityServiceImpl(houseEntityRepository);
-    StreetEntityService streetEntityService = new StreetEntityServiceImpl(streetEntityRepository);
-    RoadSurfaceEntityService roadSurfaceEntityService = new RoadSurfaceEntityServiceImpl(roadSurfaceEntityRepository);
+    MetricsRegistry metricsRegistry = new MetricsRegistry();
+    if (pooledConnectionManager != null) {
+      new HikariPoolMetrics(metricsRegistry).bind(pooledConnectionManager.getDataSource());
+    }
+    SaturationMonitor saturationMonitor = new SaturationMonitor(
+        config.getDouble("metrics.saturation.alpha", 0.3),
+        config.getDouble("metrics.saturation.threshold", 0.9));
+    MetricsSampler metricsSampler = new MetricsSampler(metricsRegistry, saturationMonitor);
+    bindLoggingMetrics(metricsRegistry);
+    Runtime.getRuntime().addShutdownHook(new Thread(LogManager::shutdown));
 
+    List<JdbcEventListener> jdbcEventListeners = new ArrayList<>();
+    jdbcEventListeners.add(new RequestTimingListener());
+    jdbcEventListeners.add(new JfrJdbcListener());
+
+    Tracer tracer = null;
+    if (config.getBoolean("tracing.enabled", false)) {
+      NdjsonFileSpanExporter spanExporter = new NdjsonFileSpanExporter(
+          Path.of(config.getString("tracing.export.directory", "traces")),
+          config.getInt("tracing.export.buffer-capacity", 8192),
+          config.getLong("tracing.export.max-file-bytes", 64L * 1024 * 1024),
+          config.getInt("tracing.export.max-files", 5), new Gson());
+      metricsRegistry.gauge("tracing.dropped", spanExporter::getDropped);
+      metricsRegistry.gauge("tracing.queued", spanExporter::getQueued);
+      Runtime.getRuntime().addShutdownHook(new Thread(spanExporter::close));
+      tracer = new Tracer(spanExporter, config.getDouble("tracing.sample-rate", 1.0));
+      jdbcEventListeners.add(new TracingJdbcListener(tracer));
+    }
     HouseEntityDtoMapper houseEntityDtoMapper = new HouseEntityDtoMapperImpl();
     StreetEntityDtoMapper streetEntityDtoMapper = new StreetEntityDtoMapperImpl();
     RoadSurfaceEntityDtoMapper roadSurfaceEntityDtoMapper = new RoadSurfaceEntityDtoMapperImpl();
 
+    HouseEntityRepository houseEntityRepository;
+    StreetEntityRepository streetEntityRepository;
+    RoadSurfaceEntityRepository roadSurfaceEntityRepository;
+    // main() already chose the backend when it decided whether to open a pool
+    boolean inMemory = pooledConnectionManager == null;
+    if (inMemory) {
+      InMemoryStore store = openInMemoryStore(config, metricsRegistry);
+      houseEntityRepository = new InMemoryHouseEntityRepository(store);
+      streetEntityRepository = new InMemoryStreetEntityRepository(store);
+      roadSurfaceEntityRepository = new InMemoryRoadSurfaceEntityRepository(store);
+    } else {
+      ConnectionManager databaseConnectionManager = pooledConnectionManager;
+      if (config.getBoolean("latency-injection.enabled", false)) {
+        LatencyInjectingConnectionManager latencyInjectingConnectionManager = LatencyInjectingConnectionManager.builder()
+            .setDelegate(pooledConnectionManager)
+            .setRoundTripLatency(LatencyDistribution.parse(config.getString("latency-injection.round-trip", "none")))
+            .setStatementLatency(LatencyDistribution.parse(config.getString("latency-injection.statement", "none")))
+            .setFailureRate(config.getDouble("latency-injection.failure-rate", 0.0))
+            .build();
+        metricsRegistry.gauge("latency-injection.round-trips", latencyInjectingConnectionManager::getRoundTrips);
+        metricsRegistry.gauge("latency-injection.failures", latencyInjectingConnectionManager::getFailures);
+        databaseConnectionManager = latencyInjectingConnectionManager;
+      }
+      ConnectionManager connectionManager = new ListeningConnectionManager(databaseConnectionManager,
+          jdbcEventListeners);
+
+      HouseResultSetMapper houseResultSetMapper = new HouseResultSetMapperImpl();
+      StreetResultSetMapper streetResultSetMapper = new StreetResultSetMapperImpl();
+      RoadSurfaceResultSetMapper roadSurfaceResultSetMapper = new RoadSurfaceResultSetMapperImpl();
+      SqlDialect dialect = SqlDialect.forName(config.getString("repository.dialect", PostgreSqlDialect.NAME));
+      StreetDocuments streetDocuments = StreetDocuments.disabled();
+      if (config.getBoolean("repository.street-documents.enabled", false)) {
+        // rendered like the response of GET /street?id=, so the servlet can send it as stored
+        streetDocuments = new StreetDocuments(houseResultSetMapper, streetResultSetMapper,
+            roadSurfaceResultSetMapper, dialect, street -> gson.toJson(streetEntityDtoMapper.map(street)));
+        try {
+          streetDocuments.rebuild(connectionManager);
+        } catch (RepositoryException e) {
+          throw new IllegalStateException("Failed to rebuild street documents", e);
+        }
+      }
+      HouseEntityRepositoryImpl houseEntityRepositoryImpl = new HouseEntityRepositoryImpl(houseResultSetMapper,
+          streetResultSetMapper, connectionManager, dialect, streetDocuments);
+      houseEntityRepository = houseEntityRepositoryImpl;
+      if (config.getBoolean("repository.group-commit.enabled", false)) {
+        GroupCommitHouseEntityRepository groupCommitRepository = GroupCommitHouseEntityRepository.builder()
+            .setDelegate(houseEntityRepositoryImpl)
+            .setConnectionManager(connectionManager)
+            .setWindowMicros(config.getLong("repository.group-commit.window-micros", 500))
+            .setMaxGroupSize(config.getInt("repository.group-commit.max-group-size", 32))
+            .build();
+        metricsRegistry.gauge("repository.group-commit.groups", groupCommitRepository::getGroups);
+        metricsRegistry.gauge("repository.group-commit.saves", groupCommitRepository::getSaves);
+        metricsRegistry.gauge("repository.group-commit.batching-factor", groupCommitRepository::getBatchingFactor);
+        houseEntityRepository = groupCommitRepository;
+      }
+      streetEntityRepository = new StreetEntityRepositoryImpl(houseResultSetMapper, streetResultSetMapper, roadSurfaceResultSetMapper,
+          connectionManager, dialect, streetDocuments);
+      roadSurfaceEntityRepository = new RoadSurfaceEntityRepositoryImpl(roadSurfaceResultSetMapper, streetResultSetMapper,
+          connectionManager, dialect, streetDocuments);
+    }
+    houseEntityRepository = JfrRepositoryProxy.wrap(HouseEntityRepository.class, houseEntityRepository, "house");
+    streetEntityRepository = JfrRepositoryProxy.wrap(StreetEntityRepository.class, streetEntityRepository, "street");
+    roadSurfaceEntityRepository = JfrRepositoryProxy.wrap(RoadSurfaceEntityRepository.class,
+        roadSurfaceEntityRepository, "road-surface");
+    // the in-memory backend has no round trip to amortise
+    if (config.getBoolean("repository.batching.enabled", false) && !inMemory) {
+      long windowMicros = config.getLong("repository.batching.window-micros", 200);
+      int maxBatchSize = config.getInt("repository.batching.max-batch-size", 64);
+      BatchingHouseEntityRepository batchingHouseRepository =
+          new BatchingHouseEntityRepository(houseEntityRepository, windowMicros, maxBatchSize);
+      BatchingStreetEntityRepository batchingStreetRepository =
+          new BatchingStreetEntityRepository(streetEntityRepository, windowMicros, maxBatchSize);
+      BatchingRoadSurfaceEntityRepository batchingRoadSurfaceRepository =
+          new BatchingRoadSurfaceEntityRepository(roadSurfaceEntityRepository, windowMicros, maxBatchSize);
+      bindBatchingMetrics(metricsRegistry, "house", batchingHouseRepository.getBatcher());
+      bindBatchingMetrics(metricsRegistry, "street", batchingStreetRepository.getBatcher());
+      bindBatchingMetrics(metricsRegistry, "road-surface", batchingRoadSurfaceRepository.getBatcher());
+      houseEntityRepository = batchingHouseRepository;
+      streetEntityRepository = batchingStreetRepository;
+      roadSurfaceEntityRepository = batchingRoadSurfaceRepository;
+    }
+
+    HouseEntityService houseEntityService = new HouseEntityServiceImpl(houseEntityRepository);
+    StreetEntityService streetEntityService = new StreetEntityServiceImpl(streetEntityRepository);
+    RoadSurfaceEntityService roadSurfaceEntityService = new RoadSurfaceEntityServiceImpl(roadSurfaceEntityRepository);
+    if (config.getBoolean("read-coalescing.enabled", true)) {
+      ReadCoalescer readCoalescer = ReadCoalescer.builder()
+          .setTtlMillis(config.getLong("read-coalescing.cache-ttl-ms", 0))
+          .setStaleMillis(config.getLong("read-coalescing.cache-stale-ms", 0))
+          .setTtlJitter(config.getDouble("read-coalescing.cache-ttl-jitter", 0.1))
+          .setMaxEntries(config.getInt("read-coalescing.cache-max-entries", 10_000))
+          .build();
+      metricsRegistry.gauge("read-coalescing.loads", readCoalescer::getLoads);
+      metricsRegistry.gauge("read-coalescing.joined", readCoalescer::getJoined);
+      metricsRegistry.gauge("read-coalescing.hits", readCoalescer::getHits);
+      metricsRegistry.gauge("read-coalescing.stale-hits", readCoalescer::getStaleHits);
+      metricsRegistry.gauge("read-coalescing.size", readCoalescer::getSize);
+      houseEntityService = new CoalescingHouseEntityService(houseEntityService, readCoalescer);
+      streetEntityService = new CoalescingStreetEntityService(streetEntityService, readCoalescer);
+      roadSurfaceEntityService = new CoalescingRoadSurfaceEntityService(roadSurfaceEntityService, readCoalescer);
+    }
+    if (tracer != null) {
+      houseEntityService = TracingProxy.wrap(HouseEntityService.class, houseEntityService, tracer);
+      streetEntityService = TracingProxy.wrap(StreetEntityService.class, streetEntityService, tracer);
+      roadSurfaceEntityService = TracingProxy.wrap(RoadSurfaceEntityService.class,
+          roadSurfaceEntityService, tracer);
+    }
+
+    WriteBehindQueue writeBehindQueue = null;
+    if (config.getBoolean("write-behind.enabled", false)) {
+      writeBehindQueue = openWriteBehindQueue(config, metricsRegistry, gson, houseEntityService,
+          houseEntityDtoMapper, streetEntityService, streetEntityDtoMapper, roadSurfaceEntityService,
+          roadSurfaceEntityDtoMapper);
+    }
+
     HttpServlet houseEntityServlet = new HouseEntityServlet(houseEntityService, houseEntityDtoMapper,
-        gson);
-    HttpServlet streetEntityServlet = new StreetEntityServlet(streetEntityService, streetEntityDtoMapper, gson);
+        gson, writeBehindQueue);
+    HttpServlet streetEntityServlet = new StreetEntityServlet(streetEntityService, streetEntityDtoMapper, gson,
+        writeBehindQueue);
     HttpServlet roadSurfaceEntityServlet = new RoadSurfaceEntityServlet(roadSurfaceEntityService, roadSurfaceEntityDtoMapper,
-        gson);
+        gson, writeBehindQueue);
+    HttpServlet metricsServlet = new MetricsServlet(metricsRegistry, metricsSampler, saturationMonitor, gson);
 
 
     Tomcat tomcat = new Tomcat();
-    tomcat.setPort(8080);
-    tomcat.getConnector();
+    tomcat.setPort(config.getInt("server.port", 8080));
+    new TomcatExecutorMetrics(metricsRegistry).bind(tomcat.getConnector());
 
     Context ctx = tomcat.addContext("", new File(".").getAbsolutePath());
 
@@ -85,9 +309,181 @@ public class Main {
     Tomcat.addServlet(ctx, "road-surface", roadSurfaceEntityServlet);
     ctx.addServletMappingDecoded("/road-surface/*", "road-surface");
 
+    Tomcat.addServlet(ctx, "metrics", metricsServlet);
+    ctx.addServletMappingDecoded("/metrics", "metrics");
+
+    if (writeBehindQueue != null) {
+      Tomcat.addServlet(ctx, "write-status", new WriteStatusServlet(writeBehindQueue, gson));
+      ctx.addServletMappingDecoded(WriteStatusServlet.PATH, "write-status");
+    }
+
+    if (config.getBoolean("jfr.admin.enabled", false)) {
+      JfrRecorder jfrRecorder = new JfrRecorder(
+          Duration.ofSeconds(config.getLong("jfr.admin.max-seconds", 60)),
+          config.getString("jfr.admin.configuration", "profile"));
+      Tomcat.addServlet(ctx, "jfr", new JfrServlet(jfrRecorder, gson));
+      ctx.addServletMappingDecoded("/admin/jfr/*", "jfr");
+    }
+
+    if (config.getBoolean("allocation-accounting.enabled", false) && ThreadAllocation.isSupported()) {
+      addFilter(ctx, "allocation-accounting", new AllocationAccountingFilter(metricsRegistry),
+          ENTITY_URL_PATTERNS);
+    }
+
+    if (tracer != null) {
+      addFilter(ctx, "tracing", new TracingFilter(tracer), ENTITY_URL_PATTERNS);
+    }
+
+    if (config.getBoolean("access-log.enabled", true)) {
+      addFilter(ctx, "access-log", new AccessLogFilter(config.getDouble("access-log.sample-rate", 0.01)),
+          ENTITY_URL_PATTERNS);
+    }
+
+    addFilter(ctx, "jfr", new JfrRequestFilter(), ENTITY_URL_PATTERNS);
+
+    addFilter(ctx, "server-timing", new ServerTimingFilter(
+        config.getBoolean("server-timing.opt-in", true),
+        config.getDouble("server-timing.sample-rate", 0.0)), ENTITY_URL_PATTERNS);
+
+    if (config.getBoolean("admission-control.enabled", false)) {
+      addFilter(ctx, "admission-control", new AdmissionControlFilter(saturationMonitor, metricsRegistry,
+          config.getInt("admission-control.retry-after-seconds", 1), gson), ENTITY_URL_PATTERNS);
+    }
+
+    metricsSampler.start(config.getLong("metrics.sample-interval-ms", 1000));
 
     tomcat.start();
-    tomcat.getServer().await();
+    return tomcat;
+  }
+
+  private static InMemoryStore openInMemoryStore(ApplicationConfig config,
+      MetricsRegistry metricsRegistry) {
+    Path snapshotFile = Path.of(config.getString("repository.memory.snapshot-file",
+        "data/repository.snapshot"));
+    InMemoryStore store;
+    try {
+      store = InMemoryStore.open(snapshotFile, config.getInt("repository.memory.lock-stripes", 64));
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Failed to restore %s", snapshotFile), e);
+    }
+    metricsRegistry.gauge("memory.streets", store::getStreetCount);
+    metricsRegistry.gauge("memory.houses", store::getHouseCount);
+    metricsRegistry.gauge("memory.road-surfaces", store::getRoadSurfaceCount);
+
+    Runnable snapshot = () -> {
+      try {
+        store.snapshot(snapshotFile);
+      } catch (IOException e) {
+        LOGGER.error("Failed to write snapshot {}", snapshotFile, e);
+      }
+    };
+    long interval = config.getLong("repository.memory.snapshot-interval-seconds", 60);
+    if (interval > 0) {
+      ScheduledExecutorService snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "memory-snapshot");
+        thread.setDaemon(true);
+        return thread;
+      });
+      snapshots.scheduleWithFixedDelay(snapshot, interval, interval, TimeUnit.SECONDS);
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(snapshot));
+    return store;
+  }
+
+  /**
+   * Opens the write journal and starts draining it through the services, which replays whatever
+   * a previous run accepted but did not apply.
+   */
+  private static WriteBehindQueue openWriteBehindQueue(ApplicationConfig config,
+      MetricsRegistry metricsRegistry, Gson gson, HouseEntityService houseEntityService,
+      HouseEntityDtoMapper houseEntityDtoMapper, StreetEntityService streetEntityService,
+      StreetEntityDtoMapper streetEntityDtoMapper, RoadSurfaceEntityService roadSurfaceEntityService,
+      RoadSurfaceEntityDtoMapper roadSurfaceEntityDtoMapper) {
+    Path directory = Path.of(config.getString("write-behind.journal.directory", "data/write-journal"));
+    WriteJournal journal;
+    try {
+      journal = WriteJournal.open(directory,
+          config.getInt("write-behind.journal.segment-bytes", 64 * 1024 * 1024),
+          config.getBoolean("write-behind.journal.force-on-append", false));
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Failed to open write journal in %s", directory), e);
+    }
+    WriteBehindQueue writeBehindQueue = WriteBehindQueue.builder()
+        .setJournal(journal)
+        .setApplier(EntityKind.HOUSE, record -> {
+          HouseEntity entity = houseEntityDtoMapper.map(gson.fromJson(record.body(), RequestHouseEntityDto.class));
+          if (isUpdate(record)) {
+            entity.setId(record.targetId());
+            return houseEntityService.update(entity).getId();
+          }
+          return houseEntityService.save(entity).getId();
+        })
+        .setApplier(EntityKind.STREET, record -> {
+          StreetEntity entity = streetEntityDtoMapper.map(gson.fromJson(record.body(), RequestStreetEntityDto.class));
+          if (isUpdate(record)) {
+            entity.setId(record.targetId());
+            return streetEntityService.update(entity).getId();
+          }
+          return streetEntityService.save(entity).getId();
+        })
+        .setApplier(EntityKind.ROAD_SURFACE, record -> {
+          RoadSurfaceEntity entity = roadSurfaceEntityDtoMapper.map(
+              gson.fromJson(record.body(), RequestRoadSurfaceEntityDto.class));
+          if (isUpdate(record)) {
+            entity.setId(record.targetId());
+            return roadSurfaceEntityService.update(entity).getId();
+          }
+          return roadSurfaceEntityService.save(entity).getId();
+        })
+        .setBatchSize(config.getInt("write-behind.batch-size", 256))
+        .setRetryBackoffMillis(config.getLong("write-behind.retry-backoff-ms", 1000))
+        .setMaxAttempts(config.getInt("write-behind.max-attempts", 5))
+        .setStatusCapacity(config.getInt("write-behind.status-capacity", 100_000))
+        .build();
+    metricsRegistry.gauge("write-behind.accepted", writeBehindQueue::getAccepted);
+    metricsRegistry.gauge("write-behind.applied", writeBehindQueue::getApplied);
+    metricsRegistry.gauge("write-behind.failed", writeBehindQueue::getFailed);
+    metricsRegistry.gauge("write-behind.batches", writeBehindQueue::getBatches);
+    metricsRegistry.gauge("write-behind.backlog", writeBehindQueue::getBacklog);
+    metricsRegistry.gauge("write-behind.journal-segments", writeBehindQueue::getJournalSegments);
+    writeBehindQueue.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(writeBehindQueue::close));
+    return writeBehindQueue;
+  }
+
+  private static boolean isUpdate(JournalRecord record) {
+    return record.operation() == Operation.UPDATE;
+  }
+
+  private static void bindBatchingMetrics(MetricsRegistry metricsRegistry, String entity,
+      FindByIdBatcher<?> batcher) {
+    metricsRegistry.gauge("repository.batching." + entity + ".batches", batcher::getBatches);
+    metricsRegistry.gauge("repository.batching." + entity + ".requests", batcher::getRequests);
+  }
+
+  private static void bindLoggingMetrics(MetricsRegistry metricsRegistry) {
+    Enumeration<?> appenders = LogManager.getRootLogger().getAllAppenders();
+    while (appenders.hasMoreElements()) {
+      Appender appender = (Appender) appenders.nextElement();
+      if (appender instanceof RingBufferAppender ringBufferAppender) {
+        metricsRegistry.gauge("logging.dropped", ringBufferAppender::getDropped);
+        metricsRegistry.gauge("logging.queued", ringBufferAppender::getQueued);
+      }
+    }
+  }
+
+  private static void addFilter(Context ctx, String name, Filter filter, String... urlPatterns) {
+    FilterDef filterDef = new FilterDef();
+    filterDef.setFilterName(name);
+    filterDef.setFilter(filter);
+    ctx.addFilterDef(filterDef);
+
+    FilterMap filterMap = new FilterMap();
+    filterMap.setFilterName(name);
+    for (String urlPattern : urlPatterns) {
+      filterMap.addURLPattern(urlPattern);
+    }
+    ctx.addFilterMap(filterMap);
   }
 }
 
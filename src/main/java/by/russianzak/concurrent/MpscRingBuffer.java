@@ -0,0 +1,88 @@
+package by.russianzak.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer single-consumer ring buffer (Vyukov's sequenced slots). Producers
+ * never block: {@link #offer} returns {@code false} when the buffer is full, leaving the overflow
+ * policy to the caller. {@link #poll} and {@link #drain} must only be called from one thread.
+ */
+public class MpscRingBuffer<E> {
+
+  private final Object[] elements;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong producerPosition = new AtomicLong();
+  private volatile long consumerPosition;
+
+  public MpscRingBuffer(int requestedCapacity) {
+    if (requestedCapacity < 2) {
+      throw new IllegalArgumentException("Capacity must be at least 2");
+    }
+    int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+    this.elements = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    this.mask = capacity - 1;
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  public boolean offer(E element) {
+    if (element == null) {
+      throw new NullPointerException("Element cannot be null");
+    }
+    long position = producerPosition.get();
+    while (true) {
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (producerPosition.compareAndSet(position, position + 1)) {
+          elements[index] = element;
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = producerPosition.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = producerPosition.get();
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    long position = consumerPosition;
+    int index = (int) position & mask;
+    if (sequences.get(index) - (position + 1) < 0) {
+      return null;
+    }
+    E element = (E) elements[index];
+    elements[index] = null;
+    sequences.set(index, position + elements.length);
+    consumerPosition = position + 1;
+    return element;
+  }
+
+  public int drain(Consumer<? super E> consumer, int limit) {
+    int drained = 0;
+    E element;
+    while (drained < limit && (element = poll()) != null) {
+      consumer.accept(element);
+      drained++;
+    }
+    return drained;
+  }
+
+  public int size() {
+    long size = producerPosition.get() - consumerPosition;
+    return (int) Math.max(0, Math.min(size, elements.length));
+  }
+
+  public int capacity() {
+    return elements.length;
+  }
+}
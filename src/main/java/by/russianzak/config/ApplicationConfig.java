@@ -0,0 +1,61 @@
+package by.russianzak.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+public class ApplicationConfig {
+
+  private static final String DEFAULT_RESOURCE = "application.properties";
+
+  private final Properties properties;
+
+  public ApplicationConfig(Properties properties) {
+    this.properties = properties;
+  }
+
+  public static ApplicationConfig load() {
+    return load(DEFAULT_RESOURCE);
+  }
+
+  public static ApplicationConfig load(String resource) {
+    Properties properties = new Properties();
+    try (InputStream in = ApplicationConfig.class.getClassLoader().getResourceAsStream(resource)) {
+      if (in != null) {
+        properties.load(in);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Failed to load %s", resource), e);
+    }
+    for (String name : System.getProperties().stringPropertyNames()) {
+      properties.setProperty(name, System.getProperty(name));
+    }
+    return new ApplicationConfig(properties);
+  }
+
+  public String getString(String key, String defaultValue) {
+    String value = properties.getProperty(key);
+    return value == null || value.isBlank() ? defaultValue : value.trim();
+  }
+
+  public int getInt(String key, int defaultValue) {
+    String value = getString(key, null);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
+  public long getLong(String key, long defaultValue) {
+    String value = getString(key, null);
+    return value == null ? defaultValue : Long.parseLong(value);
+  }
+
+  public double getDouble(String key, double defaultValue) {
+    String value = getString(key, null);
+    return value == null ? defaultValue : Double.parseDouble(value);
+  }
+
+  public boolean getBoolean(String key, boolean defaultValue) {
+    String value = getString(key, null);
+    return value == null ? defaultValue : Boolean.parseBoolean(value);
+  }
+}
@@ -0,0 +1,139 @@
+package by.russianzak.dataset;
+
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Streams a deterministic dataset for a {@link DatasetSpec}. Street sizes follow {@link ZipfSizes}
+ * but the ranks are shuffled across street ids, so the largest street is not always id 1. Ids are
+ * assigned explicitly starting from 1 in every table; house numbers are unique per street. Road
+ * surface types are unique in the schema, so there is one surface per type, each shared by a
+ * skewed share of the streets.
+ */
+public class DatasetGenerator {
+
+  public interface RowWriter {
+    void row(Object... values) throws Exception;
+  }
+
+  private static final TypeOfBuilding[] BUILDING_TYPES = TypeOfBuilding.values();
+  private static final TypeOfRoadSurface[] SURFACE_TYPES = TypeOfRoadSurface.values();
+  private static final long FIRST_BUILD_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+  private static final int BUILD_DAY_RANGE =
+      (int) (LocalDate.of(2024, 1, 1).toEpochDay() - FIRST_BUILD_DAY);
+  private static final long POSTAL_CODE_BASE = 200_000;
+
+  private final DatasetSpec spec;
+  private final long[] streetSizes;
+  private final long[] firstHouseIds;
+
+  public DatasetGenerator(DatasetSpec spec) {
+    this.spec = spec;
+    long[] sizes = ZipfSizes.of(spec.getHouses(), spec.getStreets(), spec.getZipfExponent());
+    Random random = new Random(spec.getSeed());
+    for (int i = sizes.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      long size = sizes[i];
+      sizes[i] = sizes[j];
+      sizes[j] = size;
+    }
+    this.streetSizes = sizes;
+    this.firstHouseIds = new long[sizes.length];
+    long next = 1;
+    for (int i = 0; i < sizes.length; i++) {
+      firstHouseIds[i] = next;
+      next += sizes[i];
+    }
+  }
+
+  public static long postalCode(long streetId) {
+    return POSTAL_CODE_BASE + streetId;
+  }
+
+  public static String streetName(long streetId) {
+    return "Street " + streetId;
+  }
+
+  public DatasetSpec getSpec() {
+    return spec;
+  }
+
+  public long getStreetSize(int streetId) {
+    return streetSizes[streetId - 1];
+  }
+
+  public int streetOfHouse(long houseId) {
+    if (houseId < 1 || houseId > spec.getHouses()) {
+      throw new IllegalArgumentException(String.format("House %d is not part of the dataset", houseId));
+    }
+    int index = Arrays.binarySearch(firstHouseIds, houseId);
+    return (index >= 0 ? index : -index - 2) + 1;
+  }
+
+  public String houseNumber(long houseId) {
+    return Long.toString(houseId - firstHouseIds[streetOfHouse(houseId) - 1] + 1);
+  }
+
+  /** Columns: id, name, postal_code. */
+  public void streets(RowWriter writer) throws Exception {
+    for (int id = 1; id <= spec.getStreets(); id++) {
+      writer.row((long) id, streetName(id), postalCode(id));
+    }
+  }
+
+  /** Columns: id, type, description, friction_coefficient. */
+  public void roadSurfaces(RowWriter writer) throws Exception {
+    for (int i = 0; i < SURFACE_TYPES.length; i++) {
+      writer.row((long) i + 1, SURFACE_TYPES[i].getValue(),
+          "Generated " + SURFACE_TYPES[i].getValue().toLowerCase(), 0.3 + 0.15 * i);
+    }
+  }
+
+  /** Columns: id, house_number, build_date, num_floors, type, street_id. */
+  public void houses(RowWriter writer) throws Exception {
+    Random random = new Random(spec.getSeed() * 31 + 1);
+    long id = 1;
+    for (int street = 1; street <= spec.getStreets(); street++) {
+      long size = streetSizes[street - 1];
+      for (long number = 1; number <= size; number++) {
+        Date buildDate = Date.valueOf(LocalDate.ofEpochDay(FIRST_BUILD_DAY + random.nextInt(BUILD_DAY_RANGE)));
+        int floors = 1 + (int) Math.min(40, Math.abs(random.nextGaussian() * 6));
+        TypeOfBuilding type = BUILDING_TYPES[random.nextInt(10) < 7 ? 0 : 1 + random.nextInt(BUILDING_TYPES.length - 1)];
+        writer.row(id++, Long.toString(number), buildDate, floors, type.getValue(), (long) street);
+      }
+    }
+  }
+
+  /**
+   * Columns: road_surface_id, street_id. Each street gets between one and
+   * {@code maxRoadSurfacesPerStreet} distinct surfaces, the first drawn Zipf-like so asphalt is by
+   * far the most common.
+   */
+  public void roadSurfaceStreets(RowWriter writer) throws Exception {
+    Random random = new Random(spec.getSeed() * 31 + 2);
+    long[] surfaceWeights = ZipfSizes.of(1000, SURFACE_TYPES.length, 1.5);
+    int maxPerStreet = Math.max(1, Math.min(spec.getMaxRoadSurfacesPerStreet(), SURFACE_TYPES.length));
+    for (int street = 1; street <= spec.getStreets(); street++) {
+      int count = 1 + random.nextInt(maxPerStreet);
+      int first = pick(surfaceWeights, random);
+      for (int i = 0; i < count; i++) {
+        writer.row((long) (first + i) % SURFACE_TYPES.length + 1, (long) street);
+      }
+    }
+  }
+
+  private static int pick(long[] weights, Random random) {
+    long roll = (long) (random.nextDouble() * 1000);
+    for (int i = 0; i < weights.length; i++) {
+      roll -= weights[i];
+      if (roll < 0) {
+        return i;
+      }
+    }
+    return weights.length - 1;
+  }
+}
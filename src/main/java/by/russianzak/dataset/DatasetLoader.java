@@ -0,0 +1,219 @@
+package by.russianzak.dataset;
+
+import by.russianzak.dataset.DatasetGenerator.RowWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replaces the contents of the street/house/road_surface tables with a generated dataset. On
+ * PostgreSQL rows are streamed with {@code COPY ... FROM STDIN} and the tables are analyzed
+ * afterwards so plans reflect the new data; other databases fall back to JDBC batches. Sequences
+ * are moved past the generated ids so the application can keep inserting, and the street summaries
+ * are rebuilt from the loaded rows. Street documents are removed; a service with
+ * {@code repository.street-documents.enabled} renders them again when it starts.
+ */
+public class DatasetLoader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DatasetLoader.class);
+  private static final int COPY_FLUSH_CHARS = 1 << 20;
+  private static final int BATCH_SIZE = 5000;
+
+  // as in V1_5_0__add_street_summary.sql: the repositories only keep the summaries current
+  private static final String REBUILD_STREET_SUMMARY = "INSERT INTO street_summary (street_id, houses, "
+      + "residential_houses, commercial_houses, garage_houses, utility_houses, total_floors, road_surfaces) "
+      + "SELECT s.id, COALESCE(h.houses, 0), COALESCE(h.residential_houses, 0), "
+      + "COALESCE(h.commercial_houses, 0), COALESCE(h.garage_houses, 0), COALESCE(h.utility_houses, 0), "
+      + "COALESCE(h.total_floors, 0), COALESCE(r.road_surfaces, 0) FROM street s "
+      + "LEFT JOIN (SELECT street_id, COUNT(*) AS houses, "
+      + "SUM(CASE WHEN UPPER(type) = 'RESIDENTIAL' THEN 1 ELSE 0 END) AS residential_houses, "
+      + "SUM(CASE WHEN UPPER(type) = 'COMMERCIAL' THEN 1 ELSE 0 END) AS commercial_houses, "
+      + "SUM(CASE WHEN UPPER(type) = 'GARAGE' THEN 1 ELSE 0 END) AS garage_houses, "
+      + "SUM(CASE WHEN UPPER(type) = 'UTILITY' THEN 1 ELSE 0 END) AS utility_houses, "
+      + "SUM(COALESCE(num_floors, 0)) AS total_floors FROM house GROUP BY street_id) h ON h.street_id = s.id "
+      + "LEFT JOIN (SELECT street_id, COUNT(*) AS road_surfaces FROM road_surface_street GROUP BY street_id) r "
+      + "ON r.street_id = s.id";
+
+  public record Summary(long streets, long houses, long roadSurfaces, long roadSurfaceStreets,
+                        long elapsedMillis) {}
+
+  public Summary load(Connection connection, DatasetGenerator generator) throws SQLException {
+    long start = System.currentTimeMillis();
+    boolean postgres = connection.isWrapperFor(PGConnection.class);
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try {
+      try (Statement statement = connection.createStatement()) {
+        statement.executeUpdate(postgres
+            ? "TRUNCATE TABLE street_document, street_summary, road_surface_street, house, road_surface, street"
+            : "DELETE FROM road_surface_street");
+        if (!postgres) {
+          statement.executeUpdate("DELETE FROM street_document");
+          statement.executeUpdate("DELETE FROM street_summary");
+          statement.executeUpdate("DELETE FROM house");
+          statement.executeUpdate("DELETE FROM road_surface");
+          statement.executeUpdate("DELETE FROM street");
+        }
+      }
+      long streets = write(connection, postgres, "street", new String[]{"id", "name", "postal_code"},
+          generator::streets);
+      long roadSurfaces = write(connection, postgres, "road_surface",
+          new String[]{"id", "type", "description", "friction_coefficient"}, generator::roadSurfaces);
+      long houses = write(connection, postgres, "house",
+          new String[]{"id", "house_number", "build_date", "num_floors", "type", "street_id"},
+          generator::houses);
+      long links = write(connection, postgres, "road_surface_street",
+          new String[]{"road_surface_id", "street_id"}, generator::roadSurfaceStreets);
+      try (Statement statement = connection.createStatement()) {
+        statement.executeUpdate(REBUILD_STREET_SUMMARY);
+        statement.executeUpdate("ALTER SEQUENCE street_id_sequence RESTART WITH " + (streets + 1));
+        statement.executeUpdate("ALTER SEQUENCE house_id_sequence RESTART WITH " + (houses + 1));
+        statement.executeUpdate("ALTER SEQUENCE road_surface_id_sequence RESTART WITH " + (roadSurfaces + 1));
+      }
+      connection.commit();
+      if (postgres) {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("ANALYZE street, house, road_surface, road_surface_street, street_summary");
+        }
+      }
+      Summary summary = new Summary(streets, houses, roadSurfaces, links,
+          System.currentTimeMillis() - start);
+      LOGGER.info("Loaded {} for {}", summary, generator.getSpec());
+      return summary;
+    } catch (SQLException e) {
+      connection.rollback();
+      throw e;
+    } catch (Exception e) {
+      connection.rollback();
+      throw new SQLException("Dataset generation failed", e);
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  private interface TableSource {
+    void rows(RowWriter writer) throws Exception;
+  }
+
+  private long write(Connection connection, boolean postgres, String table, String[] columns,
+      TableSource source) throws Exception {
+    return postgres ? copy(connection, table, columns, source) : batch(connection, table, columns, source);
+  }
+
+  private long copy(Connection connection, String table, String[] columns, TableSource source)
+      throws Exception {
+    CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    CopyIn copyIn = copyManager.copyIn(
+        String.format("COPY %s (%s) FROM STDIN", table, String.join(", ", columns)));
+    StringBuilder buffer = new StringBuilder(COPY_FLUSH_CHARS + 4096);
+    long[] rows = {0};
+    try {
+      source.rows(values -> {
+        for (int i = 0; i < values.length; i++) {
+          if (i > 0) {
+            buffer.append('\t');
+          }
+          appendCopyValue(buffer, values[i]);
+        }
+        buffer.append('\n');
+        rows[0]++;
+        if (buffer.length() >= COPY_FLUSH_CHARS) {
+          flush(copyIn, buffer);
+        }
+      });
+      flush(copyIn, buffer);
+      copyIn.endCopy();
+      return rows[0];
+    } finally {
+      if (copyIn.isActive()) {
+        copyIn.cancelCopy();
+      }
+    }
+  }
+
+  private static void flush(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+    if (buffer.length() > 0) {
+      byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+      copyIn.writeToCopy(bytes, 0, bytes.length);
+      buffer.setLength(0);
+    }
+  }
+
+  static void appendCopyValue(StringBuilder buffer, Object value) {
+    if (value == null) {
+      buffer.append("\\N");
+      return;
+    }
+    String text = value.toString();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\' -> buffer.append("\\\\");
+        case '\t' -> buffer.append("\\t");
+        case '\n' -> buffer.append("\\n");
+        case '\r' -> buffer.append("\\r");
+        default -> buffer.append(c);
+      }
+    }
+  }
+
+  private long batch(Connection connection, String table, String[] columns, TableSource source)
+      throws Exception {
+    String placeholders = String.join(", ", Collections.nCopies(columns.length, "?"));
+    try (PreparedStatement statement = connection.prepareStatement(String.format(
+        "INSERT INTO %s (%s) VALUES (%s)", table, String.join(", ", columns), placeholders))) {
+      long[] rows = {0};
+      source.rows(values -> {
+        for (int i = 0; i < values.length; i++) {
+          statement.setObject(i + 1, values[i]);
+        }
+        statement.addBatch();
+        if (++rows[0] % BATCH_SIZE == 0) {
+          statement.executeBatch();
+        }
+      });
+      statement.executeBatch();
+      return rows[0];
+    }
+  }
+
+  /**
+   * {@code --jdbc-url=... --user=... --password=... [--streets=N] [--houses=N] [--zipf=S]
+   * [--max-surfaces=N] [--seed=N]}
+   */
+  public static void main(String[] args) throws SQLException {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException(String.format("Expected --name=value but got '%s'", arg));
+      }
+      options.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+    DatasetSpec spec = DatasetSpec.builder()
+        .setStreets(Integer.parseInt(options.getOrDefault("streets", "1000")))
+        .setHouses(Long.parseLong(options.getOrDefault("houses", "100000")))
+        .setZipfExponent(Double.parseDouble(options.getOrDefault("zipf", "1.1")))
+        .setMaxRoadSurfacesPerStreet(Integer.parseInt(options.getOrDefault("max-surfaces", "2")))
+        .setSeed(Long.parseLong(options.getOrDefault("seed", "42")))
+        .build();
+    try (Connection connection = DriverManager.getConnection(
+        options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/my_db"),
+        options.getOrDefault("user", "postgres"), options.getOrDefault("password", "root"))) {
+      Summary summary = new DatasetLoader().load(connection, new DatasetGenerator(spec));
+      System.out.println(summary);
+    }
+  }
+}
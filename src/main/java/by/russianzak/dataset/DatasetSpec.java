@@ -0,0 +1,100 @@
+package by.russianzak.dataset;
+
+public class DatasetSpec {
+  private final int streets;
+  private final long houses;
+  private final double zipfExponent;
+  private final int maxRoadSurfacesPerStreet;
+  private final long seed;
+
+  private DatasetSpec(Builder builder) {
+    this.streets = builder.streets;
+    this.houses = builder.houses;
+    this.zipfExponent = builder.zipfExponent;
+    this.maxRoadSurfacesPerStreet = builder.maxRoadSurfacesPerStreet;
+    this.seed = builder.seed;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getStreets() {
+    return streets;
+  }
+
+  public long getHouses() {
+    return houses;
+  }
+
+  public double getZipfExponent() {
+    return zipfExponent;
+  }
+
+  public int getMaxRoadSurfacesPerStreet() {
+    return maxRoadSurfacesPerStreet;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  @Override
+  public String toString() {
+    return "DatasetSpec{" +
+        "streets=" + streets +
+        ", houses=" + houses +
+        ", zipfExponent=" + zipfExponent +
+        ", maxRoadSurfacesPerStreet=" + maxRoadSurfacesPerStreet +
+        ", seed=" + seed +
+        '}';
+  }
+
+  public static class Builder {
+    private int streets = 1000;
+    private long houses = 100_000;
+    private double zipfExponent = 1.1;
+    private int maxRoadSurfacesPerStreet = 2;
+    private long seed = 42;
+
+    private Builder() {}
+
+    public Builder setStreets(int streets) {
+      this.streets = streets;
+      return this;
+    }
+
+    public Builder setHouses(long houses) {
+      this.houses = houses;
+      return this;
+    }
+
+    public Builder setZipfExponent(double zipfExponent) {
+      this.zipfExponent = zipfExponent;
+      return this;
+    }
+
+    public Builder setMaxRoadSurfacesPerStreet(int maxRoadSurfacesPerStreet) {
+      this.maxRoadSurfacesPerStreet = maxRoadSurfacesPerStreet;
+      return this;
+    }
+
+    public Builder setSeed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    public DatasetSpec build() {
+      if (streets < 1) {
+        throw new IllegalArgumentException("At least one street is required");
+      }
+      if (houses < streets) {
+        throw new IllegalArgumentException("Every street needs at least one house");
+      }
+      if (zipfExponent < 0) {
+        throw new IllegalArgumentException("Zipf exponent must not be negative");
+      }
+      return new DatasetSpec(this);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package by.russianzak.dataset;
+
+/**
+ * Splits a total into Zipf-distributed sizes: rank {@code k} gets a share proportional to
+ * {@code 1 / k^s}, every rank gets at least one and the sizes add up to the total exactly.
+ */
+public final class ZipfSizes {
+
+  private ZipfSizes() {}
+
+  public static long[] of(long total, int ranks, double exponent) {
+    if (total < ranks) {
+      throw new IllegalArgumentException("Total must cover at least one per rank");
+    }
+    double[] weights = new double[ranks];
+    double weightSum = 0;
+    for (int k = 0; k < ranks; k++) {
+      weights[k] = 1.0 / Math.pow(k + 1, exponent);
+      weightSum += weights[k];
+    }
+    long spread = total - ranks;
+    long[] sizes = new long[ranks];
+    long assigned = 0;
+    for (int k = 0; k < ranks; k++) {
+      sizes[k] = 1 + (long) Math.floor(spread * weights[k] / weightSum);
+      assigned += sizes[k];
+    }
+    for (int k = 0; assigned < total; k = (k + 1) % ranks) {
+      sizes[k]++;
+      assigned++;
+    }
+    return sizes;
+  }
+}
@@ -0,0 +1,10 @@
+package by.russianzak.db;
+
+public interface JdbcEventListener {
+
+  default void onConnectionAcquired(long elapsedNanos) {}
+
+  default void beforeStatement(String sql) {}
+
+  default void afterStatement(String sql, long elapsedNanos, Throwable failure) {}
+}
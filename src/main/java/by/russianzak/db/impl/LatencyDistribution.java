@@ -0,0 +1,86 @@
+package by.russianzak.db.impl;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Source of injected delays in nanoseconds. {@link #parse(String)} accepts {@code none},
+ * {@code fixed:2ms}, {@code uniform:1ms,3ms}, {@code jitter:2ms,500us} (base plus or minus up to
+ * the jitter) and {@code lognormal:2ms,0.5} (median and sigma, a long right tail like real
+ * networks). Units are {@code ns}, {@code us}, {@code ms} and {@code s}.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+  LatencyDistribution NONE = random -> 0;
+
+  long sampleNanos(Random random);
+
+  static LatencyDistribution fixed(Duration latency) {
+    long nanos = latency.toNanos();
+    return random -> nanos;
+  }
+
+  static LatencyDistribution uniform(Duration min, Duration max) {
+    long low = min.toNanos();
+    long range = max.toNanos() - low;
+    if (range < 0) {
+      throw new IllegalArgumentException("Maximum latency must not be below the minimum");
+    }
+    return random -> low + (long) (random.nextDouble() * range);
+  }
+
+  static LatencyDistribution jittered(Duration base, Duration jitter) {
+    long baseNanos = base.toNanos();
+    long jitterNanos = jitter.toNanos();
+    return random -> Math.max(0, baseNanos + (long) ((random.nextDouble() * 2 - 1) * jitterNanos));
+  }
+
+  static LatencyDistribution logNormal(Duration median, double sigma) {
+    long medianNanos = median.toNanos();
+    return random -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+  }
+
+  static LatencyDistribution parse(String spec) {
+    String value = spec.trim();
+    if (value.isEmpty() || value.equalsIgnoreCase("none")) {
+      return NONE;
+    }
+    int colon = value.indexOf(':');
+    if (colon < 0) {
+      throw new IllegalArgumentException(String.format("Expected kind:arguments but got '%s'", spec));
+    }
+    String[] args = value.substring(colon + 1).split(",");
+    return switch (value.substring(0, colon).trim().toLowerCase()) {
+      case "fixed" -> fixed(duration(args, 0, spec));
+      case "uniform" -> uniform(duration(args, 0, spec), duration(args, 1, spec));
+      case "jitter" -> jittered(duration(args, 0, spec), duration(args, 1, spec));
+      case "lognormal" -> logNormal(duration(args, 0, spec), Double.parseDouble(argument(args, 1, spec)));
+      default -> throw new IllegalArgumentException(String.format("Unknown latency distribution '%s'", spec));
+    };
+  }
+
+  private static String argument(String[] args, int index, String spec) {
+    if (index >= args.length) {
+      throw new IllegalArgumentException(String.format("Missing argument %d in '%s'", index + 1, spec));
+    }
+    return args[index].trim();
+  }
+
+  private static Duration duration(String[] args, int index, String spec) {
+    Matcher matcher = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*(ns|us|ms|s)").matcher(argument(args, index, spec));
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException(String.format("Invalid duration in '%s'", spec));
+    }
+    double amount = Double.parseDouble(matcher.group(1));
+    long unitNanos = switch (matcher.group(2)) {
+      case "ns" -> 1;
+      case "us" -> 1_000;
+      case "ms" -> 1_000_000;
+      default -> 1_000_000_000;
+    };
+    return Duration.ofNanos((long) (amount * unitNanos));
+  }
+}
@@ -0,0 +1,195 @@
+package by.russianzak.db.impl;
+
+import by.russianzak.db.ConnectionManager;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decorates a {@link ConnectionManager} so a same-host database behaves like a remote one. Every
+ * call that costs a network round trip (statement execution, commit, rollback, savepoints) is
+ * delayed by the round-trip latency; executions also pay the statement latency once per statement,
+ * so a batch of n pays one round trip and n statements. A round trip fails with the configured
+ * probability after its delay, before reaching the database. Row fetches beyond the first result
+ * batch are not modelled.
+ */
+public class LatencyInjectingConnectionManager implements ConnectionManager {
+
+  public static final String FAILURE_SQL_STATE = "08006";
+
+  private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery",
+      "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+  private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+  private static final Set<String> ROUND_TRIP_METHODS = Set.of("commit", "rollback",
+      "setSavepoint", "releaseSavepoint");
+
+  private final ConnectionManager delegate;
+  private final LatencyDistribution roundTripLatency;
+  private final LatencyDistribution statementLatency;
+  private final double failureRate;
+  private final LongAdder roundTrips = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  private LatencyInjectingConnectionManager(Builder builder) {
+    this.delegate = builder.delegate;
+    this.roundTripLatency = builder.roundTripLatency;
+    this.statementLatency = builder.statementLatency;
+    this.failureRate = builder.failureRate;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    Connection connection = delegate.getConnection();
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+  }
+
+  public long getRoundTrips() {
+    return roundTrips.sum();
+  }
+
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  private void roundTrip(int statements) throws SQLException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long delay = roundTripLatency.sampleNanos(random);
+    for (int i = 0; i < statements; i++) {
+      delay += statementLatency.sampleNanos(random);
+    }
+    pause(delay);
+    roundTrips.increment();
+    if (failureRate > 0 && random.nextDouble() < failureRate) {
+      failures.increment();
+      throw new SQLTransientConnectionException("Injected round-trip failure", FAILURE_SQL_STATE);
+    }
+  }
+
+  private static void pause(long nanos) {
+    long deadline = System.nanoTime() + nanos;
+    for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+      LockSupport.parkNanos(remaining);
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+    }
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private class ConnectionHandler implements InvocationHandler {
+    private final Connection connection;
+
+    private ConnectionHandler(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if (ROUND_TRIP_METHODS.contains(name)) {
+        roundTrip(0);
+      }
+      Object result = LatencyInjectingConnectionManager.invoke(connection, method, args);
+      if (result instanceof Statement statement
+          && (name.equals("createStatement") || name.startsWith("prepare"))) {
+        return wrap(statement);
+      }
+      return result;
+    }
+  }
+
+  private Statement wrap(Statement statement) {
+    Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+        : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+    return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+        new Class<?>[]{type}, new StatementHandler(statement));
+  }
+
+  private class StatementHandler implements InvocationHandler {
+    private final Statement statement;
+    private int batched;
+
+    private StatementHandler(Statement statement) {
+      this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if (name.equals("addBatch")) {
+        batched++;
+      } else if (name.equals("clearBatch")) {
+        batched = 0;
+      } else if (EXECUTE_METHODS.contains(name)) {
+        int statements = BATCH_METHODS.contains(name) ? Math.max(1, batched) : 1;
+        if (BATCH_METHODS.contains(name)) {
+          batched = 0;
+        }
+        roundTrip(statements);
+      }
+      return LatencyInjectingConnectionManager.invoke(statement, method, args);
+    }
+  }
+
+  public static class Builder {
+    private ConnectionManager delegate;
+    private LatencyDistribution roundTripLatency = LatencyDistribution.NONE;
+    private LatencyDistribution statementLatency = LatencyDistribution.NONE;
+    private double failureRate;
+
+    private Builder() {}
+
+    public Builder setDelegate(ConnectionManager delegate) {
+      this.delegate = delegate;
+      return this;
+    }
+
+    public Builder setRoundTripLatency(LatencyDistribution roundTripLatency) {
+      this.roundTripLatency = roundTripLatency;
+      return this;
+    }
+
+    public Builder setStatementLatency(LatencyDistribution statementLatency) {
+      this.statementLatency = statementLatency;
+      return this;
+    }
+
+    public Builder setFailureRate(double failureRate) {
+      this.failureRate = failureRate;
+      return this;
+    }
+
+    public LatencyInjectingConnectionManager build() {
+      if (delegate == null) {
+        throw new IllegalArgumentException("Delegate connection manager is required");
+      }
+      if (failureRate < 0 || failureRate > 1) {
+        throw new IllegalArgumentException("Failure rate must be between 0 and 1");
+      }
+      return new LatencyInjectingConnectionManager(this);
+    }
+  }
+}
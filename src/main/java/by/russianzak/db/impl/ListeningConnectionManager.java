@@ -0,0 +1,114 @@
+package by.russianzak.db.impl;
+
+import by.russianzak.db.ConnectionManager;
+import by.russianzak.db.JdbcEventListener;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decorates a {@link ConnectionManager} so that connection checkout and every statement execution
+ * are reported to the registered {@link JdbcEventListener}s.
+ */
+public class ListeningConnectionManager implements ConnectionManager {
+
+  private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery",
+      "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+  private final ConnectionManager delegate;
+  private final List<JdbcEventListener> listeners;
+
+  public ListeningConnectionManager(ConnectionManager delegate, List<JdbcEventListener> listeners) {
+    this.delegate = delegate;
+    this.listeners = List.copyOf(listeners);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    long start = System.nanoTime();
+    Connection connection = delegate.getConnection();
+    long elapsed = System.nanoTime() - start;
+    for (JdbcEventListener listener : listeners) {
+      listener.onConnectionAcquired(elapsed);
+    }
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+  }
+
+  private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  private class ConnectionHandler implements InvocationHandler {
+    private final Connection connection;
+
+    private ConnectionHandler(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Object result = ListeningConnectionManager.this.invoke(connection, method, args);
+      String name = method.getName();
+      if (result instanceof Statement statement
+          && (name.equals("createStatement") || name.startsWith("prepare"))) {
+        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+        return wrap(statement, sql);
+      }
+      return result;
+    }
+  }
+
+  private Statement wrap(Statement statement, String sql) {
+    Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+        : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+    return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+        new Class<?>[]{type}, new StatementHandler(statement, sql));
+  }
+
+  private class StatementHandler implements InvocationHandler {
+    private final Statement statement;
+    private final String preparedSql;
+
+    private StatementHandler(Statement statement, String preparedSql) {
+      this.statement = statement;
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (!EXECUTE_METHODS.contains(method.getName())) {
+        return ListeningConnectionManager.this.invoke(statement, method, args);
+      }
+      String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+      for (JdbcEventListener listener : listeners) {
+        listener.beforeStatement(sql);
+      }
+      long start = System.nanoTime();
+      Throwable failure = null;
+      try {
+        return ListeningConnectionManager.this.invoke(statement, method, args);
+      } catch (Throwable e) {
+        failure = e;
+        throw e;
+      } finally {
+        long elapsed = System.nanoTime() - start;
+        for (JdbcEventListener listener : listeners) {
+          listener.afterStatement(sql, elapsed, failure);
+        }
+      }
+    }
+  }
+}
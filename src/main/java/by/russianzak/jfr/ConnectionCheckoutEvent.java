@@ -0,0 +1,20 @@
+package by.russianzak.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name(ConnectionCheckoutEvent.NAME)
+@Label("Connection Checkout")
+@Description("Connection taken from the pool")
+@Category({"jdbc-servlet-rest-service", "JDBC"})
+public class ConnectionCheckoutEvent extends Event {
+  public static final String NAME = "by.russianzak.ConnectionCheckout";
+
+  @Label("Acquire Time")
+  @Timespan(Timespan.NANOSECONDS)
+  public long acquireTime;
+}
@@ -0,0 +1,15 @@
+package by.russianzak.jfr;
+
+import by.russianzak.db.JdbcEventListener;
+
+public class JfrJdbcListener implements JdbcEventListener {
+
+  @Override
+  public void onConnectionAcquired(long elapsedNanos) {
+    ConnectionCheckoutEvent event = new ConnectionCheckoutEvent();
+    if (event.shouldCommit()) {
+      event.acquireTime = elapsedNanos;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package by.russianzak.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Runs time-boxed flight recordings on demand. Only one recording or summary stream runs at a
+ * time; callers get {@link IllegalStateException} while another one is in progress.
+ */
+public class JfrRecorder {
+
+  private static final String[] SUMMARY_JVM_EVENTS = {"jdk.GarbageCollection",
+      "jdk.JavaMonitorEnter", "jdk.ThreadPark", "jdk.SocketRead", "jdk.SocketWrite"};
+
+  private final Duration maxDuration;
+  private final String configurationName;
+  private final AtomicBoolean busy = new AtomicBoolean();
+
+  public JfrRecorder(Duration maxDuration, String configurationName) {
+    this.maxDuration = maxDuration;
+    this.configurationName = configurationName;
+  }
+
+  public Path record(Duration duration) throws IOException, InterruptedException {
+    Duration boxed = bound(duration);
+    acquire();
+    try {
+      Configuration configuration = Configuration.getConfiguration(configurationName);
+      Path file = Files.createTempFile("jdbc-servlet-rest-service-", ".jfr");
+      try (Recording recording = new Recording(configuration)) {
+        recording.setName("on-demand");
+        enableApplicationEvents(recording);
+        recording.start();
+        Thread.sleep(boxed.toMillis());
+        recording.stop();
+        recording.dump(file);
+      } catch (IOException | InterruptedException | RuntimeException e) {
+        // the caller only ever sees a file that was returned, so nobody else would delete this one
+        try {
+          Files.deleteIfExists(file);
+        } catch (IOException deleteException) {
+          e.addSuppressed(deleteException);
+        }
+        throw e;
+      }
+      return file;
+    } catch (ParseException e) {
+      throw new IOException(String.format("Invalid JFR configuration %s", configurationName), e);
+    } finally {
+      busy.set(false);
+    }
+  }
+
+  public Map<String, EventSummary> summarize(Duration duration) throws InterruptedException {
+    Duration boxed = bound(duration);
+    acquire();
+    Map<String, EventSummary> summaries = new TreeMap<>();
+    try (RecordingStream stream = new RecordingStream()) {
+      stream.enable(ServletRequestEvent.NAME);
+      stream.enable(RepositoryOperationEvent.NAME);
+      stream.enable(ConnectionCheckoutEvent.NAME);
+      for (String event : SUMMARY_JVM_EVENTS) {
+        stream.enable(event).withThreshold(Duration.ofMillis(10));
+      }
+      stream.onEvent(event -> {
+        synchronized (summaries) {
+          summaries.computeIfAbsent(keyOf(event), key -> new EventSummary()).add(event);
+        }
+      });
+      stream.startAsync();
+      Thread.sleep(boxed.toMillis());
+    } finally {
+      busy.set(false);
+    }
+    synchronized (summaries) {
+      return new TreeMap<>(summaries);
+    }
+  }
+
+  private static String keyOf(RecordedEvent event) {
+    String name = event.getEventType().getName();
+    if (name.equals(ServletRequestEvent.NAME)) {
+      return name + "[" + event.getString("method") + " " + event.getString("route") + "]";
+    }
+    if (name.equals(RepositoryOperationEvent.NAME)) {
+      return name + "[" + event.getString("entity") + "." + event.getString("method") + "]";
+    }
+    return name;
+  }
+
+  private static void enableApplicationEvents(Recording recording) {
+    recording.enable(ServletRequestEvent.class);
+    recording.enable(RepositoryOperationEvent.class);
+    recording.enable(ConnectionCheckoutEvent.class);
+  }
+
+  private Duration bound(Duration duration) {
+    if (duration.isNegative() || duration.isZero()) {
+      throw new IllegalArgumentException("Recording duration must be positive");
+    }
+    return duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+  }
+
+  private void acquire() {
+    if (!busy.compareAndSet(false, true)) {
+      throw new IllegalStateException("Another flight recording is in progress");
+    }
+  }
+
+  public static class EventSummary {
+    private long count;
+    private double totalMillis;
+    private double maxMillis;
+
+    private void add(RecordedEvent event) {
+      double millis = event.getDuration().toNanos() / 1_000_000.0;
+      count++;
+      totalMillis += millis;
+      maxMillis = Math.max(maxMillis, millis);
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public double getTotalMillis() {
+      return totalMillis;
+    }
+
+    public double getMaxMillis() {
+      return maxMillis;
+    }
+  }
+}
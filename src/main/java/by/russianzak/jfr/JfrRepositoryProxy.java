@@ -0,0 +1,68 @@
+package by.russianzak.jfr;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public final class JfrRepositoryProxy {
+
+  private JfrRepositoryProxy() {}
+
+  @SuppressWarnings("unchecked")
+  public static <T> T wrap(Class<T> type, T target, String entity) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+        (proxy, method, args) -> {
+          if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(target, args);
+          }
+          RepositoryOperationEvent event = new RepositoryOperationEvent();
+          if (!event.isEnabled()) {
+            return invoke(target, method, args);
+          }
+          event.begin();
+          event.entity = entity;
+          event.method = method.getName();
+          try {
+            Object result = invoke(target, method, args);
+            event.rowCount = rowCount(result);
+            return result;
+          } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+          } finally {
+            event.commit();
+          }
+        });
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args)
+      throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  static int rowCount(Object result) {
+    if (result == null) {
+      return 0;
+    }
+    if (result instanceof Collection<?> collection) {
+      return collection.size();
+    }
+    if (result instanceof Map<?, ?> map) {
+      return map.size();
+    }
+    if (result instanceof Optional<?> optional) {
+      return optional.isPresent() ? 1 : 0;
+    }
+    if (result instanceof Boolean affected) {
+      return affected ? 1 : 0;
+    }
+    return 1;
+  }
+}
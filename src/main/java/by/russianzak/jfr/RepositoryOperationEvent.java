@@ -0,0 +1,27 @@
+package by.russianzak.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(RepositoryOperationEvent.NAME)
+@Label("Repository Operation")
+@Description("Call of a repository method, with the number of rows it returned or affected")
+@Category({"jdbc-servlet-rest-service", "Repository"})
+public class RepositoryOperationEvent extends Event {
+  public static final String NAME = "by.russianzak.RepositoryOperation";
+
+  @Label("Entity")
+  public String entity;
+
+  @Label("Method")
+  public String method;
+
+  @Label("Row Count")
+  public int rowCount;
+
+  @Label("Failed")
+  public boolean failed;
+}
@@ -0,0 +1,29 @@
+package by.russianzak.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ServletRequestEvent.NAME)
+@Label("Servlet Request")
+@Description("HTTP request handled by one of the entity servlets")
+@Category({"jdbc-servlet-rest-service", "HTTP"})
+public class ServletRequestEvent extends Event {
+  public static final String NAME = "by.russianzak.ServletRequest";
+
+  @Label("Method")
+  public String method;
+
+  @Label("Route")
+  public String route;
+
+  @Label("Status")
+  public int status;
+
+  @Label("Response Size")
+  @DataAmount
+  public long bytes;
+}
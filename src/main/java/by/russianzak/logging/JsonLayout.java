@@ -0,0 +1,105 @@
+package by.russianzak.logging;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import org.apache.log4j.Layout;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Renders each event as one JSON object per line: timestamp, level, logger, thread, message, NDC,
+ * MDC entries and the stack trace when present. Like {@code PatternLayout} it reuses one buffer, so
+ * an instance must only be driven by one appender.
+ */
+public class JsonLayout extends Layout {
+
+  private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+  private StringBuilder buffer = new StringBuilder(256);
+
+  @Override
+  public String format(LoggingEvent event) {
+    if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+      buffer = new StringBuilder(256);
+    }
+    buffer.setLength(0);
+    buffer.append("{\"ts\":\"");
+    DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(event.getTimeStamp()), buffer);
+    buffer.append('"');
+    appendField("level", event.getLevel().toString());
+    appendField("logger", event.getLoggerName());
+    appendField("thread", event.getThreadName());
+    appendField("message", event.getRenderedMessage());
+    String ndc = event.getNDC();
+    if (ndc != null) {
+      appendField("ndc", ndc);
+    }
+    Map<?, ?> mdc = event.getProperties();
+    if (!mdc.isEmpty()) {
+      buffer.append(",\"mdc\":{");
+      boolean first = true;
+      for (Map.Entry<?, ?> entry : mdc.entrySet()) {
+        if (!first) {
+          buffer.append(',');
+        }
+        first = false;
+        appendString(String.valueOf(entry.getKey()));
+        buffer.append(':');
+        appendString(String.valueOf(entry.getValue()));
+      }
+      buffer.append('}');
+    }
+    String[] throwable = event.getThrowableStrRep();
+    if (throwable != null) {
+      buffer.append(",\"exception\":");
+      appendString(String.join("\n", throwable));
+    }
+    buffer.append('}').append(LINE_SEP);
+    return buffer.toString();
+  }
+
+  @Override
+  public String getContentType() {
+    return "application/json";
+  }
+
+  @Override
+  public boolean ignoresThrowable() {
+    return false;
+  }
+
+  @Override
+  public void activateOptions() {
+  }
+
+  private void appendField(String name, String value) {
+    buffer.append(",\"").append(name).append("\":");
+    appendString(value);
+  }
+
+  private void appendString(String value) {
+    if (value == null) {
+      buffer.append("null");
+      return;
+    }
+    buffer.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> buffer.append("\\\"");
+        case '\\' -> buffer.append("\\\\");
+        case '\n' -> buffer.append("\\n");
+        case '\r' -> buffer.append("\\r");
+        case '\t' -> buffer.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            buffer.append(String.format("\\u%04x", (int) c));
+          } else {
+            buffer.append(c);
+          }
+        }
+      }
+    }
+    buffer.append('"');
+  }
+}
@@ -0,0 +1,297 @@
+package by.russianzak.logging;
+
+import by.russianzak.concurrent.MpscRingBuffer;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.log4j.Appender;
+import org.apache.log4j.Layout;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.OnlyOnceErrorHandler;
+import org.apache.log4j.spi.ErrorHandler;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.OptionHandler;
+
+/**
+ * Log4j appender that hands events to a bounded lock-free ring buffer and writes them from a single
+ * background thread, so request threads never wait on console or file I/O. Unlike
+ * {@code AppenderSkeleton} it takes no lock in {@link #doAppend}. When the buffer is full the
+ * {@link OverflowPolicy} decides whether the caller drops the event or parks until there is room;
+ * dropped events are reported by a WARN line once the writer catches up.
+ *
+ * <p>Configured from {@code log4j.properties} with {@code BufferSize}, {@code OverflowPolicy},
+ * {@code Target} ({@code System.out} or {@code System.err}), optional {@code File} and a layout.
+ */
+public class RingBufferAppender implements Appender, OptionHandler {
+
+  public enum OverflowPolicy {
+    DROP, BLOCK
+  }
+
+  private static final int DRAIN_BATCH = 256;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final LongAdder dropped = new LongAdder();
+
+  private String name;
+  private Layout layout;
+  private ErrorHandler errorHandler = new OnlyOnceErrorHandler();
+  private Filter headFilter;
+  private Filter tailFilter;
+
+  private int bufferSize = 8192;
+  private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+  private String target = "System.out";
+  private String file;
+
+  private MpscRingBuffer<LoggingEvent> buffer;
+  private Writer writer;
+  private Thread writerThread;
+  private long reportedDropped;
+  private volatile boolean running;
+
+  @Override
+  public void activateOptions() {
+    buffer = new MpscRingBuffer<>(bufferSize);
+    try {
+      writer = new BufferedWriter(new OutputStreamWriter(openStream(), StandardCharsets.UTF_8),
+          64 * 1024);
+    } catch (IOException e) {
+      errorHandler.error(String.format("Failed to open log output %s", file), e, 0);
+      return;
+    }
+    running = true;
+    writerThread = new Thread(this::writeLoop, "log-writer-" + name);
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  @Override
+  public void doAppend(LoggingEvent event) {
+    if (!running || !isAccepted(event)) {
+      return;
+    }
+    // freeze the request-thread state before the event crosses threads
+    event.getThreadName();
+    event.getNDC();
+    event.getMDCCopy();
+    if (buffer.offer(event)) {
+      return;
+    }
+    if (overflowPolicy == OverflowPolicy.DROP) {
+      dropped.increment();
+      return;
+    }
+    while (running && !buffer.offer(event)) {
+      LockSupport.parkNanos(BLOCK_PARK_NANOS);
+    }
+  }
+
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  public int getQueued() {
+    return buffer == null ? 0 : buffer.size();
+  }
+
+  @Override
+  public void close() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(writerThread);
+    try {
+      writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * A failing event or flush is reported and skipped, so the loop keeps draining: with
+   * {@link OverflowPolicy#BLOCK}, request threads wait for this thread to make room.
+   */
+  private void writeLoop() {
+    try {
+      while (running) {
+        if (buffer.drain(this::write, DRAIN_BATCH) == 0) {
+          reportDropped();
+          flush();
+          LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+      }
+      while (buffer.drain(this::write, DRAIN_BATCH) > 0) {
+        // flush what was queued before close
+      }
+      reportDropped();
+      flush();
+      if (file != null) {
+        writer.close();
+      }
+    } catch (IOException e) {
+      errorHandler.error("Failed to close log output", e, 0);
+    } finally {
+      // should the thread die anyway, doAppend must stop queueing into a buffer nobody drains
+      running = false;
+    }
+  }
+
+  private void flush() {
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      errorHandler.error("Failed to flush log output", e, 0);
+    }
+  }
+
+  private void write(LoggingEvent event) {
+    try {
+      writer.write(layout.format(event));
+      if (layout.ignoresThrowable()) {
+        String[] throwable = event.getThrowableStrRep();
+        if (throwable != null) {
+          for (String line : throwable) {
+            writer.write(line);
+            writer.write(Layout.LINE_SEP);
+          }
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      errorHandler.error("Failed to write log event", e, 0, event);
+    }
+  }
+
+  private void reportDropped() {
+    long total = dropped.sum();
+    if (total > reportedDropped) {
+      write(new LoggingEvent(RingBufferAppender.class.getName(),
+          Logger.getLogger(RingBufferAppender.class), Level.WARN,
+          String.format("Dropped %d log events, buffer of %d was full", total - reportedDropped,
+              buffer.capacity()), null));
+      reportedDropped = total;
+    }
+  }
+
+  private boolean isAccepted(LoggingEvent event) {
+    for (Filter filter = headFilter; filter != null; filter = filter.getNext()) {
+      switch (filter.decide(event)) {
+        case Filter.DENY:
+          return false;
+        case Filter.ACCEPT:
+          return true;
+        default:
+          break;
+      }
+    }
+    return true;
+  }
+
+  private OutputStream openStream() throws IOException {
+    if (file != null) {
+      return new FileOutputStream(file, true);
+    }
+    return new FileOutputStream("System.err".equalsIgnoreCase(target) ? FileDescriptor.err
+        : FileDescriptor.out);
+  }
+
+  public void setBufferSize(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setOverflowPolicy(String overflowPolicy) {
+    this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase());
+  }
+
+  public String getOverflowPolicy() {
+    return overflowPolicy.name();
+  }
+
+  public void setTarget(String target) {
+    this.target = target.trim();
+  }
+
+  public String getTarget() {
+    return target;
+  }
+
+  public void setFile(String file) {
+    this.file = file.trim();
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  @Override
+  public void addFilter(Filter filter) {
+    if (headFilter == null) {
+      headFilter = filter;
+    } else {
+      tailFilter.setNext(filter);
+    }
+    tailFilter = filter;
+  }
+
+  @Override
+  public Filter getFilter() {
+    return headFilter;
+  }
+
+  @Override
+  public void clearFilters() {
+    headFilter = null;
+    tailFilter = null;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public void setErrorHandler(ErrorHandler errorHandler) {
+    this.errorHandler = errorHandler;
+  }
+
+  @Override
+  public ErrorHandler getErrorHandler() {
+    return errorHandler;
+  }
+
+  @Override
+  public void setLayout(Layout layout) {
+    this.layout = layout;
+  }
+
+  @Override
+  public Layout getLayout() {
+    return layout;
+  }
+
+  @Override
+  public boolean requiresLayout() {
+    return true;
+  }
+}
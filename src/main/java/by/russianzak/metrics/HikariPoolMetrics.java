@@ -0,0 +1,59 @@
+package by.russianzak.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.util.concurrent.atomic.LongAdder;
+
+public class HikariPoolMetrics implements MetricsTrackerFactory {
+
+  public static final String ACTIVE = "hikari.connections.active";
+  public static final String IDLE = "hikari.connections.idle";
+  public static final String TOTAL = "hikari.connections.total";
+  public static final String PENDING = "hikari.connections.pending";
+  public static final String MAX = "hikari.connections.max";
+  public static final String ACQUIRE_TIME = "hikari.connections.acquire";
+  public static final String TIMEOUTS = "hikari.connections.timeouts";
+
+  private final MetricsRegistry registry;
+
+  public HikariPoolMetrics(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  public void bind(HikariDataSource dataSource) {
+    dataSource.setMetricsTrackerFactory(this);
+    registry.gauge(ACTIVE, () -> pool(dataSource).getActiveConnections());
+    registry.gauge(IDLE, () -> pool(dataSource).getIdleConnections());
+    registry.gauge(TOTAL, () -> pool(dataSource).getTotalConnections());
+    registry.gauge(PENDING, () -> pool(dataSource).getThreadsAwaitingConnection());
+    registry.gauge(MAX, dataSource::getMaximumPoolSize);
+  }
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    LatencyHistogram acquireTime = registry.histogram(ACQUIRE_TIME);
+    LongAdder timeouts = registry.counter(TIMEOUTS);
+    return new IMetricsTracker() {
+      @Override
+      public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquireTime.record(elapsedAcquiredNanos);
+      }
+
+      @Override
+      public void recordConnectionTimeout() {
+        timeouts.increment();
+      }
+    };
+  }
+
+  private static HikariPoolMXBean pool(HikariDataSource dataSource) {
+    HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+    if (pool == null) {
+      throw new IllegalStateException("Hikari pool is not started");
+    }
+    return pool;
+  }
+}
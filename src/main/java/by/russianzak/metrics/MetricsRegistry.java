@@ -0,0 +1,51 @@
+package by.russianzak.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class MetricsRegistry {
+
+  private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentSkipListMap<>();
+  private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+  private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+
+  public void gauge(String name, Supplier<? extends Number> supplier) {
+    gauges.put(name, supplier);
+  }
+
+  public LatencyHistogram histogram(String name) {
+    return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+  }
+
+  public LongAdder counter(String name) {
+    return counters.computeIfAbsent(name, key -> new LongAdder());
+  }
+
+  public Map<String, Number> sampleGauges() {
+    Map<String, Number> sample = new LinkedHashMap<>();
+    for (Map.Entry<String, Supplier<? extends Number>> gauge : gauges.entrySet()) {
+      try {
+        Number value = gauge.getValue().get();
+        if (value != null) {
+          sample.put(gauge.getKey(), value);
+        }
+      } catch (RuntimeException ignored) {
+        // a gauge whose source is not started yet (e.g. the connector executor) is skipped
+      }
+    }
+    return sample;
+  }
+
+  public Map<String, Long> getCounters() {
+    Map<String, Long> values = new LinkedHashMap<>();
+    counters.forEach((name, counter) -> values.put(name, counter.sum()));
+    return values;
+  }
+
+  public Map<String, LatencyHistogram> getHistograms() {
+    return histograms;
+  }
+}
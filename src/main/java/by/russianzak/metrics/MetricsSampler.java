@@ -0,0 +1,58 @@
+package by.russianzak.metrics;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MetricsSampler implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetricsSampler.class);
+
+  private final MetricsRegistry registry;
+  private final SaturationMonitor saturationMonitor;
+  private final ScheduledExecutorService scheduler;
+
+  private volatile Map<String, Number> lastSample = Map.of();
+  private volatile long sampledAt;
+
+  public MetricsSampler(MetricsRegistry registry, SaturationMonitor saturationMonitor) {
+    this.registry = registry;
+    this.saturationMonitor = saturationMonitor;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "metrics-sampler");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public void start(long intervalMillis) {
+    scheduler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public void sample() {
+    try {
+      Map<String, Number> sample = registry.sampleGauges();
+      saturationMonitor.update(sample);
+      lastSample = sample;
+      sampledAt = System.currentTimeMillis();
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to sample metrics", e);
+    }
+  }
+
+  public Map<String, Number> getLastSample() {
+    return lastSample;
+  }
+
+  public long getSampledAt() {
+    return sampledAt;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,17 @@
+package by.russianzak.metrics;
+
+import by.russianzak.db.JdbcEventListener;
+import by.russianzak.metrics.RequestTimings.Phase;
+
+public class RequestTimingListener implements JdbcEventListener {
+
+  @Override
+  public void onConnectionAcquired(long elapsedNanos) {
+    RequestTimings.record(Phase.CONNECTION, elapsedNanos);
+  }
+
+  @Override
+  public void afterStatement(String sql, long elapsedNanos, Throwable failure) {
+    RequestTimings.record(Phase.SQL, elapsedNanos);
+  }
+}
@@ -0,0 +1,114 @@
+package by.russianzak.metrics;
+
+import java.util.Locale;
+
+/**
+ * Per-request phase timings kept in a thread local, populated only while a request has been
+ * selected for Server-Timing by {@link by.russianzak.servlet.filter.ServerTimingFilter}. Outside
+ * of such a request every call is a single thread-local lookup.
+ */
+public final class RequestTimings {
+
+  public enum Phase {
+    CONNECTION("conn", "Connection acquisition"),
+    SQL("db", "SQL execution"),
+    ROW_MAPPING("rs", "ResultSet mapping"),
+    DTO_MAPPING("dto", "DTO mapping"),
+    SERIALIZATION("json", "JSON serialization");
+
+    private final String metricName;
+    private final String description;
+
+    Phase(String metricName, String description) {
+      this.metricName = metricName;
+      this.description = description;
+    }
+
+    public String getMetricName() {
+      return metricName;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+  }
+
+  private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+  private static final Phase[] PHASES = Phase.values();
+
+  private final long startedAt = System.nanoTime();
+  private final long[] nanos = new long[PHASES.length];
+  private final int[] counts = new int[PHASES.length];
+
+  private RequestTimings() {}
+
+  public static RequestTimings begin() {
+    RequestTimings timings = new RequestTimings();
+    CURRENT.set(timings);
+    return timings;
+  }
+
+  public static void end() {
+    CURRENT.remove();
+  }
+
+  public static boolean isActive() {
+    return CURRENT.get() != null;
+  }
+
+  public static long start() {
+    return CURRENT.get() == null ? 0 : System.nanoTime();
+  }
+
+  public static void stop(Phase phase, long startNanos) {
+    RequestTimings timings = CURRENT.get();
+    if (timings != null) {
+      timings.add(phase, System.nanoTime() - startNanos);
+    }
+  }
+
+  public static void record(Phase phase, long elapsedNanos) {
+    RequestTimings timings = CURRENT.get();
+    if (timings != null) {
+      timings.add(phase, elapsedNanos);
+    }
+  }
+
+  public long getNanos(Phase phase) {
+    return nanos[phase.ordinal()];
+  }
+
+  public int getCount(Phase phase) {
+    return counts[phase.ordinal()];
+  }
+
+  public String toHeaderValue() {
+    StringBuilder header = new StringBuilder(160);
+    for (Phase phase : PHASES) {
+      if (counts[phase.ordinal()] == 0) {
+        continue;
+      }
+      appendMetric(header, phase.metricName, nanos[phase.ordinal()]);
+      header.append(";desc=\"").append(phase.description);
+      if (counts[phase.ordinal()] > 1) {
+        header.append(" x").append(counts[phase.ordinal()]);
+      }
+      header.append('"');
+    }
+    appendMetric(header, "total", System.nanoTime() - startedAt);
+    return header.toString();
+  }
+
+  private void add(Phase phase, long elapsedNanos) {
+    nanos[phase.ordinal()] += elapsedNanos;
+    counts[phase.ordinal()]++;
+  }
+
+  private static void appendMetric(StringBuilder header, String name, long elapsedNanos) {
+    if (header.length() > 0) {
+      header.append(", ");
+    }
+    header.append(name).append(";dur=")
+        .append(String.format(Locale.ROOT, "%.3f", elapsedNanos / 1_000_000.0));
+  }
+}
@@ -0,0 +1,74 @@
+package by.russianzak.metrics;
+
+import java.util.Map;
+
+/**
+ * Rolling saturation score in [0, n] built from the latest gauge sample: the worse of connection
+ * pool demand ((active + pending) / max) and connector thread demand ((busy + queued) / max),
+ * smoothed with an exponentially weighted moving average.
+ */
+public class SaturationMonitor {
+
+  private final double alpha;
+  private final double threshold;
+
+  private volatile double pool;
+  private volatile double threads;
+  private volatile double score;
+  private volatile boolean initialized;
+
+  public SaturationMonitor(double alpha, double threshold) {
+    if (alpha <= 0 || alpha > 1) {
+      throw new IllegalArgumentException("Smoothing factor must be in (0, 1]");
+    }
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("Saturation threshold must be positive");
+    }
+    this.alpha = alpha;
+    this.threshold = threshold;
+  }
+
+  public void update(Map<String, Number> sample) {
+    pool = demand(sample, HikariPoolMetrics.ACTIVE, HikariPoolMetrics.PENDING, HikariPoolMetrics.MAX);
+    threads = demand(sample, TomcatExecutorMetrics.BUSY, TomcatExecutorMetrics.QUEUE_DEPTH,
+        TomcatExecutorMetrics.MAX);
+    double current = Math.max(pool, threads);
+    score = initialized ? alpha * current + (1 - alpha) * score : current;
+    initialized = true;
+  }
+
+  public boolean isSaturated() {
+    return score >= threshold;
+  }
+
+  public double getPool() {
+    return pool;
+  }
+
+  public double getThreads() {
+    return threads;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  public double getThreshold() {
+    return threshold;
+  }
+
+  private static double demand(Map<String, Number> sample, String inUse, String waiting,
+      String capacity) {
+    Number max = sample.get(capacity);
+    if (max == null || max.doubleValue() <= 0) {
+      return 0;
+    }
+    double used = value(sample, inUse) + value(sample, waiting);
+    return used / max.doubleValue();
+  }
+
+  private static double value(Map<String, Number> sample, String name) {
+    Number value = sample.get(name);
+    return value == null ? 0 : value.doubleValue();
+  }
+}
@@ -0,0 +1,34 @@
+package by.russianzak.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the current thread, read from HotSpot's {@link com.sun.management.ThreadMXBean}.
+ * The counter is cumulative, so a measurement is the difference of two reads on the same thread.
+ */
+public final class ThreadAllocation {
+
+  private static final com.sun.management.ThreadMXBean THREADS = enable();
+
+  private ThreadAllocation() {}
+
+  public static boolean isSupported() {
+    return THREADS != null;
+  }
+
+  /** Cumulative bytes allocated by the calling thread, or -1 when the JVM does not track it. */
+  public static long currentThreadAllocatedBytes() {
+    return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+  }
+
+  private static com.sun.management.ThreadMXBean enable() {
+    if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+        || !threads.isThreadAllocatedMemorySupported()) {
+      return null;
+    }
+    if (!threads.isThreadAllocatedMemoryEnabled()) {
+      threads.setThreadAllocatedMemoryEnabled(true);
+    }
+    return threads;
+  }
+}
@@ -0,0 +1,44 @@
+package by.russianzak.metrics;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+
+public class TomcatExecutorMetrics {
+
+  public static final String BUSY = "tomcat.threads.busy";
+  public static final String POOL_SIZE = "tomcat.threads.pool";
+  public static final String MAX = "tomcat.threads.max";
+  public static final String QUEUE_DEPTH = "tomcat.queue.depth";
+  public static final String CONNECTIONS = "tomcat.connections";
+
+  private final MetricsRegistry registry;
+
+  public TomcatExecutorMetrics(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  public void bind(Connector connector) {
+    registry.gauge(BUSY, () -> executor(connector).getActiveCount());
+    registry.gauge(POOL_SIZE, () -> executor(connector).getPoolSize());
+    registry.gauge(MAX, () -> executor(connector).getMaximumPoolSize());
+    registry.gauge(QUEUE_DEPTH, () -> executor(connector).getQueue().size());
+    registry.gauge(CONNECTIONS, () -> protocol(connector).getConnectionCount());
+  }
+
+  private static ThreadPoolExecutor executor(Connector connector) {
+    if (connector.getProtocolHandler().getExecutor() instanceof ThreadPoolExecutor executor) {
+      return executor;
+    }
+    throw new IllegalStateException("Connector executor is not started");
+  }
+
+  private static AbstractProtocol<?> protocol(Connector connector) {
+    ProtocolHandler handler = connector.getProtocolHandler();
+    if (handler instanceof AbstractProtocol<?> protocol) {
+      return protocol;
+    }
+    throw new IllegalStateException("Unsupported protocol handler " + handler.getClass());
+  }
+}
@@ -0,0 +1,4 @@
+package by.russianzak.model;
+
+/** The number of houses built from the start of {@code fromYear} to the end of {@code toYear}. */
+public record BuildYearBucket(int fromYear, int toYear, long houses) {}
@@ -64,7 +64,7 @@ public class RoadSurfaceEntity {
   }
 
   public List<StreetEntity> getStreets() {
-    return streets.stream().toList();
+    return List.copyOf(streets);
   }
 
   public void addStreet(StreetEntity street) {
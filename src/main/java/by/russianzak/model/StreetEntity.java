@@ -40,11 +40,11 @@ public class StreetEntity {
   }
 
   public List<HouseEntity> getHouses() {
-    return houses.stream().toList();
+    return List.copyOf(houses);
   }
 
   public List<RoadSurfaceEntity> getRoadSurfaces() {
-    return roadSurfaces.stream().toList();
+    return List.copyOf(roadSurfaces);
   }
 
   public void setId(Long id) {
@@ -0,0 +1,24 @@
+package by.russianzak.model;
+
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregates of one street: its houses, counted per {@link TypeOfBuilding} value, their floors, and
+ * the road surfaces it is linked to.
+ */
+public record StreetSummary(long streetId, long houses, Map<String, Long> housesByType, long totalFloors,
+                            double averageFloors, long roadSurfaces) {
+
+  /** A summary with every building type listed, counted by {@code housesByType[type.ordinal()]}. */
+  public static StreetSummary of(long streetId, long houses, long[] housesByType, long totalFloors,
+      long roadSurfaces) {
+    Map<String, Long> byType = new LinkedHashMap<>();
+    for (TypeOfBuilding type : TypeOfBuilding.values()) {
+      byType.put(type.getValue(), housesByType[type.ordinal()]);
+    }
+    double averageFloors = houses == 0 ? 0 : (double) totalFloors / houses;
+    return new StreetSummary(streetId, houses, byType, totalFloors, averageFloors, roadSurfaces);
+  }
+}
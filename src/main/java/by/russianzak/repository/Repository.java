@@ -1,7 +1,12 @@
 package by.russianzak.repository;
 
 import by.russianzak.exception.RepositoryException;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface Repository<T, K> {
@@ -19,4 +24,23 @@ public interface Repository<T, K> {
   Optional<T> findById(K id) throws RepositoryException;
 
   List<T> getAll() throws RepositoryException;
+
+  /**
+   * Number of stored entities. Unless {@code exact} is set this may be an estimate from the
+   * database's statistics, which is cheap on large tables but lags recent writes.
+   */
+  long count(boolean exact) throws RepositoryException;
+
+  /** One page of the entities matching {@code spec}, in its order. */
+  QueryPage<T> query(QuerySpec<T> spec) throws RepositoryException;
+
+  /** Entities with the given ids that exist, keyed by id; missing ids have no entry. */
+  default Map<K, T> findAllById(Collection<K> ids) throws RepositoryException {
+    Map<K, T> entities = new HashMap<>();
+    for (K id : ids) {
+      Optional<T> entity = findById(id);
+      entity.ifPresent(found -> entities.put(id, found));
+    }
+    return entities;
+  }
 }
\ No newline at end of file
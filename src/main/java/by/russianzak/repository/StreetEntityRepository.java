@@ -1,6 +1,26 @@
 package by.russianzak.repository;
 
+import by.russianzak.exception.RepositoryException;
 import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface StreetEntityRepository extends Repository<StreetEntity, Long> {
+
+  /** Streets with the given postal codes that exist, keyed by postal code; missing codes have no entry. */
+  Map<Long, StreetEntity> findAllByPostalCode(Collection<Long> postalCodes) throws RepositoryException;
+
+  /** Aggregates of every street, ordered by street id, read without loading any house or road surface. */
+  List<StreetSummary> getSummaries() throws RepositoryException;
+
+  Optional<StreetSummary> findSummaryById(Long streetId) throws RepositoryException;
+
+  /**
+   * The stored response body of the street, if this repository keeps the street document read
+   * model and has rendered one for it; empty otherwise, and the caller reads the street itself.
+   */
+  Optional<String> findDocumentById(Long id) throws RepositoryException;
 }
@@ -0,0 +1,26 @@
+package by.russianzak.repository.batching;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.repository.HouseEntityRepository;
+import java.time.LocalDate;
+import java.util.List;
+
+public class BatchingHouseEntityRepository extends BatchingRepository<HouseEntity>
+    implements HouseEntityRepository {
+
+  private final HouseEntityRepository delegate;
+
+  public BatchingHouseEntityRepository(HouseEntityRepository delegate, long windowMicros,
+      int maxBatchSize) {
+    super("HouseEntity", delegate, windowMicros, maxBatchSize);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public List<BuildYearBucket> getBuildYearHistogram(int bucketYears, LocalDate from, LocalDate to)
+      throws RepositoryException {
+    return delegate.getBuildYearHistogram(bucketYears, from, to);
+  }
+}
@@ -0,0 +1,92 @@
+package by.russianzak.repository.batching;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.repository.Repository;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sends {@code findById} and {@code getById} through a {@link FindByIdBatcher} over the delegate's
+ * {@code findAllById}; every other operation goes straight to the delegate.
+ */
+public abstract class BatchingRepository<T> implements Repository<T, Long> {
+
+  private final String entityName;
+  private final Repository<T, Long> delegate;
+  private final FindByIdBatcher<T> batcher;
+
+  protected BatchingRepository(String entityName, Repository<T, Long> delegate, long windowMicros,
+      int maxBatchSize) {
+    this.entityName = entityName;
+    this.delegate = delegate;
+    this.batcher = FindByIdBatcher.<T>builder()
+        .setLoader(delegate::findAllById)
+        .setWindowMicros(windowMicros)
+        .setMaxBatchSize(maxBatchSize)
+        .build();
+  }
+
+  public FindByIdBatcher<T> getBatcher() {
+    return batcher;
+  }
+
+  @Override
+  public T save(T entity) throws RepositoryException {
+    return delegate.save(entity);
+  }
+
+  @Override
+  public T getById(Long id) throws RepositoryException {
+    Optional<T> entity = findById(id);
+    if (entity.isPresent()) {
+      return entity.get();
+    } else {
+      throw new EntityNotFoundException(String.format("%s with id %s not found", entityName, id));
+    }
+  }
+
+  @Override
+  public boolean deleteById(Long id) throws RepositoryException {
+    return delegate.deleteById(id);
+  }
+
+  @Override
+  public boolean delete(T entity) throws RepositoryException {
+    return delegate.delete(entity);
+  }
+
+  @Override
+  public T update(T entity) throws RepositoryException {
+    return delegate.update(entity);
+  }
+
+  @Override
+  public Optional<T> findById(Long id) throws RepositoryException {
+    return batcher.find(id);
+  }
+
+  @Override
+  public List<T> getAll() throws RepositoryException {
+    return delegate.getAll();
+  }
+
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return delegate.count(exact);
+  }
+
+  @Override
+  public QueryPage<T> query(QuerySpec<T> spec) throws RepositoryException {
+    return delegate.query(spec);
+  }
+
+  @Override
+  public Map<Long, T> findAllById(Collection<Long> ids) throws RepositoryException {
+    return delegate.findAllById(ids);
+  }
+}
@@ -0,0 +1,13 @@
+package by.russianzak.repository.batching;
+
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.repository.RoadSurfaceEntityRepository;
+
+public class BatchingRoadSurfaceEntityRepository extends BatchingRepository<RoadSurfaceEntity>
+    implements RoadSurfaceEntityRepository {
+
+  public BatchingRoadSurfaceEntityRepository(RoadSurfaceEntityRepository delegate, long windowMicros,
+      int maxBatchSize) {
+    super("RoadSurfaceEntity", delegate, windowMicros, maxBatchSize);
+  }
+}
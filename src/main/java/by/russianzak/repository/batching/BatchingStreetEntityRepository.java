@@ -0,0 +1,43 @@
+package by.russianzak.repository.batching;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import by.russianzak.repository.StreetEntityRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class BatchingStreetEntityRepository extends BatchingRepository<StreetEntity>
+    implements StreetEntityRepository {
+
+  private final StreetEntityRepository delegate;
+
+  public BatchingStreetEntityRepository(StreetEntityRepository delegate, long windowMicros,
+      int maxBatchSize) {
+    super("StreetEntity", delegate, windowMicros, maxBatchSize);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Map<Long, StreetEntity> findAllByPostalCode(Collection<Long> postalCodes)
+      throws RepositoryException {
+    return delegate.findAllByPostalCode(postalCodes);
+  }
+
+  @Override
+  public List<StreetSummary> getSummaries() throws RepositoryException {
+    return delegate.getSummaries();
+  }
+
+  @Override
+  public Optional<StreetSummary> findSummaryById(Long streetId) throws RepositoryException {
+    return delegate.findSummaryById(streetId);
+  }
+
+  @Override
+  public Optional<String> findDocumentById(Long id) throws RepositoryException {
+    return delegate.findDocumentById(id);
+  }
+}
@@ -0,0 +1,182 @@
+package by.russianzak.repository.batching;
+
+import by.russianzak.exception.RepositoryException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collects concurrent lookups by id into one multi-id load. The first caller to arrive opens a
+ * batch and becomes its leader: it waits for the window to pass or the batch to fill, loads every
+ * collected id at once and completes the other callers' futures. No background thread is involved,
+ * so a lone request pays at most the window on top of its own query.
+ */
+public class FindByIdBatcher<T> {
+
+  @FunctionalInterface
+  public interface BatchLoader<T> {
+    Map<Long, T> load(Collection<Long> ids) throws RepositoryException;
+  }
+
+  private final BatchLoader<T> loader;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final Object lock = new Object();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder requests = new LongAdder();
+  private Batch<T> open;
+
+  private FindByIdBatcher(Builder<T> builder) {
+    this.loader = builder.loader;
+    this.windowNanos = TimeUnit.MICROSECONDS.toNanos(builder.windowMicros);
+    this.maxBatchSize = builder.maxBatchSize;
+  }
+
+  public static <T> Builder<T> builder() {
+    return new Builder<>();
+  }
+
+  public Optional<T> find(Long id) throws RepositoryException {
+    requests.increment();
+    Batch<T> batch;
+    CompletableFuture<Optional<T>> future;
+    boolean leader = false;
+    synchronized (lock) {
+      if (open == null) {
+        open = new Batch<>(Thread.currentThread());
+        leader = true;
+      }
+      batch = open;
+      future = batch.add(id);
+      if (batch.size() >= maxBatchSize) {
+        open = null;
+        batch.full = true;
+        LockSupport.unpark(batch.leader);
+      }
+    }
+    if (leader) {
+      lead(batch);
+    }
+    return await(future);
+  }
+
+  public long getBatches() {
+    return batches.sum();
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  private void lead(Batch<T> batch) {
+    long deadline = System.nanoTime() + windowNanos;
+    long remaining;
+    while (!batch.full && (remaining = deadline - System.nanoTime()) > 0
+        && !Thread.currentThread().isInterrupted()) {
+      LockSupport.parkNanos(this, remaining);
+    }
+    synchronized (lock) {
+      if (open == batch) {
+        open = null;
+      }
+    }
+    batches.increment();
+    try {
+      Map<Long, T> found = loader.load(batch.waiters.keySet());
+      batch.waiters.forEach((id, futures) -> {
+        Optional<T> entity = Optional.ofNullable(found.get(id));
+        futures.forEach(future -> future.complete(entity));
+      });
+    } catch (RepositoryException | RuntimeException | Error e) {
+      batch.waiters.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+    }
+  }
+
+  private static <T> Optional<T> await(CompletableFuture<Optional<T>> future)
+      throws RepositoryException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RepositoryException("Interrupted while waiting for a batched lookup", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RepositoryException repositoryException) {
+        throw repositoryException;
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new RepositoryException("Batched lookup failed", cause);
+    }
+  }
+
+  private static final class Batch<T> {
+    private final Thread leader;
+    private final Map<Long, List<CompletableFuture<Optional<T>>>> waiters = new LinkedHashMap<>();
+    private int size;
+    private volatile boolean full;
+
+    private Batch(Thread leader) {
+      this.leader = leader;
+    }
+
+    private CompletableFuture<Optional<T>> add(Long id) {
+      CompletableFuture<Optional<T>> future = new CompletableFuture<>();
+      waiters.computeIfAbsent(id, key -> new ArrayList<>()).add(future);
+      size++;
+      return future;
+    }
+
+    private int size() {
+      return size;
+    }
+  }
+
+  public static class Builder<T> {
+    private BatchLoader<T> loader;
+    private long windowMicros = 200;
+    private int maxBatchSize = 64;
+
+    private Builder() {}
+
+    public Builder<T> setLoader(BatchLoader<T> loader) {
+      this.loader = loader;
+      return this;
+    }
+
+    public Builder<T> setWindowMicros(long windowMicros) {
+      this.windowMicros = windowMicros;
+      return this;
+    }
+
+    public Builder<T> setMaxBatchSize(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    public FindByIdBatcher<T> build() {
+      if (loader == null) {
+        throw new IllegalArgumentException("Batch loader is required");
+      }
+      if (windowMicros < 0) {
+        throw new IllegalArgumentException("Batch window must not be negative");
+      }
+      if (maxBatchSize <= 0) {
+        throw new IllegalArgumentException("Max batch size must be positive");
+      }
+      return new FindByIdBatcher<>(this);
+    }
+  }
+}
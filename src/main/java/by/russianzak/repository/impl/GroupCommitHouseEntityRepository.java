@@ -0,0 +1,322 @@
+package by.russianzak.repository.impl;
+
+import by.russianzak.db.ConnectionManager;
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.repository.HouseEntityRepository;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Commits concurrent {@link #save} calls together. The first save to arrive leads a group: it
+ * waits for the window to pass or the group to fill, then runs every save in one transaction,
+ * each behind its own savepoint. A save that fails rolls back to its savepoint and fails only its
+ * own caller with the exception a standalone save would have thrown; the rest commit once. A
+ * caller is told its save succeeded only after that commit. All other operations go straight to
+ * the wrapped repository.
+ */
+public class GroupCommitHouseEntityRepository implements HouseEntityRepository {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GroupCommitHouseEntityRepository.class);
+
+  private final HouseEntityRepositoryImpl delegate;
+  private final ConnectionManager connectionManager;
+  private final long windowNanos;
+  private final int maxGroupSize;
+  private final Object lock = new Object();
+  private final LongAdder groups = new LongAdder();
+  private final LongAdder saves = new LongAdder();
+  private Group open;
+
+  private GroupCommitHouseEntityRepository(Builder builder) {
+    this.delegate = builder.delegate;
+    this.connectionManager = builder.connectionManager;
+    this.windowNanos = TimeUnit.MICROSECONDS.toNanos(builder.windowMicros);
+    this.maxGroupSize = builder.maxGroupSize;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public HouseEntity save(HouseEntity entity) throws RepositoryException {
+    delegate.validateHouseEntity(entity);
+    PendingSave pending = new PendingSave(entity);
+    Group group;
+    boolean leader = false;
+    synchronized (lock) {
+      if (open == null) {
+        open = new Group(Thread.currentThread());
+        leader = true;
+      }
+      group = open;
+      group.saves.add(pending);
+      if (group.saves.size() >= maxGroupSize) {
+        open = null;
+        group.full = true;
+        LockSupport.unpark(group.leader);
+      }
+    }
+    if (leader) {
+      lead(group);
+    }
+    return await(pending.future);
+  }
+
+  @Override
+  public HouseEntity getById(Long id) throws RepositoryException {
+    return delegate.getById(id);
+  }
+
+  @Override
+  public boolean deleteById(Long id) throws RepositoryException {
+    return delegate.deleteById(id);
+  }
+
+  @Override
+  public boolean delete(HouseEntity entity) throws RepositoryException {
+    return delegate.delete(entity);
+  }
+
+  @Override
+  public HouseEntity update(HouseEntity entity) throws RepositoryException {
+    return delegate.update(entity);
+  }
+
+  @Override
+  public Optional<HouseEntity> findById(Long id) throws RepositoryException {
+    return delegate.findById(id);
+  }
+
+  @Override
+  public List<HouseEntity> getAll() throws RepositoryException {
+    return delegate.getAll();
+  }
+
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return delegate.count(exact);
+  }
+
+  @Override
+  public QueryPage<HouseEntity> query(QuerySpec<HouseEntity> spec) throws RepositoryException {
+    return delegate.query(spec);
+  }
+
+  @Override
+  public List<BuildYearBucket> getBuildYearHistogram(int bucketYears, LocalDate from, LocalDate to)
+      throws RepositoryException {
+    return delegate.getBuildYearHistogram(bucketYears, from, to);
+  }
+
+  @Override
+  public Map<Long, HouseEntity> findAllById(Collection<Long> ids) throws RepositoryException {
+    return delegate.findAllById(ids);
+  }
+
+  public long getGroups() {
+    return groups.sum();
+  }
+
+  public long getSaves() {
+    return saves.sum();
+  }
+
+  /** Saves per commit since startup. */
+  public double getBatchingFactor() {
+    long committedGroups = groups.sum();
+    return committedGroups == 0 ? 0 : (double) saves.sum() / committedGroups;
+  }
+
+  private void lead(Group group) {
+    long deadline = System.nanoTime() + windowNanos;
+    long remaining;
+    while (!group.full && (remaining = deadline - System.nanoTime()) > 0
+        && !Thread.currentThread().isInterrupted()) {
+      LockSupport.parkNanos(this, remaining);
+    }
+    synchronized (lock) {
+      if (open == group) {
+        open = null;
+      }
+    }
+    commit(group.saves);
+  }
+
+  private void commit(List<PendingSave> group) {
+    groups.increment();
+    saves.add(group.size());
+    // a lone save needs no savepoint: rolling back the transaction has the same effect
+    boolean isolate = group.size() > 1;
+    List<PendingSave> inserted = new ArrayList<>(group.size());
+    // summed over the group and applied once, so saves to one street update its summary and
+    // document once
+    StreetSummaries.Changes summaryChanges = new StreetSummaries.Changes();
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+      for (PendingSave pending : group) {
+        Savepoint savepoint = isolate ? connection.setSavepoint() : null;
+        try {
+          pending.id = delegate.insertHouse(pending.entity, connection, summaryChanges);
+          if (isolate) {
+            connection.releaseSavepoint(savepoint);
+          }
+          inserted.add(pending);
+        } catch (SQLException | RuntimeException e) {
+          if (isolate) {
+            connection.rollback(savepoint);
+          } else {
+            connection.rollback();
+          }
+          pending.future.completeExceptionally(e instanceof SQLException sqlException
+              ? saveFailed(pending.entity, sqlException) : e);
+        }
+      }
+      delegate.applyStreetChanges(summaryChanges, connection);
+      connection.commit();
+      for (PendingSave pending : inserted) {
+        pending.entity.setId(pending.id);
+        pending.future.complete(pending.entity);
+      }
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      group.forEach(pending -> pending.future.completeExceptionally(saveFailed(pending.entity, e)));
+    } catch (RuntimeException | Error e) {
+      rollbackConnection(connection);
+      group.forEach(pending -> pending.future.completeExceptionally(e));
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  private static RepositoryException saveFailed(HouseEntity entity, SQLException cause) {
+    return new RepositoryException(
+        String.format("Error occurred while saving HouseEntity with house number: %s",
+            entity.getHouseNumber()), cause);
+  }
+
+  private static HouseEntity await(CompletableFuture<HouseEntity> future)
+      throws RepositoryException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RepositoryException("Interrupted while waiting for a group commit", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RepositoryException repositoryException) {
+        throw repositoryException;
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new RepositoryException("Group commit failed", cause);
+    }
+  }
+
+  private void rollbackConnection(Connection connection) {
+    if (connection != null) {
+      try {
+        connection.rollback();
+      } catch (SQLException rollbackException) {
+        LOGGER.error("Failed to roll back transaction", rollbackException);
+      }
+    }
+  }
+
+  private void closeConnection(Connection connection) {
+    if (connection != null) {
+      try {
+        connection.setAutoCommit(true);
+        connection.close();
+      } catch (SQLException closeException) {
+        LOGGER.error("Failed to release connection", closeException);
+      }
+    }
+  }
+
+  private static final class PendingSave {
+    private final HouseEntity entity;
+    private final CompletableFuture<HouseEntity> future = new CompletableFuture<>();
+    private Long id;
+
+    private PendingSave(HouseEntity entity) {
+      this.entity = entity;
+    }
+  }
+
+  private static final class Group {
+    private final Thread leader;
+    private final List<PendingSave> saves = new ArrayList<>();
+    private volatile boolean full;
+
+    private Group(Thread leader) {
+      this.leader = leader;
+    }
+  }
+
+  public static class Builder {
+    private HouseEntityRepositoryImpl delegate;
+    private ConnectionManager connectionManager;
+    private long windowMicros = 500;
+    private int maxGroupSize = 32;
+
+    private Builder() {}
+
+    public Builder setDelegate(HouseEntityRepositoryImpl delegate) {
+      this.delegate = delegate;
+      return this;
+    }
+
+    public Builder setConnectionManager(ConnectionManager connectionManager) {
+      this.connectionManager = connectionManager;
+      return this;
+    }
+
+    public Builder setWindowMicros(long windowMicros) {
+      this.windowMicros = windowMicros;
+      return this;
+    }
+
+    public Builder setMaxGroupSize(int maxGroupSize) {
+      this.maxGroupSize = maxGroupSize;
+      return this;
+    }
+
+    public GroupCommitHouseEntityRepository build() {
+      if (delegate == null || connectionManager == null) {
+        throw new IllegalArgumentException("Delegate repository and connection manager are required");
+      }
+      if (windowMicros < 0) {
+        throw new IllegalArgumentException("Group commit window must not be negative");
+      }
+      if (maxGroupSize <= 0) {
+        throw new IllegalArgumentException("Max group size must be positive");
+      }
+      return new GroupCommitHouseEntityRepository(this);
+    }
+  }
+}
@@ -1,13 +1,20 @@
 package by.russianzak.repository.impl;
 
+import static by.russianzak.repository.sql.SqlStatement.*;
+
 import by.russianzak.db.ConnectionManager;
 import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
 import by.russianzak.model.HouseEntity;
 import by.russianzak.model.StreetEntity;
 import by.russianzak.repository.HouseEntityRepository;
 import by.russianzak.repository.mapper.HouseResultSetMapper;
 
 import by.russianzak.repository.mapper.StreetResultSetMapper;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import by.russianzak.repository.sql.PostgreSqlDialect;
+import by.russianzak.repository.sql.SqlDialect;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import java.sql.Connection;
@@ -15,22 +22,50 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class HouseEntityRepositoryImpl implements HouseEntityRepository {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(HouseEntityRepositoryImpl.class);
+
+  // stand-ins for an open bound, so the histogram has one statement and one plan shape
+  private static final LocalDate EARLIEST_BUILD_DATE = LocalDate.of(1, 1, 1);
+  private static final LocalDate LATEST_BUILD_DATE = LocalDate.of(9999, 12, 31);
+
   private final HouseResultSetMapper houseResultSetMapper;
   private final StreetResultSetMapper streetResultSetMapper;
   private final ConnectionManager connectionManager;
+  private final SqlDialect dialect;
+  private final StreetDocuments streetDocuments;
 
   public HouseEntityRepositoryImpl(HouseResultSetMapper houseResultSetMapper,
       StreetResultSetMapper streetResultSetMapper, ConnectionManager connectionManager) {
+    this(houseResultSetMapper, streetResultSetMapper, connectionManager, new PostgreSqlDialect());
+  }
+
+  public HouseEntityRepositoryImpl(HouseResultSetMapper houseResultSetMapper,
+      StreetResultSetMapper streetResultSetMapper, ConnectionManager connectionManager,
+      SqlDialect dialect) {
+    this(houseResultSetMapper, streetResultSetMapper, connectionManager, dialect, StreetDocuments.disabled());
+  }
+
+  /** With enabled street documents, every write refreshes the documents of the streets it changed. */
+  public HouseEntityRepositoryImpl(HouseResultSetMapper houseResultSetMapper,
+      StreetResultSetMapper streetResultSetMapper, ConnectionManager connectionManager,
+      SqlDialect dialect, StreetDocuments streetDocuments) {
     this.houseResultSetMapper = houseResultSetMapper;
     this.streetResultSetMapper = streetResultSetMapper;
     this.connectionManager = connectionManager;
+    this.dialect = dialect;
+    this.streetDocuments = streetDocuments;
   }
 
   @Override
@@ -41,12 +76,9 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
       connection = connectionManager.getConnection();
       connection.setAutoCommit(false);
 
-      StreetEntity street = entity.getStreet();
-
-      saveStreet(street, connection);
-
-      checkHouseExistence(entity, connection);
-      Long houseId = saveHouseAndGetId(entity, connection);
+      StreetSummaries.Changes summaryChanges = new StreetSummaries.Changes();
+      Long houseId = insertHouse(entity, connection, summaryChanges);
+      applyStreetChanges(summaryChanges, connection);
       connection.commit();
 
       entity.setId(houseId);
@@ -79,7 +111,9 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
       connection = connectionManager.getConnection();
       connection.setAutoCommit(false);
 
-      boolean isDeleted = deleteHouseById(id, connection);
+      StreetSummaries.Changes summaryChanges = new StreetSummaries.Changes();
+      boolean isDeleted = deleteHouseById(id, connection, summaryChanges);
+      applyStreetChanges(summaryChanges, connection);
 
       connection.commit();
       return isDeleted;
@@ -106,11 +140,16 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
       connection = connectionManager.getConnection();
       connection.setAutoCommit(false);
 
+      StreetSummaries.Changes summaryChanges = new StreetSummaries.Changes();
+      removeFromSummary(entity.getId(), connection, summaryChanges);
+
       StreetEntity street = entity.getStreet();
 
       saveStreet(street, connection);
 
       updateHouse(entity, connection);
+      summaryChanges.addHouse(street.getId(), entity.getType(), entity.getNumFloors());
+      applyStreetChanges(summaryChanges, connection);
 
       connection.commit();
       return entity;
@@ -164,9 +203,130 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
     }
   }
 
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      long count = RowCounts.count(connection, dialect, "house", HOUSE_COUNT, exact);
+
+      connection.commit();
+      return count;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException("Error occurred while counting HouseEntity", e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public QueryPage<HouseEntity> query(QuerySpec<HouseEntity> spec) throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      QueryPage<HouseEntity> page = ListQueries.findPage(connection, spec, this::findHousesByIds);
+
+      connection.commit();
+      return page;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while querying HouseEntity as %s", spec.getShape()), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public List<BuildYearBucket> getBuildYearHistogram(int bucketYears, LocalDate from, LocalDate to)
+      throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      List<BuildYearBucket> buckets = selectBuildYearHistogram(bucketYears, from, to, connection);
+
+      connection.commit();
+      return buckets;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while counting HouseEntity by %d build years", bucketYears), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public Map<Long, HouseEntity> findAllById(Collection<Long> ids) throws RepositoryException {
+    if (ids.isEmpty()) {
+      return new HashMap<>();
+    }
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      Map<Long, HouseEntity> houseEntities = findHousesByIds(ids, connection);
+
+      connection.commit();
+      return houseEntities;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while finding %d HouseEntities by id", ids.size()), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  /**
+   * The statements of {@link #save} without the transaction, so several saves can share one. The
+   * summary change is recorded only once the house is inserted.
+   */
+  Long insertHouse(HouseEntity entity, Connection connection, StreetSummaries.Changes summaryChanges)
+      throws SQLException {
+    saveStreet(entity.getStreet(), connection);
+    checkHouseExistence(entity, connection);
+    Long houseId = saveHouseAndGetId(entity, connection);
+    summaryChanges.addHouse(entity.getStreet().getId(), entity.getType(), entity.getNumFloors());
+    return houseId;
+  }
+
+  /** Applies the summary changes, then refreshes the documents of every street they touched. */
+  void applyStreetChanges(StreetSummaries.Changes summaryChanges, Connection connection)
+      throws SQLException {
+    summaryChanges.apply(connection, dialect);
+    streetDocuments.refresh(connection, summaryChanges.getStreetIds());
+  }
+
+  /**
+   * Locks the stored house and records its removal from its street's summary, so an update or
+   * delete subtracts exactly what a concurrent writer left behind.
+   */
+  private void removeFromSummary(Long id, Connection connection, StreetSummaries.Changes summaryChanges)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(
+        dialect.sql(HOUSE_SELECT_SUMMARY_FIELDS_FOR_UPDATE))) {
+      statement.setObject(1, id);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (resultSet.next()) {
+          summaryChanges.removeHouse(resultSet.getLong("street_id"), resultSet.getString("type"),
+              resultSet.getInt("num_floors"));
+        }
+      }
+    }
+  }
+
   private boolean isHouseExists(String houseNumber, long streetId, Connection connection)
       throws SQLException {
-    String selectSql = "SELECT id FROM house WHERE house_number = ? AND street_id = ?";
+    String selectSql = dialect.sql(HOUSE_SELECT_ID_BY_NUMBER_AND_STREET_ID);
 
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setString(1, houseNumber);
@@ -179,7 +339,7 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
   }
 
   private StreetEntity getStreetById(Long id, Connection connection) throws SQLException {
-    String sql = "SELECT * FROM street WHERE id = ?";
+    String sql = dialect.sql(STREET_SELECT_BY_ID);
 
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setLong(1, id);
@@ -201,6 +361,8 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
 
     if (!isStreetExists(street, connection)) {
       street.setId(saveStreetAndGetId(street, connection));
+      StreetSummaries.insert(connection, dialect, street.getId());
+      streetDocuments.insert(connection, street.getId());
     } else {
       street.setId(getStreetId(street, connection));
     }
@@ -215,33 +377,23 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
   }
 
   private Long saveHouseAndGetId(HouseEntity entity, Connection connection) throws SQLException {
-    String insertSql = "INSERT INTO house (house_number, build_date, num_floors, type, street_id) VALUES (?, ?, ?, ?, ?)";
-    try (PreparedStatement insertStatement = connection.prepareStatement(insertSql,
-        Statement.RETURN_GENERATED_KEYS)) {
+    try (PreparedStatement insertStatement = dialect.prepareInsert(connection, HOUSE_INSERT)) {
       insertStatement.setString(1, entity.getHouseNumber());
       insertStatement.setDate(2, new Date(entity.getBuildDate().getTime()));
       insertStatement.setInt(3, entity.getNumFloors());
       insertStatement.setString(4, entity.getType());
       insertStatement.setObject(5, entity.getStreet().getId());
-      int rowsAffected = insertStatement.executeUpdate();
-
-      if (rowsAffected > 0) {
-        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
-          if (generatedKeys.next()) {
-            return generatedKeys.getLong("id");
-          } else {
-            throw new SQLException("Failed to retrieve generated house ID");
-          }
+      try (ResultSet generatedKeys = dialect.executeInsert(insertStatement)) {
+        if (generatedKeys.next()) {
+          return generatedKeys.getLong("id");
+        } else {
+          throw new SQLException("Failed to retrieve generated house ID");
         }
-      } else {
-        throw new SQLException(
-            String.format("Error occurred while saving HouseEntity with house number: %s",
-                entity.getHouseNumber()));
       }
     }
   }
 
-  private void validateHouseEntity(HouseEntity house) {
+  void validateHouseEntity(HouseEntity house) {
     if (house == null) {
       throw new IllegalArgumentException("HouseEntity cannot be null");
     }
@@ -250,8 +402,10 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
     house.getStreet().validateNotNullFields();
   }
 
-  private boolean deleteHouseById(Long id, Connection connection) throws SQLException {
-    String sql = "DELETE FROM house WHERE id = ?";
+  private boolean deleteHouseById(Long id, Connection connection, StreetSummaries.Changes summaryChanges)
+      throws SQLException {
+    removeFromSummary(id, connection, summaryChanges);
+    String sql = dialect.sql(HOUSE_DELETE_BY_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setLong(1, id);
       int rowsAffected = statement.executeUpdate();
@@ -260,7 +414,7 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
   }
 
   private void updateHouse(HouseEntity entity, Connection connection) throws SQLException {
-    String sql = "UPDATE house SET house_number = ?, build_date = ?, num_floors = ?, type = ?, street_id = ? WHERE id = ?";
+    String sql = dialect.sql(HOUSE_UPDATE);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setString(1, entity.getHouseNumber());
       statement.setDate(2, new Date(entity.getBuildDate().getTime()));
@@ -280,7 +434,7 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
   }
 
   private Optional<HouseEntity> findHouseById(Long id, Connection connection) throws SQLException {
-    String sql = "SELECT * FROM house WHERE id = ?";
+    String sql = dialect.sql(HOUSE_SELECT_BY_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setObject(1, id);
 
@@ -302,7 +456,7 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
 
   private List<HouseEntity> retrieveAllHouses(Connection connection) throws SQLException {
     List<HouseEntity> houseEntities = new ArrayList<>();
-    String sql = "SELECT * FROM house";
+    String sql = dialect.sql(HOUSE_SELECT_ALL);
     try (PreparedStatement statement = connection.prepareStatement(sql);
         ResultSet resultSet = statement.executeQuery()) {
       while (resultSet.next()) {
@@ -318,12 +472,62 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
     return houseEntities;
   }
 
+  private Map<Long, HouseEntity> findHousesByIds(Collection<Long> ids, Connection connection)
+      throws SQLException {
+    Map<Long, HouseEntity> houseEntities = new HashMap<>();
+    Map<Long, List<HouseEntity>> housesByStreetId = new HashMap<>();
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(HOUSE_SELECT_BY_IDS))) {
+      statement.setArray(1, dialect.createIdArray(connection, ids));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          HouseEntity houseEntity = houseResultSetMapper.map(resultSet);
+          houseEntities.put(houseEntity.getId(), houseEntity);
+          housesByStreetId.computeIfAbsent(resultSet.getLong("street_id"), streetId -> new ArrayList<>())
+              .add(houseEntity);
+        }
+      }
+    }
+    if (housesByStreetId.isEmpty()) {
+      return houseEntities;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(STREET_SELECT_BY_IDS))) {
+      statement.setArray(1, dialect.createIdArray(connection, housesByStreetId.keySet()));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          StreetEntity streetEntity = streetResultSetMapper.map(resultSet);
+          for (HouseEntity houseEntity : housesByStreetId.get(streetEntity.getId())) {
+            houseEntity.setStreet(streetEntity);
+          }
+        }
+      }
+    }
+    return houseEntities;
+  }
+
+  private List<BuildYearBucket> selectBuildYearHistogram(int bucketYears, LocalDate from, LocalDate to,
+      Connection connection) throws SQLException {
+    List<BuildYearBucket> buckets = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(HOUSE_SELECT_BUILD_YEAR_HISTOGRAM))) {
+      statement.setInt(1, bucketYears);
+      statement.setInt(2, bucketYears);
+      statement.setObject(3, from == null ? EARLIEST_BUILD_DATE : from);
+      statement.setObject(4, to == null ? LATEST_BUILD_DATE : to);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          int fromYear = resultSet.getInt("from_year");
+          buckets.add(new BuildYearBucket(fromYear, fromYear + bucketYears - 1, resultSet.getLong("houses")));
+        }
+      }
+    }
+    return buckets;
+  }
+
   private void rollbackConnection(Connection connection) {
     if (connection != null) {
       try {
         connection.rollback();
       } catch (SQLException rollbackException) {
-        rollbackException.printStackTrace();
+        LOGGER.error("Failed to roll back transaction", rollbackException);
       }
     }
   }
@@ -334,13 +538,13 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
         connection.setAutoCommit(true);
         connection.close();
       } catch (SQLException closeException) {
-        closeException.printStackTrace();
+        LOGGER.error("Failed to release connection", closeException);
       }
     }
   }
 
   private boolean isStreetExists(StreetEntity street, Connection connection) throws SQLException {
-    String selectSql = "SELECT id FROM street WHERE postal_code = ?";
+    String selectSql = dialect.sql(STREET_SELECT_ID_BY_POSTAL_CODE);
 
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setLong(1, street.getPostalCode());
@@ -352,7 +556,7 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
   }
 
   private long getStreetId(StreetEntity street, Connection connection) throws SQLException {
-    String selectSql = "SELECT id FROM street WHERE postal_code = ?";
+    String selectSql = dialect.sql(STREET_SELECT_ID_BY_POSTAL_CODE);
 
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setLong(1, street.getPostalCode());
@@ -369,15 +573,10 @@ public class HouseEntityRepositoryImpl implements HouseEntityRepository {
   }
 
   private long saveStreetAndGetId(StreetEntity street, Connection connection) throws SQLException {
-    String insertSql = "INSERT INTO street (name, postal_code) VALUES (?, ?)";
-    try (PreparedStatement insertStatement = connection.prepareStatement(insertSql,
-        Statement.RETURN_GENERATED_KEYS)) {
+    try (PreparedStatement insertStatement = dialect.prepareInsert(connection, STREET_INSERT)) {
       insertStatement.setString(1, street.getName());
       insertStatement.setLong(2, street.getPostalCode());
-      insertStatement.executeUpdate();
-
-      try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
-
+      try (ResultSet generatedKeys = dialect.executeInsert(insertStatement)) {
         if (generatedKeys.next()) {
           return generatedKeys.getLong("id");
         } else {
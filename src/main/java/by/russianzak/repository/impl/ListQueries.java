@@ -0,0 +1,55 @@
+package by.russianzak.repository.impl;
+
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import by.russianzak.repository.query.QuerySpec.Key;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Runs a {@link QuerySpec} in two steps: the filtered, sorted scan selects only ids, which the
+ * list-query indexes answer without touching the table, and the page's entities are then loaded
+ * by id with the repository's batch loader.
+ */
+final class ListQueries {
+
+  @FunctionalInterface
+  interface Loader<T> {
+    Map<Long, T> load(Collection<Long> ids, Connection connection) throws SQLException;
+  }
+
+  private ListQueries() {}
+
+  static <T> QueryPage<T> findPage(Connection connection, QuerySpec<T> spec, Loader<T> loader)
+      throws SQLException {
+    List<Long> ids = new ArrayList<>();
+    String nextCursor = null;
+    try (PreparedStatement statement = connection.prepareStatement(spec.getSql())) {
+      spec.bind(statement);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        Key last = null;
+        while (resultSet.next()) {
+          if (ids.size() == spec.getLimit()) {
+            nextCursor = spec.cursorAfter(last);
+            break;
+          }
+          last = spec.readKey(resultSet);
+          ids.add(last.id());
+        }
+      }
+    }
+    if (ids.isEmpty()) {
+      return new QueryPage<>(List.of(), null);
+    }
+    Map<Long, T> entities = loader.load(ids, connection);
+    List<T> items = ids.stream().map(entities::get).filter(Objects::nonNull).toList();
+    return new QueryPage<>(items, nextCursor);
+  }
+}
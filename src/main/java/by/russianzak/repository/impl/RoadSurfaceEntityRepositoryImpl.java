@@ -1,5 +1,7 @@
 package by.russianzak.repository.impl;
 
+import static by.russianzak.repository.sql.SqlStatement.*;
+
 import by.russianzak.db.ConnectionManager;
 import by.russianzak.exception.RepositoryException;
 import by.russianzak.model.RoadSurfaceEntity;
@@ -7,6 +9,10 @@ import by.russianzak.model.StreetEntity;
 import by.russianzak.repository.RoadSurfaceEntityRepository;
 import by.russianzak.repository.mapper.RoadSurfaceResultSetMapper;
 import by.russianzak.repository.mapper.StreetResultSetMapper;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import by.russianzak.repository.sql.PostgreSqlDialect;
+import by.russianzak.repository.sql.SqlDialect;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 
@@ -14,24 +20,48 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityRepository {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(RoadSurfaceEntityRepositoryImpl.class);
+
   private final RoadSurfaceResultSetMapper roadSurfaceResultSetMapper;
   private final StreetResultSetMapper streetResultSetMapper;
   private final ConnectionManager connectionManager;
+  private final SqlDialect dialect;
+  private final StreetDocuments streetDocuments;
 
   public RoadSurfaceEntityRepositoryImpl(RoadSurfaceResultSetMapper roadSurfaceResultSetMapper,
       StreetResultSetMapper streetResultSetMapper, ConnectionManager connectionManager) {
+    this(roadSurfaceResultSetMapper, streetResultSetMapper, connectionManager, new PostgreSqlDialect());
+  }
+
+  public RoadSurfaceEntityRepositoryImpl(RoadSurfaceResultSetMapper roadSurfaceResultSetMapper,
+      StreetResultSetMapper streetResultSetMapper, ConnectionManager connectionManager,
+      SqlDialect dialect) {
+    this(roadSurfaceResultSetMapper, streetResultSetMapper, connectionManager, dialect,
+        StreetDocuments.disabled());
+  }
+
+  /** With enabled street documents, every write refreshes the documents of the streets it changed. */
+  public RoadSurfaceEntityRepositoryImpl(RoadSurfaceResultSetMapper roadSurfaceResultSetMapper,
+      StreetResultSetMapper streetResultSetMapper, ConnectionManager connectionManager,
+      SqlDialect dialect, StreetDocuments streetDocuments) {
     this.roadSurfaceResultSetMapper = roadSurfaceResultSetMapper;
     this.streetResultSetMapper = streetResultSetMapper;
     this.connectionManager = connectionManager;
+    this.dialect = dialect;
+    this.streetDocuments = streetDocuments;
   }
 
   @Override
@@ -47,7 +77,10 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
       Long id = saveRoadSurfaceAndGetId(entity, connection);
       entity.setId(id);
 
-      saveStreetsAndRelations(entity, connection);
+      StreetSummaries.Changes summaryChanges = new StreetSummaries.Changes();
+      saveStreetsAndRelations(entity, connection, summaryChanges);
+      summaryChanges.apply(connection, dialect);
+      streetDocuments.refresh(connection, summaryChanges.getStreetIds());
 
       connection.commit();
       return entity;
@@ -78,8 +111,11 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
       connection = connectionManager.getConnection();
       connection.setAutoCommit(false);
 
-      deleteRoadSurfaceStreetMappingsByRoadSurfaceId(id, connection);
+      StreetSummaries.Changes summaryChanges = new StreetSummaries.Changes();
+      deleteRoadSurfaceStreetMappingsByRoadSurfaceId(id, connection, summaryChanges);
+      summaryChanges.apply(connection, dialect);
       boolean isDeleted = deleteRoadSurfaceById(id, connection);
+      streetDocuments.refresh(connection, summaryChanges.getStreetIds());
 
       connection.commit();
       return isDeleted;
@@ -105,8 +141,13 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
       connection = connectionManager.getConnection();
       connection.setAutoCommit(false);
 
+      if (streetDocuments.isEnabled()) {
+        // a street linked meanwhile would render the old values and be missed by the refresh below
+        lockRoadSurface(entity.getId(), connection);
+      }
       updateRoadSurface(entity, connection);
       entity.setStreets(getStreetsByRoadSurfaceId(entity.getId(), connection));
+      streetDocuments.refresh(connection, entity.getStreets().stream().map(StreetEntity::getId).toList());
       connection.commit();
       return entity;
     } catch (SQLException e) {
@@ -159,19 +200,98 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
     }
   }
 
-  private void deleteRoadSurfaceStreetMappingsByRoadSurfaceId(Long roadSurfaceId, Connection connection) throws SQLException {
-    String sql = "DELETE FROM road_surface_street WHERE road_surface_id = ?";
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      long count = RowCounts.count(connection, dialect, "road_surface", ROAD_SURFACE_COUNT, exact);
+
+      connection.commit();
+      return count;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException("Error occurred while counting RoadSurfaceEntity", e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public QueryPage<RoadSurfaceEntity> query(QuerySpec<RoadSurfaceEntity> spec) throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      QueryPage<RoadSurfaceEntity> page = ListQueries.findPage(connection, spec, this::findRoadSurfacesByIds);
+
+      connection.commit();
+      return page;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while querying RoadSurfaceEntity as %s", spec.getShape()), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public Map<Long, RoadSurfaceEntity> findAllById(Collection<Long> ids) throws RepositoryException {
+    if (ids.isEmpty()) {
+      return new HashMap<>();
+    }
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      Map<Long, RoadSurfaceEntity> entities = findRoadSurfacesByIds(ids, connection);
+
+      connection.commit();
+      return entities;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while finding %d RoadSurfaceEntities by id", ids.size()), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  private void deleteRoadSurfaceStreetMappingsByRoadSurfaceId(Long roadSurfaceId, Connection connection,
+      StreetSummaries.Changes summaryChanges) throws SQLException {
+    // locking the road surface holds off new links to it, which would miss the summary update
+    lockRoadSurface(roadSurfaceId, connection);
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(ROAD_SURFACE_STREET_SELECT_STREET_IDS))) {
+      statement.setLong(1, roadSurfaceId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          summaryChanges.removeRoadSurface(resultSet.getLong("street_id"));
+        }
+      }
+    }
+    String sql = dialect.sql(ROAD_SURFACE_STREET_DELETE_BY_ROAD_SURFACE_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setLong(1, roadSurfaceId);
       statement.executeUpdate();
     }
   }
 
+  /** Locks the road surface row, which makes links to it from other transactions wait for the commit. */
+  private void lockRoadSurface(Long roadSurfaceId, Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(ROAD_SURFACE_SELECT_ID_FOR_UPDATE))) {
+      statement.setLong(1, roadSurfaceId);
+      statement.executeQuery().close();
+    }
+  }
+
   private Set<StreetEntity> getStreetsByRoadSurfaceId(Long roadSurfaceId, Connection connection)
       throws RepositoryException {
-    String streetSql = "SELECT street.* FROM street " +
-        "INNER JOIN road_surface_street ON road_surface_street.street_id = street.id " +
-        "WHERE road_surface_street.road_surface_id = ?";
+    String streetSql = dialect.sql(STREET_SELECT_BY_ROAD_SURFACE_ID);
     Set<StreetEntity> streets = new HashSet<>();
 
     try (PreparedStatement streetStatement = connection.prepareStatement(streetSql)) {
@@ -190,23 +310,16 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
   }
 
   private Long saveRoadSurfaceAndGetId(RoadSurfaceEntity entity, Connection connection) throws SQLException {
-    String insertSql = "INSERT INTO road_surface (type, description, friction_coefficient) VALUES (?, ?, ?)";
-    try (PreparedStatement insertStatement = connection.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+    try (PreparedStatement insertStatement = dialect.prepareInsert(connection, ROAD_SURFACE_INSERT)) {
       insertStatement.setString(1, entity.getType());
       insertStatement.setString(2, entity.getDescription());
       insertStatement.setDouble(3, entity.getFrictionCoefficient());
-      int rowsAffected = insertStatement.executeUpdate();
-      if (rowsAffected > 0) {
-        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
-
-          if (generatedKeys.next()) {
-            return generatedKeys.getLong("id");
-          } else {
-            throw new SQLException("Failed to retrieve generated road surface ID");
-          }
+      try (ResultSet generatedKeys = dialect.executeInsert(insertStatement)) {
+        if (generatedKeys.next()) {
+          return generatedKeys.getLong("id");
+        } else {
+          throw new SQLException("Failed to retrieve generated road surface ID");
         }
-      } else {
-        throw new SQLException(String.format("Error occurred while saving RoadSurfaceEntity with type: %s", entity.getType()));
       }
     }
   }
@@ -214,7 +327,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
 
   private void saveStreetRoadSurfaceRelation(Long roadSurfaceId, Long streetId,
       Connection connection) throws SQLException {
-    String sql = "INSERT INTO road_surface_street (road_surface_id, street_id) VALUES (?, ?)";
+    String sql = dialect.sql(ROAD_SURFACE_STREET_INSERT);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setObject(1, roadSurfaceId);
       statement.setObject(2, streetId);
@@ -232,7 +345,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
 
   private boolean isRoadSurfaceExists(RoadSurfaceEntity roadSurfaceEntity, Connection connection)
       throws SQLException {
-    String selectSql = "SELECT id FROM road_surface WHERE type = ?";
+    String selectSql = dialect.sql(ROAD_SURFACE_SELECT_ID_BY_TYPE);
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setString(1, roadSurfaceEntity.getType());
       try (ResultSet resultSet = selectStatement.executeQuery()) {
@@ -241,12 +354,13 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
     }
   }
 
-  private void saveStreetsAndRelations(RoadSurfaceEntity entity, Connection connection)
-      throws SQLException {
+  private void saveStreetsAndRelations(RoadSurfaceEntity entity, Connection connection,
+      StreetSummaries.Changes summaryChanges) throws SQLException {
     for (StreetEntity street : entity.getStreets()) {
       saveStreet(street, connection);
       if (street != null) {
         saveStreetRoadSurfaceRelation(entity.getId(), street.getId(), connection);
+        summaryChanges.addRoadSurface(street.getId());
       }
     }
   }
@@ -255,6 +369,8 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
     if (street != null) {
       if (!isStreetExists(street, connection)) {
         street.setId(saveStreetAndGetId(street, connection));
+        StreetSummaries.insert(connection, dialect, street.getId());
+        streetDocuments.insert(connection, street.getId());
       } else {
         street.setId(getStreetId(street, connection));
       }
@@ -262,14 +378,10 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
   }
 
   private long saveStreetAndGetId(StreetEntity street, Connection connection) throws SQLException {
-    String insertSql = "INSERT INTO street (name, postal_code) VALUES (?, ?)";
-    try (PreparedStatement insertStatement = connection.prepareStatement(insertSql,
-        Statement.RETURN_GENERATED_KEYS)) {
+    try (PreparedStatement insertStatement = dialect.prepareInsert(connection, STREET_INSERT)) {
       insertStatement.setString(1, street.getName());
       insertStatement.setLong(2, street.getPostalCode());
-      insertStatement.executeUpdate();
-
-      try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
+      try (ResultSet generatedKeys = dialect.executeInsert(insertStatement)) {
         if (generatedKeys.next()) {
           return generatedKeys.getLong("id");
         } else {
@@ -280,7 +392,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
   }
 
   private long getStreetId(StreetEntity street, Connection connection) throws SQLException {
-    String selectSql = "SELECT id FROM street WHERE postal_code = ?";
+    String selectSql = dialect.sql(STREET_SELECT_ID_BY_POSTAL_CODE);
 
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setLong(1, street.getPostalCode());
@@ -297,7 +409,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
   }
 
   private boolean isStreetExists(StreetEntity street, Connection connection) throws SQLException {
-    String selectSql = "SELECT id FROM street WHERE postal_code = ?";
+    String selectSql = dialect.sql(STREET_SELECT_ID_BY_POSTAL_CODE);
 
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setLong(1, street.getPostalCode());
@@ -309,7 +421,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
   }
 
   private boolean deleteRoadSurfaceById(Long id, Connection connection) throws SQLException {
-    String sql = "DELETE FROM road_surface WHERE id = ?";
+    String sql = dialect.sql(ROAD_SURFACE_DELETE_BY_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setLong(1, id);
       int rowsAffected = statement.executeUpdate();
@@ -318,7 +430,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
   }
 
   private void updateRoadSurface(RoadSurfaceEntity entity, Connection connection) throws SQLException {
-    String sql = "UPDATE road_surface SET type = ?, description = ?, friction_coefficient = ? WHERE id = ?";
+    String sql = dialect.sql(ROAD_SURFACE_UPDATE);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setString(1, entity.getType());
       statement.setString(2, entity.getDescription());
@@ -338,7 +450,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
   private List<RoadSurfaceEntity> retrieveAllRoadSurfaces(Connection connection)
       throws SQLException, RepositoryException {
     List<RoadSurfaceEntity> roadSurfaceEntities = new ArrayList<>();
-    String sql = "SELECT * FROM road_surface";
+    String sql = dialect.sql(ROAD_SURFACE_SELECT_ALL);
     try (PreparedStatement statement = connection.prepareStatement(sql);
         ResultSet resultSet = statement.executeQuery()) {
       while (resultSet.next()) {
@@ -365,7 +477,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
 
   private Optional<RoadSurfaceEntity> findRoadSurfaceById(Long id, Connection connection)
       throws SQLException, RepositoryException {
-    String sql = "SELECT * FROM road_surface WHERE id = ?";
+    String sql = dialect.sql(ROAD_SURFACE_SELECT_BY_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setObject(1, id);
 
@@ -382,12 +494,44 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
     }
   }
 
+  private Map<Long, RoadSurfaceEntity> findRoadSurfacesByIds(Collection<Long> ids,
+      Connection connection) throws SQLException {
+    Map<Long, RoadSurfaceEntity> roadSurfaceEntities = new HashMap<>();
+    Map<Long, Set<StreetEntity>> streets = new HashMap<>();
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(ROAD_SURFACE_SELECT_BY_IDS))) {
+      statement.setArray(1, dialect.createIdArray(connection, ids));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          RoadSurfaceEntity roadSurfaceEntity = roadSurfaceResultSetMapper.map(resultSet);
+          roadSurfaceEntities.put(roadSurfaceEntity.getId(), roadSurfaceEntity);
+          streets.put(roadSurfaceEntity.getId(), new HashSet<>());
+        }
+      }
+    }
+    if (roadSurfaceEntities.isEmpty()) {
+      return roadSurfaceEntities;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(
+        dialect.sql(STREET_SELECT_BY_ROAD_SURFACE_IDS))) {
+      statement.setArray(1, dialect.createIdArray(connection, roadSurfaceEntities.keySet()));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          streets.get(resultSet.getLong("link_id")).add(streetResultSetMapper.map(resultSet));
+        }
+      }
+    }
+    for (RoadSurfaceEntity roadSurfaceEntity : roadSurfaceEntities.values()) {
+      roadSurfaceEntity.setStreets(streets.get(roadSurfaceEntity.getId()));
+    }
+    return roadSurfaceEntities;
+  }
+
   private void rollbackConnection(Connection connection) {
     if (connection != null) {
       try {
         connection.rollback();
       } catch (SQLException rollbackException) {
-        rollbackException.printStackTrace();
+        LOGGER.error("Failed to roll back transaction", rollbackException);
       }
     }
   }
@@ -398,7 +542,7 @@ public class RoadSurfaceEntityRepositoryImpl implements RoadSurfaceEntityReposit
         connection.setAutoCommit(true);
         connection.close();
       } catch (SQLException closeException) {
-        closeException.printStackTrace();
+        LOGGER.error("Failed to release connection", closeException);
       }
     }
   }
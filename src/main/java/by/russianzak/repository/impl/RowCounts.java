@@ -0,0 +1,45 @@
+package by.russianzak.repository.impl;
+
+import static by.russianzak.repository.sql.SqlStatement.TABLE_ROW_ESTIMATE;
+
+import by.russianzak.repository.sql.SqlDialect;
+import by.russianzak.repository.sql.SqlStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Table row counts for the repositories: the planner's estimate by default, which reads one
+ * catalogue row instead of scanning the table, or an exact {@code COUNT(*)} when asked for or
+ * when the table has no statistics yet.
+ */
+final class RowCounts {
+
+  private RowCounts() {}
+
+  static long count(Connection connection, SqlDialect dialect, String table,
+      SqlStatement exactStatement, boolean exact) throws SQLException {
+    if (!exact) {
+      long estimate = estimate(connection, dialect, table);
+      if (estimate >= 0) {
+        return estimate;
+      }
+    }
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(exactStatement));
+        ResultSet resultSet = statement.executeQuery()) {
+      resultSet.next();
+      return resultSet.getLong(1);
+    }
+  }
+
+  private static long estimate(Connection connection, SqlDialect dialect, String table)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(TABLE_ROW_ESTIMATE))) {
+      statement.setString(1, table);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? resultSet.getLong(1) : -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package by.russianzak.repository.impl;
+
+import static by.russianzak.repository.sql.SqlStatement.*;
+
+import by.russianzak.db.ConnectionManager;
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.mapper.HouseResultSetMapper;
+import by.russianzak.repository.mapper.RoadSurfaceResultSetMapper;
+import by.russianzak.repository.mapper.StreetResultSetMapper;
+import by.russianzak.repository.sql.SqlDialect;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@code street_document} table: a read model holding, for each street, the body that
+ * {@code GET /street?id=} would otherwise build from four tables and map again on every read.
+ * Every write that changes what a street shows refreshes its document in its own transaction,
+ * after the summary changes and just before the commit: it locks the documents of the streets
+ * it touched in street id order, loads those streets as the transaction sees them and renders
+ * them again. A writer that commits later waits for those locks and renders after it, so the
+ * last document written for a street includes every committed change.
+ *
+ * <p>Writes made while the read model is disabled leave documents behind, so {@link #rebuild}
+ * renders all of them again when an enabled service starts.
+ */
+public final class StreetDocuments {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreetDocuments.class);
+
+  private static final StreetDocuments DISABLED = new StreetDocuments(null, null, null);
+
+  private static final int REBUILD_BATCH_SIZE = 500;
+
+  /** Renders the response body of a street, exactly as the servlet would. */
+  @FunctionalInterface
+  public interface Renderer {
+    String render(StreetEntity street);
+  }
+
+  private final StreetLoader streetLoader;
+  private final SqlDialect dialect;
+  private final Renderer renderer;
+
+  public StreetDocuments(HouseResultSetMapper houseResultSetMapper,
+      StreetResultSetMapper streetResultSetMapper, RoadSurfaceResultSetMapper roadSurfaceResultSetMapper,
+      SqlDialect dialect, Renderer renderer) {
+    this(new StreetLoader(houseResultSetMapper, streetResultSetMapper, roadSurfaceResultSetMapper, dialect),
+        dialect, renderer);
+  }
+
+  private StreetDocuments(StreetLoader streetLoader, SqlDialect dialect, Renderer renderer) {
+    this.streetLoader = streetLoader;
+    this.dialect = dialect;
+    this.renderer = renderer;
+  }
+
+  /** Keeps no documents: writes leave the table alone and every read falls back to the street. */
+  public static StreetDocuments disabled() {
+    return DISABLED;
+  }
+
+  public boolean isEnabled() {
+    return renderer != null;
+  }
+
+  /**
+   * Adds documents for streets that have none, then renders every document again, a batch of
+   * streets per transaction.
+   */
+  public void rebuild(ConnectionManager connectionManager) throws RepositoryException {
+    if (!isEnabled()) {
+      return;
+    }
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(dialect.sql(STREET_DOCUMENT_INSERT_MISSING))) {
+        statement.executeUpdate();
+      }
+      connection.commit();
+
+      long rendered = 0;
+      long after = 0;
+      List<Long> batch;
+      do {
+        batch = selectIdsAfter(after, connection);
+        if (!batch.isEmpty()) {
+          refresh(connection, batch);
+          connection.commit();
+          rendered += batch.size();
+          after = batch.get(batch.size() - 1);
+        }
+      } while (batch.size() == REBUILD_BATCH_SIZE);
+      LOGGER.info("Rendered {} street documents", rendered);
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException("Error occurred while rebuilding street documents", e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  /** Adds the document row of a street inserted in this transaction; it is rendered by {@link #refresh}. */
+  void insert(Connection connection, long streetId) throws SQLException {
+    if (!isEnabled()) {
+      return;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(STREET_DOCUMENT_INSERT))) {
+      statement.setLong(1, streetId);
+      statement.executeUpdate();
+    }
+  }
+
+  /** Renders the documents of the given streets again, as this transaction sees them. */
+  void refresh(Connection connection, Collection<Long> streetIds) throws SQLException {
+    if (!isEnabled() || streetIds.isEmpty()) {
+      return;
+    }
+    List<Long> locked = new ArrayList<>(streetIds.size());
+    try (PreparedStatement statement = connection.prepareStatement(
+        dialect.sql(STREET_DOCUMENT_SELECT_IDS_FOR_UPDATE))) {
+      statement.setArray(1, dialect.createIdArray(connection, streetIds));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          locked.add(resultSet.getLong("street_id"));
+        }
+      }
+    }
+    if (locked.isEmpty()) {
+      return;
+    }
+    Map<Long, StreetEntity> streets = streetLoader.load(STREET_SELECT_BY_IDS, locked, connection);
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(STREET_DOCUMENT_UPDATE))) {
+      for (Long streetId : locked) {
+        statement.setString(1, renderer.render(streets.get(streetId)));
+        statement.setLong(2, streetId);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  /** The stored document, or empty if the street has none. */
+  Optional<String> find(Connection connection, long streetId) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(
+        dialect.sql(STREET_DOCUMENT_SELECT_BY_STREET_ID))) {
+      statement.setLong(1, streetId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? Optional.ofNullable(resultSet.getString("document")) : Optional.empty();
+      }
+    }
+  }
+
+  private List<Long> selectIdsAfter(long after, Connection connection) throws SQLException {
+    List<Long> ids = new ArrayList<>(REBUILD_BATCH_SIZE);
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(STREET_DOCUMENT_SELECT_IDS_AFTER))) {
+      statement.setLong(1, after);
+      statement.setInt(2, REBUILD_BATCH_SIZE);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          ids.add(resultSet.getLong("street_id"));
+        }
+      }
+    }
+    return ids;
+  }
+
+  private void rollbackConnection(Connection connection) {
+    if (connection != null) {
+      try {
+        connection.rollback();
+      } catch (SQLException rollbackException) {
+        LOGGER.error("Failed to roll back transaction", rollbackException);
+      }
+    }
+  }
+
+  private void closeConnection(Connection connection) {
+    if (connection != null) {
+      try {
+        connection.setAutoCommit(true);
+        connection.close();
+      } catch (SQLException closeException) {
+        LOGGER.error("Failed to release connection", closeException);
+      }
+    }
+  }
+}
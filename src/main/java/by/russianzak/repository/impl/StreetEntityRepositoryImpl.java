@@ -1,14 +1,21 @@
 package by.russianzak.repository.impl;
 
+import static by.russianzak.repository.sql.SqlStatement.*;
+
 import by.russianzak.db.ConnectionManager;
 import by.russianzak.exception.RepositoryException;
 import by.russianzak.model.HouseEntity;
 import by.russianzak.model.RoadSurfaceEntity;
 import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
 import by.russianzak.repository.StreetEntityRepository;
 import by.russianzak.repository.mapper.HouseResultSetMapper;
 import by.russianzak.repository.mapper.RoadSurfaceResultSetMapper;
 import by.russianzak.repository.mapper.StreetResultSetMapper;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import by.russianzak.repository.sql.PostgreSqlDialect;
+import by.russianzak.repository.sql.SqlDialect;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import java.sql.Connection;
@@ -16,27 +23,57 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class StreetEntityRepositoryImpl implements StreetEntityRepository {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreetEntityRepositoryImpl.class);
+
   private final HouseResultSetMapper houseResultSetMapper;
   private final StreetResultSetMapper streetResultSetMapper;
   private final RoadSurfaceResultSetMapper roadSurfaceResultSetMapper;
   private final ConnectionManager connectionManager;
+  private final SqlDialect dialect;
+  private final StreetLoader streetLoader;
+  private final StreetDocuments streetDocuments;
 
   public StreetEntityRepositoryImpl(HouseResultSetMapper houseResultSetMapper,
       StreetResultSetMapper streetResultSetMapper,
       RoadSurfaceResultSetMapper roadSurfaceResultSetMapper, ConnectionManager connectionManager) {
+    this(houseResultSetMapper, streetResultSetMapper, roadSurfaceResultSetMapper,
+        connectionManager, new PostgreSqlDialect());
+  }
+
+  public StreetEntityRepositoryImpl(HouseResultSetMapper houseResultSetMapper,
+      StreetResultSetMapper streetResultSetMapper,
+      RoadSurfaceResultSetMapper roadSurfaceResultSetMapper, ConnectionManager connectionManager,
+      SqlDialect dialect) {
+    this(houseResultSetMapper, streetResultSetMapper, roadSurfaceResultSetMapper, connectionManager,
+        dialect, StreetDocuments.disabled());
+  }
+
+  /** With enabled street documents, every write refreshes the documents of the streets it changed. */
+  public StreetEntityRepositoryImpl(HouseResultSetMapper houseResultSetMapper,
+      StreetResultSetMapper streetResultSetMapper,
+      RoadSurfaceResultSetMapper roadSurfaceResultSetMapper, ConnectionManager connectionManager,
+      SqlDialect dialect, StreetDocuments streetDocuments) {
     this.houseResultSetMapper = houseResultSetMapper;
     this.streetResultSetMapper = streetResultSetMapper;
     this.roadSurfaceResultSetMapper = roadSurfaceResultSetMapper;
     this.connectionManager = connectionManager;
+    this.dialect = dialect;
+    this.streetLoader = new StreetLoader(houseResultSetMapper, streetResultSetMapper,
+        roadSurfaceResultSetMapper, dialect);
+    this.streetDocuments = streetDocuments;
   }
 
   @Override
@@ -52,10 +89,15 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
 
       Long id = saveStreetAndGetId(entity, connection);
       entity.setId(id);
+      StreetSummaries.insert(connection, dialect, id);
+      streetDocuments.insert(connection, id);
 
-      saveHouses(entity.getHouses(), entity.getId(), connection);
+      StreetSummaries.Changes summaryChanges = new StreetSummaries.Changes();
+      saveHouses(entity.getHouses(), entity.getId(), connection, summaryChanges);
 
-      saveRoadSurfacesAndRelations(entity, connection);
+      saveRoadSurfacesAndRelations(entity, connection, summaryChanges);
+      summaryChanges.apply(connection, dialect);
+      streetDocuments.refresh(connection, List.of(id));
 
       connection.commit();
       return entity;
@@ -123,6 +165,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
       updateStreet(entity, connection);
       entity.setRoadSurfaces(getRoadSurfacesByStreetId(entity.getId(), connection));
       entity.setHouses(getHousesByStreet(entity, connection));
+      streetDocuments.refresh(connection, List.of(entity.getId()));
       connection.commit();
 
       return entity;
@@ -181,9 +224,161 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
     }
   }
 
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      long count = RowCounts.count(connection, dialect, "street", STREET_COUNT, exact);
+
+      connection.commit();
+      return count;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException("Error occurred while counting StreetEntity", e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public QueryPage<StreetEntity> query(QuerySpec<StreetEntity> spec) throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      QueryPage<StreetEntity> page = ListQueries.findPage(connection, spec, this::findStreetsByIds);
+
+      connection.commit();
+      return page;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while querying StreetEntity as %s", spec.getShape()), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public Map<Long, StreetEntity> findAllById(Collection<Long> ids) throws RepositoryException {
+    if (ids.isEmpty()) {
+      return new HashMap<>();
+    }
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      Map<Long, StreetEntity> entities = findStreetsByIds(ids, connection);
+
+      connection.commit();
+      return entities;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while finding %d StreetEntities by id", ids.size()), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public Map<Long, StreetEntity> findAllByPostalCode(Collection<Long> postalCodes)
+      throws RepositoryException {
+    if (postalCodes.isEmpty()) {
+      return new HashMap<>();
+    }
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      Map<Long, StreetEntity> streets = streetLoader.load(STREET_SELECT_BY_POSTAL_CODES, postalCodes, connection);
+      Map<Long, StreetEntity> entities = new HashMap<>();
+      for (StreetEntity streetEntity : streets.values()) {
+        entities.put(streetEntity.getPostalCode(), streetEntity);
+      }
+
+      connection.commit();
+      return entities;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while finding %d StreetEntities by postal code", postalCodes.size()), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public List<StreetSummary> getSummaries() throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      List<StreetSummary> summaries = StreetSummaries.selectAll(connection, dialect);
+
+      connection.commit();
+      return summaries;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException("Error occurred while retrieving all StreetSummary", e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public Optional<StreetSummary> findSummaryById(Long streetId) throws RepositoryException {
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      Optional<StreetSummary> summary = StreetSummaries.selectById(connection, dialect, streetId);
+
+      connection.commit();
+      return summary;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while finding StreetSummary with street id: %s", streetId), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
+  @Override
+  public Optional<String> findDocumentById(Long id) throws RepositoryException {
+    if (!streetDocuments.isEnabled()) {
+      return Optional.empty();
+    }
+    Connection connection = null;
+    try {
+      connection = connectionManager.getConnection();
+      connection.setAutoCommit(false);
+
+      Optional<String> document = streetDocuments.find(connection, id);
+
+      connection.commit();
+      return document;
+    } catch (SQLException e) {
+      rollbackConnection(connection);
+      throw new RepositoryException(
+          String.format("Error occurred while finding street document with id: %s", id), e);
+    } finally {
+      closeConnection(connection);
+    }
+  }
+
   private List<StreetEntity> retrieveAllStreets(Connection connection) throws SQLException {
     List<StreetEntity> streetEntities = new ArrayList<>();
-    String sql = "SELECT * FROM street";
+    String sql = dialect.sql(STREET_SELECT_ALL);
     try (PreparedStatement statement = connection.prepareStatement(sql);
         ResultSet resultSet = statement.executeQuery()) {
       while (resultSet.next()) {
@@ -199,7 +394,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   private Set<HouseEntity> getHousesByStreet(StreetEntity streetEntity, Connection connection)
       throws SQLException {
     Set<HouseEntity> houseEntities = new HashSet<>();
-    String sql = "SELECT * FROM house WHERE street_id = ?";
+    String sql = dialect.sql(HOUSE_SELECT_BY_STREET_ID);
 
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setObject(1, streetEntity.getId());
@@ -214,7 +409,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   }
 
   private boolean isStreetExists(Long postalCode, Connection connection) throws SQLException {
-    String selectSql = "SELECT id FROM street WHERE postal_code = ?";
+    String selectSql = dialect.sql(STREET_SELECT_ID_BY_POSTAL_CODE);
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setLong(1, postalCode);
       try (ResultSet resultSet = selectStatement.executeQuery()) {
@@ -233,32 +428,22 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   }
 
   private Long saveStreetAndGetId(StreetEntity street, Connection connection) throws SQLException {
-    String query = "INSERT INTO street (name, postal_code) VALUES (?, ?)";
-    try (PreparedStatement insertStatement = connection.prepareStatement(query,
-        Statement.RETURN_GENERATED_KEYS)) {
+    try (PreparedStatement insertStatement = dialect.prepareInsert(connection, STREET_INSERT)) {
       insertStatement.setString(1, street.getName());
       insertStatement.setLong(2, street.getPostalCode());
-      int rowsAffected = insertStatement.executeUpdate();
-
-      if (rowsAffected > 0) {
-        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
-          if (generatedKeys.next()) {
-            return generatedKeys.getLong("id");
-          } else {
-            throw new SQLException("Failed to retrieve generated street ID");
-          }
+      try (ResultSet generatedKeys = dialect.executeInsert(insertStatement)) {
+        if (generatedKeys.next()) {
+          return generatedKeys.getLong("id");
+        } else {
+          throw new SQLException("Failed to retrieve generated street ID");
         }
-      } else {
-        throw new SQLException(
-            String.format("Error occurred while saving StreetEntity with postal code: %s",
-                street.getPostalCode()));
       }
     }
   }
 
   private boolean isHouseExists(String houseNumber, long streetId, Connection connection)
       throws SQLException {
-    String selectSql = "SELECT id FROM house WHERE house_number = ? AND street_id = ?";
+    String selectSql = dialect.sql(HOUSE_SELECT_ID_BY_NUMBER_AND_STREET_ID);
 
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setString(1, houseNumber);
@@ -271,28 +456,18 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   }
 
   private Long saveHouseAndGetId(HouseEntity entity, Connection connection) throws SQLException {
-    String insertSql = "INSERT INTO house (house_number, build_date, num_floors, type, street_id) VALUES (?, ?, ?, ?, ?)";
-    try (PreparedStatement insertStatement = connection.prepareStatement(insertSql,
-        Statement.RETURN_GENERATED_KEYS)) {
+    try (PreparedStatement insertStatement = dialect.prepareInsert(connection, HOUSE_INSERT)) {
       insertStatement.setString(1, entity.getHouseNumber());
       insertStatement.setDate(2, new Date(entity.getBuildDate().getTime()));
       insertStatement.setInt(3, entity.getNumFloors());
       insertStatement.setString(4, entity.getType());
       insertStatement.setObject(5, entity.getStreet().getId());
-      int rowsAffected = insertStatement.executeUpdate();
-
-      if (rowsAffected > 0) {
-        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
-          if (generatedKeys.next()) {
-            return generatedKeys.getLong("id");
-          } else {
-            throw new SQLException("Failed to retrieve generated house ID");
-          }
+      try (ResultSet generatedKeys = dialect.executeInsert(insertStatement)) {
+        if (generatedKeys.next()) {
+          return generatedKeys.getLong("id");
+        } else {
+          throw new SQLException("Failed to retrieve generated house ID");
         }
-      } else {
-        throw new SQLException(
-            String.format("Error occurred while saving HouseEntity with house number: %s",
-                entity.getHouseNumber()));
       }
     }
   }
@@ -315,7 +490,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
 
   private boolean isRoadSurfaceExists(RoadSurfaceEntity roadSurfaceEntity, Connection connection)
       throws SQLException {
-    String selectSql = "SELECT id FROM road_surface WHERE type = ?";
+    String selectSql = dialect.sql(ROAD_SURFACE_SELECT_ID_BY_TYPE);
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setString(1, roadSurfaceEntity.getType());
       try (ResultSet resultSet = selectStatement.executeQuery()) {
@@ -326,33 +501,23 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
 
   private Long saveRoadSurfaceAndGetId(RoadSurfaceEntity entity, Connection connection)
       throws SQLException {
-    String insertSql = "INSERT INTO road_surface (type, description, friction_coefficient) VALUES (?, ?, ?)";
-    try (PreparedStatement insertStatement = connection.prepareStatement(insertSql,
-        Statement.RETURN_GENERATED_KEYS)) {
+    try (PreparedStatement insertStatement = dialect.prepareInsert(connection, ROAD_SURFACE_INSERT)) {
       insertStatement.setString(1, entity.getType());
       insertStatement.setString(2, entity.getDescription());
       insertStatement.setDouble(3, entity.getFrictionCoefficient());
-      int rowsAffected = insertStatement.executeUpdate();
-
-      if (rowsAffected > 0) {
-        try (ResultSet generatedKeys = insertStatement.getGeneratedKeys()) {
-          if (generatedKeys.next()) {
-            return generatedKeys.getLong("id");
-          } else {
-            throw new SQLException("Failed to retrieve generated road surface ID");
-          }
+      try (ResultSet generatedKeys = dialect.executeInsert(insertStatement)) {
+        if (generatedKeys.next()) {
+          return generatedKeys.getLong("id");
+        } else {
+          throw new SQLException("Failed to retrieve generated road surface ID");
         }
-      } else {
-        throw new SQLException(
-            String.format("Error occurred while saving RoadSurfaceEntity with type: %s",
-                entity.getType()));
       }
     }
   }
 
   private void saveStreetRoadSurfaceRelation(Long roadSurfaceId, Long streetId,
       Connection connection) throws SQLException {
-    String sql = "INSERT INTO road_surface_street (road_surface_id, street_id) VALUES (?, ?)";
+    String sql = dialect.sql(ROAD_SURFACE_STREET_INSERT);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setObject(1, roadSurfaceId);
       statement.setObject(2, streetId);
@@ -363,9 +528,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   private Set<RoadSurfaceEntity> getRoadSurfacesByStreetId(Long streetId, Connection connection)
       throws SQLException {
     Set<RoadSurfaceEntity> roadSurfaces = new HashSet<>();
-    String sql = "SELECT road_surface.* FROM road_surface " +
-        "INNER JOIN road_surface_street ON road_surface.id = road_surface_street.road_surface_id " +
-        "WHERE road_surface_street.street_id = ?";
+    String sql = dialect.sql(ROAD_SURFACE_SELECT_BY_STREET_ID);
 
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setObject(1, streetId);
@@ -378,21 +541,23 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
     return roadSurfaces;
   }
 
-  private void saveHouses(List<HouseEntity> houses, Long streetId, Connection connection)
-      throws SQLException {
+  private void saveHouses(List<HouseEntity> houses, Long streetId, Connection connection,
+      StreetSummaries.Changes summaryChanges) throws SQLException {
     for (HouseEntity house : houses) {
       if (!isHouseExists(house.getHouseNumber(), streetId, connection)) {
         Long id = saveHouseAndGetId(house, connection);
         house.setId(id);
+        summaryChanges.addHouse(streetId, house.getType(), house.getNumFloors());
       }
     }
   }
 
-  private void saveRoadSurfacesAndRelations(StreetEntity street, Connection connection)
-      throws SQLException {
+  private void saveRoadSurfacesAndRelations(StreetEntity street, Connection connection,
+      StreetSummaries.Changes summaryChanges) throws SQLException {
     for (RoadSurfaceEntity roadSurface : street.getRoadSurfaces()) {
       saveRoadSurface(roadSurface, connection);
       saveStreetRoadSurfaceRelation(roadSurface.getId(), street.getId(), connection);
+      summaryChanges.addRoadSurface(street.getId());
     }
   }
 
@@ -408,7 +573,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   }
 
   private void deleteHousesByStreetId(Long streetId, Connection connection) throws SQLException {
-    String sql = "DELETE FROM house WHERE street_id = ?";
+    String sql = dialect.sql(HOUSE_DELETE_BY_STREET_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setLong(1, streetId);
       statement.executeUpdate();
@@ -416,7 +581,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   }
 
   private void deleteRoadSurfaceStreetMappingsByStreetId(Long streetId, Connection connection) throws SQLException {
-    String sql = "DELETE FROM road_surface_street WHERE street_id = ?";
+    String sql = dialect.sql(ROAD_SURFACE_STREET_DELETE_BY_STREET_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setLong(1, streetId);
       statement.executeUpdate();
@@ -425,7 +590,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
 
   private long getRoadSurfaceId(RoadSurfaceEntity entity, Connection connection)
       throws SQLException {
-    String selectSql = "SELECT id FROM road_surface WHERE type = ?";
+    String selectSql = dialect.sql(ROAD_SURFACE_SELECT_ID_BY_TYPE);
 
     try (PreparedStatement selectStatement = connection.prepareStatement(selectSql)) {
       selectStatement.setString(1, entity.getType());
@@ -442,7 +607,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   }
 
   private boolean deleteStreetById(Long id, Connection connection) throws SQLException {
-    String sql = "DELETE FROM street WHERE id = ?";
+    String sql = dialect.sql(STREET_DELETE_BY_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setObject(1, id);
       int rowsAffected = statement.executeUpdate();
@@ -451,7 +616,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
   }
 
   private void updateStreet(StreetEntity entity, Connection connection) throws SQLException {
-    String sql = "UPDATE street SET name = ?, postal_code = ? WHERE id = ?";
+    String sql = dialect.sql(STREET_UPDATE);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setString(1, entity.getName());
       statement.setLong(2, entity.getPostalCode());
@@ -470,7 +635,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
 
   private Optional<StreetEntity> findStreetById(Long id, Connection connection)
       throws SQLException {
-    String sql = "SELECT * FROM street WHERE id = ?";
+    String sql = dialect.sql(STREET_SELECT_BY_ID);
     try (PreparedStatement statement = connection.prepareStatement(sql)) {
       statement.setObject(1, id);
       try (ResultSet resultSet = statement.executeQuery()) {
@@ -488,12 +653,17 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
     }
   }
 
+  private Map<Long, StreetEntity> findStreetsByIds(Collection<Long> ids, Connection connection)
+      throws SQLException {
+    return streetLoader.load(STREET_SELECT_BY_IDS, ids, connection);
+  }
+
   private void rollbackConnection(Connection connection) {
     if (connection != null) {
       try {
         connection.rollback();
       } catch (SQLException rollbackException) {
-        rollbackException.printStackTrace();
+        LOGGER.error("Failed to roll back transaction", rollbackException);
       }
     }
   }
@@ -504,7 +674,7 @@ public class StreetEntityRepositoryImpl implements StreetEntityRepository {
         connection.setAutoCommit(true);
         connection.close();
       } catch (SQLException closeException) {
-        closeException.printStackTrace();
+        LOGGER.error("Failed to release connection", closeException);
       }
     }
   }
@@ -0,0 +1,88 @@
+package by.russianzak.repository.impl;
+
+import static by.russianzak.repository.sql.SqlStatement.*;
+
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.mapper.HouseResultSetMapper;
+import by.russianzak.repository.mapper.RoadSurfaceResultSetMapper;
+import by.russianzak.repository.mapper.StreetResultSetMapper;
+import by.russianzak.repository.sql.SqlDialect;
+import by.russianzak.repository.sql.SqlStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads streets with their houses and road surfaces in three queries, however many streets are
+ * asked for. Shared by the street repository and the street documents it keeps.
+ */
+final class StreetLoader {
+
+  private final HouseResultSetMapper houseResultSetMapper;
+  private final StreetResultSetMapper streetResultSetMapper;
+  private final RoadSurfaceResultSetMapper roadSurfaceResultSetMapper;
+  private final SqlDialect dialect;
+
+  StreetLoader(HouseResultSetMapper houseResultSetMapper, StreetResultSetMapper streetResultSetMapper,
+      RoadSurfaceResultSetMapper roadSurfaceResultSetMapper, SqlDialect dialect) {
+    this.houseResultSetMapper = houseResultSetMapper;
+    this.streetResultSetMapper = streetResultSetMapper;
+    this.roadSurfaceResultSetMapper = roadSurfaceResultSetMapper;
+    this.dialect = dialect;
+  }
+
+  /** Streets matched by {@code select} on an array of keys, keyed by id, with relations loaded in bulk. */
+  Map<Long, StreetEntity> load(SqlStatement select, Collection<Long> keys, Connection connection)
+      throws SQLException {
+    Map<Long, StreetEntity> streetEntities = new HashMap<>();
+    Map<Long, Set<HouseEntity>> houses = new HashMap<>();
+    Map<Long, Set<RoadSurfaceEntity>> roadSurfaces = new HashMap<>();
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(select))) {
+      statement.setArray(1, dialect.createIdArray(connection, keys));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          StreetEntity streetEntity = streetResultSetMapper.map(resultSet);
+          streetEntities.put(streetEntity.getId(), streetEntity);
+          houses.put(streetEntity.getId(), new HashSet<>());
+          roadSurfaces.put(streetEntity.getId(), new HashSet<>());
+        }
+      }
+    }
+    if (streetEntities.isEmpty()) {
+      return streetEntities;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(HOUSE_SELECT_BY_STREET_IDS))) {
+      statement.setArray(1, dialect.createIdArray(connection, streetEntities.keySet()));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          HouseEntity houseEntity = houseResultSetMapper.map(resultSet);
+          Long streetId = resultSet.getLong("street_id");
+          houseEntity.setStreet(streetEntities.get(streetId));
+          houses.get(streetId).add(houseEntity);
+        }
+      }
+    }
+    try (PreparedStatement statement = connection.prepareStatement(
+        dialect.sql(ROAD_SURFACE_SELECT_BY_STREET_IDS))) {
+      statement.setArray(1, dialect.createIdArray(connection, streetEntities.keySet()));
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          roadSurfaces.get(resultSet.getLong("link_id")).add(roadSurfaceResultSetMapper.map(resultSet));
+        }
+      }
+    }
+    for (StreetEntity streetEntity : streetEntities.values()) {
+      streetEntity.setHouses(houses.get(streetEntity.getId()));
+      streetEntity.setRoadSurfaces(roadSurfaces.get(streetEntity.getId()));
+    }
+    return streetEntities;
+  }
+}
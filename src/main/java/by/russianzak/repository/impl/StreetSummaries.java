@@ -0,0 +1,163 @@
+package by.russianzak.repository.impl;
+
+import static by.russianzak.repository.sql.SqlStatement.*;
+
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.StreetSummary;
+import by.russianzak.repository.sql.SqlDialect;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The {@code street_summary} table: one row of aggregates per street, kept current by the write
+ * paths of the repositories rather than recomputed on read. A street gets its row when it is
+ * inserted and loses it through the foreign key when it is deleted. In between, each write records
+ * what it changed in a {@link Changes} and applies the changes as deltas in its own transaction,
+ * just before the commit, so a summary never disagrees with committed rows.
+ */
+final class StreetSummaries {
+
+  private static final TypeOfBuilding[] TYPES = TypeOfBuilding.values();
+
+  // positions in a delta, in the order STREET_SUMMARY_ADD binds them: the house count, one count
+  // per building type in declaration order, total floors and road surfaces
+  private static final int HOUSES = 0;
+  private static final int TOTAL_FLOORS = TYPES.length + 1;
+  private static final int ROAD_SURFACES = TYPES.length + 2;
+  private static final int DELTA_LENGTH = TYPES.length + 3;
+
+  private StreetSummaries() {}
+
+  /** Adds the empty summary of a street inserted in this transaction. */
+  static void insert(Connection connection, SqlDialect dialect, long streetId) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(STREET_SUMMARY_INSERT))) {
+      statement.setLong(1, streetId);
+      statement.executeUpdate();
+    }
+  }
+
+  static List<StreetSummary> selectAll(Connection connection, SqlDialect dialect) throws SQLException {
+    List<StreetSummary> summaries = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(dialect.sql(STREET_SUMMARY_SELECT_ALL));
+        ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        summaries.add(map(resultSet));
+      }
+    }
+    return summaries;
+  }
+
+  static Optional<StreetSummary> selectById(Connection connection, SqlDialect dialect, long streetId)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(
+        dialect.sql(STREET_SUMMARY_SELECT_BY_STREET_ID))) {
+      statement.setLong(1, streetId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? Optional.of(map(resultSet)) : Optional.empty();
+      }
+    }
+  }
+
+  private static StreetSummary map(ResultSet resultSet) throws SQLException {
+    long[] housesByType = new long[TYPES.length];
+    for (TypeOfBuilding type : TYPES) {
+      housesByType[type.ordinal()] = resultSet.getLong(type.name().toLowerCase(Locale.ROOT) + "_houses");
+    }
+    return StreetSummary.of(resultSet.getLong("street_id"), resultSet.getLong("houses"), housesByType,
+        resultSet.getLong("total_floors"), resultSet.getLong("road_surfaces"));
+  }
+
+  /** The index of a building type stored as text, or -1 if it is none of the known types. */
+  private static int typeIndex(String type) {
+    for (TypeOfBuilding candidate : TYPES) {
+      if (candidate.getValue().equalsIgnoreCase(type)) {
+        return candidate.ordinal();
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The summary changes of one transaction, summed per street. The streets stay recorded even when
+   * their changes cancel out, because their documents may still have changed.
+   */
+  static final class Changes {
+    // ordered by street id, so that transactions lock the summary rows they share in one order
+    private final Map<Long, long[]> deltas = new TreeMap<>();
+
+    void addHouse(long streetId, String type, int numFloors) {
+      changeHouse(streetId, type, numFloors, 1);
+    }
+
+    void removeHouse(long streetId, String type, int numFloors) {
+      changeHouse(streetId, type, numFloors, -1);
+    }
+
+    void addRoadSurface(long streetId) {
+      delta(streetId)[ROAD_SURFACES]++;
+    }
+
+    void removeRoadSurface(long streetId) {
+      delta(streetId)[ROAD_SURFACES]--;
+    }
+
+    /** The streets changed by the transaction, in ascending order. */
+    Set<Long> getStreetIds() {
+      return Collections.unmodifiableSet(deltas.keySet());
+    }
+
+    /** Applies the changes in one batch, skipping streets whose changes cancel out. */
+    void apply(Connection connection, SqlDialect dialect) throws SQLException {
+      if (deltas.values().stream().allMatch(Changes::isZero)) {
+        return;
+      }
+      try (PreparedStatement statement = connection.prepareStatement(dialect.sql(STREET_SUMMARY_ADD))) {
+        for (Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+          long[] delta = entry.getValue();
+          if (isZero(delta)) {
+            continue;
+          }
+          for (int i = 0; i < delta.length; i++) {
+            statement.setLong(i + 1, delta[i]);
+          }
+          statement.setLong(delta.length + 1, entry.getKey());
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    }
+
+    private void changeHouse(long streetId, String type, int numFloors, int sign) {
+      long[] delta = delta(streetId);
+      delta[HOUSES] += sign;
+      int typeIndex = typeIndex(type);
+      if (typeIndex >= 0) {
+        delta[HOUSES + 1 + typeIndex] += sign;
+      }
+      delta[TOTAL_FLOORS] += (long) sign * numFloors;
+    }
+
+    private long[] delta(long streetId) {
+      return deltas.computeIfAbsent(streetId, id -> new long[DELTA_LENGTH]);
+    }
+
+    private static boolean isZero(long[] delta) {
+      for (long value : delta) {
+        if (value != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
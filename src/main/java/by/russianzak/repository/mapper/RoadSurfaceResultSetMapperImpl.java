@@ -1,5 +1,7 @@
 package by.russianzak.repository.mapper;
 
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
 import by.russianzak.model.RoadSurfaceEntity;
 import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
 import java.sql.ResultSet;
@@ -9,10 +11,15 @@ public class RoadSurfaceResultSetMapperImpl implements RoadSurfaceResultSetMappe
 
   @Override
   public RoadSurfaceEntity map(ResultSet resultSet) throws SQLException {
-    long id = resultSet.getLong("id");
-    TypeOfRoadSurface type = TypeOfRoadSurface.fromValue(resultSet.getString("type"));
-    String description = resultSet.getString("description");
-    double frictionCoefficient = resultSet.getDouble("friction_coefficient");
-    return RoadSurfaceEntity.builder().setId(id).setType(type).setDescription(description).setFrictionCoefficient(frictionCoefficient).build();
+    long start = RequestTimings.start();
+    try {
+      long id = resultSet.getLong("id");
+      TypeOfRoadSurface type = TypeOfRoadSurface.fromValue(resultSet.getString("type"));
+      String description = resultSet.getString("description");
+      double frictionCoefficient = resultSet.getDouble("friction_coefficient");
+      return RoadSurfaceEntity.builder().setId(id).setType(type).setDescription(description).setFrictionCoefficient(frictionCoefficient).build();
+    } finally {
+      RequestTimings.stop(Phase.ROW_MAPPING, start);
+    }
   }
 }
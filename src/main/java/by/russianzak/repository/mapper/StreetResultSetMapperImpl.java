@@ -1,5 +1,7 @@
 package by.russianzak.repository.mapper;
 
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
 import by.russianzak.model.StreetEntity;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -8,9 +10,14 @@ public class StreetResultSetMapperImpl implements StreetResultSetMapper {
 
   @Override
   public StreetEntity map(ResultSet resultSet) throws SQLException {
-    long id = resultSet.getLong("id");
-    String name = resultSet.getString("name");
-    long postalCode = resultSet.getLong("postal_code");
-    return StreetEntity.builder().setId(id).setName(name).setPostalCode(postalCode).build();
+    long start = RequestTimings.start();
+    try {
+      long id = resultSet.getLong("id");
+      String name = resultSet.getString("name");
+      long postalCode = resultSet.getLong("postal_code");
+      return StreetEntity.builder().setId(id).setName(name).setPostalCode(postalCode).build();
+    } finally {
+      RequestTimings.stop(Phase.ROW_MAPPING, start);
+    }
   }
 }
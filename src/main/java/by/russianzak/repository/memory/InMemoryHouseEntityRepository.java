@@ -0,0 +1,197 @@
+package by.russianzak.repository.memory;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.HouseEntityRepository;
+import by.russianzak.repository.memory.InMemoryStore.HouseRow;
+import by.russianzak.repository.memory.InMemoryStore.Locked;
+import by.russianzak.repository.memory.InMemoryStore.StreetRow;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/** {@link HouseEntityRepository} over an {@link InMemoryStore}, with the JDBC version's semantics. */
+public class InMemoryHouseEntityRepository implements HouseEntityRepository {
+
+  private final InMemoryStore store;
+
+  public InMemoryHouseEntityRepository(InMemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public HouseEntity save(HouseEntity entity) throws RepositoryException {
+    validateHouseEntity(entity);
+    StreetEntity street = entity.getStreet();
+    street.setId(store.upsertStreet(street));
+
+    Locked locked = store.lockStreets(street.getId());
+    try {
+      requireStreet(street.getId());
+      if (store.isHouseExists(entity.getHouseNumber(), street.getId(), -1)) {
+        throw new EntityExistsException(
+            String.format("HouseEntity with house number %s already exists on street with ID %s",
+                entity.getHouseNumber(), street.getId()));
+      }
+      long id = store.nextHouseId();
+      store.putHouse(toRow(id, entity));
+      entity.setId(id);
+      return entity;
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  @Override
+  public HouseEntity getById(Long id) throws RepositoryException {
+    Optional<HouseEntity> entity = findById(id);
+    if (entity.isPresent()) {
+      return entity.get();
+    } else {
+      throw new EntityNotFoundException(String.format("HouseEntity with id %s not found", id));
+    }
+  }
+
+  @Override
+  public boolean deleteById(Long id) throws RepositoryException {
+    while (true) {
+      HouseRow house = id == null ? null : store.house(id);
+      if (house == null) {
+        return false;
+      }
+      Locked locked = store.lockStreets(house.streetId());
+      try {
+        HouseRow current = store.house(id);
+        if (current == null || current.streetId() == house.streetId()) {
+          return store.removeHouse(id);
+        }
+      } finally {
+        locked.unlock();
+      }
+    }
+  }
+
+  @Override
+  public boolean delete(HouseEntity entity) throws RepositoryException {
+    validateHouseEntity(entity);
+    return deleteById(entity.getId());
+  }
+
+  @Override
+  public HouseEntity update(HouseEntity entity) throws RepositoryException {
+    validateHouseEntity(entity);
+    StreetEntity street = entity.getStreet();
+    street.setId(store.upsertStreet(street));
+
+    while (true) {
+      HouseRow house = entity.getId() == null ? null : store.house(entity.getId());
+      if (house == null) {
+        throw new EntityNotFoundException(
+            String.format("HouseEntity with ID '%s' was not found for update operation",
+                entity.getId()));
+      }
+      Locked locked = store.lockStreets(house.streetId(), street.getId());
+      try {
+        if (store.house(entity.getId()) == null
+            || store.house(entity.getId()).streetId() != house.streetId()) {
+          continue;
+        }
+        requireStreet(street.getId());
+        if (store.isHouseExists(entity.getHouseNumber(), street.getId(), entity.getId())) {
+          throw new RepositoryException(
+              String.format("HouseEntity with house number %s already exists on street with ID %s",
+                  entity.getHouseNumber(), street.getId()));
+        }
+        store.putHouse(toRow(entity.getId(), entity));
+        return entity;
+      } finally {
+        locked.unlock();
+      }
+    }
+  }
+
+  @Override
+  public Optional<HouseEntity> findById(Long id) throws RepositoryException {
+    HouseRow house = id == null ? null : store.house(id);
+    if (house == null) {
+      return Optional.empty();
+    }
+    StreetRow street = store.street(house.streetId());
+    if (street == null) {
+      return Optional.empty();
+    }
+    return Optional.of(InMemoryStore.toHouse(house, InMemoryStore.toStreet(street)));
+  }
+
+  @Override
+  public List<HouseEntity> getAll() throws RepositoryException {
+    List<HouseEntity> houseEntities = new ArrayList<>();
+    for (HouseRow house : store.houses()) {
+      StreetRow street = store.street(house.streetId());
+      if (street != null) {
+        houseEntities.add(InMemoryStore.toHouse(house, InMemoryStore.toStreet(street)));
+      }
+    }
+    return houseEntities;
+  }
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return store.getHouseCount();
+  }
+  /** Evaluated over {@link #getAll()}: the store keeps no secondary indexes to scan. */
+  @Override
+  public QueryPage<HouseEntity> query(QuerySpec<HouseEntity> spec) throws RepositoryException {
+    return spec.apply(getAll());
+  }
+  @Override
+  public List<BuildYearBucket> getBuildYearHistogram(int bucketYears, LocalDate from, LocalDate to)
+      throws RepositoryException {
+    long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+    long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+    Map<Integer, Long> housesByBucket = new TreeMap<>();
+    for (HouseRow house : store.houses()) {
+      if (house.buildDay() >= fromDay && house.buildDay() < toDay) {
+        int year = LocalDate.ofEpochDay(house.buildDay()).getYear();
+        housesByBucket.merge(year / bucketYears * bucketYears, 1L, Long::sum);
+      }
+    }
+    List<BuildYearBucket> buckets = new ArrayList<>();
+    housesByBucket.forEach((fromYear, houses) ->
+        buckets.add(new BuildYearBucket(fromYear, fromYear + bucketYears - 1, houses)));
+    return buckets;
+  }
+
+
+
+
+  private void requireStreet(long streetId) throws RepositoryException {
+    if (store.street(streetId) == null) {
+      throw new RepositoryException(
+          String.format("StreetEntity with id %s was deleted concurrently", streetId));
+    }
+  }
+
+  private static HouseRow toRow(long id, HouseEntity entity) {
+    return new HouseRow(id, entity.getHouseNumber(), InMemoryStore.toBuildDay(entity.getBuildDate()),
+        entity.getNumFloors(), TypeOfBuilding.valueOf(entity.getType()), entity.getStreet().getId());
+  }
+
+  private void validateHouseEntity(HouseEntity house) {
+    if (house == null) {
+      throw new IllegalArgumentException("HouseEntity cannot be null");
+    }
+
+    house.validateNotNullFields();
+    house.getStreet().validateNotNullFields();
+  }
+}
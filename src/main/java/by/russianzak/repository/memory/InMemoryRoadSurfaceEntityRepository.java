@@ -0,0 +1,188 @@
+package by.russianzak.repository.memory;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.RoadSurfaceEntityRepository;
+import by.russianzak.repository.memory.InMemoryStore.Locked;
+import by.russianzak.repository.memory.InMemoryStore.RoadSurfaceRow;
+import by.russianzak.repository.memory.InMemoryStore.StreetRow;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link RoadSurfaceEntityRepository} over an {@link InMemoryStore}, with the JDBC version's
+ * semantics.
+ */
+public class InMemoryRoadSurfaceEntityRepository implements RoadSurfaceEntityRepository {
+
+  private final InMemoryStore store;
+
+  public InMemoryRoadSurfaceEntityRepository(InMemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public RoadSurfaceEntity save(RoadSurfaceEntity entity) throws RepositoryException {
+    validateRoadSurfaceEntity(entity);
+    checkRoadSurfaceExistence(entity);
+
+    List<StreetEntity> streets = entity.getStreets();
+    long[] streetIds = new long[streets.size()];
+    for (int i = 0; i < streetIds.length; i++) {
+      streetIds[i] = store.upsertStreet(streets.get(i));
+      streets.get(i).setId(streetIds[i]);
+    }
+
+    long id = store.nextRoadSurfaceId();
+    Locked locked = store.lock(streetIds, new long[]{id});
+    try {
+      for (long streetId : streetIds) {
+        if (store.street(streetId) == null) {
+          throw new RepositoryException(
+              String.format("StreetEntity with id %s was deleted concurrently", streetId));
+        }
+      }
+      if (!store.insertRoadSurface(toRow(id, entity))) {
+        throw new EntityExistsException(
+            String.format("RoadSurfaceEntity with type %s already exists", entity.getType()));
+      }
+      entity.setId(id);
+      for (long streetId : streetIds) {
+        store.link(id, streetId);
+      }
+      return entity;
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  @Override
+  public RoadSurfaceEntity getById(Long id) throws RepositoryException {
+    Optional<RoadSurfaceEntity> entity = findById(id);
+    if (entity.isPresent()) {
+      return entity.get();
+    } else {
+      throw new EntityNotFoundException(
+          String.format("RoadSurfaceEntity with id %s not found", id));
+    }
+  }
+
+  @Override
+  public boolean deleteById(Long id) throws RepositoryException {
+    if (id == null) {
+      return false;
+    }
+    Locked locked = store.lockRoadSurfaces(id);
+    try {
+      return store.removeRoadSurface(id);
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  @Override
+  public boolean delete(RoadSurfaceEntity entity) throws RepositoryException {
+    validateRoadSurfaceEntity(entity);
+    return deleteById(entity.getId());
+  }
+
+  @Override
+  public RoadSurfaceEntity update(RoadSurfaceEntity entity) throws RepositoryException {
+    validateRoadSurfaceEntity(entity);
+    if (entity.getId() == null) {
+      throw new EntityNotFoundException(
+          "RoadSurfaceEntity with ID 'null' was not found for update operation");
+    }
+    Locked locked = store.lockRoadSurfaces(entity.getId());
+    try {
+      RoadSurfaceRow previous = store.roadSurface(entity.getId());
+      if (previous == null) {
+        throw new EntityNotFoundException(
+            String.format("RoadSurfaceEntity with ID '%s' was not found for update operation",
+                entity.getId()));
+      }
+      store.updateRoadSurface(previous, toRow(entity.getId(), entity));
+      entity.setStreets(getStreetsByRoadSurfaceId(entity.getId()));
+      return entity;
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  @Override
+  public Optional<RoadSurfaceEntity> findById(Long id) throws RepositoryException {
+    RoadSurfaceRow roadSurface = id == null ? null : store.roadSurface(id);
+    if (roadSurface == null) {
+      return Optional.empty();
+    }
+    RoadSurfaceEntity roadSurfaceEntity = InMemoryStore.toRoadSurface(roadSurface);
+    roadSurfaceEntity.setStreets(getStreetsByRoadSurfaceId(id));
+    return Optional.of(roadSurfaceEntity);
+  }
+
+  @Override
+  public List<RoadSurfaceEntity> getAll() throws RepositoryException {
+    List<RoadSurfaceEntity> roadSurfaceEntities = new ArrayList<>();
+    for (RoadSurfaceRow roadSurface : store.roadSurfaces()) {
+      RoadSurfaceEntity roadSurfaceEntity = InMemoryStore.toRoadSurface(roadSurface);
+      roadSurfaceEntity.setStreets(getStreetsByRoadSurfaceId(roadSurface.id()));
+      roadSurfaceEntities.add(roadSurfaceEntity);
+    }
+    return roadSurfaceEntities;
+  }
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return store.getRoadSurfaceCount();
+  }
+  /** Evaluated over {@link #getAll()}: the store keeps no secondary indexes to scan. */
+  @Override
+  public QueryPage<RoadSurfaceEntity> query(QuerySpec<RoadSurfaceEntity> spec) throws RepositoryException {
+    return spec.apply(getAll());
+  }
+
+
+
+  private Set<StreetEntity> getStreetsByRoadSurfaceId(long roadSurfaceId) {
+    Set<StreetEntity> streets = new HashSet<>();
+    for (Long streetId : store.streetIdsOfRoadSurface(roadSurfaceId)) {
+      StreetRow street = store.street(streetId);
+      if (street != null) {
+        streets.add(InMemoryStore.toStreet(street));
+      }
+    }
+    return streets;
+  }
+
+  private void checkRoadSurfaceExistence(RoadSurfaceEntity entity) {
+    if (store.roadSurfaceIdByType(TypeOfRoadSurface.fromValue(entity.getType())) != null) {
+      throw new EntityExistsException(
+          String.format("RoadSurfaceEntity with type %s already exists", entity.getType()));
+    }
+  }
+
+  private static RoadSurfaceRow toRow(long id, RoadSurfaceEntity entity) {
+    return new RoadSurfaceRow(id, TypeOfRoadSurface.fromValue(entity.getType()),
+        entity.getDescription(), entity.getFrictionCoefficient());
+  }
+
+  private void validateRoadSurfaceEntity(RoadSurfaceEntity roadSurface) {
+    if (roadSurface == null) {
+      throw new IllegalArgumentException("RoadSurfaceEntity cannot be null");
+    }
+
+    roadSurface.validateNotNullFields();
+
+    for (StreetEntity street: roadSurface.getStreets()) {
+      street.validateNotNullFields();
+    }
+  }
+}
@@ -0,0 +1,565 @@
+package by.russianzak.repository.memory;
+
+import by.russianzak.dataset.DatasetGenerator;
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.model.StreetEntity;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rows and secondary indexes shared by the in-memory repositories. Reads never lock; every write
+ * holds the lock stripes of the streets and road surfaces it touches, so writes to different
+ * streets run in parallel while a snapshot, which takes every stripe, sees no write half done.
+ * Uniqueness of postal codes and surface types is enforced through their indexes, and ids are
+ * handed out like database sequences, so a lost race burns an id.
+ */
+public class InMemoryStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryStore.class);
+
+  private static final int SNAPSHOT_MAGIC = 0x525a4d53;
+  private static final int SNAPSHOT_VERSION = 1;
+  private static final long[] NONE = {};
+
+  record StreetRow(long id, String name, long postalCode) {}
+
+  record HouseRow(long id, String houseNumber, long buildDay, int numFloors, TypeOfBuilding type,
+      long streetId) {}
+
+  record RoadSurfaceRow(long id, TypeOfRoadSurface type, String description,
+      double frictionCoefficient) {}
+
+  private final Map<Long, StreetRow> streets = new ConcurrentHashMap<>();
+  private final Map<Long, HouseRow> houses = new ConcurrentHashMap<>();
+  private final Map<Long, RoadSurfaceRow> roadSurfaces = new ConcurrentHashMap<>();
+
+  private final Map<Long, Long> streetIdsByPostalCode = new ConcurrentHashMap<>();
+  private final Map<Long, Set<Long>> houseIdsByStreet = new ConcurrentHashMap<>();
+  private final Map<TypeOfRoadSurface, Long> roadSurfaceIdsByType = new ConcurrentHashMap<>();
+  private final Map<Long, Set<Long>> roadSurfaceIdsByStreet = new ConcurrentHashMap<>();
+  private final Map<Long, Set<Long>> streetIdsByRoadSurface = new ConcurrentHashMap<>();
+
+  private final AtomicLong nextStreetId = new AtomicLong(1);
+  private final AtomicLong nextHouseId = new AtomicLong(1);
+  private final AtomicLong nextRoadSurfaceId = new AtomicLong(1);
+
+  private final ReentrantLock[] stripes;
+
+  public InMemoryStore(int stripes) {
+    if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+      throw new IllegalArgumentException("Lock stripes must be a positive power of two");
+    }
+    this.stripes = new ReentrantLock[stripes];
+    for (int i = 0; i < stripes; i++) {
+      this.stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /** Restores the snapshot at {@code file} if there is one, otherwise starts empty. */
+  public static InMemoryStore open(Path file, int stripes) throws IOException {
+    InMemoryStore store = new InMemoryStore(stripes);
+    if (Files.exists(file)) {
+      long start = System.nanoTime();
+      store.restore(file);
+      LOGGER.info("Restored {} streets, {} houses and {} road surfaces from {} in {} ms",
+          store.getStreetCount(), store.getHouseCount(), store.getRoadSurfaceCount(), file,
+          (System.nanoTime() - start) / 1_000_000);
+    }
+    return store;
+  }
+
+  public int getStreetCount() {
+    return streets.size();
+  }
+
+  public int getHouseCount() {
+    return houses.size();
+  }
+
+  public int getRoadSurfaceCount() {
+    return roadSurfaces.size();
+  }
+
+  /** Inserts a generated dataset with its own ids; the store must be empty. */
+  public void load(DatasetGenerator generator) throws Exception {
+    Locked locked = lockAll();
+    try {
+      if (!streets.isEmpty() || !roadSurfaces.isEmpty()) {
+        throw new IllegalStateException("Datasets can only be loaded into an empty store");
+      }
+      generator.streets(row -> putStreet(new StreetRow((Long) row[0], (String) row[1], (Long) row[2])));
+      generator.roadSurfaces(row -> putRoadSurface(new RoadSurfaceRow((Long) row[0],
+          TypeOfRoadSurface.fromValue((String) row[1]), (String) row[2], (Double) row[3])));
+      generator.houses(row -> putHouse(new HouseRow((Long) row[0], (String) row[1],
+          ((Date) row[2]).toLocalDate().toEpochDay(), (Integer) row[3],
+          TypeOfBuilding.valueOf((String) row[4]), (Long) row[5])));
+      generator.roadSurfaceStreets(row -> link((Long) row[0], (Long) row[1]));
+      advanceSequences();
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  // ---- snapshots ----
+
+  /**
+   * Writes every row to {@code file} through a memory-mapped buffer. The snapshot goes to a
+   * sibling temporary file first and replaces {@code file} atomically, so a crash mid-write keeps
+   * the previous snapshot. Writers wait while it runs; readers do not.
+   */
+  public void snapshot(Path file) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    if (file.toAbsolutePath().getParent() != null) {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+    }
+    Locked locked = lockAll();
+    try {
+      List<byte[]> strings = new ArrayList<>();
+      long size = 2 * 4 + 3 * 8 + 4 * 4;
+      for (StreetRow street : streets.values()) {
+        size += 8 + 8 + add(strings, street.name());
+      }
+      for (HouseRow house : houses.values()) {
+        size += 8 + 8 + 8 + 4 + add(strings, house.type().getValue()) + add(strings, house.houseNumber());
+      }
+      for (RoadSurfaceRow roadSurface : roadSurfaces.values()) {
+        size += 8 + 8 + add(strings, roadSurface.type().getValue()) + add(strings, roadSurface.description());
+      }
+      long links = streetIdsByRoadSurface.values().stream().mapToLong(Set::size).sum();
+      size += links * 16;
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(String.format("Snapshot of %d bytes exceeds a single mapping", size));
+      }
+
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, size);
+        int next = 0;
+        buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION);
+        buffer.putLong(nextStreetId.get()).putLong(nextHouseId.get()).putLong(nextRoadSurfaceId.get());
+        buffer.putInt(streets.size()).putInt(houses.size()).putInt(roadSurfaces.size());
+        buffer.putInt(Math.toIntExact(links));
+        for (StreetRow street : streets.values()) {
+          buffer.putLong(street.id()).putLong(street.postalCode());
+          putString(buffer, strings.get(next++));
+        }
+        for (HouseRow house : houses.values()) {
+          buffer.putLong(house.id()).putLong(house.streetId()).putLong(house.buildDay())
+              .putInt(house.numFloors());
+          putString(buffer, strings.get(next++));
+          putString(buffer, strings.get(next++));
+        }
+        for (RoadSurfaceRow roadSurface : roadSurfaces.values()) {
+          buffer.putLong(roadSurface.id()).putDouble(roadSurface.frictionCoefficient());
+          putString(buffer, strings.get(next++));
+          putString(buffer, strings.get(next++));
+        }
+        for (Map.Entry<Long, Set<Long>> entry : streetIdsByRoadSurface.entrySet()) {
+          for (Long streetId : entry.getValue()) {
+            buffer.putLong(entry.getKey()).putLong(streetId);
+          }
+        }
+        buffer.force();
+      }
+    } finally {
+      locked.unlock();
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void restore(Path file) throws IOException {
+    Locked locked = lockAll();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+        throw new IOException(String.format("%s is not a version %d snapshot", file, SNAPSHOT_VERSION));
+      }
+      long streetSequence = buffer.getLong();
+      long houseSequence = buffer.getLong();
+      long roadSurfaceSequence = buffer.getLong();
+      int streetCount = buffer.getInt();
+      int houseCount = buffer.getInt();
+      int roadSurfaceCount = buffer.getInt();
+      int linkCount = buffer.getInt();
+      for (int i = 0; i < streetCount; i++) {
+        long id = buffer.getLong();
+        long postalCode = buffer.getLong();
+        putStreet(new StreetRow(id, getString(buffer), postalCode));
+      }
+      for (int i = 0; i < houseCount; i++) {
+        long id = buffer.getLong();
+        long streetId = buffer.getLong();
+        long buildDay = buffer.getLong();
+        int numFloors = buffer.getInt();
+        TypeOfBuilding type = TypeOfBuilding.valueOf(getString(buffer));
+        putHouse(new HouseRow(id, getString(buffer), buildDay, numFloors, type, streetId));
+      }
+      for (int i = 0; i < roadSurfaceCount; i++) {
+        long id = buffer.getLong();
+        double frictionCoefficient = buffer.getDouble();
+        TypeOfRoadSurface type = TypeOfRoadSurface.fromValue(getString(buffer));
+        putRoadSurface(new RoadSurfaceRow(id, type, getString(buffer), frictionCoefficient));
+      }
+      for (int i = 0; i < linkCount; i++) {
+        link(buffer.getLong(), buffer.getLong());
+      }
+      nextStreetId.set(streetSequence);
+      nextHouseId.set(houseSequence);
+      nextRoadSurfaceId.set(roadSurfaceSequence);
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  private static int add(List<byte[]> strings, String value) {
+    byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    strings.add(bytes);
+    return 4 + (bytes == null ? 0 : bytes.length);
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] bytes) {
+    if (bytes == null) {
+      buffer.putInt(-1);
+    } else {
+      buffer.putInt(bytes.length).put(bytes);
+    }
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // ---- lock stripes ----
+
+  /**
+   * Holds a set of stripes, always acquired in index order so two writers cannot deadlock.
+   * Callers release them with {@link #unlock} in a {@code finally} block.
+   */
+  final class Locked {
+    private final int[] held;
+
+    private Locked(int[] held) {
+      this.held = held;
+      for (int stripe : held) {
+        stripes[stripe].lock();
+      }
+    }
+
+    void unlock() {
+      for (int i = held.length - 1; i >= 0; i--) {
+        stripes[held[i]].unlock();
+      }
+    }
+  }
+
+  Locked lock(long[] streetIds, long[] roadSurfaceIds) {
+    int[] indexes = new int[streetIds.length + roadSurfaceIds.length];
+    for (int i = 0; i < streetIds.length; i++) {
+      indexes[i] = stripe(streetIds[i] << 1);
+    }
+    for (int i = 0; i < roadSurfaceIds.length; i++) {
+      indexes[streetIds.length + i] = stripe(roadSurfaceIds[i] << 1 | 1);
+    }
+    return new Locked(Arrays.stream(indexes).sorted().distinct().toArray());
+  }
+
+  Locked lockStreets(long... streetIds) {
+    return lock(streetIds, NONE);
+  }
+
+  Locked lockRoadSurfaces(long... roadSurfaceIds) {
+    return lock(NONE, roadSurfaceIds);
+  }
+
+  private Locked lockAll() {
+    int[] all = new int[stripes.length];
+    Arrays.setAll(all, i -> i);
+    return new Locked(all);
+  }
+
+  private int stripe(long key) {
+    long mixed = key * 0x9e3779b97f4a7c15L;
+    return (int) (mixed ^ (mixed >>> 32)) & (stripes.length - 1);
+  }
+
+  // ---- rows and indexes ----
+
+  StreetRow street(long id) {
+    return streets.get(id);
+  }
+
+  HouseRow house(long id) {
+    return houses.get(id);
+  }
+
+  RoadSurfaceRow roadSurface(long id) {
+    return roadSurfaces.get(id);
+  }
+
+  Collection<StreetRow> streets() {
+    return streets.values();
+  }
+
+  Collection<HouseRow> houses() {
+    return houses.values();
+  }
+
+  Collection<RoadSurfaceRow> roadSurfaces() {
+    return roadSurfaces.values();
+  }
+
+  Long streetIdByPostalCode(long postalCode) {
+    return streetIdsByPostalCode.get(postalCode);
+  }
+
+  Long roadSurfaceIdByType(TypeOfRoadSurface type) {
+    return roadSurfaceIdsByType.get(type);
+  }
+
+  Set<Long> houseIdsOfStreet(long streetId) {
+    return houseIdsByStreet.getOrDefault(streetId, Set.of());
+  }
+
+  Set<Long> roadSurfaceIdsOfStreet(long streetId) {
+    return roadSurfaceIdsByStreet.getOrDefault(streetId, Set.of());
+  }
+
+  Set<Long> streetIdsOfRoadSurface(long roadSurfaceId) {
+    return streetIdsByRoadSurface.getOrDefault(roadSurfaceId, Set.of());
+  }
+
+  long nextHouseId() {
+    return nextHouseId.getAndIncrement();
+  }
+
+  boolean isHouseExists(String houseNumber, long streetId, long exceptId) {
+    for (Long houseId : houseIdsOfStreet(streetId)) {
+      HouseRow house = houses.get(houseId);
+      if (house != null && house.id() != exceptId && house.houseNumber().equals(houseNumber)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the id of the street with this postal code, creating it if there is none. */
+  long upsertStreet(StreetEntity street) {
+    Long id = streetIdsByPostalCode.get(street.getPostalCode());
+    while (id == null) {
+      long candidate = nextStreetId.getAndIncrement();
+      Locked locked = lockStreets(candidate);
+      try {
+        if (insertStreet(new StreetRow(candidate, street.getName(), street.getPostalCode()))) {
+          return candidate;
+        }
+      } finally {
+        locked.unlock();
+      }
+      id = streetIdsByPostalCode.get(street.getPostalCode());
+    }
+    return id;
+  }
+
+  /** Returns the id of the road surface of this type, creating it if there is none. */
+  long upsertRoadSurface(RoadSurfaceEntity roadSurface) {
+    TypeOfRoadSurface type = TypeOfRoadSurface.fromValue(roadSurface.getType());
+    Long id = roadSurfaceIdsByType.get(type);
+    while (id == null) {
+      long candidate = nextRoadSurfaceId.getAndIncrement();
+      Locked locked = lockRoadSurfaces(candidate);
+      try {
+        if (insertRoadSurface(new RoadSurfaceRow(candidate, type, roadSurface.getDescription(),
+            roadSurface.getFrictionCoefficient()))) {
+          return candidate;
+        }
+      } finally {
+        locked.unlock();
+      }
+      id = roadSurfaceIdsByType.get(type);
+    }
+    return id;
+  }
+
+  long nextStreetId() {
+    return nextStreetId.getAndIncrement();
+  }
+
+  long nextRoadSurfaceId() {
+    return nextRoadSurfaceId.getAndIncrement();
+  }
+
+  /** Claims the postal code and inserts the row; false when the postal code is taken. */
+  boolean insertStreet(StreetRow street) {
+    if (streetIdsByPostalCode.putIfAbsent(street.postalCode(), street.id()) != null) {
+      return false;
+    }
+    streets.put(street.id(), street);
+    return true;
+  }
+
+  /** Claims the type and inserts the row; false when the type is taken. */
+  boolean insertRoadSurface(RoadSurfaceRow roadSurface) {
+    if (roadSurfaceIdsByType.putIfAbsent(roadSurface.type(), roadSurface.id()) != null) {
+      return false;
+    }
+    roadSurfaces.put(roadSurface.id(), roadSurface);
+    return true;
+  }
+
+  void updateStreet(StreetRow previous, StreetRow street) throws RepositoryException {
+    if (previous.postalCode() != street.postalCode()) {
+      Long owner = streetIdsByPostalCode.putIfAbsent(street.postalCode(), street.id());
+      if (owner != null && owner != street.id()) {
+        throw new RepositoryException(String.format(
+            "StreetEntity with postal code %s already exists", street.postalCode()));
+      }
+      streetIdsByPostalCode.remove(previous.postalCode(), street.id());
+    }
+    streets.put(street.id(), street);
+  }
+
+  void updateRoadSurface(RoadSurfaceRow previous, RoadSurfaceRow roadSurface)
+      throws RepositoryException {
+    if (previous.type() != roadSurface.type()) {
+      Long owner = roadSurfaceIdsByType.putIfAbsent(roadSurface.type(), roadSurface.id());
+      if (owner != null && owner != roadSurface.id()) {
+        throw new RepositoryException(String.format(
+            "RoadSurfaceEntity with type %s already exists", roadSurface.type().getValue()));
+      }
+      roadSurfaceIdsByType.remove(previous.type(), roadSurface.id());
+    }
+    roadSurfaces.put(roadSurface.id(), roadSurface);
+  }
+
+  void putHouse(HouseRow house) {
+    HouseRow previous = houses.put(house.id(), house);
+    if (previous != null && previous.streetId() != house.streetId()) {
+      houseIdsOfStreet(previous.streetId()).remove(house.id());
+    }
+    houseIdsByStreet.computeIfAbsent(house.streetId(), key -> ConcurrentHashMap.newKeySet())
+        .add(house.id());
+  }
+
+  boolean removeHouse(long id) {
+    HouseRow house = houses.remove(id);
+    if (house == null) {
+      return false;
+    }
+    houseIdsOfStreet(house.streetId()).remove(id);
+    return true;
+  }
+
+  /** Removes the street with its houses and road surface links. */
+  boolean removeStreet(long id) {
+    for (Long houseId : houseIdsOfStreet(id)) {
+      houses.remove(houseId);
+    }
+    houseIdsByStreet.remove(id);
+    Set<Long> roadSurfaceIds = roadSurfaceIdsByStreet.remove(id);
+    if (roadSurfaceIds != null) {
+      for (Long roadSurfaceId : roadSurfaceIds) {
+        streetIdsOfRoadSurface(roadSurfaceId).remove(id);
+      }
+    }
+    StreetRow street = streets.remove(id);
+    if (street == null) {
+      return false;
+    }
+    streetIdsByPostalCode.remove(street.postalCode(), id);
+    return true;
+  }
+
+  /** Removes the road surface and its street links. */
+  boolean removeRoadSurface(long id) {
+    Set<Long> streetIds = streetIdsByRoadSurface.remove(id);
+    if (streetIds != null) {
+      for (Long streetId : streetIds) {
+        roadSurfaceIdsOfStreet(streetId).remove(id);
+      }
+    }
+    RoadSurfaceRow roadSurface = roadSurfaces.remove(id);
+    if (roadSurface == null) {
+      return false;
+    }
+    roadSurfaceIdsByType.remove(roadSurface.type(), id);
+    return true;
+  }
+
+  void link(long roadSurfaceId, long streetId) {
+    streetIdsByRoadSurface.computeIfAbsent(roadSurfaceId, key -> ConcurrentHashMap.newKeySet())
+        .add(streetId);
+    roadSurfaceIdsByStreet.computeIfAbsent(streetId, key -> ConcurrentHashMap.newKeySet())
+        .add(roadSurfaceId);
+  }
+
+  private void putStreet(StreetRow street) {
+    streets.put(street.id(), street);
+    streetIdsByPostalCode.put(street.postalCode(), street.id());
+  }
+
+  private void putRoadSurface(RoadSurfaceRow roadSurface) {
+    roadSurfaces.put(roadSurface.id(), roadSurface);
+    roadSurfaceIdsByType.put(roadSurface.type(), roadSurface.id());
+  }
+
+  private void advanceSequences() {
+    nextStreetId.set(streets.keySet().stream().mapToLong(Long::longValue).max().orElse(0) + 1);
+    nextHouseId.set(houses.keySet().stream().mapToLong(Long::longValue).max().orElse(0) + 1);
+    nextRoadSurfaceId.set(roadSurfaces.keySet().stream().mapToLong(Long::longValue).max().orElse(0) + 1);
+  }
+
+  // ---- entity mapping ----
+
+  static StreetEntity toStreet(StreetRow street) {
+    return StreetEntity.builder().setId(street.id()).setName(street.name())
+        .setPostalCode(street.postalCode()).build();
+  }
+
+  static HouseEntity toHouse(HouseRow house, StreetEntity street) {
+    return HouseEntity.builder().setId(house.id()).setHouseNumber(house.houseNumber())
+        .setBuildDate(Date.valueOf(LocalDate.ofEpochDay(house.buildDay())))
+        .setNumFloors(house.numFloors()).setType(house.type()).setStreet(street).build();
+  }
+
+  static RoadSurfaceEntity toRoadSurface(RoadSurfaceRow roadSurface) {
+    return RoadSurfaceEntity.builder().setId(roadSurface.id()).setType(roadSurface.type())
+        .setDescription(roadSurface.description())
+        .setFrictionCoefficient(roadSurface.frictionCoefficient()).build();
+  }
+
+  /** Day precision, like the {@code DATE} column the JDBC repositories write. */
+  static long toBuildDay(java.util.Date buildDate) {
+    return new Date(buildDate.getTime()).toLocalDate().toEpochDay();
+  }
+}
@@ -0,0 +1,277 @@
+package by.russianzak.repository.memory;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import by.russianzak.repository.StreetEntityRepository;
+import by.russianzak.repository.memory.InMemoryStore.HouseRow;
+import by.russianzak.repository.memory.InMemoryStore.Locked;
+import by.russianzak.repository.memory.InMemoryStore.RoadSurfaceRow;
+import by.russianzak.repository.memory.InMemoryStore.StreetRow;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/** {@link StreetEntityRepository} over an {@link InMemoryStore}, with the JDBC version's semantics. */
+public class InMemoryStreetEntityRepository implements StreetEntityRepository {
+
+  private final InMemoryStore store;
+
+  public InMemoryStreetEntityRepository(InMemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public StreetEntity save(StreetEntity entity) throws RepositoryException {
+    validateStreetEntity(entity);
+    checkStreetExistence(entity);
+
+    List<RoadSurfaceEntity> roadSurfaces = entity.getRoadSurfaces();
+    long[] roadSurfaceIds = new long[roadSurfaces.size()];
+    for (int i = 0; i < roadSurfaceIds.length; i++) {
+      roadSurfaceIds[i] = store.upsertRoadSurface(roadSurfaces.get(i));
+      roadSurfaces.get(i).setId(roadSurfaceIds[i]);
+    }
+
+    long id = store.nextStreetId();
+    Locked locked = store.lock(new long[]{id}, roadSurfaceIds);
+    try {
+      for (long roadSurfaceId : roadSurfaceIds) {
+        if (store.roadSurface(roadSurfaceId) == null) {
+          throw new RepositoryException(
+              String.format("RoadSurfaceEntity with id %s was deleted concurrently", roadSurfaceId));
+        }
+      }
+      if (!store.insertStreet(new StreetRow(id, entity.getName(), entity.getPostalCode()))) {
+        throw new EntityExistsException(
+            String.format("StreetEntity with postal code %s already exists", entity.getPostalCode()));
+      }
+      entity.setId(id);
+
+      for (HouseEntity house : entity.getHouses()) {
+        if (!store.isHouseExists(house.getHouseNumber(), id, -1)) {
+          long houseId = store.nextHouseId();
+          store.putHouse(new HouseRow(houseId, house.getHouseNumber(),
+              InMemoryStore.toBuildDay(house.getBuildDate()), house.getNumFloors(),
+              TypeOfBuilding.valueOf(house.getType()), id));
+          house.setId(houseId);
+        }
+      }
+      for (long roadSurfaceId : roadSurfaceIds) {
+        store.link(roadSurfaceId, id);
+      }
+      return entity;
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  @Override
+  public StreetEntity getById(Long id) throws RepositoryException {
+    Optional<StreetEntity> entity = findById(id);
+    if (entity.isPresent()) {
+      return entity.get();
+    } else {
+      throw new EntityNotFoundException(String.format("StreetEntity with id %s not found", id));
+    }
+  }
+
+  @Override
+  public boolean deleteById(Long id) throws RepositoryException {
+    if (id == null) {
+      return false;
+    }
+    Locked locked = store.lockStreets(id);
+    try {
+      return store.removeStreet(id);
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  @Override
+  public boolean delete(StreetEntity entity) throws RepositoryException {
+    validateStreetEntity(entity);
+    return deleteById(entity.getId());
+  }
+
+  @Override
+  public StreetEntity update(StreetEntity entity) throws RepositoryException {
+    validateStreetEntity(entity);
+    StreetRow previous = entity.getId() == null ? null : store.street(entity.getId());
+    if (previous == null) {
+      throw new EntityNotFoundException(
+          String.format("StreetEntity with ID '%s' was not found for update operation",
+              entity.getId()));
+    }
+
+    Locked locked = store.lockStreets(entity.getId());
+    try {
+      previous = store.street(entity.getId());
+      if (previous == null) {
+        throw new EntityNotFoundException(
+            String.format("StreetEntity with ID '%s' was not found for update operation",
+                entity.getId()));
+      }
+      StreetRow street = new StreetRow(entity.getId(), entity.getName(), entity.getPostalCode());
+      store.updateStreet(previous, street);
+      entity.setRoadSurfaces(getRoadSurfacesByStreetId(street.id()));
+      entity.setHouses(getHousesByStreet(entity));
+      return entity;
+    } finally {
+      locked.unlock();
+    }
+  }
+
+  @Override
+  public Optional<StreetEntity> findById(Long id) throws RepositoryException {
+    StreetRow street = id == null ? null : store.street(id);
+    if (street == null) {
+      return Optional.empty();
+    }
+    return Optional.of(toStreetWithChildren(street));
+  }
+
+  @Override
+  public Map<Long, StreetEntity> findAllByPostalCode(Collection<Long> postalCodes)
+      throws RepositoryException {
+    Map<Long, StreetEntity> streetEntities = new HashMap<>();
+    for (Long postalCode : postalCodes) {
+      Long id = postalCode == null ? null : store.streetIdByPostalCode(postalCode);
+      StreetRow street = id == null ? null : store.street(id);
+      if (street != null) {
+        streetEntities.put(postalCode, toStreetWithChildren(street));
+      }
+    }
+    return streetEntities;
+  }
+
+  @Override
+  public List<StreetEntity> getAll() throws RepositoryException {
+    List<StreetEntity> streetEntities = new ArrayList<>();
+    for (StreetRow street : store.streets()) {
+      streetEntities.add(toStreetWithChildren(street));
+    }
+    return streetEntities;
+  }
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return store.getStreetCount();
+  }
+  /** Evaluated over {@link #getAll()}: the store keeps no secondary indexes to scan. */
+  @Override
+  public QueryPage<StreetEntity> query(QuerySpec<StreetEntity> spec) throws RepositoryException {
+    return spec.apply(getAll());
+  }
+
+
+
+  /**
+   * Computed from the store's per-street indexes on every call. Only the house rows are read, no
+   * entity is built, and with no database round trip there is nothing a stored copy would save.
+   */
+  @Override
+  public List<StreetSummary> getSummaries() throws RepositoryException {
+    List<StreetSummary> summaries = new ArrayList<>();
+    for (StreetRow street : store.streets()) {
+      summaries.add(summarize(street.id()));
+    }
+    summaries.sort(Comparator.comparingLong(StreetSummary::streetId));
+    return summaries;
+  }
+
+  @Override
+  public Optional<StreetSummary> findSummaryById(Long streetId) throws RepositoryException {
+    if (streetId == null || store.street(streetId) == null) {
+      return Optional.empty();
+    }
+    return Optional.of(summarize(streetId));
+  }
+
+  /** Always empty: the street is already in memory, so there is nothing to gain from a stored copy. */
+  @Override
+  public Optional<String> findDocumentById(Long id) throws RepositoryException {
+    return Optional.empty();
+  }
+
+  private StreetSummary summarize(long streetId) {
+    long houses = 0;
+    long totalFloors = 0;
+    long[] housesByType = new long[TypeOfBuilding.values().length];
+    for (Long houseId : store.houseIdsOfStreet(streetId)) {
+      HouseRow house = store.house(houseId);
+      if (house != null) {
+        houses++;
+        totalFloors += house.numFloors();
+        housesByType[house.type().ordinal()]++;
+      }
+    }
+    return StreetSummary.of(streetId, houses, housesByType, totalFloors,
+        store.roadSurfaceIdsOfStreet(streetId).size());
+  }
+
+  private StreetEntity toStreetWithChildren(StreetRow street) {
+    StreetEntity streetEntity = InMemoryStore.toStreet(street);
+    streetEntity.setHouses(getHousesByStreet(streetEntity));
+    streetEntity.setRoadSurfaces(getRoadSurfacesByStreetId(street.id()));
+    return streetEntity;
+  }
+
+  private Set<HouseEntity> getHousesByStreet(StreetEntity streetEntity) {
+    Set<HouseEntity> houseEntities = new HashSet<>();
+    for (Long houseId : store.houseIdsOfStreet(streetEntity.getId())) {
+      HouseRow house = store.house(houseId);
+      if (house != null) {
+        houseEntities.add(InMemoryStore.toHouse(house, streetEntity));
+      }
+    }
+    return houseEntities;
+  }
+
+  private Set<RoadSurfaceEntity> getRoadSurfacesByStreetId(long streetId) {
+    Set<RoadSurfaceEntity> roadSurfaces = new HashSet<>();
+    for (Long roadSurfaceId : store.roadSurfaceIdsOfStreet(streetId)) {
+      RoadSurfaceRow roadSurface = store.roadSurface(roadSurfaceId);
+      if (roadSurface != null) {
+        roadSurfaces.add(InMemoryStore.toRoadSurface(roadSurface));
+      }
+    }
+    return roadSurfaces;
+  }
+
+  private void checkStreetExistence(StreetEntity entity) {
+    if (store.streetIdByPostalCode(entity.getPostalCode()) != null) {
+      throw new EntityExistsException(
+          String.format("StreetEntity with postal code %s already exists", entity.getPostalCode()));
+    }
+  }
+
+  private void validateStreetEntity(StreetEntity streetEntity) {
+    if (streetEntity == null) {
+      throw new IllegalArgumentException("StreetEntity cannot be null");
+    }
+
+    streetEntity.validateNotNullFields();
+
+    for (HouseEntity house: streetEntity.getHouses()) {
+      house.validateNotNullFields();
+    }
+
+    for (RoadSurfaceEntity roadSurface: streetEntity.getRoadSurfaces()) {
+      roadSurface.validateNotNullFields();
+    }
+  }
+}
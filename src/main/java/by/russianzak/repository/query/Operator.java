@@ -0,0 +1,31 @@
+package by.russianzak.repository.query;
+
+/** Comparisons a filter parameter may apply to its field. */
+public enum Operator {
+  EQ("="),
+  LT("<"),
+  LE("<="),
+  GT(">"),
+  GE(">=");
+
+  private final String sql;
+
+  Operator(String sql) {
+    this.sql = sql;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  /** Whether a value that compares to the filter value as {@code comparison} passes. */
+  boolean test(int comparison) {
+    return switch (this) {
+      case EQ -> comparison == 0;
+      case LT -> comparison < 0;
+      case LE -> comparison <= 0;
+      case GT -> comparison > 0;
+      case GE -> comparison >= 0;
+    };
+  }
+}
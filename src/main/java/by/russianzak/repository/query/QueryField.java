@@ -0,0 +1,10 @@
+package by.russianzak.repository.query;
+
+import java.util.function.Function;
+
+/**
+ * A column list queries may filter or sort on. {@code accessor} reads the same value from an
+ * entity, for backends that evaluate queries in memory; it must return the type {@code type}
+ * parses to.
+ */
+public record QueryField<T>(String name, String column, ValueType type, Function<T, Object> accessor) {}
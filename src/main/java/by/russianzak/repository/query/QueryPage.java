@@ -0,0 +1,9 @@
+package by.russianzak.repository.query;
+
+import java.util.List;
+
+/**
+ * One page of a list query. {@code nextCursor} continues after the last item, and is null on the
+ * last page.
+ */
+public record QueryPage<T>(List<T> items, String nextCursor) {}
@@ -0,0 +1,164 @@
+package by.russianzak.repository.query;
+
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.StreetEntity;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The filters and sorts a list query on one table may use. Only what is declared here ever reaches
+ * SQL: request parameters select among these columns and operators, and their values are bound as
+ * statement parameters. Sort columns must not be null, which the entity builders guarantee for
+ * every row written through the repositories, because keyset continuation compares them.
+ */
+public final class QuerySchema<T> {
+
+  public static final QuerySchema<HouseEntity> HOUSE = house();
+  public static final QuerySchema<StreetEntity> STREET = street();
+  public static final QuerySchema<RoadSurfaceEntity> ROAD_SURFACE = roadSurface();
+
+  private final String table;
+  private final QueryField<T> idField;
+  private final Map<String, Filter<T>> filters;
+  private final Map<String, QueryField<T>> sorts;
+
+  private QuerySchema(Builder<T> builder) {
+    this.table = builder.table;
+    this.idField = builder.idField;
+    this.filters = Collections.unmodifiableMap(new LinkedHashMap<>(builder.filters));
+    this.sorts = Collections.unmodifiableMap(new LinkedHashMap<>(builder.sorts));
+  }
+
+  public static <T> Builder<T> builder(String table, Function<T, Long> id) {
+    return new Builder<>(table, id);
+  }
+
+  public String getTable() {
+    return table;
+  }
+
+  /** The primary key, the default sort and the tie-breaker of every other sort. */
+  public QueryField<T> getIdField() {
+    return idField;
+  }
+
+  public Optional<Filter<T>> getFilter(String parameter) {
+    return Optional.ofNullable(filters.get(parameter));
+  }
+
+  public Optional<QueryField<T>> getSort(String name) {
+    return Optional.ofNullable(sorts.get(name));
+  }
+
+  public boolean isFilterParameter(String parameter) {
+    return filters.containsKey(parameter);
+  }
+
+  private static QuerySchema<HouseEntity> house() {
+    QueryField<HouseEntity> streetId = field("streetId", "street_id", ValueType.LONG,
+        house -> house.getStreet().getId());
+    QueryField<HouseEntity> type = field("type", "type", ValueType.TEXT, HouseEntity::getType);
+    QueryField<HouseEntity> numFloors = field("numFloors", "num_floors", ValueType.INT,
+        HouseEntity::getNumFloors);
+    QueryField<HouseEntity> buildDate = field("buildDate", "build_date", ValueType.DATE,
+        house -> toLocalDate(house.getBuildDate()));
+    QueryField<HouseEntity> houseNumber = field("houseNumber", "house_number", ValueType.TEXT,
+        HouseEntity::getHouseNumber);
+    return QuerySchema.<HouseEntity>builder("house", HouseEntity::getId)
+        .setFilter("streetId", streetId, Operator.EQ)
+        .setFilter("type", type, Operator.EQ)
+        .setFilter("minFloors", numFloors, Operator.GE)
+        .setFilter("maxFloors", numFloors, Operator.LE)
+        .setFilter("builtAfter", buildDate, Operator.GT)
+        .setFilter("builtBefore", buildDate, Operator.LT)
+        .setSort(buildDate)
+        .setSort(numFloors)
+        .setSort(houseNumber)
+        .build();
+  }
+
+  private static QuerySchema<StreetEntity> street() {
+    QueryField<StreetEntity> name = field("name", "name", ValueType.TEXT, StreetEntity::getName);
+    QueryField<StreetEntity> postalCode = field("postalCode", "postal_code", ValueType.LONG,
+        StreetEntity::getPostalCode);
+    return QuerySchema.<StreetEntity>builder("street", StreetEntity::getId)
+        .setFilter("name", name, Operator.EQ)
+        .setFilter("minPostalCode", postalCode, Operator.GE)
+        .setFilter("maxPostalCode", postalCode, Operator.LE)
+        .setSort(name)
+        .setSort(postalCode)
+        .build();
+  }
+
+  private static QuerySchema<RoadSurfaceEntity> roadSurface() {
+    QueryField<RoadSurfaceEntity> type = field("type", "type", ValueType.TEXT, RoadSurfaceEntity::getType);
+    QueryField<RoadSurfaceEntity> friction = field("frictionCoefficient", "friction_coefficient",
+        ValueType.DOUBLE, RoadSurfaceEntity::getFrictionCoefficient);
+    return QuerySchema.<RoadSurfaceEntity>builder("road_surface", RoadSurfaceEntity::getId)
+        .setFilter("type", type, Operator.EQ)
+        .setFilter("minFriction", friction, Operator.GE)
+        .setFilter("maxFriction", friction, Operator.LE)
+        .setSort(type)
+        .setSort(friction)
+        .build();
+  }
+
+  private static <T> QueryField<T> field(String name, String column, ValueType type,
+      Function<T, Object> accessor) {
+    return new QueryField<>(name, column, type, accessor);
+  }
+
+  private static LocalDate toLocalDate(Date date) {
+    return date instanceof java.sql.Date sqlDate
+        ? sqlDate.toLocalDate() : new java.sql.Date(date.getTime()).toLocalDate();
+  }
+
+  /** A filter parameter: the field it constrains and how. */
+  public record Filter<T>(QueryField<T> field, Operator operator) {}
+
+  public static class Builder<T> {
+    private final String table;
+    private final QueryField<T> idField;
+    private final Map<String, Filter<T>> filters = new LinkedHashMap<>();
+    private final Map<String, QueryField<T>> sorts = new LinkedHashMap<>();
+
+    private Builder(String table, Function<T, Long> id) {
+      this.table = table;
+      this.idField = new QueryField<>("id", "id", ValueType.LONG, id::apply);
+      this.sorts.put(idField.name(), idField);
+    }
+
+    public Builder<T> setFilter(String parameter, QueryField<T> field, Operator operator) {
+      this.filters.put(parameter, new Filter<>(field, operator));
+      return this;
+    }
+
+    public Builder<T> setSort(QueryField<T> field) {
+      this.sorts.put(field.name(), field);
+      return this;
+    }
+
+    public QuerySchema<T> build() {
+      if (table == null || !table.matches("[a-z_]+")) {
+        throw new IllegalArgumentException("Table name must be a plain lowercase identifier");
+      }
+      for (Filter<T> filter : filters.values()) {
+        requireIdentifier(filter.field());
+      }
+      sorts.values().forEach(this::requireIdentifier);
+      return new QuerySchema<>(this);
+    }
+
+    private void requireIdentifier(QueryField<T> field) {
+      if (!field.column().matches("[a-z_]+")) {
+        throw new IllegalArgumentException("Column name must be a plain lowercase identifier: " + field.column());
+      }
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package by.russianzak.repository.query;
+
+import by.russianzak.repository.query.QuerySchema.Filter;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A filtered, sorted page of one table: {@code /house?streetId=7&minFloors=3&sort=-buildDate}.
+ * Pages continue by keyset rather than offset: the cursor of a page holds the sort value and id
+ * of its last row, and the next page starts strictly after that pair, so every page costs the
+ * same however deep the client reads and rows written meanwhile neither repeat nor go missing.
+ *
+ * <p>The SQL depends only on the shape of the query (which filters are set, the sort, and
+ * whether a cursor is given), never on the values, which are bound as parameters. Each shape
+ * is compiled once and its text reused, so the driver's per-connection statement cache keeps
+ * one server-side prepared statement per shape. The whitelist in {@link QuerySchema} bounds the
+ * number of shapes, so request input cannot grow that cache.
+ */
+public final class QuerySpec<T> {
+
+  public static final int DEFAULT_LIMIT = 100;
+  public static final int MAX_LIMIT = 1000;
+
+  private static final Map<String, String> SQL_BY_SHAPE = new ConcurrentHashMap<>();
+
+  private final QuerySchema<T> schema;
+  private final List<Condition<T>> conditions;
+  private final QueryField<T> sortField;
+  private final boolean descending;
+  private final int limit;
+  private final Key after;
+
+  private QuerySpec(Builder<T> builder, Key after) {
+    this.schema = builder.schema;
+    this.conditions = List.copyOf(builder.conditions.values());
+    this.sortField = builder.sortField;
+    this.descending = builder.descending;
+    this.limit = builder.limit;
+    this.after = after;
+  }
+
+  public static <T> Builder<T> builder(QuerySchema<T> schema) {
+    return new Builder<>(schema);
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  /** Identifies the statement this query runs; equal for queries that differ only in values. */
+  public String getShape() {
+    StringBuilder shape = new StringBuilder(schema.getTable()).append('?');
+    for (Condition<T> condition : conditions) {
+      shape.append(condition.parameter()).append('&');
+    }
+    shape.append("sort=").append(descending ? "-" : "").append(sortField.name());
+    if (after != null) {
+      shape.append("&after");
+    }
+    return shape.toString();
+  }
+
+  /**
+   * Selects the ids (and sort values) of up to {@code limit + 1} rows, one more than a page so the
+   * caller knows whether another page follows.
+   */
+  public String getSql() {
+    return SQL_BY_SHAPE.computeIfAbsent(getShape(), shape -> compile());
+  }
+
+  /** Binds the values of this query to a statement prepared from {@link #getSql()}. */
+  public void bind(PreparedStatement statement) throws SQLException {
+    int index = 1;
+    for (Condition<T> condition : conditions) {
+      statement.setObject(index++, condition.value());
+    }
+    if (after != null) {
+      if (!isSortedById()) {
+        statement.setObject(index++, after.sortValue());
+      }
+      statement.setLong(index++, after.id());
+    }
+    statement.setInt(index, limit + 1);
+  }
+
+  /** The sort value and id of the current row of a result of {@link #getSql()}. */
+  public Key readKey(ResultSet resultSet) throws SQLException {
+    long id = resultSet.getLong(schema.getIdField().column());
+    return new Key(isSortedById() ? id : sortField.type().read(resultSet, sortField.column()), id);
+  }
+
+  /** The cursor of the page ending at {@code last}. */
+  public String cursorAfter(Key last) {
+    String text = sortField.name() + ":" + last.id() + ":" + last.sortValue();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Runs this query over entities held in memory, with the same results as the SQL. */
+  public QueryPage<T> apply(Collection<T> entities) {
+    Comparator<T> order = (first, second) -> compareKeys(keyOf(first), keyOf(second));
+    List<T> matching = entities.stream()
+        .filter(this::matches)
+        .filter(entity -> after == null || compareKeys(keyOf(entity), after) > 0)
+        .sorted(order)
+        .limit(limit + 1L)
+        .toList();
+    if (matching.size() <= limit) {
+      return new QueryPage<>(matching, null);
+    }
+    List<T> items = matching.subList(0, limit);
+    return new QueryPage<>(List.copyOf(items), cursorAfter(keyOf(items.get(limit - 1))));
+  }
+
+  private boolean matches(T entity) {
+    for (Condition<T> condition : conditions) {
+      Object value = condition.field().accessor().apply(entity);
+      if (value == null || !condition.operator().test(compare(value, condition.value()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Key keyOf(T entity) {
+    return new Key(sortField.accessor().apply(entity), (Long) schema.getIdField().accessor().apply(entity));
+  }
+
+  /** Positive if {@code first} comes after {@code second} in this query's order. */
+  private int compareKeys(Key first, Key second) {
+    int comparison = compare(first.sortValue(), second.sortValue());
+    if (comparison == 0) {
+      comparison = Long.compare(first.id(), second.id());
+    }
+    return descending ? -comparison : comparison;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compare(Object first, Object second) {
+    return ((Comparable<Object>) first).compareTo(second);
+  }
+
+  private boolean isSortedById() {
+    return sortField == schema.getIdField();
+  }
+
+  private String compile() {
+    String id = schema.getIdField().column();
+    String direction = descending ? " DESC" : "";
+    StringBuilder sql = new StringBuilder("SELECT ").append(id);
+    if (!isSortedById()) {
+      sql.append(", ").append(sortField.column());
+    }
+    sql.append(" FROM ").append(schema.getTable());
+    List<String> predicates = new ArrayList<>();
+    for (Condition<T> condition : conditions) {
+      predicates.add(condition.field().column() + " " + condition.operator().getSql() + " ?");
+    }
+    if (after != null) {
+      String comparison = descending ? " < " : " > ";
+      predicates.add(isSortedById()
+          ? id + comparison + "?"
+          : "(" + sortField.column() + ", " + id + ")" + comparison + "(?, ?)");
+    }
+    if (!predicates.isEmpty()) {
+      sql.append(" WHERE ").append(String.join(" AND ", predicates));
+    }
+    sql.append(" ORDER BY ");
+    if (!isSortedById()) {
+      sql.append(sortField.column()).append(direction).append(", ");
+    }
+    return sql.append(id).append(direction).append(" LIMIT ?").toString();
+  }
+
+  /** Where a row falls in the order of a query: its sort value, then its id. */
+  public record Key(Object sortValue, long id) {}
+
+  private record Condition<T>(String parameter, QueryField<T> field, Operator operator, Object value) {}
+
+  public static class Builder<T> {
+    private final QuerySchema<T> schema;
+    // keyed by parameter so that the order of request parameters does not change the shape
+    private final Map<String, Condition<T>> conditions = new TreeMap<>();
+    private QueryField<T> sortField;
+    private boolean descending;
+    private int limit = DEFAULT_LIMIT;
+    private String after;
+
+    private Builder(QuerySchema<T> schema) {
+      this.schema = schema;
+      this.sortField = schema.getIdField();
+    }
+
+    /** @throws IllegalArgumentException if the schema has no such filter or the value is invalid */
+    public Builder<T> setFilter(String parameter, String value) {
+      Filter<T> filter = schema.getFilter(parameter).orElseThrow(
+          () -> new IllegalArgumentException("Unknown filter parameter: " + parameter));
+      this.conditions.put(parameter, new Condition<>(parameter, filter.field(), filter.operator(),
+          filter.field().type().parse(parameter, value)));
+      return this;
+    }
+
+    /**
+     * Sorts ascending by the named field, or descending with a leading {@code -}.
+     *
+     * @throws IllegalArgumentException if the schema cannot sort by that field
+     */
+    public Builder<T> setSort(String sort) {
+      boolean descending = sort.startsWith("-");
+      String name = descending ? sort.substring(1) : sort;
+      this.sortField = schema.getSort(name).orElseThrow(
+          () -> new IllegalArgumentException("Unknown sort field: " + name));
+      this.descending = descending;
+      return this;
+    }
+
+    public Builder<T> setLimit(int limit) {
+      this.limit = limit;
+      return this;
+    }
+
+    /** Continues after the page whose {@code nextCursor} this is. */
+    public Builder<T> setAfter(String after) {
+      this.after = after;
+      return this;
+    }
+
+    public QuerySpec<T> build() {
+      if (limit < 1 || limit > MAX_LIMIT) {
+        throw new IllegalArgumentException(String.format("Limit must be between 1 and %d", MAX_LIMIT));
+      }
+      return new QuerySpec<>(this, after == null ? null : decodeCursor());
+    }
+
+    private Key decodeCursor() {
+      String[] parts;
+      try {
+        parts = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(":", 3);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid after cursor: " + after);
+      }
+      if (parts.length != 3 || !parts[0].equals(sortField.name())) {
+        throw new IllegalArgumentException("Cursor does not belong to this sort: " + after);
+      }
+      long id = (Long) ValueType.LONG.parse("after", parts[1]);
+      return new Key(sortField.type().parse("after", parts[2]), id);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package by.russianzak.repository.query;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/** How the values of a {@link QueryField} are parsed from request text and read from a row. */
+public enum ValueType {
+  LONG {
+    @Override
+    Object parseValue(String text) {
+      return Long.parseLong(text);
+    }
+
+    @Override
+    Object read(ResultSet resultSet, String column) throws SQLException {
+      return resultSet.getLong(column);
+    }
+  },
+  INT {
+    @Override
+    Object parseValue(String text) {
+      return Integer.parseInt(text);
+    }
+
+    @Override
+    Object read(ResultSet resultSet, String column) throws SQLException {
+      return resultSet.getInt(column);
+    }
+  },
+  DOUBLE {
+    @Override
+    Object parseValue(String text) {
+      return Double.parseDouble(text);
+    }
+
+    @Override
+    Object read(ResultSet resultSet, String column) throws SQLException {
+      return resultSet.getDouble(column);
+    }
+  },
+  TEXT {
+    @Override
+    Object parseValue(String text) {
+      return text;
+    }
+
+    @Override
+    Object read(ResultSet resultSet, String column) throws SQLException {
+      return resultSet.getString(column);
+    }
+  },
+  /** ISO-8601 dates such as {@code 2001-06-30}. */
+  DATE {
+    @Override
+    Object parseValue(String text) {
+      return LocalDate.parse(text);
+    }
+
+    @Override
+    Object read(ResultSet resultSet, String column) throws SQLException {
+      return resultSet.getObject(column, LocalDate.class);
+    }
+  };
+
+  /**
+   * Parses request text; the result binds with {@code setObject} and compares with values from
+   * {@link #read}.
+   *
+   * @throws IllegalArgumentException if the text is not a value of this type
+   */
+  public Object parse(String name, String text) {
+    try {
+      return parseValue(text);
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw new IllegalArgumentException(String.format("Invalid %s value: %s", name, text));
+    }
+  }
+
+  abstract Object parseValue(String text);
+
+  abstract Object read(ResultSet resultSet, String column) throws SQLException;
+}
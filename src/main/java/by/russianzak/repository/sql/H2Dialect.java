@@ -0,0 +1,67 @@
+package by.russianzak.repository.sql;
+
+import static by.russianzak.repository.sql.SqlStatement.HOUSE_INSERT;
+import static by.russianzak.repository.sql.SqlStatement.ROAD_SURFACE_INSERT;
+import static by.russianzak.repository.sql.SqlStatement.STREET_DOCUMENT_UPDATE;
+import static by.russianzak.repository.sql.SqlStatement.STREET_INSERT;
+import static by.russianzak.repository.sql.SqlStatement.TABLE_ROW_ESTIMATE;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * H2 in PostgreSQL compatibility mode ({@code MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE}), for
+ * running the repositories in-process. H2 has no {@code RETURNING}, so inserts read their id
+ * through JDBC generated keys.
+ */
+public class H2Dialect extends PostgreSqlDialect {
+
+  public static final String NAME = "h2";
+
+  // H2 only accepts the column default before the constraint
+  private static final Pattern KEY_DEFAULT = Pattern.compile(
+      "PRIMARY KEY DEFAULT (nextval\\('[a-z_]+'\\))", Pattern.CASE_INSENSITIVE);
+  // H2 has no BRIN; an ordinary index serves the same range queries
+  private static final Pattern BRIN_INDEX = Pattern.compile("\\s+USING\\s+BRIN\\b", Pattern.CASE_INSENSITIVE);
+  // H2 stores a string bound to a JSON column as a JSON string literal, so documents are kept as text
+  private static final Pattern JSON_COLUMN = Pattern.compile("\\bJSON\\b(?=\\s*[,)])", Pattern.CASE_INSENSITIVE);
+
+  public H2Dialect() {
+    override(STREET_INSERT, "INSERT INTO street (name, postal_code) VALUES (?, ?)");
+    override(HOUSE_INSERT,
+        "INSERT INTO house (house_number, build_date, num_floors, type, street_id) VALUES (?, ?, ?, ?, ?)");
+    override(ROAD_SURFACE_INSERT,
+        "INSERT INTO road_surface (type, description, friction_coefficient) VALUES (?, ?, ?)");
+    override(TABLE_ROW_ESTIMATE, "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES "
+        + "WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND TABLE_NAME = ?");
+    override(STREET_DOCUMENT_UPDATE, "UPDATE street_document SET document = ? WHERE street_id = ?");
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public PreparedStatement prepareInsert(Connection connection, SqlStatement statement)
+      throws SQLException {
+    return connection.prepareStatement(sql(statement), Statement.RETURN_GENERATED_KEYS);
+  }
+
+  @Override
+  public ResultSet executeInsert(PreparedStatement statement) throws SQLException {
+    statement.executeUpdate();
+    return statement.getGeneratedKeys();
+  }
+
+  @Override
+  public String adaptMigration(String sql) {
+    String adapted = KEY_DEFAULT.matcher(sql).replaceAll("DEFAULT $1 PRIMARY KEY");
+    adapted = BRIN_INDEX.matcher(adapted).replaceAll("");
+    return JSON_COLUMN.matcher(adapted).replaceAll("CHARACTER LARGE OBJECT");
+  }
+}
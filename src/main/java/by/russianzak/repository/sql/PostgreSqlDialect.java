@@ -0,0 +1,153 @@
+package by.russianzak.repository.sql;
+
+import static by.russianzak.repository.sql.SqlStatement.*;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Production dialect. Inserts use {@code RETURNING id}, so the id comes back with the insert in
+ * one round trip and without the whole row that {@code RETURN_GENERATED_KEYS} makes pgjdbc
+ * append as {@code RETURNING *}.
+ */
+public class PostgreSqlDialect implements SqlDialect {
+
+  public static final String NAME = "postgresql";
+
+  private final Map<SqlStatement, String> catalogue = new EnumMap<>(SqlStatement.class);
+
+  public PostgreSqlDialect() {
+    catalogue.put(STREET_SELECT_BY_ID, "SELECT * FROM street WHERE id = ?");
+    catalogue.put(STREET_SELECT_BY_IDS, "SELECT * FROM street WHERE id = ANY(?)");
+    catalogue.put(STREET_SELECT_ALL, "SELECT * FROM street");
+    catalogue.put(STREET_SELECT_ID_BY_POSTAL_CODE, "SELECT id FROM street WHERE postal_code = ?");
+    catalogue.put(STREET_SELECT_BY_POSTAL_CODES, "SELECT * FROM street WHERE postal_code = ANY(?)");
+    catalogue.put(STREET_SELECT_BY_ROAD_SURFACE_ID, "SELECT street.* FROM street "
+        + "INNER JOIN road_surface_street ON road_surface_street.street_id = street.id "
+        + "WHERE road_surface_street.road_surface_id = ?");
+    catalogue.put(STREET_SELECT_BY_ROAD_SURFACE_IDS, "SELECT street.*, road_surface_street.road_surface_id "
+        + "AS link_id FROM street "
+        + "INNER JOIN road_surface_street ON road_surface_street.street_id = street.id "
+        + "WHERE road_surface_street.road_surface_id = ANY(?)");
+    catalogue.put(STREET_INSERT, "INSERT INTO street (name, postal_code) VALUES (?, ?) RETURNING id");
+    catalogue.put(STREET_UPDATE, "UPDATE street SET name = ?, postal_code = ? WHERE id = ?");
+    catalogue.put(STREET_DELETE_BY_ID, "DELETE FROM street WHERE id = ?");
+    catalogue.put(STREET_COUNT, "SELECT COUNT(*) FROM street");
+
+    catalogue.put(HOUSE_SELECT_BY_ID, "SELECT * FROM house WHERE id = ?");
+    catalogue.put(HOUSE_SELECT_BY_IDS, "SELECT * FROM house WHERE id = ANY(?)");
+    catalogue.put(HOUSE_SELECT_ALL, "SELECT * FROM house");
+    catalogue.put(HOUSE_SELECT_BY_STREET_ID, "SELECT * FROM house WHERE street_id = ?");
+    catalogue.put(HOUSE_SELECT_BY_STREET_IDS, "SELECT * FROM house WHERE street_id = ANY(?)");
+    catalogue.put(HOUSE_SELECT_ID_BY_NUMBER_AND_STREET_ID,
+        "SELECT id FROM house WHERE house_number = ? AND street_id = ?");
+    catalogue.put(HOUSE_INSERT, "INSERT INTO house (house_number, build_date, num_floors, type, street_id) "
+        + "VALUES (?, ?, ?, ?, ?) RETURNING id");
+    catalogue.put(HOUSE_UPDATE, "UPDATE house SET house_number = ?, build_date = ?, num_floors = ?, "
+        + "type = ?, street_id = ? WHERE id = ?");
+    catalogue.put(HOUSE_DELETE_BY_ID, "DELETE FROM house WHERE id = ?");
+    catalogue.put(HOUSE_DELETE_BY_STREET_ID, "DELETE FROM house WHERE street_id = ?");
+    catalogue.put(HOUSE_COUNT, "SELECT COUNT(*) FROM house");
+    catalogue.put(HOUSE_SELECT_BUILD_YEAR_HISTOGRAM, "SELECT CAST(EXTRACT(YEAR FROM build_date) AS INTEGER) / ? * ? "
+        + "AS from_year, COUNT(*) AS houses FROM house WHERE build_date >= ? AND build_date < ? "
+        + "GROUP BY from_year ORDER BY from_year");
+    catalogue.put(HOUSE_SELECT_SUMMARY_FIELDS_FOR_UPDATE,
+        "SELECT street_id, type, num_floors FROM house WHERE id = ? FOR UPDATE");
+
+    catalogue.put(ROAD_SURFACE_SELECT_BY_ID, "SELECT * FROM road_surface WHERE id = ?");
+    catalogue.put(ROAD_SURFACE_SELECT_BY_IDS, "SELECT * FROM road_surface WHERE id = ANY(?)");
+    catalogue.put(ROAD_SURFACE_SELECT_ALL, "SELECT * FROM road_surface");
+    catalogue.put(ROAD_SURFACE_SELECT_ID_BY_TYPE, "SELECT id FROM road_surface WHERE type = ?");
+    catalogue.put(ROAD_SURFACE_SELECT_BY_STREET_ID, "SELECT road_surface.* FROM road_surface "
+        + "INNER JOIN road_surface_street ON road_surface.id = road_surface_street.road_surface_id "
+        + "WHERE road_surface_street.street_id = ?");
+    catalogue.put(ROAD_SURFACE_SELECT_BY_STREET_IDS, "SELECT road_surface.*, road_surface_street.street_id "
+        + "AS link_id FROM road_surface "
+        + "INNER JOIN road_surface_street ON road_surface.id = road_surface_street.road_surface_id "
+        + "WHERE road_surface_street.street_id = ANY(?)");
+    catalogue.put(ROAD_SURFACE_INSERT, "INSERT INTO road_surface (type, description, friction_coefficient) "
+        + "VALUES (?, ?, ?) RETURNING id");
+    catalogue.put(ROAD_SURFACE_UPDATE,
+        "UPDATE road_surface SET type = ?, description = ?, friction_coefficient = ? WHERE id = ?");
+    catalogue.put(ROAD_SURFACE_DELETE_BY_ID, "DELETE FROM road_surface WHERE id = ?");
+    catalogue.put(ROAD_SURFACE_COUNT, "SELECT COUNT(*) FROM road_surface");
+    catalogue.put(ROAD_SURFACE_SELECT_ID_FOR_UPDATE, "SELECT id FROM road_surface WHERE id = ? FOR UPDATE");
+
+    catalogue.put(ROAD_SURFACE_STREET_INSERT,
+        "INSERT INTO road_surface_street (road_surface_id, street_id) VALUES (?, ?)");
+    catalogue.put(ROAD_SURFACE_STREET_DELETE_BY_STREET_ID,
+        "DELETE FROM road_surface_street WHERE street_id = ?");
+    catalogue.put(ROAD_SURFACE_STREET_DELETE_BY_ROAD_SURFACE_ID,
+        "DELETE FROM road_surface_street WHERE road_surface_id = ?");
+    catalogue.put(ROAD_SURFACE_STREET_SELECT_STREET_IDS,
+        "SELECT street_id FROM road_surface_street WHERE road_surface_id = ?");
+
+    catalogue.put(STREET_SUMMARY_SELECT_ALL, "SELECT * FROM street_summary ORDER BY street_id");
+    catalogue.put(STREET_SUMMARY_SELECT_BY_STREET_ID, "SELECT * FROM street_summary WHERE street_id = ?");
+    catalogue.put(STREET_SUMMARY_INSERT, "INSERT INTO street_summary (street_id) VALUES (?)");
+    // adds a delta to every counter, so concurrent writers never overwrite each other's changes
+    catalogue.put(STREET_SUMMARY_ADD, "UPDATE street_summary SET houses = houses + ?, "
+        + "residential_houses = residential_houses + ?, commercial_houses = commercial_houses + ?, "
+        + "garage_houses = garage_houses + ?, utility_houses = utility_houses + ?, "
+        + "total_floors = total_floors + ?, road_surfaces = road_surfaces + ? WHERE street_id = ?");
+
+    catalogue.put(STREET_DOCUMENT_SELECT_BY_STREET_ID, "SELECT document FROM street_document WHERE street_id = ?");
+    catalogue.put(STREET_DOCUMENT_SELECT_IDS_AFTER,
+        "SELECT street_id FROM street_document WHERE street_id > ? ORDER BY street_id LIMIT ?");
+    // locks in street id order, the order in which every writer takes them
+    catalogue.put(STREET_DOCUMENT_SELECT_IDS_FOR_UPDATE,
+        "SELECT street_id FROM street_document WHERE street_id = ANY(?) ORDER BY street_id FOR UPDATE");
+    catalogue.put(STREET_DOCUMENT_INSERT, "INSERT INTO street_document (street_id) VALUES (?)");
+    catalogue.put(STREET_DOCUMENT_INSERT_MISSING, "INSERT INTO street_document (street_id) "
+        + "SELECT id FROM street WHERE NOT EXISTS "
+        + "(SELECT 1 FROM street_document WHERE street_document.street_id = street.id)");
+    catalogue.put(STREET_DOCUMENT_UPDATE, "UPDATE street_document SET document = CAST(? AS json) WHERE street_id = ?");
+
+    // scales reltuples by the table's current size the way the planner does; -1 if never analyzed
+    catalogue.put(TABLE_ROW_ESTIMATE, "SELECT CASE WHEN relpages > 0 AND reltuples >= 0 "
+        + "THEN (reltuples / relpages * (pg_relation_size(oid) / current_setting('block_size')::integer))::bigint "
+        + "ELSE -1 END FROM pg_class WHERE oid = to_regclass(?)");
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public String sql(SqlStatement statement) {
+    return catalogue.get(statement);
+  }
+
+  @Override
+  public PreparedStatement prepareInsert(Connection connection, SqlStatement statement)
+      throws SQLException {
+    return connection.prepareStatement(sql(statement));
+  }
+
+  @Override
+  public ResultSet executeInsert(PreparedStatement statement) throws SQLException {
+    return statement.executeQuery();
+  }
+
+  @Override
+  public Array createIdArray(Connection connection, Collection<Long> ids) throws SQLException {
+    return connection.createArrayOf("bigint", ids.toArray());
+  }
+
+  @Override
+  public String adaptMigration(String sql) {
+    return sql;
+  }
+
+  /** Lets a dialect that emulates PostgreSQL replace the few statements it cannot run. */
+  protected void override(SqlStatement statement, String sql) {
+    catalogue.put(statement, sql);
+  }
+}
@@ -0,0 +1,39 @@
+package by.russianzak.repository.sql;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * Statement catalogue and the few behaviours that differ between databases: how an insert hands
+ * back its generated id and how the Flyway migrations must be rewritten to run.
+ */
+public interface SqlDialect {
+
+  String getName();
+
+  String sql(SqlStatement statement);
+
+  /** Prepares one of the {@code *_INSERT} statements so {@link #executeInsert} can read its id. */
+  PreparedStatement prepareInsert(Connection connection, SqlStatement statement) throws SQLException;
+
+  /** Runs a prepared insert and returns a result set with the generated {@code id} column. */
+  ResultSet executeInsert(PreparedStatement statement) throws SQLException;
+
+  /** Builds the parameter of the {@code *_BY_IDS} statements, which match with {@code = ANY(?)}. */
+  Array createIdArray(Connection connection, Collection<Long> ids) throws SQLException;
+
+  /** Rewrites one migration statement written for PostgreSQL into this dialect. */
+  String adaptMigration(String sql);
+
+  static SqlDialect forName(String name) {
+    return switch (name.toLowerCase()) {
+      case PostgreSqlDialect.NAME -> new PostgreSqlDialect();
+      case H2Dialect.NAME -> new H2Dialect();
+      default -> throw new IllegalArgumentException(String.format("Unknown SQL dialect '%s'", name));
+    };
+  }
+}
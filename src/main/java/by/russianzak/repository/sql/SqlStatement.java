@@ -0,0 +1,61 @@
+package by.russianzak.repository.sql;
+
+/** Every statement the JDBC repositories issue; the text comes from a {@link SqlDialect}. */
+public enum SqlStatement {
+  STREET_SELECT_BY_ID,
+  STREET_SELECT_BY_IDS,
+  STREET_SELECT_ALL,
+  STREET_SELECT_ID_BY_POSTAL_CODE,
+  STREET_SELECT_BY_POSTAL_CODES,
+  STREET_SELECT_BY_ROAD_SURFACE_ID,
+  STREET_SELECT_BY_ROAD_SURFACE_IDS,
+  STREET_INSERT,
+  STREET_UPDATE,
+  STREET_DELETE_BY_ID,
+  STREET_COUNT,
+
+  HOUSE_SELECT_BY_ID,
+  HOUSE_SELECT_BY_IDS,
+  HOUSE_SELECT_ALL,
+  HOUSE_SELECT_BY_STREET_ID,
+  HOUSE_SELECT_BY_STREET_IDS,
+  HOUSE_SELECT_ID_BY_NUMBER_AND_STREET_ID,
+  HOUSE_INSERT,
+  HOUSE_UPDATE,
+  HOUSE_DELETE_BY_ID,
+  HOUSE_DELETE_BY_STREET_ID,
+  HOUSE_COUNT,
+  HOUSE_SELECT_BUILD_YEAR_HISTOGRAM,
+  HOUSE_SELECT_SUMMARY_FIELDS_FOR_UPDATE,
+
+  ROAD_SURFACE_SELECT_BY_ID,
+  ROAD_SURFACE_SELECT_BY_IDS,
+  ROAD_SURFACE_SELECT_ALL,
+  ROAD_SURFACE_SELECT_ID_BY_TYPE,
+  ROAD_SURFACE_SELECT_BY_STREET_ID,
+  ROAD_SURFACE_SELECT_BY_STREET_IDS,
+  ROAD_SURFACE_INSERT,
+  ROAD_SURFACE_UPDATE,
+  ROAD_SURFACE_DELETE_BY_ID,
+  ROAD_SURFACE_COUNT,
+  ROAD_SURFACE_SELECT_ID_FOR_UPDATE,
+
+  ROAD_SURFACE_STREET_INSERT,
+  ROAD_SURFACE_STREET_DELETE_BY_STREET_ID,
+  ROAD_SURFACE_STREET_DELETE_BY_ROAD_SURFACE_ID,
+  ROAD_SURFACE_STREET_SELECT_STREET_IDS,
+
+  STREET_SUMMARY_SELECT_ALL,
+  STREET_SUMMARY_SELECT_BY_STREET_ID,
+  STREET_SUMMARY_INSERT,
+  STREET_SUMMARY_ADD,
+
+  STREET_DOCUMENT_SELECT_BY_STREET_ID,
+  STREET_DOCUMENT_SELECT_IDS_AFTER,
+  STREET_DOCUMENT_SELECT_IDS_FOR_UPDATE,
+  STREET_DOCUMENT_INSERT,
+  STREET_DOCUMENT_INSERT_MISSING,
+  STREET_DOCUMENT_UPDATE,
+
+  TABLE_ROW_ESTIMATE
+}
@@ -1,8 +1,18 @@
 package by.russianzak.service;
 
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
 import by.russianzak.model.HouseEntity;
-import java.util.UUID;
+import java.time.LocalDate;
+import java.util.List;
 
 public interface HouseEntityService extends Service<HouseEntity, Long> {
 
+  /**
+   * Houses per span of {@code bucketYears} build years, aligned to multiples of the span, in year
+   * order; spans without houses are left out. Only houses built from {@code from} (inclusive) to
+   * {@code to} (exclusive) count, and either bound may be null.
+   */
+  List<BuildYearBucket> getBuildYearHistogram(int bucketYears, LocalDate from, LocalDate to)
+      throws RepositoryException;
 }
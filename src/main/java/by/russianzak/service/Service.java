@@ -1,7 +1,11 @@
 package by.russianzak.service;
 
 import by.russianzak.exception.RepositoryException;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface Service<T, K>{
@@ -18,4 +22,13 @@ public interface Service<T, K>{
   Optional<T> findById(K id) throws RepositoryException;
 
   List<T> getAll() throws RepositoryException;
+
+  /** Number of stored entities; an estimate unless {@code exact} is set. */
+  long count(boolean exact) throws RepositoryException;
+
+  /** One page of the entities matching {@code spec}, in its order. */
+  QueryPage<T> query(QuerySpec<T> spec) throws RepositoryException;
+
+  /** Entities with the given ids that exist, keyed by id; missing ids have no entry. */
+  Map<K, T> findAllById(Collection<K> ids) throws RepositoryException;
 }
@@ -1,7 +1,22 @@
 package by.russianzak.service;
 
+import by.russianzak.exception.RepositoryException;
 import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface StreetEntityService extends Service<StreetEntity, Long> {
 
+  /** Streets with the given postal codes that exist, keyed by postal code; missing codes have no entry. */
+  Map<Long, StreetEntity> findAllByPostalCode(Collection<Long> postalCodes) throws RepositoryException;
+
+  /** Aggregates of every street, ordered by street id, read without loading any house or road surface. */
+  List<StreetSummary> getSummaries() throws RepositoryException;
+
+  Optional<StreetSummary> findSummaryById(Long streetId) throws RepositoryException;
+
+  Optional<String> findDocumentById(Long id) throws RepositoryException;
 }
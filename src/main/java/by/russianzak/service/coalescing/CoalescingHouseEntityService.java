@@ -0,0 +1,25 @@
+package by.russianzak.service.coalescing;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.service.HouseEntityService;
+import java.time.LocalDate;
+import java.util.List;
+
+public class CoalescingHouseEntityService extends CoalescingService<HouseEntity>
+    implements HouseEntityService {
+
+  private final HouseEntityService delegate;
+
+  public CoalescingHouseEntityService(HouseEntityService delegate, ReadCoalescer coalescer) {
+    super("house", delegate, coalescer);
+    this.delegate = delegate;
+  }
+
+  @Override
+  public List<BuildYearBucket> getBuildYearHistogram(int bucketYears, LocalDate from, LocalDate to)
+      throws RepositoryException {
+    return delegate.getBuildYearHistogram(bucketYears, from, to);
+  }
+}
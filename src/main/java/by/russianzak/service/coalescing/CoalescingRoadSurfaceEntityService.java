@@ -0,0 +1,12 @@
+package by.russianzak.service.coalescing;
+
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.service.RoadSurfaceEntityService;
+
+public class CoalescingRoadSurfaceEntityService extends CoalescingService<RoadSurfaceEntity>
+    implements RoadSurfaceEntityService {
+
+  public CoalescingRoadSurfaceEntityService(RoadSurfaceEntityService delegate, ReadCoalescer coalescer) {
+    super("road-surface", delegate, coalescer);
+  }
+}
@@ -0,0 +1,108 @@
+package by.russianzak.service.coalescing;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
+import by.russianzak.service.Service;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Routes the reads of a service through a {@link ReadCoalescer} and invalidates it after every
+ * write. The coalescer is shared by all services because an entity's representation includes its
+ * related entities, so any write can change what another service returns. Returned entities may
+ * be shared between callers and must not be modified.
+ */
+public abstract class CoalescingService<T> implements Service<T, Long> {
+
+  private final String kind;
+  private final Service<T, Long> delegate;
+  private final ReadCoalescer coalescer;
+
+  protected CoalescingService(String kind, Service<T, Long> delegate, ReadCoalescer coalescer) {
+    this.kind = kind;
+    this.delegate = delegate;
+    this.coalescer = coalescer;
+  }
+
+  @Override
+  public T save(T entity) throws RepositoryException {
+    try {
+      return delegate.save(entity);
+    } finally {
+      coalescer.invalidateAll();
+    }
+  }
+
+  @Override
+  public T getById(Long id) throws RepositoryException {
+    return coalescer.load(new Key(kind, Operation.GET_BY_ID, id), () -> delegate.getById(id));
+  }
+
+  @Override
+  public boolean deleteById(Long id) throws RepositoryException {
+    try {
+      return delegate.deleteById(id);
+    } finally {
+      coalescer.invalidateAll();
+    }
+  }
+
+  @Override
+  public boolean delete(T entity) throws RepositoryException {
+    try {
+      return delegate.delete(entity);
+    } finally {
+      coalescer.invalidateAll();
+    }
+  }
+
+  @Override
+  public T update(T entity) throws RepositoryException {
+    try {
+      return delegate.update(entity);
+    } finally {
+      coalescer.invalidateAll();
+    }
+  }
+
+  @Override
+  public Optional<T> findById(Long id) throws RepositoryException {
+    return coalescer.load(new Key(kind, Operation.FIND_BY_ID, id), () -> delegate.findById(id));
+  }
+
+  @Override
+  public List<T> getAll() throws RepositoryException {
+    return coalescer.load(new Key(kind, Operation.GET_ALL, null), delegate::getAll);
+  }
+
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return coalescer.load(new Key(kind, exact ? Operation.COUNT_EXACT : Operation.COUNT, null),
+        () -> delegate.count(exact));
+  }
+
+  /** Not coalesced: identical multi-gets are rare, and the repository batches them anyway. */
+  @Override
+  public Map<Long, T> findAllById(Collection<Long> ids) throws RepositoryException {
+    return delegate.findAllById(ids);
+  }
+
+  /** Not coalesced: list queries differ by filter values and page, so identical ones rarely overlap. */
+  @Override
+  public QueryPage<T> query(QuerySpec<T> spec) throws RepositoryException {
+    return delegate.query(spec);
+  }
+
+  private enum Operation {
+    GET_BY_ID,
+    FIND_BY_ID,
+    GET_ALL,
+    COUNT,
+    COUNT_EXACT
+  }
+
+  private record Key(String kind, Operation operation, Long id) {}
+}
@@ -0,0 +1,47 @@
+package by.russianzak.service.coalescing;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import by.russianzak.service.StreetEntityService;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class CoalescingStreetEntityService extends CoalescingService<StreetEntity>
+    implements StreetEntityService {
+
+  private final StreetEntityService delegate;
+  private final ReadCoalescer coalescer;
+
+  public CoalescingStreetEntityService(StreetEntityService delegate, ReadCoalescer coalescer) {
+    super("street", delegate, coalescer);
+    this.delegate = delegate;
+    this.coalescer = coalescer;
+  }
+
+  @Override
+  public Map<Long, StreetEntity> findAllByPostalCode(Collection<Long> postalCodes)
+      throws RepositoryException {
+    return delegate.findAllByPostalCode(postalCodes);
+  }
+
+  @Override
+  public List<StreetSummary> getSummaries() throws RepositoryException {
+    return delegate.getSummaries();
+  }
+
+  @Override
+  public Optional<StreetSummary> findSummaryById(Long streetId) throws RepositoryException {
+    return delegate.findSummaryById(streetId);
+  }
+
+  /** Coalesced like {@link #getById}, which it stands in for on {@code GET /street?id=}. */
+  @Override
+  public Optional<String> findDocumentById(Long id) throws RepositoryException {
+    return coalescer.load(new DocumentKey(id), () -> delegate.findDocumentById(id));
+  }
+
+  private record DocumentKey(Long id) {}
+}
@@ -0,0 +1,223 @@
+package by.russianzak.service.coalescing;
+
+import by.russianzak.exception.RepositoryException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Single-flight loader with an optional short-lived cache in front of it. Concurrent loads of the
+ * same key share one call to the loader and all receive its value or its exception. With a TTL,
+ * values are served from the cache until they expire; within the stale window after expiry one
+ * caller reloads while the rest keep getting the old value, so an expiring hot key never sends a
+ * burst of identical loads to the database. TTLs are jittered so keys loaded together do not
+ * expire together.
+ *
+ * <p>{@link #invalidateAll()} must be called after every write. It starts a new generation:
+ * cached values and loads that started before it are not handed to later callers.
+ */
+public class ReadCoalescer {
+
+  @FunctionalInterface
+  public interface Loader<V> {
+    V load() throws RepositoryException;
+  }
+
+  private final long ttlNanos;
+  private final long staleNanos;
+  private final double ttlJitter;
+  private final int maxEntries;
+  private final LongSupplier clock;
+  private final Map<Object, Flight> flights = new ConcurrentHashMap<>();
+  private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder joined = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder staleHits = new LongAdder();
+
+  private ReadCoalescer(Builder builder) {
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(builder.ttlMillis);
+    this.staleNanos = TimeUnit.MILLISECONDS.toNanos(builder.staleMillis);
+    this.ttlJitter = builder.ttlJitter;
+    this.maxEntries = builder.maxEntries;
+    this.clock = builder.clock;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @SuppressWarnings("unchecked")
+  public <V> V load(Object key, Loader<V> loader) throws RepositoryException {
+    long currentGeneration = generation.get();
+    Entry entry = entries.get(key);
+    if (entry != null && entry.generation == currentGeneration) {
+      long now = clock.getAsLong();
+      if (now - entry.freshUntil < 0) {
+        hits.increment();
+        return (V) entry.value;
+      }
+      if (now - entry.staleUntil < 0) {
+        Flight flight = new Flight(currentGeneration);
+        if (flights.putIfAbsent(key, flight) != null) {
+          staleHits.increment();
+          return (V) entry.value;
+        }
+        return fly(key, flight, loader);
+      }
+    }
+    Flight flight = new Flight(currentGeneration);
+    Flight inFlight = flights.putIfAbsent(key, flight);
+    if (inFlight != null) {
+      joined.increment();
+      return (V) await(inFlight);
+    }
+    return fly(key, flight, loader);
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    flights.clear();
+    entries.clear();
+  }
+
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  public long getJoined() {
+    return joined.sum();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getStaleHits() {
+    return staleHits.sum();
+  }
+
+  public int getSize() {
+    return entries.size();
+  }
+
+  private <V> V fly(Object key, Flight flight, Loader<V> loader) throws RepositoryException {
+    try {
+      loads.increment();
+      V value = loader.load();
+      if (ttlNanos > 0 && flight.generation == generation.get()) {
+        cache(key, value, flight.generation);
+      }
+      flight.future.complete(value);
+      return value;
+    } catch (RepositoryException | RuntimeException | Error e) {
+      flight.future.completeExceptionally(e);
+      throw e;
+    } finally {
+      flights.remove(key, flight);
+    }
+  }
+
+  private void cache(Object key, Object value, long loadGeneration) {
+    long now = clock.getAsLong();
+    if (entries.size() >= maxEntries) {
+      entries.values().removeIf(entry -> now - entry.staleUntil >= 0);
+      if (entries.size() >= maxEntries) {
+        return;
+      }
+    }
+    double jitter = ttlJitter > 0 ? 1 - ThreadLocalRandom.current().nextDouble(ttlJitter) : 1;
+    long freshUntil = now + (long) (ttlNanos * jitter);
+    entries.put(key, new Entry(value, freshUntil, freshUntil + staleNanos, loadGeneration));
+  }
+
+  private static Object await(Flight flight) throws RepositoryException {
+    try {
+      return flight.future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RepositoryException("Interrupted while waiting for a coalesced load", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RepositoryException repositoryException) {
+        throw repositoryException;
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new RepositoryException("Coalesced load failed", cause);
+    }
+  }
+
+  private record Entry(Object value, long freshUntil, long staleUntil, long generation) {}
+
+  private static final class Flight {
+    private final CompletableFuture<Object> future = new CompletableFuture<>();
+    private final long generation;
+
+    private Flight(long generation) {
+      this.generation = generation;
+    }
+  }
+
+  public static class Builder {
+    private long ttlMillis;
+    private long staleMillis;
+    private double ttlJitter = 0.1;
+    private int maxEntries = 10_000;
+    private LongSupplier clock = System::nanoTime;
+
+    private Builder() {}
+
+    public Builder setTtlMillis(long ttlMillis) {
+      this.ttlMillis = ttlMillis;
+      return this;
+    }
+
+    public Builder setStaleMillis(long staleMillis) {
+      this.staleMillis = staleMillis;
+      return this;
+    }
+
+    public Builder setTtlJitter(double ttlJitter) {
+      this.ttlJitter = ttlJitter;
+      return this;
+    }
+
+    public Builder setMaxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+      return this;
+    }
+
+    public Builder setClock(LongSupplier clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    public ReadCoalescer build() {
+      if (ttlMillis < 0 || staleMillis < 0) {
+        throw new IllegalArgumentException("TTL and stale window must not be negative");
+      }
+      if (ttlJitter < 0 || ttlJitter >= 1) {
+        throw new IllegalArgumentException("TTL jitter must be at least 0 and less than 1");
+      }
+      if (maxEntries <= 0) {
+        throw new IllegalArgumentException("Max entries must be positive");
+      }
+      if (clock == null) {
+        throw new IllegalArgumentException("Clock is required");
+      }
+      return new ReadCoalescer(this);
+    }
+  }
+}
@@ -1,10 +1,16 @@
 package by.russianzak.service.impl;
 
 import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
 import by.russianzak.model.HouseEntity;
 import by.russianzak.repository.HouseEntityRepository;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
 import by.russianzak.service.HouseEntityService;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class HouseEntityServiceImpl implements HouseEntityService {
@@ -45,8 +51,29 @@ public class HouseEntityServiceImpl implements HouseEntityService {
     return houseEntityRepository.findById(id);
   }
 
+  @Override
+  public Map<Long, HouseEntity> findAllById(Collection<Long> ids) throws RepositoryException {
+    return houseEntityRepository.findAllById(ids);
+  }
+
   @Override
   public List<HouseEntity> getAll() throws RepositoryException {
     return houseEntityRepository.getAll();
   }
+
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return houseEntityRepository.count(exact);
+  }
+
+  @Override
+  public QueryPage<HouseEntity> query(QuerySpec<HouseEntity> spec) throws RepositoryException {
+    return houseEntityRepository.query(spec);
+  }
+
+  @Override
+  public List<BuildYearBucket> getBuildYearHistogram(int bucketYears, LocalDate from, LocalDate to)
+      throws RepositoryException {
+    return houseEntityRepository.getBuildYearHistogram(bucketYears, from, to);
+  }
 }
@@ -3,8 +3,12 @@ package by.russianzak.service.impl;
 import by.russianzak.exception.RepositoryException;
 import by.russianzak.model.RoadSurfaceEntity;
 import by.russianzak.repository.RoadSurfaceEntityRepository;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
 import by.russianzak.service.RoadSurfaceEntityService;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class RoadSurfaceEntityServiceImpl implements RoadSurfaceEntityService {
@@ -45,9 +49,23 @@ public class RoadSurfaceEntityServiceImpl implements RoadSurfaceEntityService {
     return roadSurfaceEntityRepository.findById(id);
   }
 
+  @Override
+  public Map<Long, RoadSurfaceEntity> findAllById(Collection<Long> ids) throws RepositoryException {
+    return roadSurfaceEntityRepository.findAllById(ids);
+  }
+
   @Override
   public List<RoadSurfaceEntity> getAll() throws RepositoryException {
     return roadSurfaceEntityRepository.getAll();
   }
 
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return roadSurfaceEntityRepository.count(exact);
+  }
+
+  @Override
+  public QueryPage<RoadSurfaceEntity> query(QuerySpec<RoadSurfaceEntity> spec) throws RepositoryException {
+    return roadSurfaceEntityRepository.query(spec);
+  }
 }
@@ -2,9 +2,14 @@ package by.russianzak.service.impl;
 
 import by.russianzak.exception.RepositoryException;
 import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
 import by.russianzak.repository.StreetEntityRepository;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
 import by.russianzak.service.StreetEntityService;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class StreetEntityServiceImpl implements StreetEntityService {
@@ -49,4 +54,38 @@ public class StreetEntityServiceImpl implements StreetEntityService {
     return streetRepository.findById(id);
   }
 
+  @Override
+  public Map<Long, StreetEntity> findAllById(Collection<Long> ids) throws RepositoryException {
+    return streetRepository.findAllById(ids);
+  }
+
+  @Override
+  public Map<Long, StreetEntity> findAllByPostalCode(Collection<Long> postalCodes) throws RepositoryException {
+    return streetRepository.findAllByPostalCode(postalCodes);
+  }
+
+  @Override
+  public List<StreetSummary> getSummaries() throws RepositoryException {
+    return streetRepository.getSummaries();
+  }
+
+  @Override
+  public Optional<StreetSummary> findSummaryById(Long streetId) throws RepositoryException {
+    return streetRepository.findSummaryById(streetId);
+  }
+
+  @Override
+  public Optional<String> findDocumentById(Long id) throws RepositoryException {
+    return streetRepository.findDocumentById(id);
+  }
+
+  @Override
+  public long count(boolean exact) throws RepositoryException {
+    return streetRepository.count(exact);
+  }
+
+  @Override
+  public QueryPage<StreetEntity> query(QuerySpec<StreetEntity> spec) throws RepositoryException {
+    return streetRepository.query(spec);
+  }
 }
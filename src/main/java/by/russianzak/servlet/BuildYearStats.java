@@ -0,0 +1,63 @@
+package by.russianzak.servlet;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parameters of {@code GET /house/stats/build-year?bucket=10y&builtAfter=1950-01-01}. The range
+ * parameters mean the same as the list filters of the same name: both bounds are exclusive.
+ */
+final class BuildYearStats {
+
+  static final String PATH = "/stats/build-year";
+  static final int MAX_BUCKET_YEARS = 1000;
+
+  private static final Pattern BUCKET = Pattern.compile("(\\d{1,4})y");
+
+  private BuildYearStats() {}
+
+  static boolean isStatsRequest(HttpServletRequest req) {
+    return PATH.equals(req.getPathInfo());
+  }
+
+  /** @throws IllegalArgumentException unless the bucket is 1 to 1000 years, such as {@code 10y} */
+  static int parseBucketYears(HttpServletRequest req) {
+    String bucket = req.getParameter("bucket");
+    if (bucket == null) {
+      return 1;
+    }
+    Matcher matcher = BUCKET.matcher(bucket);
+    int years = matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+    if (years < 1 || years > MAX_BUCKET_YEARS) {
+      throw new IllegalArgumentException(String.format(
+          "Invalid bucket value: %s, expected 1y to %dy", bucket, MAX_BUCKET_YEARS));
+    }
+    return years;
+  }
+
+  /** The first build date counted, or null for no lower bound. */
+  static LocalDate parseFrom(HttpServletRequest req) {
+    LocalDate builtAfter = parseDate(req, "builtAfter");
+    return builtAfter == null ? null : builtAfter.plusDays(1);
+  }
+
+  /** The first build date no longer counted, or null for no upper bound. */
+  static LocalDate parseTo(HttpServletRequest req) {
+    return parseDate(req, "builtBefore");
+  }
+
+  private static LocalDate parseDate(HttpServletRequest req, String name) {
+    String value = req.getParameter(name);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(value);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException(String.format("Invalid %s value: %s", name, value));
+    }
+  }
+}
@@ -1,17 +1,29 @@
 package by.russianzak.servlet;
 
 import by.russianzak.exception.RepositoryException;
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
+import by.russianzak.model.BuildYearBucket;
 import by.russianzak.model.HouseEntity;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySchema;
 import by.russianzak.service.HouseEntityService;
 import by.russianzak.servlet.dto.RequestHouseEntityDto;
 import by.russianzak.servlet.dto.ResponseHouseEntityDto;
+import by.russianzak.servlet.response.AcceptedResponse;
+import by.russianzak.servlet.response.CountResponse;
+import by.russianzak.servlet.response.PageResponse;
 import by.russianzak.servlet.response.WebResponse;
 import by.russianzak.servlet.mapper.HouseEntityDtoMapper;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import by.russianzak.writebehind.WriteBehindQueue;
 import com.google.gson.Gson;
 
 import com.google.gson.JsonSyntaxException;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -19,17 +31,29 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 public class HouseEntityServlet extends HttpServlet {
+  private static final Logger LOGGER = LoggerFactory.getLogger(HouseEntityServlet.class);
+
   private final HouseEntityService houseService;
   private final HouseEntityDtoMapper mapper;
   private final Gson gson;
+  private final WriteBehindQueue writeBehindQueue;
 
   public HouseEntityServlet(HouseEntityService houseService, HouseEntityDtoMapper mapper, Gson gson) {
+    this(houseService, mapper, gson, null);
+  }
+
+  /** With a write-behind queue, writes preferring {@code respond-async} are journaled. */
+  public HouseEntityServlet(HouseEntityService houseService, HouseEntityDtoMapper mapper, Gson gson, WriteBehindQueue writeBehindQueue) {
     this.houseService = houseService;
     this.mapper = mapper;
     this.gson = gson;
+    this.writeBehindQueue = writeBehindQueue;
   }
 
   @Override
@@ -37,7 +61,7 @@ public class HouseEntityServlet extends HttpServlet {
     try {
       processPostRequest(req, resp);
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to read request body", e);
     }
   }
 
@@ -46,12 +70,22 @@ public class HouseEntityServlet extends HttpServlet {
     processGetRequest(req, resp);
   }
 
+  /** A HEAD on the collection or its count reports just the count, without loading any entity. */
+  @Override
+  public void doHead(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+    if (TotalCount.isCountRequest(req) || TotalCount.isCollectionRequest(req)) {
+      processCountRequest(req, resp, false);
+    } else {
+      super.doHead(req, resp);
+    }
+  }
+
   @Override
   public void doPut(HttpServletRequest req, HttpServletResponse resp) {
     try {
       processPutRequest(req, resp);
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to read request body", e);
     }
   }
 
@@ -63,6 +97,10 @@ public class HouseEntityServlet extends HttpServlet {
   private void processPostRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
     RequestHouseEntityDto requestDto = getRequestDto(req);
     HouseEntity entity = mapper.map(requestDto);
+    if (writeBehindQueue != null && WriteStatusServlet.prefersAsync(req)) {
+      acceptWrite(resp, Operation.SAVE, 0, requestDto);
+      return;
+    }
     try {
       HouseEntity savedEntity = houseService.save(entity);
       ResponseHouseEntityDto responseDto = mapper.map(savedEntity);
@@ -93,12 +131,21 @@ public class HouseEntityServlet extends HttpServlet {
       catch (RepositoryException e) {
         sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
       }
+    } else if (req.getParameter("ids") != null) {
+      processMultiGetRequest(resp, req.getParameter("ids"));
+    } else if (TotalCount.isCountRequest(req)) {
+      processCountRequest(req, resp, true);
+    } else if (BuildYearStats.isStatsRequest(req)) {
+      processBuildYearStatsRequest(req, resp);
+    } else if (ListQuery.isQueryRequest(req, QuerySchema.HOUSE)) {
+      processQueryRequest(req, resp);
     } else {
       try {
         List<HouseEntity> entities = houseService.getAll();
         List<ResponseHouseEntityDto> responseDtos = entities.stream()
             .map(mapper::map)
             .toList();
+        resp.setHeader(TotalCount.HEADER, Integer.toString(responseDtos.size()));
         sendResponse(resp, HttpServletResponse.SC_OK, responseDtos);
       } catch (RepositoryException e) {
         sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
@@ -106,6 +153,71 @@ public class HouseEntityServlet extends HttpServlet {
     }
   }
 
+  private void processQueryRequest(HttpServletRequest req, HttpServletResponse resp) {
+    try {
+      QueryPage<HouseEntity> page = houseService.query(ListQuery.parse(req, QuerySchema.HOUSE));
+      List<ResponseHouseEntityDto> responseDtos = page.items().stream()
+          .map(mapper::map)
+          .toList();
+      sendResponse(resp, HttpServletResponse.SC_OK, new PageResponse(responseDtos, page.nextCursor()));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (RepositoryException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
+  private void processBuildYearStatsRequest(HttpServletRequest req, HttpServletResponse resp) {
+    try {
+      List<BuildYearBucket> buckets = houseService.getBuildYearHistogram(
+          BuildYearStats.parseBucketYears(req), BuildYearStats.parseFrom(req), BuildYearStats.parseTo(req));
+      sendResponse(resp, HttpServletResponse.SC_OK, buckets);
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (RepositoryException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
+  private void processCountRequest(HttpServletRequest req, HttpServletResponse resp, boolean withBody) {
+    try {
+      TotalCount.checkCountParameters(req);
+      boolean exact = TotalCount.isExact(req);
+      long count = houseService.count(exact);
+      resp.setHeader(TotalCount.HEADER, Long.toString(count));
+      if (withBody) {
+        sendResponse(resp, HttpServletResponse.SC_OK, new CountResponse(count, exact));
+      } else {
+        resp.setStatus(HttpServletResponse.SC_OK);
+      }
+    } catch (IllegalArgumentException e) {
+      if (withBody) {
+        sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      } else {
+        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+      }
+    } catch (RepositoryException e) {
+      if (withBody) {
+        sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+      } else {
+        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+      }
+    }
+  }
+
+  private void processMultiGetRequest(HttpServletResponse resp, String idsParam) {
+    try {
+      List<Long> ids = KeyParameter.parse("ids", idsParam);
+      Map<Long, HouseEntity> found = houseService.findAllById(KeyParameter.distinct(ids));
+      sendResponse(resp, HttpServletResponse.SC_OK,
+          KeyParameter.inRequestOrder(ids, found, mapper::map, "HouseEntity with id %s not found"));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (RepositoryException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
   private void processPutRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
     String idParam = req.getParameter("id");
     if (idParam != null) {
@@ -113,6 +225,10 @@ public class HouseEntityServlet extends HttpServlet {
       RequestHouseEntityDto requestDto = getRequestDto(req);
       HouseEntity entity = mapper.map(requestDto);
       entity.setId(id);
+      if (writeBehindQueue != null && WriteStatusServlet.prefersAsync(req)) {
+        acceptWrite(resp, Operation.UPDATE, id, requestDto);
+        return;
+      }
       try {
         HouseEntity updatedEntity = houseService.update(entity);
         ResponseHouseEntityDto responseDto = mapper.map(updatedEntity);
@@ -151,6 +267,21 @@ public class HouseEntityServlet extends HttpServlet {
   }
 
 
+  private void acceptWrite(HttpServletResponse resp, Operation operation, long id,
+      RequestHouseEntityDto requestDto) {
+    try {
+      long writeId = writeBehindQueue.submit(EntityKind.HOUSE, operation, id, gson.toJson(requestDto));
+      String statusUrl = WriteStatusServlet.accept(resp, writeId);
+      sendResponse(resp, HttpServletResponse.SC_ACCEPTED,
+          new AcceptedResponse(HttpServletResponse.SC_ACCEPTED, "Accepted for write-behind", writeId, statusUrl));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, e.getMessage());
+    } catch (IOException e) {
+      LOGGER.error("Failed to journal write", e);
+      sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Write journal unavailable");
+    }
+  }
+
   private RequestHouseEntityDto getRequestDto(HttpServletRequest req) throws IOException {
     try (BufferedReader reader = req.getReader()) {
       return gson.fromJson(reader, RequestHouseEntityDto.class);
@@ -159,13 +290,17 @@ public class HouseEntityServlet extends HttpServlet {
 
   private void sendResponse(HttpServletResponse resp, int status, Object responseObject) {
     try {
+      long serializationStart = RequestTimings.start();
+      String body = gson.toJson(responseObject);
+      RequestTimings.stop(Phase.SERIALIZATION, serializationStart);
+
       resp.setContentType("application/json");
       resp.setStatus(status);
       try (PrintWriter writer = resp.getWriter()) {
-        writer.print(gson.toJson(responseObject));
+        writer.print(body);
       }
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to write response", e);
     }
   }
 
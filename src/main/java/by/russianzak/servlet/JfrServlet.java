@@ -0,0 +1,94 @@
+package by.russianzak.servlet;
+
+import by.russianzak.jfr.JfrRecorder;
+import by.russianzak.servlet.response.WebResponse;
+import com.google.gson.Gson;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JfrServlet extends HttpServlet {
+  private static final Logger LOGGER = LoggerFactory.getLogger(JfrServlet.class);
+  private static final String RECORDING_PATH = "/recording";
+  private static final String SUMMARY_PATH = "/summary";
+  private static final long DEFAULT_SECONDS = 10;
+
+  private final JfrRecorder recorder;
+  private final Gson gson;
+
+  public JfrServlet(JfrRecorder recorder, Gson gson) {
+    this.recorder = recorder;
+    this.gson = gson;
+  }
+
+  @Override
+  public void doGet(HttpServletRequest req, HttpServletResponse resp) {
+    String path = req.getPathInfo();
+    try {
+      Duration duration = Duration.ofSeconds(getSeconds(req));
+      if (RECORDING_PATH.equals(path)) {
+        sendRecording(resp, recorder.record(duration));
+      } else if (SUMMARY_PATH.equals(path)) {
+        sendResponse(resp, HttpServletResponse.SC_OK, recorder.summarize(duration));
+      } else {
+        sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND,
+            String.format("Unknown JFR resource %s", path));
+      }
+    } catch (NumberFormatException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, "Invalid seconds format");
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (IllegalStateException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_CONFLICT, e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Recording interrupted");
+    } catch (IOException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
+  private long getSeconds(HttpServletRequest req) {
+    String seconds = req.getParameter("seconds");
+    return seconds == null ? DEFAULT_SECONDS : Long.parseLong(seconds);
+  }
+
+  private void sendRecording(HttpServletResponse resp, Path file) throws IOException {
+    try {
+      resp.setContentType("application/octet-stream");
+      resp.setHeader("Content-Disposition",
+          String.format("attachment; filename=\"%s\"", file.getFileName()));
+      resp.setContentLengthLong(Files.size(file));
+      try (OutputStream out = resp.getOutputStream()) {
+        Files.copy(file, out);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private void sendResponse(HttpServletResponse resp, int status, Object responseObject) {
+    try {
+      resp.setContentType("application/json");
+      resp.setStatus(status);
+      try (PrintWriter writer = resp.getWriter()) {
+        writer.print(gson.toJson(responseObject));
+      }
+    } catch (IOException e) {
+      LOGGER.error("Failed to write response", e);
+    }
+  }
+
+  private void sendErrorResponse(HttpServletResponse resp, int status, String errorMessage) {
+    WebResponse webResponse = new WebResponse(status, errorMessage);
+    sendResponse(resp, status, webResponse);
+  }
+}
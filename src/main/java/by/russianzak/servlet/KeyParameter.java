@@ -0,0 +1,57 @@
+package by.russianzak.servlet;
+
+import by.russianzak.servlet.response.KeyedResult;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/** The comma-separated key lists of multi-get requests such as {@code /house?ids=3,1,2}. */
+final class KeyParameter {
+
+  static final int MAX_KEYS = 1000;
+
+  private KeyParameter() {}
+
+  /** Keys in request order, duplicates included. */
+  static List<Long> parse(String name, String value) {
+    List<Long> keys = new ArrayList<>();
+    for (String key : value.split(",")) {
+      if (!key.isBlank()) {
+        try {
+          keys.add(Long.parseLong(key.trim()));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException(String.format("Invalid %s value: %s", name, key.trim()));
+        }
+      }
+    }
+    if (keys.isEmpty()) {
+      throw new IllegalArgumentException(String.format("Parameter %s lists no keys", name));
+    }
+    if (keys.size() > MAX_KEYS) {
+      throw new IllegalArgumentException(String.format("Parameter %s lists %d keys, at most %d are allowed",
+          name, keys.size(), MAX_KEYS));
+    }
+    return keys;
+  }
+
+  /** The distinct keys to look up. */
+  static Set<Long> distinct(List<Long> keys) {
+    return new LinkedHashSet<>(keys);
+  }
+
+  /** One result per requested key, in request order, with a not-found entry for each missing key. */
+  static <T> List<KeyedResult> inRequestOrder(List<Long> keys, Map<Long, T> found,
+      Function<T, ?> mapper, String notFoundFormat) {
+    List<KeyedResult> results = new ArrayList<>(keys.size());
+    for (Long key : keys) {
+      T entity = found.get(key);
+      results.add(entity == null
+          ? KeyedResult.notFound(key, String.format(notFoundFormat, key))
+          : KeyedResult.found(key, mapper.apply(entity)));
+    }
+    return results;
+  }
+}
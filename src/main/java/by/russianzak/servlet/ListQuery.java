@@ -0,0 +1,51 @@
+package by.russianzak.servlet;
+
+import by.russianzak.repository.query.QuerySchema;
+import by.russianzak.repository.query.QuerySpec;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Map;
+import java.util.Set;
+
+/** List requests with filters, a sort or paging, such as {@code /house?streetId=7&sort=-buildDate}. */
+final class ListQuery {
+
+  private static final Set<String> PAGING_PARAMETERS = Set.of("sort", "limit", "after");
+
+  private ListQuery() {}
+
+  static boolean isQueryRequest(HttpServletRequest req, QuerySchema<?> schema) {
+    for (String name : req.getParameterMap().keySet()) {
+      if (PAGING_PARAMETERS.contains(name) || schema.isFilterParameter(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** @throws IllegalArgumentException on a parameter the schema does not allow or an invalid value */
+  static <T> QuerySpec<T> parse(HttpServletRequest req, QuerySchema<T> schema) {
+    QuerySpec.Builder<T> builder = QuerySpec.builder(schema);
+    for (Map.Entry<String, String[]> parameter : req.getParameterMap().entrySet()) {
+      String name = parameter.getKey();
+      if (parameter.getValue().length != 1) {
+        throw new IllegalArgumentException(String.format("Parameter %s must be given once", name));
+      }
+      String value = parameter.getValue()[0];
+      switch (name) {
+        case "sort" -> builder.setSort(value);
+        case "limit" -> builder.setLimit(parseLimit(value));
+        case "after" -> builder.setAfter(value);
+        default -> builder.setFilter(name, value);
+      }
+    }
+    return builder.build();
+  }
+
+  private static int parseLimit(String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid limit value: " + value);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package by.russianzak.servlet;
+
+import by.russianzak.metrics.LatencyHistogram;
+import by.russianzak.metrics.MetricsRegistry;
+import by.russianzak.metrics.MetricsSampler;
+import by.russianzak.metrics.SaturationMonitor;
+import by.russianzak.servlet.dto.ResponseMetricsDto;
+import by.russianzak.servlet.dto.ResponseMetricsDto.HistogramDto;
+import by.russianzak.servlet.dto.ResponseMetricsDto.SaturationDto;
+import com.google.gson.Gson;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MetricsServlet extends HttpServlet {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetricsServlet.class);
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final MetricsRegistry registry;
+  private final MetricsSampler sampler;
+  private final SaturationMonitor saturationMonitor;
+  private final Gson gson;
+
+  public MetricsServlet(MetricsRegistry registry, MetricsSampler sampler,
+      SaturationMonitor saturationMonitor, Gson gson) {
+    this.registry = registry;
+    this.sampler = sampler;
+    this.saturationMonitor = saturationMonitor;
+    this.gson = gson;
+  }
+
+  @Override
+  public void doGet(HttpServletRequest req, HttpServletResponse resp) {
+    Map<String, HistogramDto> histograms = new LinkedHashMap<>();
+    registry.getHistograms().forEach((name, histogram) -> histograms.put(name, map(histogram.snapshot())));
+
+    SaturationDto saturation = new SaturationDto(saturationMonitor.getPool(),
+        saturationMonitor.getThreads(), saturationMonitor.getScore(),
+        saturationMonitor.getThreshold(), saturationMonitor.isSaturated());
+
+    ResponseMetricsDto responseDto = new ResponseMetricsDto(sampler.getSampledAt(),
+        sampler.getLastSample(), registry.getCounters(), histograms, saturation);
+    sendResponse(resp, HttpServletResponse.SC_OK, responseDto);
+  }
+
+  private HistogramDto map(LatencyHistogram.Snapshot snapshot) {
+    return new HistogramDto(snapshot.getCount(), snapshot.getMean() / NANOS_PER_MILLI,
+        snapshot.getPercentile(50) / NANOS_PER_MILLI, snapshot.getPercentile(90) / NANOS_PER_MILLI,
+        snapshot.getPercentile(99) / NANOS_PER_MILLI, snapshot.getMax() / NANOS_PER_MILLI);
+  }
+
+  private void sendResponse(HttpServletResponse resp, int status, Object responseObject) {
+    try {
+      resp.setContentType("application/json");
+      resp.setStatus(status);
+      try (PrintWriter writer = resp.getWriter()) {
+        writer.print(gson.toJson(responseObject));
+      }
+    } catch (IOException e) {
+      LOGGER.error("Failed to write response", e);
+    }
+  }
+}
@@ -1,17 +1,28 @@
 package by.russianzak.servlet;
 
 import by.russianzak.exception.RepositoryException;
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
 import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySchema;
 import by.russianzak.service.RoadSurfaceEntityService;
 import by.russianzak.servlet.dto.RequestRoadSurfaceEntityDto;
 import by.russianzak.servlet.dto.ResponseRoadSurfaceEntityDto;
 import by.russianzak.servlet.mapper.RoadSurfaceEntityDtoMapper;
+import by.russianzak.servlet.response.AcceptedResponse;
+import by.russianzak.servlet.response.CountResponse;
+import by.russianzak.servlet.response.PageResponse;
 import by.russianzak.servlet.response.WebResponse;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import by.russianzak.writebehind.WriteBehindQueue;
 import com.google.gson.Gson;
 
 import com.google.gson.JsonSyntaxException;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -19,17 +30,30 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class RoadSurfaceEntityServlet extends HttpServlet {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RoadSurfaceEntityServlet.class);
+
   private final RoadSurfaceEntityService roadSurfaceService;
   private final RoadSurfaceEntityDtoMapper mapper;
   private final Gson gson;
+  private final WriteBehindQueue writeBehindQueue;
 
   public RoadSurfaceEntityServlet(RoadSurfaceEntityService roadSurfaceService, RoadSurfaceEntityDtoMapper mapper,
       Gson gson) {
+    this(roadSurfaceService, mapper, gson, null);
+  }
+
+  /** With a write-behind queue, writes preferring {@code respond-async} are journaled. */
+  public RoadSurfaceEntityServlet(RoadSurfaceEntityService roadSurfaceService, RoadSurfaceEntityDtoMapper mapper,
+      Gson gson, WriteBehindQueue writeBehindQueue) {
     this.roadSurfaceService = roadSurfaceService;
     this.mapper = mapper;
     this.gson = gson;
+    this.writeBehindQueue = writeBehindQueue;
   }
 
   @Override
@@ -37,7 +61,7 @@ public class RoadSurfaceEntityServlet extends HttpServlet {
     try {
       processPostRequest(req, resp);
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to read request body", e);
     }
   }
 
@@ -46,12 +70,22 @@ public class RoadSurfaceEntityServlet extends HttpServlet {
     processGetRequest(req, resp);
   }
 
+  /** A HEAD on the collection or its count reports just the count, without loading any entity. */
+  @Override
+  public void doHead(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+    if (TotalCount.isCountRequest(req) || TotalCount.isCollectionRequest(req)) {
+      processCountRequest(req, resp, false);
+    } else {
+      super.doHead(req, resp);
+    }
+  }
+
   @Override
   public void doPut(HttpServletRequest req, HttpServletResponse resp) {
     try {
       processPutRequest(req, resp);
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to read request body", e);
     }
   }
 
@@ -63,6 +97,10 @@ public class RoadSurfaceEntityServlet extends HttpServlet {
   private void processPostRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
     RequestRoadSurfaceEntityDto requestDto = getRequestDto(req);
     RoadSurfaceEntity entity = mapper.map(requestDto);
+    if (writeBehindQueue != null && WriteStatusServlet.prefersAsync(req)) {
+      acceptWrite(resp, Operation.SAVE, 0, requestDto);
+      return;
+    }
     try {
       RoadSurfaceEntity savedEntity = roadSurfaceService.save(entity);
 
@@ -93,12 +131,19 @@ public class RoadSurfaceEntityServlet extends HttpServlet {
       } catch (RepositoryException e) {
         sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
       }
+    } else if (req.getParameter("ids") != null) {
+      processMultiGetRequest(resp, req.getParameter("ids"));
+    } else if (TotalCount.isCountRequest(req)) {
+      processCountRequest(req, resp, true);
+    } else if (ListQuery.isQueryRequest(req, QuerySchema.ROAD_SURFACE)) {
+      processQueryRequest(req, resp);
     } else {
       try {
         List<RoadSurfaceEntity> entities = roadSurfaceService.getAll();
         List<ResponseRoadSurfaceEntityDto> responseDtos = entities.stream()
             .map(mapper::map)
             .toList();
+        resp.setHeader(TotalCount.HEADER, Integer.toString(responseDtos.size()));
         sendResponse(resp, HttpServletResponse.SC_OK, responseDtos);
       } catch (RepositoryException e) {
         sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
@@ -106,6 +151,59 @@ public class RoadSurfaceEntityServlet extends HttpServlet {
     }
   }
 
+  private void processQueryRequest(HttpServletRequest req, HttpServletResponse resp) {
+    try {
+      QueryPage<RoadSurfaceEntity> page = roadSurfaceService.query(ListQuery.parse(req, QuerySchema.ROAD_SURFACE));
+      List<ResponseRoadSurfaceEntityDto> responseDtos = page.items().stream()
+          .map(mapper::map)
+          .toList();
+      sendResponse(resp, HttpServletResponse.SC_OK, new PageResponse(responseDtos, page.nextCursor()));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (RepositoryException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
+  private void processCountRequest(HttpServletRequest req, HttpServletResponse resp, boolean withBody) {
+    try {
+      TotalCount.checkCountParameters(req);
+      boolean exact = TotalCount.isExact(req);
+      long count = roadSurfaceService.count(exact);
+      resp.setHeader(TotalCount.HEADER, Long.toString(count));
+      if (withBody) {
+        sendResponse(resp, HttpServletResponse.SC_OK, new CountResponse(count, exact));
+      } else {
+        resp.setStatus(HttpServletResponse.SC_OK);
+      }
+    } catch (IllegalArgumentException e) {
+      if (withBody) {
+        sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      } else {
+        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+      }
+    } catch (RepositoryException e) {
+      if (withBody) {
+        sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+      } else {
+        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+      }
+    }
+  }
+
+  private void processMultiGetRequest(HttpServletResponse resp, String idsParam) {
+    try {
+      List<Long> ids = KeyParameter.parse("ids", idsParam);
+      Map<Long, RoadSurfaceEntity> found = roadSurfaceService.findAllById(KeyParameter.distinct(ids));
+      sendResponse(resp, HttpServletResponse.SC_OK,
+          KeyParameter.inRequestOrder(ids, found, mapper::map, "RoadSurfaceEntity with id %s not found"));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (RepositoryException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
   private void processPutRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
     String idParam = req.getParameter("id");
     if (idParam != null) {
@@ -113,6 +211,10 @@ public class RoadSurfaceEntityServlet extends HttpServlet {
       RequestRoadSurfaceEntityDto requestDto = getRequestDto(req);
       RoadSurfaceEntity entity = mapper.map(requestDto);
       entity.setId(id);
+      if (writeBehindQueue != null && WriteStatusServlet.prefersAsync(req)) {
+        acceptWrite(resp, Operation.UPDATE, id, requestDto);
+        return;
+      }
       try {
         RoadSurfaceEntity updatedEntity = roadSurfaceService.update(entity);
         ResponseRoadSurfaceEntityDto responseDto = mapper.map(updatedEntity);
@@ -150,6 +252,21 @@ public class RoadSurfaceEntityServlet extends HttpServlet {
     }
   }
 
+  private void acceptWrite(HttpServletResponse resp, Operation operation, long id,
+      RequestRoadSurfaceEntityDto requestDto) {
+    try {
+      long writeId = writeBehindQueue.submit(EntityKind.ROAD_SURFACE, operation, id, gson.toJson(requestDto));
+      String statusUrl = WriteStatusServlet.accept(resp, writeId);
+      sendResponse(resp, HttpServletResponse.SC_ACCEPTED,
+          new AcceptedResponse(HttpServletResponse.SC_ACCEPTED, "Accepted for write-behind", writeId, statusUrl));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, e.getMessage());
+    } catch (IOException e) {
+      LOGGER.error("Failed to journal write", e);
+      sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Write journal unavailable");
+    }
+  }
+
   private RequestRoadSurfaceEntityDto getRequestDto(HttpServletRequest req) throws IOException {
     try (BufferedReader reader = req.getReader()) {
       return gson.fromJson(reader, RequestRoadSurfaceEntityDto.class);
@@ -158,13 +275,17 @@ public class RoadSurfaceEntityServlet extends HttpServlet {
 
   private void sendResponse(HttpServletResponse resp, int status, Object responseObject) {
     try {
+      long serializationStart = RequestTimings.start();
+      String body = gson.toJson(responseObject);
+      RequestTimings.stop(Phase.SERIALIZATION, serializationStart);
+
       resp.setContentType("application/json");
       resp.setStatus(status);
       try (PrintWriter writer = resp.getWriter()) {
-        writer.print(gson.toJson(responseObject));
+        writer.print(body);
       }
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to write response", e);
     }
   }
 
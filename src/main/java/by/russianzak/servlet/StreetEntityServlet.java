@@ -1,16 +1,29 @@
 package by.russianzak.servlet;
 
 import by.russianzak.exception.RepositoryException;
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
 import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySchema;
 import by.russianzak.service.StreetEntityService;
 import by.russianzak.servlet.dto.RequestStreetEntityDto;
 import by.russianzak.servlet.dto.ResponseStreetEntityDto;
+import by.russianzak.servlet.response.AcceptedResponse;
+import by.russianzak.servlet.response.CountResponse;
+import by.russianzak.servlet.response.PageResponse;
 import by.russianzak.servlet.response.WebResponse;
-import by.russianzak.servlet.mapper.StreetEntityDtoMapper;import com.google.gson.Gson;
+import by.russianzak.servlet.mapper.StreetEntityDtoMapper;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import by.russianzak.writebehind.WriteBehindQueue;
+import com.google.gson.Gson;
 
 import com.google.gson.JsonSyntaxException;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -18,16 +31,31 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class StreetEntityServlet extends HttpServlet {
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreetEntityServlet.class);
+
+  private static final String SUMMARY_PATH = "/summary";
+
   private final StreetEntityService streetService;
   private final StreetEntityDtoMapper mapper;
   private final Gson gson;
+  private final WriteBehindQueue writeBehindQueue;
 
   public StreetEntityServlet(StreetEntityService streetService, StreetEntityDtoMapper mapper, Gson gson) {
+    this(streetService, mapper, gson, null);
+  }
+
+  /** With a write-behind queue, writes preferring {@code respond-async} are journaled. */
+  public StreetEntityServlet(StreetEntityService streetService, StreetEntityDtoMapper mapper, Gson gson, WriteBehindQueue writeBehindQueue) {
     this.streetService = streetService;
     this.mapper = mapper;
     this.gson = gson;
+    this.writeBehindQueue = writeBehindQueue;
   }
 
   @Override
@@ -35,7 +63,7 @@ public class StreetEntityServlet extends HttpServlet {
     try {
       processPostRequest(req, resp);
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to read request body", e);
     }
   }
 
@@ -44,12 +72,22 @@ public class StreetEntityServlet extends HttpServlet {
     processGetRequest(req, resp);
   }
 
+  /** A HEAD on the collection or its count reports just the count, without loading any entity. */
+  @Override
+  public void doHead(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+    if (TotalCount.isCountRequest(req) || TotalCount.isCollectionRequest(req)) {
+      processCountRequest(req, resp, false);
+    } else {
+      super.doHead(req, resp);
+    }
+  }
+
   @Override
   public void doPut(HttpServletRequest req, HttpServletResponse resp) {
     try {
       processPutRequest(req, resp);
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to read request body", e);
     }
   }
 
@@ -61,6 +99,10 @@ public class StreetEntityServlet extends HttpServlet {
   private void processPostRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
     RequestStreetEntityDto requestDto = getRequestDto(req);
     StreetEntity entity = mapper.map(requestDto);
+    if (writeBehindQueue != null && WriteStatusServlet.prefersAsync(req)) {
+      acceptWrite(resp, Operation.SAVE, 0, requestDto);
+      return;
+    }
     try {
       StreetEntity savedEntity = streetService.save(entity);
       ResponseStreetEntityDto responseDto = mapper.map(savedEntity);
@@ -80,6 +122,12 @@ public class StreetEntityServlet extends HttpServlet {
     if (idParam != null) {
       try {
         Long id = Long.parseLong(idParam);
+        // the stored document is the body as is: no street to load, map or serialize
+        Optional<String> document = streetService.findDocumentById(id);
+        if (document.isPresent()) {
+          sendBody(resp, HttpServletResponse.SC_OK, document.get());
+          return;
+        }
         StreetEntity entity = streetService.getById(id);
         ResponseStreetEntityDto responseDto = mapper.map(entity);
         sendResponse(resp, HttpServletResponse.SC_OK, responseDto);
@@ -90,12 +138,23 @@ public class StreetEntityServlet extends HttpServlet {
       } catch (RepositoryException e) {
         sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
       }
+    } else if (req.getParameter("ids") != null) {
+      processMultiGetRequest(resp, "ids", req.getParameter("ids"));
+    } else if (req.getParameter("postalCodes") != null) {
+      processMultiGetRequest(resp, "postalCodes", req.getParameter("postalCodes"));
+    } else if (TotalCount.isCountRequest(req)) {
+      processCountRequest(req, resp, true);
+    } else if (SUMMARY_PATH.equals(req.getPathInfo())) {
+      processSummaryRequest(req, resp);
+    } else if (ListQuery.isQueryRequest(req, QuerySchema.STREET)) {
+      processQueryRequest(req, resp);
     } else {
       try {
         List<StreetEntity> entities = streetService.getAll();
         List<ResponseStreetEntityDto> responseDtos = entities.stream()
             .map(mapper::map)
             .toList();
+        resp.setHeader(TotalCount.HEADER, Integer.toString(responseDtos.size()));
         sendResponse(resp, HttpServletResponse.SC_OK, responseDtos);
       } catch (RepositoryException e) {
         sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
@@ -103,6 +162,85 @@ public class StreetEntityServlet extends HttpServlet {
     }
   }
 
+  /** {@code /street/summary} lists every street's summary, {@code ?streetId=} picks one. */
+  private void processSummaryRequest(HttpServletRequest req, HttpServletResponse resp) {
+    String streetIdParam = req.getParameter("streetId");
+    try {
+      if (streetIdParam == null) {
+        sendResponse(resp, HttpServletResponse.SC_OK, streetService.getSummaries());
+        return;
+      }
+      Long streetId = Long.parseLong(streetIdParam);
+      Optional<StreetSummary> summary = streetService.findSummaryById(streetId);
+      if (summary.isPresent()) {
+        sendResponse(resp, HttpServletResponse.SC_OK, summary.get());
+      } else {
+        sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND,
+            String.format("StreetEntity with id %s not found", streetId));
+      }
+    } catch (NumberFormatException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (RepositoryException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
+  private void processQueryRequest(HttpServletRequest req, HttpServletResponse resp) {
+    try {
+      QueryPage<StreetEntity> page = streetService.query(ListQuery.parse(req, QuerySchema.STREET));
+      List<ResponseStreetEntityDto> responseDtos = page.items().stream()
+          .map(mapper::map)
+          .toList();
+      sendResponse(resp, HttpServletResponse.SC_OK, new PageResponse(responseDtos, page.nextCursor()));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (RepositoryException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
+  private void processCountRequest(HttpServletRequest req, HttpServletResponse resp, boolean withBody) {
+    try {
+      TotalCount.checkCountParameters(req);
+      boolean exact = TotalCount.isExact(req);
+      long count = streetService.count(exact);
+      resp.setHeader(TotalCount.HEADER, Long.toString(count));
+      if (withBody) {
+        sendResponse(resp, HttpServletResponse.SC_OK, new CountResponse(count, exact));
+      } else {
+        resp.setStatus(HttpServletResponse.SC_OK);
+      }
+    } catch (IllegalArgumentException e) {
+      if (withBody) {
+        sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      } else {
+        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+      }
+    } catch (RepositoryException e) {
+      if (withBody) {
+        sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+      } else {
+        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+      }
+    }
+  }
+
+  private void processMultiGetRequest(HttpServletResponse resp, String name, String value) {
+    try {
+      List<Long> keys = KeyParameter.parse(name, value);
+      boolean byPostalCode = "postalCodes".equals(name);
+      Map<Long, StreetEntity> found = byPostalCode
+          ? streetService.findAllByPostalCode(KeyParameter.distinct(keys))
+          : streetService.findAllById(KeyParameter.distinct(keys));
+      sendResponse(resp, HttpServletResponse.SC_OK, KeyParameter.inRequestOrder(keys, found, mapper::map,
+          byPostalCode ? "StreetEntity with postal code %s not found" : "StreetEntity with id %s not found"));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    } catch (RepositoryException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+  }
+
   private void processPutRequest(HttpServletRequest req, HttpServletResponse resp) throws IOException {
     String idParam = req.getParameter("id");
     if (idParam != null) {
@@ -111,6 +249,10 @@ public class StreetEntityServlet extends HttpServlet {
         RequestStreetEntityDto requestDto = getRequestDto(req);
         StreetEntity entity = mapper.map(requestDto);
         entity.setId(id);
+        if (writeBehindQueue != null && WriteStatusServlet.prefersAsync(req)) {
+          acceptWrite(resp, Operation.UPDATE, id, requestDto);
+          return;
+        }
         StreetEntity updatedEntity = streetService.update(entity);
         ResponseStreetEntityDto responseDto = mapper.map(updatedEntity);
         sendResponse(resp, HttpServletResponse.SC_OK, responseDto);
@@ -147,6 +289,21 @@ public class StreetEntityServlet extends HttpServlet {
     }
   }
 
+  private void acceptWrite(HttpServletResponse resp, Operation operation, long id,
+      RequestStreetEntityDto requestDto) {
+    try {
+      long writeId = writeBehindQueue.submit(EntityKind.STREET, operation, id, gson.toJson(requestDto));
+      String statusUrl = WriteStatusServlet.accept(resp, writeId);
+      sendResponse(resp, HttpServletResponse.SC_ACCEPTED,
+          new AcceptedResponse(HttpServletResponse.SC_ACCEPTED, "Accepted for write-behind", writeId, statusUrl));
+    } catch (IllegalArgumentException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, e.getMessage());
+    } catch (IOException e) {
+      LOGGER.error("Failed to journal write", e);
+      sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Write journal unavailable");
+    }
+  }
+
   private RequestStreetEntityDto getRequestDto(HttpServletRequest req) throws IOException, NumberFormatException {
     try (BufferedReader reader = req.getReader()) {
       return gson.fromJson(reader, RequestStreetEntityDto.class);
@@ -154,14 +311,22 @@ public class StreetEntityServlet extends HttpServlet {
   }
 
   private void sendResponse(HttpServletResponse resp, int status, Object responseObject) {
+    long serializationStart = RequestTimings.start();
+    String body = gson.toJson(responseObject);
+    RequestTimings.stop(Phase.SERIALIZATION, serializationStart);
+
+    sendBody(resp, status, body);
+  }
+
+  private void sendBody(HttpServletResponse resp, int status, String body) {
     try {
       resp.setContentType("application/json");
       resp.setStatus(status);
       try (PrintWriter writer = resp.getWriter()) {
-        writer.print(gson.toJson(responseObject));
+        writer.print(body);
       }
     } catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.error("Failed to write response", e);
     }
   }
 
@@ -0,0 +1,50 @@
+package by.russianzak.servlet;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Collection sizes for {@code HEAD /house}, {@code GET /house/count} and the like, reported in the
+ * {@code X-Total-Count} header. Counts are estimates unless the request carries {@code exact=true}.
+ */
+final class TotalCount {
+
+  static final String HEADER = "X-Total-Count";
+  static final String PATH = "/count";
+
+  private TotalCount() {}
+
+  /** Whether the request addresses the count endpoint rather than the collection itself. */
+  static boolean isCountRequest(HttpServletRequest req) {
+    return PATH.equals(req.getPathInfo());
+  }
+
+  /**
+   * Whether the request addresses the whole collection rather than a sub-resource such as
+   * {@code /street/summary}, or entities picked by key or filter.
+   */
+  static boolean isCollectionRequest(HttpServletRequest req) {
+    String pathInfo = req.getPathInfo();
+    return (pathInfo == null || pathInfo.equals("/")) && otherParameter(req) == null;
+  }
+
+  /** Counts are of the whole collection; a filter would be silently ignored, so it is rejected. */
+  static void checkCountParameters(HttpServletRequest req) {
+    String name = otherParameter(req);
+    if (name != null) {
+      throw new IllegalArgumentException(String.format("Counts cannot be filtered by '%s'", name));
+    }
+  }
+
+  static boolean isExact(HttpServletRequest req) {
+    return Boolean.parseBoolean(req.getParameter("exact"));
+  }
+
+  private static String otherParameter(HttpServletRequest req) {
+    for (String name : req.getParameterMap().keySet()) {
+      if (!name.equals("exact")) {
+        return name;
+      }
+    }
+    return null;
+  }
+}
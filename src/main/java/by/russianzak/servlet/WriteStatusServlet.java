@@ -0,0 +1,91 @@
+package by.russianzak.servlet;
+
+import by.russianzak.servlet.response.WebResponse;
+import by.russianzak.writebehind.WriteBehindQueue;
+import by.russianzak.writebehind.WriteStatus;
+import com.google.gson.Gson;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports what became of a write accepted with {@code Prefer: respond-async}: pending, applied
+ * with the id of the saved entity, or failed with the reason.
+ */
+public class WriteStatusServlet extends HttpServlet {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteStatusServlet.class);
+
+  public static final String PATH = "/write-status";
+  private static final String RESPOND_ASYNC = "respond-async";
+
+  private final WriteBehindQueue writeBehindQueue;
+  private final Gson gson;
+
+  public WriteStatusServlet(WriteBehindQueue writeBehindQueue, Gson gson) {
+    this.writeBehindQueue = writeBehindQueue;
+    this.gson = gson;
+  }
+
+  /** Whether the client asked for the write to be acknowledged before it is applied (RFC 7240). */
+  public static boolean prefersAsync(HttpServletRequest req) {
+    String prefer = req.getHeader("Prefer");
+    if (prefer == null) {
+      return false;
+    }
+    for (String preference : prefer.split(",")) {
+      if (RESPOND_ASYNC.equalsIgnoreCase(preference.trim())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Marks {@code resp} as a write-behind acknowledgement and returns its status URL. */
+  public static String accept(HttpServletResponse resp, long writeId) {
+    String statusUrl = PATH + "?id=" + writeId;
+    resp.setHeader("Location", statusUrl);
+    resp.setHeader("Preference-Applied", RESPOND_ASYNC);
+    return statusUrl;
+  }
+
+  @Override
+  public void doGet(HttpServletRequest req, HttpServletResponse resp) {
+    String idParam = req.getParameter("id");
+    if (idParam == null) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, "Missing id parameter");
+      return;
+    }
+    try {
+      Optional<WriteStatus> status = writeBehindQueue.getStatus(Long.parseLong(idParam));
+      if (status.isPresent()) {
+        sendResponse(resp, HttpServletResponse.SC_OK, status.get());
+      } else {
+        sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND,
+            String.format("Write %s is unknown or no longer tracked", idParam));
+      }
+    } catch (NumberFormatException e) {
+      sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    }
+  }
+
+  private void sendResponse(HttpServletResponse resp, int status, Object responseObject) {
+    try {
+      resp.setContentType("application/json");
+      resp.setStatus(status);
+      try (PrintWriter writer = resp.getWriter()) {
+        writer.print(gson.toJson(responseObject));
+      }
+    } catch (IOException e) {
+      LOGGER.error("Failed to write response", e);
+    }
+  }
+
+  private void sendErrorResponse(HttpServletResponse resp, int status, String errorMessage) {
+    sendResponse(resp, status, new WebResponse(status, errorMessage));
+  }
+}
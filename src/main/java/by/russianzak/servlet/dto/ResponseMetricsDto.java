@@ -0,0 +1,69 @@
+package by.russianzak.servlet.dto;
+
+import java.util.Map;
+
+public class ResponseMetricsDto {
+  // epoch millis: the app-wide date format keeps only the day
+  private long sampledAt;
+  private Map<String, Number> gauges;
+  private Map<String, Long> counters;
+  private Map<String, HistogramDto> histograms;
+  private SaturationDto saturation;
+
+  public ResponseMetricsDto() {}
+
+  public ResponseMetricsDto(long sampledAt, Map<String, Number> gauges, Map<String, Long> counters,
+      Map<String, HistogramDto> histograms, SaturationDto saturation) {
+    this.sampledAt = sampledAt;
+    this.gauges = gauges;
+    this.counters = counters;
+    this.histograms = histograms;
+    this.saturation = saturation;
+  }
+
+  public long getSampledAt() {
+    return sampledAt;
+  }
+
+  public void setSampledAt(long sampledAt) {
+    this.sampledAt = sampledAt;
+  }
+
+  public Map<String, Number> getGauges() {
+    return gauges;
+  }
+
+  public void setGauges(Map<String, Number> gauges) {
+    this.gauges = gauges;
+  }
+
+  public Map<String, Long> getCounters() {
+    return counters;
+  }
+
+  public void setCounters(Map<String, Long> counters) {
+    this.counters = counters;
+  }
+
+  public Map<String, HistogramDto> getHistograms() {
+    return histograms;
+  }
+
+  public void setHistograms(Map<String, HistogramDto> histograms) {
+    this.histograms = histograms;
+  }
+
+  public SaturationDto getSaturation() {
+    return saturation;
+  }
+
+  public void setSaturation(SaturationDto saturation) {
+    this.saturation = saturation;
+  }
+
+  public record HistogramDto(long count, double meanMillis, double p50Millis, double p90Millis,
+                             double p99Millis, double maxMillis) {}
+
+  public record SaturationDto(double pool, double threads, double score, double threshold,
+                              boolean saturated) {}
+}
@@ -0,0 +1,68 @@
+package by.russianzak.servlet.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Writes one access-log line for a sampled fraction of requests. Server errors are always logged.
+ * Request fields go into the MDC so a structured layout emits them as separate keys.
+ */
+public class AccessLogFilter extends HttpFilter {
+  public static final String LOGGER_NAME = "access";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LOGGER_NAME);
+  private static final String[] MDC_KEYS = {"http.method", "http.route", "http.status",
+      "http.duration_ms"};
+
+  private final double sampleRate;
+
+  public AccessLogFilter(double sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  @Override
+  protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+      throws IOException, ServletException {
+    if (!LOGGER.isInfoEnabled()) {
+      chain.doFilter(req, resp);
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      chain.doFilter(req, resp);
+    } finally {
+      int status = resp.getStatus();
+      if (status >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR || isSampled()) {
+        log(req, status, System.nanoTime() - start);
+      }
+    }
+  }
+
+  private boolean isSampled() {
+    return sampleRate >= 1.0
+        || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  private void log(HttpServletRequest req, int status, long durationNanos) {
+    String route = req.getServletPath();
+    MDC.put(MDC_KEYS[0], req.getMethod());
+    MDC.put(MDC_KEYS[1], route);
+    MDC.put(MDC_KEYS[2], Integer.toString(status));
+    MDC.put(MDC_KEYS[3], Long.toString(durationNanos / 1_000_000));
+    try {
+      LOGGER.info("{} {} {}", req.getMethod(), route, status);
+    } finally {
+      for (String key : MDC_KEYS) {
+        MDC.remove(key);
+      }
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package by.russianzak.servlet.filter;
+
+import by.russianzak.metrics.MetricsRegistry;
+import by.russianzak.metrics.SaturationMonitor;
+import by.russianzak.servlet.response.WebResponse;
+import com.google.gson.Gson;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AdmissionControlFilter extends HttpFilter {
+  public static final String REJECTED = "admission.rejected";
+
+  private final SaturationMonitor saturationMonitor;
+  private final LongAdder rejected;
+  private final int retryAfterSeconds;
+  private final Gson gson;
+
+  public AdmissionControlFilter(SaturationMonitor saturationMonitor, MetricsRegistry registry,
+      int retryAfterSeconds, Gson gson) {
+    this.saturationMonitor = saturationMonitor;
+    this.rejected = registry.counter(REJECTED);
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.gson = gson;
+  }
+
+  @Override
+  protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+      throws IOException, ServletException {
+    if (!saturationMonitor.isSaturated()) {
+      chain.doFilter(req, resp);
+      return;
+    }
+    rejected.increment();
+    int status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+    resp.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+    resp.setContentType("application/json");
+    resp.setStatus(status);
+    try (PrintWriter writer = resp.getWriter()) {
+      writer.print(gson.toJson(new WebResponse(status, "Service is saturated, retry later")));
+    }
+  }
+}
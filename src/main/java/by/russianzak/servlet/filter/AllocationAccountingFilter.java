@@ -0,0 +1,69 @@
+package by.russianzak.servlet.filter;
+
+import by.russianzak.metrics.MetricsRegistry;
+import by.russianzak.metrics.ThreadAllocation;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the bytes each request allocates on its container thread, per method and route. Work
+ * handed to other threads is not included. Exposes {@code allocation.bytes.<route>} and
+ * {@code allocation.requests.<route>} counters and an {@code allocation.mean_bytes.<route>} gauge,
+ * where the route reads like {@code GET /house}.
+ */
+public class AllocationAccountingFilter extends HttpFilter {
+  public static final String BYTES = "allocation.bytes.";
+  public static final String REQUESTS = "allocation.requests.";
+  public static final String MEAN_BYTES = "allocation.mean_bytes.";
+
+  private final MetricsRegistry registry;
+  private final Map<String, Map<String, Route>> routes = new ConcurrentHashMap<>();
+
+  public AllocationAccountingFilter(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+      throws IOException, ServletException {
+    long start = ThreadAllocation.currentThreadAllocatedBytes();
+    try {
+      chain.doFilter(req, resp);
+    } finally {
+      long allocated = ThreadAllocation.currentThreadAllocatedBytes() - start;
+      route(req.getMethod(), req.getServletPath()).record(allocated);
+    }
+  }
+
+  private Route route(String method, String path) {
+    // two lookups instead of a concatenated key keep the hot path itself allocation free
+    return routes.computeIfAbsent(method, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(path, key -> new Route(method + " " + path));
+  }
+
+  private class Route {
+    private final LongAdder bytes;
+    private final LongAdder requests;
+
+    private Route(String name) {
+      this.bytes = registry.counter(BYTES + name);
+      this.requests = registry.counter(REQUESTS + name);
+      registry.gauge(MEAN_BYTES + name, () -> {
+        long count = requests.sum();
+        return count == 0 ? 0 : bytes.sum() / count;
+      });
+    }
+
+    private void record(long allocated) {
+      bytes.add(allocated);
+      requests.increment();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package by.russianzak.servlet.filter;
+
+import by.russianzak.jfr.ServletRequestEvent;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+public class JfrRequestFilter extends HttpFilter {
+
+  @Override
+  protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+      throws IOException, ServletException {
+    ServletRequestEvent event = new ServletRequestEvent();
+    if (!event.isEnabled()) {
+      chain.doFilter(req, resp);
+      return;
+    }
+    CountingResponse countingResponse = new CountingResponse(resp);
+    event.begin();
+    try {
+      chain.doFilter(req, countingResponse);
+    } finally {
+      countingResponse.flushWriter();
+      event.end();
+      if (event.shouldCommit()) {
+        event.method = req.getMethod();
+        event.route = req.getServletPath();
+        event.status = resp.getStatus();
+        event.bytes = countingResponse.bytes;
+        event.commit();
+      }
+    }
+  }
+
+  private static class CountingResponse extends HttpServletResponseWrapper {
+    private long bytes;
+    private CountingOutputStream outputStream;
+    private PrintWriter writer;
+
+    private CountingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (writer != null) {
+        throw new IllegalStateException("getWriter() has already been called");
+      }
+      return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+      }
+      return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      flushWriter();
+      super.flushBuffer();
+    }
+
+    private void flushWriter() {
+      if (writer != null) {
+        writer.flush();
+      }
+    }
+
+    private CountingOutputStream stream() throws IOException {
+      if (outputStream == null) {
+        outputStream = new CountingOutputStream(super.getOutputStream());
+      }
+      return outputStream;
+    }
+
+    private class CountingOutputStream extends ServletOutputStream {
+      private final ServletOutputStream delegate;
+
+      private CountingOutputStream(ServletOutputStream delegate) {
+        this.delegate = delegate;
+      }
+
+      @Override
+      public void write(int b) throws IOException {
+        delegate.write(b);
+        bytes++;
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        delegate.write(b, off, len);
+        bytes += len;
+      }
+
+      @Override
+      public void flush() throws IOException {
+        delegate.flush();
+      }
+
+      @Override
+      public void close() throws IOException {
+        delegate.close();
+      }
+
+      @Override
+      public boolean isReady() {
+        return delegate.isReady();
+      }
+
+      @Override
+      public void setWriteListener(WriteListener writeListener) {
+        delegate.setWriteListener(writeListener);
+      }
+    }
+  }
+}
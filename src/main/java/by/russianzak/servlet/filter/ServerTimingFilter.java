@@ -0,0 +1,90 @@
+package by.russianzak.servlet.filter;
+
+import by.russianzak.metrics.RequestTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Emits a {@code Server-Timing} header for requests that opt in with {@code X-Server-Timing: 1}
+ * or are picked by the configured sample rate. The header has to be written before the body, so
+ * the response is wrapped and the header is added on the first access to the writer.
+ */
+public class ServerTimingFilter extends HttpFilter {
+  public static final String HEADER = "Server-Timing";
+  public static final String OPT_IN_HEADER = "X-Server-Timing";
+
+  private final boolean allowOptIn;
+  private final double sampleRate;
+
+  public ServerTimingFilter(boolean allowOptIn, double sampleRate) {
+    this.allowOptIn = allowOptIn;
+    this.sampleRate = sampleRate;
+  }
+
+  @Override
+  protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+      throws IOException, ServletException {
+    if (!isSelected(req)) {
+      chain.doFilter(req, resp);
+      return;
+    }
+    RequestTimings timings = RequestTimings.begin();
+    TimingResponse timingResponse = new TimingResponse(resp, timings);
+    try {
+      chain.doFilter(req, timingResponse);
+    } finally {
+      timingResponse.writeHeader();
+      RequestTimings.end();
+    }
+  }
+
+  private boolean isSelected(HttpServletRequest req) {
+    if (allowOptIn && "1".equals(req.getHeader(OPT_IN_HEADER))) {
+      return true;
+    }
+    return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  private static class TimingResponse extends HttpServletResponseWrapper {
+    private final RequestTimings timings;
+    private boolean headerWritten;
+
+    private TimingResponse(HttpServletResponse response, RequestTimings timings) {
+      super(response);
+      this.timings = timings;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      writeHeader();
+      return super.getWriter();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      writeHeader();
+      return super.getOutputStream();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      writeHeader();
+      super.flushBuffer();
+    }
+
+    private void writeHeader() {
+      if (!headerWritten && !isCommitted()) {
+        headerWritten = true;
+        addHeader(HEADER, timings.toHeaderValue());
+      }
+    }
+  }
+}
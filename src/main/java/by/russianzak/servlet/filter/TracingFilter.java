@@ -0,0 +1,42 @@
+package by.russianzak.servlet.filter;
+
+import by.russianzak.tracing.Span;
+import by.russianzak.tracing.TraceContext;
+import by.russianzak.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public class TracingFilter extends HttpFilter {
+
+  private final Tracer tracer;
+
+  public TracingFilter(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  @Override
+  protected void doFilter(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+      throws IOException, ServletException {
+    TraceContext remoteParent = TraceContext.parse(req.getHeader(TraceContext.TRACEPARENT_HEADER))
+        .orElse(null);
+    String route = req.getServletPath();
+    Span span = tracer.startServerSpan(req.getMethod() + " " + route, remoteParent);
+    span.setAttribute("http.method", req.getMethod())
+        .setAttribute("http.route", route)
+        .setAttribute("http.query", req.getQueryString());
+    resp.setHeader(TraceContext.TRACEPARENT_HEADER, span.getContext().toTraceparent());
+    try {
+      chain.doFilter(req, resp);
+    } catch (IOException | ServletException | RuntimeException e) {
+      span.setError(e);
+      throw e;
+    } finally {
+      span.setAttribute("http.status_code", resp.getStatus());
+      span.end();
+    }
+  }
+}
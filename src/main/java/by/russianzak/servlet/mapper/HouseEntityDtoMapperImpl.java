@@ -1,5 +1,7 @@
 package by.russianzak.servlet.mapper;
 
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
 import by.russianzak.model.HouseEntity;
 import by.russianzak.model.HouseEntity.TypeOfBuilding;
 import by.russianzak.model.StreetEntity;
@@ -11,14 +13,24 @@ public class HouseEntityDtoMapperImpl implements HouseEntityDtoMapper{
 
   @Override
   public HouseEntity map(RequestHouseEntityDto incomingDto) {
-    return HouseEntity.builder().setHouseNumber(incomingDto.getHouseNumber()).setStreet(
-            StreetEntity.builder().setName(incomingDto.getStreetName()).setPostalCode(incomingDto.getStreetPostalCode()).build()).setType(
-        TypeOfBuilding.valueOf(incomingDto.getType())).setBuildDate(incomingDto.getBuildDate()).setNumFloors(incomingDto.getNumFloors()).build();
+    long start = RequestTimings.start();
+    try {
+      return HouseEntity.builder().setHouseNumber(incomingDto.getHouseNumber()).setStreet(
+              StreetEntity.builder().setName(incomingDto.getStreetName()).setPostalCode(incomingDto.getStreetPostalCode()).build()).setType(
+          TypeOfBuilding.valueOf(incomingDto.getType())).setBuildDate(incomingDto.getBuildDate()).setNumFloors(incomingDto.getNumFloors()).build();
+    } finally {
+      RequestTimings.stop(Phase.DTO_MAPPING, start);
+    }
   }
 
   @Override
   public ResponseHouseEntityDto map(HouseEntity entity) {
-    return new ResponseHouseEntityDto(entity.getId(), entity.getHouseNumber(), entity.getBuildDate(), entity.getNumFloors(), entity.getType(),
-        new Street(entity.getStreet().getId(), entity.getStreet().getName(), entity.getStreet().getPostalCode()));
+    long start = RequestTimings.start();
+    try {
+      return new ResponseHouseEntityDto(entity.getId(), entity.getHouseNumber(), entity.getBuildDate(), entity.getNumFloors(), entity.getType(),
+          new Street(entity.getStreet().getId(), entity.getStreet().getName(), entity.getStreet().getPostalCode()));
+    } finally {
+      RequestTimings.stop(Phase.DTO_MAPPING, start);
+    }
   }
 }
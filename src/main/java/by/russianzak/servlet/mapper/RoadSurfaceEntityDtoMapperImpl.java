@@ -1,5 +1,7 @@
 package by.russianzak.servlet.mapper;
 
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
 import by.russianzak.model.RoadSurfaceEntity;
 import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
 import by.russianzak.model.StreetEntity;
@@ -14,28 +16,38 @@ public class RoadSurfaceEntityDtoMapperImpl implements RoadSurfaceEntityDtoMappe
 
   @Override
   public RoadSurfaceEntity map(RequestRoadSurfaceEntityDto incomingDto) {
-    List<StreetEntity> streetEntities = Optional.ofNullable(incomingDto.getStreets())
-        .map(streetDtos -> streetDtos.stream()
-            .map(streetDto -> StreetEntity.builder()
-                .setName(streetDto.name())
-                .setPostalCode(streetDto.postalCode())
-                .build())
-            .toList())
-        .orElse(new ArrayList<>());
+    long start = RequestTimings.start();
+    try {
+      List<StreetEntity> streetEntities = Optional.ofNullable(incomingDto.getStreets())
+          .map(streetDtos -> streetDtos.stream()
+              .map(streetDto -> StreetEntity.builder()
+                  .setName(streetDto.name())
+                  .setPostalCode(streetDto.postalCode())
+                  .build())
+              .toList())
+          .orElse(new ArrayList<>());
 
 
-    return RoadSurfaceEntity.builder().setType(TypeOfRoadSurface.valueOf(incomingDto.getType()))
-            .setDescription(incomingDto.getDescription())
-                .setFrictionCoefficient(incomingDto.getFrictionCoefficient())
-                    .setStreets(streetEntities).build();
+      return RoadSurfaceEntity.builder().setType(TypeOfRoadSurface.valueOf(incomingDto.getType()))
+              .setDescription(incomingDto.getDescription())
+                  .setFrictionCoefficient(incomingDto.getFrictionCoefficient())
+                      .setStreets(streetEntities).build();
+    } finally {
+      RequestTimings.stop(Phase.DTO_MAPPING, start);
+    }
   }
 
   @Override
   public ResponseRoadSurfaceEntityDto map(RoadSurfaceEntity entity) {
-    List<StreetDto> streetDtos = entity.getStreets().stream()
-        .map(street -> new StreetDto(street.getId(), street.getName(), street.getPostalCode()))
-        .toList();
+    long start = RequestTimings.start();
+    try {
+      List<StreetDto> streetDtos = entity.getStreets().stream()
+          .map(street -> new StreetDto(street.getId(), street.getName(), street.getPostalCode()))
+          .toList();
 
-    return new ResponseRoadSurfaceEntityDto(entity.getId(), entity.getType(), entity.getDescription(), entity.getFrictionCoefficient(), streetDtos);
+      return new ResponseRoadSurfaceEntityDto(entity.getId(), entity.getType(), entity.getDescription(), entity.getFrictionCoefficient(), streetDtos);
+    } finally {
+      RequestTimings.stop(Phase.DTO_MAPPING, start);
+    }
   }
 }
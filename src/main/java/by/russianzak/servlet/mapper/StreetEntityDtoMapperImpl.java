@@ -1,5 +1,7 @@
 package by.russianzak.servlet.mapper;
 
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
 import by.russianzak.model.HouseEntity;
 import by.russianzak.model.HouseEntity.TypeOfBuilding;
 import by.russianzak.model.RoadSurfaceEntity;
@@ -20,48 +22,58 @@ public class StreetEntityDtoMapperImpl implements StreetEntityDtoMapper{
 
   @Override
   public StreetEntity map(RequestStreetEntityDto incomingDto) {
-    StreetEntity streetEntity = StreetEntity.builder()
-        .setName(incomingDto.getName())
-        .setPostalCode(incomingDto.getPostalCode())
-        .build();
+    long start = RequestTimings.start();
+    try {
+      StreetEntity streetEntity = StreetEntity.builder()
+          .setName(incomingDto.getName())
+          .setPostalCode(incomingDto.getPostalCode())
+          .build();
 
-    Set<RoadSurfaceEntity> roadSurfaceEntities = Optional.ofNullable(incomingDto.getRoadSurfaces())
-        .map(surfaceDtos -> surfaceDtos.stream()
-            .map(surfaceDto -> RoadSurfaceEntity.builder()
-                .setType(TypeOfRoadSurface.fromValue(surfaceDto.type()))
-                .setDescription(surfaceDto.description())
-                .setFrictionCoefficient(surfaceDto.frictionCoefficient())
-                .build())
-            .collect(Collectors.toSet()))
-        .orElse(new HashSet<>());
+      Set<RoadSurfaceEntity> roadSurfaceEntities = Optional.ofNullable(incomingDto.getRoadSurfaces())
+          .map(surfaceDtos -> surfaceDtos.stream()
+              .map(surfaceDto -> RoadSurfaceEntity.builder()
+                  .setType(TypeOfRoadSurface.fromValue(surfaceDto.type()))
+                  .setDescription(surfaceDto.description())
+                  .setFrictionCoefficient(surfaceDto.frictionCoefficient())
+                  .build())
+              .collect(Collectors.toSet()))
+          .orElse(new HashSet<>());
 
-    Set<HouseEntity> houseEntities = Optional.ofNullable(incomingDto.getHouses())
-        .map(houseDtos -> houseDtos.stream()
-            .map(houseDto -> HouseEntity.builder()
-                .setHouseNumber(houseDto.houseNumber())
-                .setNumFloors(houseDto.numFloors())
-                .setBuildDate(houseDto.buildDate())
-                .setType(TypeOfBuilding.fromValue(houseDto.type()))
-                .setStreet(streetEntity)
-                .build())
-            .collect(Collectors.toSet()))
-        .orElse(new HashSet<>());
+      Set<HouseEntity> houseEntities = Optional.ofNullable(incomingDto.getHouses())
+          .map(houseDtos -> houseDtos.stream()
+              .map(houseDto -> HouseEntity.builder()
+                  .setHouseNumber(houseDto.houseNumber())
+                  .setNumFloors(houseDto.numFloors())
+                  .setBuildDate(houseDto.buildDate())
+                  .setType(TypeOfBuilding.fromValue(houseDto.type()))
+                  .setStreet(streetEntity)
+                  .build())
+              .collect(Collectors.toSet()))
+          .orElse(new HashSet<>());
 
-    streetEntity.setHouses(houseEntities);
-    streetEntity.setRoadSurfaces(roadSurfaceEntities);
+      streetEntity.setHouses(houseEntities);
+      streetEntity.setRoadSurfaces(roadSurfaceEntities);
 
-    return streetEntity;
+      return streetEntity;
+    } finally {
+      RequestTimings.stop(Phase.DTO_MAPPING, start);
+    }
   }
 
   @Override
   public ResponseStreetEntityDto map(StreetEntity entity) {
-    List<HouseDto> houseDtos = entity.getHouses().stream().map(house -> new HouseDto(
-        house.getId(), house.getHouseNumber(), house.getBuildDate(), house.getNumFloors(),
-        house.getType())).toList();
+    long start = RequestTimings.start();
+    try {
+      List<HouseDto> houseDtos = entity.getHouses().stream().map(house -> new HouseDto(
+          house.getId(), house.getHouseNumber(), house.getBuildDate(), house.getNumFloors(),
+          house.getType())).toList();
 
-    List<RoadSurfaceDto> roadSurfaceDtos = entity.getRoadSurfaces().stream().map(roadSurface -> new RoadSurfaceDto(roadSurface.getId(), roadSurface.getType(), roadSurface.getDescription(),
-        roadSurface.getFrictionCoefficient())).toList();
+      List<RoadSurfaceDto> roadSurfaceDtos = entity.getRoadSurfaces().stream().map(roadSurface -> new RoadSurfaceDto(roadSurface.getId(), roadSurface.getType(), roadSurface.getDescription(),
+          roadSurface.getFrictionCoefficient())).toList();
 
-    return new ResponseStreetEntityDto(entity.getId(), entity.getName(), entity.getPostalCode(), houseDtos, roadSurfaceDtos);
+      return new ResponseStreetEntityDto(entity.getId(), entity.getName(), entity.getPostalCode(), houseDtos, roadSurfaceDtos);
+    } finally {
+      RequestTimings.stop(Phase.DTO_MAPPING, start);
+    }
   }
 }
@@ -0,0 +1,19 @@
+package by.russianzak.servlet.response;
+
+import java.util.Date;
+
+public class AcceptedResponse {
+  private final int status;
+  private final String message;
+  private final long writeId;
+  private final String statusUrl;
+  private final Date timestamp;
+
+  public AcceptedResponse(int status, String message, long writeId, String statusUrl) {
+    this.status = status;
+    this.message = message;
+    this.writeId = writeId;
+    this.statusUrl = statusUrl;
+    this.timestamp = new Date();
+  }
+}
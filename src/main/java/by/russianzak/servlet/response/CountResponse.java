@@ -0,0 +1,11 @@
+package by.russianzak.servlet.response;
+
+public class CountResponse {
+  private final long count;
+  private final boolean exact;
+
+  public CountResponse(long count, boolean exact) {
+    this.count = count;
+    this.exact = exact;
+  }
+}
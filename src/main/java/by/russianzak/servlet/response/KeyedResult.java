@@ -0,0 +1,24 @@
+package by.russianzak.servlet.response;
+
+/** One entry of a multi-get response: the requested key and either its entity or why it is missing. */
+public class KeyedResult {
+  private final Long key;
+  private final int status;
+  private final Object entity;
+  private final String message;
+
+  private KeyedResult(Long key, int status, Object entity, String message) {
+    this.key = key;
+    this.status = status;
+    this.entity = entity;
+    this.message = message;
+  }
+
+  public static KeyedResult found(Long key, Object entity) {
+    return new KeyedResult(key, 200, entity, null);
+  }
+
+  public static KeyedResult notFound(Long key, String message) {
+    return new KeyedResult(key, 404, null, message);
+  }
+}
@@ -0,0 +1,13 @@
+package by.russianzak.servlet.response;
+
+import java.util.List;
+
+public class PageResponse {
+  private final List<?> items;
+  private final String nextCursor;
+
+  public PageResponse(List<?> items, String nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+}
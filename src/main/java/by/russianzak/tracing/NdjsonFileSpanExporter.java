@@ -0,0 +1,204 @@
+package by.russianzak.tracing;
+
+import by.russianzak.concurrent.MpscRingBuffer;
+import com.google.gson.Gson;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes finished spans as newline-delimited JSON. Request threads only offer spans to a bounded
+ * ring buffer (dropping them when it is full); a daemon thread drains it and rotates
+ * {@code spans.ndjson} to {@code spans.1.ndjson ... spans.N.ndjson} once it exceeds the size limit.
+ * A span that cannot be written, for example on a full disk, is counted as dropped and the file
+ * is reopened for the next one, so the thread outlives the failure.
+ */
+public class NdjsonFileSpanExporter implements SpanExporter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NdjsonFileSpanExporter.class);
+  private static final String FILE_NAME = "spans";
+  private static final String EXTENSION = ".ndjson";
+  private static final int DRAIN_BATCH = 512;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+  private final MpscRingBuffer<Span> buffer;
+  private final Path directory;
+  private final long maxFileBytes;
+  private final int maxFiles;
+  private final Gson gson;
+  private final LongAdder dropped = new LongAdder();
+  private final Thread writerThread;
+
+  private BufferedWriter writer;
+  private long currentFileBytes;
+  private boolean failing;
+  private volatile boolean running = true;
+
+  public NdjsonFileSpanExporter(Path directory, int bufferCapacity, long maxFileBytes, int maxFiles,
+      Gson gson) {
+    if (maxFiles < 1) {
+      throw new IllegalArgumentException("At least one span file must be kept");
+    }
+    this.buffer = new MpscRingBuffer<>(bufferCapacity);
+    this.directory = directory;
+    this.maxFileBytes = maxFileBytes;
+    this.maxFiles = maxFiles;
+    this.gson = gson;
+    try {
+      Files.createDirectories(directory);
+      openWriter();
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("Failed to open span file in %s", directory), e);
+    }
+    this.writerThread = new Thread(this::writeLoop, "span-exporter");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  @Override
+  public void export(Span span) {
+    if (!buffer.offer(span)) {
+      dropped.increment();
+    }
+  }
+
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  public int getQueued() {
+    return buffer.size();
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(writerThread);
+    try {
+      writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeLoop() {
+    while (running) {
+      if (buffer.drain(this::write, DRAIN_BATCH) == 0) {
+        flush();
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+    while (buffer.drain(this::write, DRAIN_BATCH) > 0) {
+      // flush what was queued before close
+    }
+    flush();
+    closeWriter();
+  }
+
+  private void write(Span span) {
+    try {
+      if (writer == null) {
+        openWriter();
+      }
+      String line = gson.toJson(toRecord(span));
+      writer.write(line);
+      writer.newLine();
+      currentFileBytes += line.length() + 1;
+      if (currentFileBytes >= maxFileBytes) {
+        rotate();
+      }
+      if (failing) {
+        LOGGER.info("Span export to {} resumed", directory);
+        failing = false;
+      }
+    } catch (IOException | RuntimeException e) {
+      dropped.increment();
+      failed(e);
+    }
+  }
+
+  private void flush() {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      failed(e);
+    }
+  }
+
+  /** Logs the first failure of a run of them and drops the writer, so the next span reopens the file. */
+  private void failed(Exception e) {
+    if (!failing) {
+      LOGGER.error("Failed to write spans to {}, dropping them until the file can be written again",
+          directory, e);
+      failing = true;
+    }
+    closeWriter();
+  }
+
+  private void closeWriter() {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.close();
+    } catch (IOException e) {
+      LOGGER.warn("Failed to close span file: {}", e.getMessage());
+    }
+    writer = null;
+  }
+
+  private Map<String, Object> toRecord(Span span) {
+    Map<String, Object> record = new LinkedHashMap<>();
+    record.put("traceId", span.getContext().traceId());
+    record.put("spanId", span.getContext().spanId());
+    record.put("parentSpanId", span.getParentSpanId());
+    record.put("name", span.getName());
+    record.put("kind", span.getKind());
+    record.put("startMicros", span.getStartEpochMicros());
+    record.put("durationMicros", span.getDurationNanos() / 1000);
+    record.put("attributes", span.getAttributes());
+    record.put("error", span.getError());
+    return record;
+  }
+
+  private void rotate() throws IOException {
+    writer.close();
+    writer = null;
+    for (int i = maxFiles - 1; i >= 1; i--) {
+      Path source = file(i - 1);
+      if (Files.exists(source)) {
+        Files.move(source, file(i), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    if (maxFiles == 1) {
+      Files.deleteIfExists(file(0));
+    }
+    openWriter();
+  }
+
+  private void openWriter() throws IOException {
+    Path file = file(0);
+    writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+    currentFileBytes = Files.size(file);
+  }
+
+  private Path file(int index) {
+    return directory.resolve(index == 0 ? FILE_NAME + EXTENSION : FILE_NAME + "." + index + EXTENSION);
+  }
+}
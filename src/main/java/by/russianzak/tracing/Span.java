@@ -0,0 +1,96 @@
+package by.russianzak.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Span implements AutoCloseable {
+
+  public enum Kind {
+    SERVER, INTERNAL, CLIENT
+  }
+
+  private final Tracer tracer;
+  private final Span parent;
+  private final TraceContext context;
+  private final String parentSpanId;
+  private final String name;
+  private final Kind kind;
+  private final long startEpochMicros;
+  private final long startNanos;
+  private final Map<String, Object> attributes = new LinkedHashMap<>();
+  private long durationNanos = -1;
+  private String error;
+
+  Span(Tracer tracer, Span parent, TraceContext context, String parentSpanId, String name,
+      Kind kind) {
+    this.tracer = tracer;
+    this.parent = parent;
+    this.context = context;
+    this.parentSpanId = parentSpanId;
+    this.name = name;
+    this.kind = kind;
+    this.startEpochMicros = System.currentTimeMillis() * 1000;
+    this.startNanos = System.nanoTime();
+  }
+
+  public Span setAttribute(String key, Object value) {
+    if (context.sampled() && value != null) {
+      attributes.put(key, value);
+    }
+    return this;
+  }
+
+  public Span setError(Throwable throwable) {
+    this.error = throwable.getClass().getName() + ": " + throwable.getMessage();
+    return this;
+  }
+
+  public void end() {
+    if (durationNanos >= 0) {
+      return;
+    }
+    durationNanos = System.nanoTime() - startNanos;
+    tracer.finish(this);
+  }
+
+  @Override
+  public void close() {
+    end();
+  }
+
+  public TraceContext getContext() {
+    return context;
+  }
+
+  public Span getParent() {
+    return parent;
+  }
+
+  public String getParentSpanId() {
+    return parentSpanId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public long getStartEpochMicros() {
+    return startEpochMicros;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public Map<String, Object> getAttributes() {
+    return attributes;
+  }
+
+  public String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,9 @@
+package by.russianzak.tracing;
+
+public interface SpanExporter extends AutoCloseable {
+
+  void export(Span span);
+
+  @Override
+  default void close() {}
+}
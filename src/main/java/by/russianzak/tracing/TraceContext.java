@@ -0,0 +1,77 @@
+package by.russianzak.tracing;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W3C Trace Context identifiers, parsed from and formatted to the {@code traceparent} header
+ * ({@code version-traceId-parentId-flags}).
+ */
+public record TraceContext(String traceId, String spanId, boolean sampled) {
+
+  public static final String TRACEPARENT_HEADER = "traceparent";
+
+  private static final String VERSION = "00";
+  private static final String INVALID_TRACE_ID = "0".repeat(32);
+  private static final String INVALID_SPAN_ID = "0".repeat(16);
+
+  public static Optional<TraceContext> parse(String traceparent) {
+    if (traceparent == null) {
+      return Optional.empty();
+    }
+    String[] parts = traceparent.trim().split("-");
+    if (parts.length < 4 || parts[0].length() != 2 || "ff".equals(parts[0])
+        || (VERSION.equals(parts[0]) && parts.length != 4)) {
+      return Optional.empty();
+    }
+    String traceId = parts[1];
+    String spanId = parts[2];
+    String flags = parts[3];
+    if (!isHex(traceId, 32) || INVALID_TRACE_ID.equals(traceId)
+        || !isHex(spanId, 16) || INVALID_SPAN_ID.equals(spanId) || !isHex(flags, 2)) {
+      return Optional.empty();
+    }
+    boolean sampled = (Integer.parseInt(flags, 16) & 1) == 1;
+    return Optional.of(new TraceContext(traceId, spanId, sampled));
+  }
+
+  public String toTraceparent() {
+    return VERSION + '-' + traceId + '-' + spanId + '-' + (sampled ? "01" : "00");
+  }
+
+  static String newTraceId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String traceId;
+    do {
+      traceId = toHex(random.nextLong()) + toHex(random.nextLong());
+    } while (INVALID_TRACE_ID.equals(traceId));
+    return traceId;
+  }
+
+  static String newSpanId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long id;
+    do {
+      id = random.nextLong();
+    } while (id == 0);
+    return toHex(id);
+  }
+
+  private static String toHex(long value) {
+    String hex = Long.toHexString(value);
+    return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+  }
+
+  private static boolean isHex(String value, int length) {
+    if (value.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,66 @@
+package by.russianzak.tracing;
+
+import by.russianzak.tracing.Span.Kind;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class Tracer {
+
+  private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+  private final SpanExporter exporter;
+  private final double sampleRate;
+
+  public Tracer(SpanExporter exporter, double sampleRate) {
+    this.exporter = exporter;
+    this.sampleRate = sampleRate;
+  }
+
+  public Span startServerSpan(String name, TraceContext remoteParent) {
+    if (remoteParent == null) {
+      return startRoot(name, Kind.SERVER);
+    }
+    TraceContext context = new TraceContext(remoteParent.traceId(), TraceContext.newSpanId(),
+        remoteParent.sampled());
+    return activate(new Span(this, null, context, remoteParent.spanId(), name, Kind.SERVER));
+  }
+
+  public Span startSpan(String name, Kind kind) {
+    Span parent = CURRENT.get();
+    if (parent == null) {
+      return startRoot(name, kind);
+    }
+    TraceContext parentContext = parent.getContext();
+    TraceContext context = new TraceContext(parentContext.traceId(), TraceContext.newSpanId(),
+        parentContext.sampled());
+    return activate(new Span(this, parent, context, parentContext.spanId(), name, kind));
+  }
+
+  public Span currentSpan() {
+    return CURRENT.get();
+  }
+
+  void finish(Span span) {
+    if (CURRENT.get() == span) {
+      if (span.getParent() == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(span.getParent());
+      }
+    }
+    if (span.getContext().sampled()) {
+      exporter.export(span);
+    }
+  }
+
+  private Span startRoot(String name, Kind kind) {
+    boolean sampled = sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    TraceContext context = new TraceContext(TraceContext.newTraceId(), TraceContext.newSpanId(),
+        sampled);
+    return activate(new Span(this, null, context, null, name, kind));
+  }
+
+  private Span activate(Span span) {
+    CURRENT.set(span);
+    return span;
+  }
+}
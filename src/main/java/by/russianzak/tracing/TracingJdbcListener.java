@@ -0,0 +1,44 @@
+package by.russianzak.tracing;
+
+import by.russianzak.db.JdbcEventListener;
+import by.russianzak.tracing.Span.Kind;
+
+public class TracingJdbcListener implements JdbcEventListener {
+
+  private final Tracer tracer;
+  private final ThreadLocal<Span> statementSpan = new ThreadLocal<>();
+
+  public TracingJdbcListener(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  @Override
+  public void onConnectionAcquired(long elapsedNanos) {
+    Span current = tracer.currentSpan();
+    if (current != null) {
+      current.setAttribute("db.connection_acquire_micros", elapsedNanos / 1000);
+    }
+  }
+
+  @Override
+  public void beforeStatement(String sql) {
+    if (tracer.currentSpan() == null) {
+      return;
+    }
+    statementSpan.set(tracer.startSpan("db.statement", Kind.CLIENT)
+        .setAttribute("db.statement", sql));
+  }
+
+  @Override
+  public void afterStatement(String sql, long elapsedNanos, Throwable failure) {
+    Span span = statementSpan.get();
+    if (span == null) {
+      return;
+    }
+    statementSpan.remove();
+    if (failure != null) {
+      span.setError(failure);
+    }
+    span.end();
+  }
+}
@@ -0,0 +1,31 @@
+package by.russianzak.tracing;
+
+import by.russianzak.tracing.Span.Kind;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+public final class TracingProxy {
+
+  private TracingProxy() {}
+
+  @SuppressWarnings("unchecked")
+  public static <T> T wrap(Class<T> type, T target, Tracer tracer) {
+    // named after the interface, so decorators added around the target keep the span names
+    String prefix = type.getSimpleName() + ".";
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+        (proxy, method, args) -> {
+          if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(target, args);
+          }
+          Span span = tracer.startSpan(prefix + method.getName(), Kind.INTERNAL);
+          try {
+            return method.invoke(target, args);
+          } catch (InvocationTargetException e) {
+            span.setError(e.getCause());
+            throw e.getCause();
+          } finally {
+            span.end();
+          }
+        });
+  }
+}
@@ -0,0 +1,14 @@
+package by.russianzak.writebehind;
+
+/**
+ * One accepted write as stored in the {@link WriteJournal}: the request body of a POST
+ * ({@link Operation#SAVE}) or of a PUT to {@code targetId} ({@link Operation#UPDATE}).
+ */
+public record JournalRecord(long sequence, EntityKind entity, Operation operation, long targetId,
+    String body) {
+
+  // both enums are journaled by ordinal: append new constants, never reorder
+  public enum EntityKind { HOUSE, STREET, ROAD_SURFACE }
+
+  public enum Operation { SAVE, UPDATE }
+}
@@ -0,0 +1,302 @@
+package by.russianzak.writebehind;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Accepts writes into a {@link WriteJournal} and applies them in the background. A single drainer
+ * thread reads the journal in batches and hands each record, in sequence order, to the applier
+ * registered for its entity, then checkpoints the batch with one flush. A write that fails with a
+ * {@link RepositoryException} caused by a transient database error (a lost connection, a
+ * serialization failure, a deadlock, an operator intervention) is retried with a growing backoff,
+ * holding back the writes behind it, because the database may be briefly unavailable. Any other
+ * failure (a duplicate, a missing entity, an invalid body, a constraint the row violates) is final
+ * and is reported through its status. Records a previous run
+ * accepted but never checkpointed are applied again after a restart, so appliers see each write
+ * at least once.
+ */
+public class WriteBehindQueue implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+  private static final long POLL_MILLIS = 100;
+  // connection exception, transaction rollback, operator intervention
+  private static final List<String> TRANSIENT_SQL_STATE_CLASSES = List.of("08", "40", "57");
+
+  @FunctionalInterface
+  public interface Applier {
+    /** Applies the write and returns the id of the entity it saved or updated. */
+    Long apply(JournalRecord record) throws RepositoryException;
+  }
+
+  private final WriteJournal journal;
+  private final Map<EntityKind, Applier> appliers;
+  private final int batchSize;
+  private final long retryBackoffMillis;
+  private final int maxAttempts;
+  private final int statusCapacity;
+  private final Map<Long, WriteStatus> statuses = new ConcurrentHashMap<>();
+  private final Queue<Long> statusOrder = new ConcurrentLinkedQueue<>();
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder applied = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final Thread drainer;
+  private volatile boolean running = true;
+
+  private WriteBehindQueue(Builder builder) {
+    this.journal = builder.journal;
+    this.appliers = new EnumMap<>(builder.appliers);
+    this.batchSize = builder.batchSize;
+    this.retryBackoffMillis = builder.retryBackoffMillis;
+    this.maxAttempts = builder.maxAttempts;
+    this.statusCapacity = builder.statusCapacity;
+    this.drainer = new Thread(this::drain, "write-behind-drainer");
+    this.drainer.setDaemon(true);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public void start() {
+    drainer.start();
+  }
+
+  /**
+   * Journals a write and returns the id its status is reported under.
+   *
+   * @throws IllegalArgumentException if the body does not fit a journal segment
+   * @throws IOException if the journal cannot grow
+   */
+  public long submit(EntityKind entity, Operation operation, long targetId, String body)
+      throws IOException {
+    long id = journal.append(entity, operation, targetId, body.getBytes(StandardCharsets.UTF_8));
+    accepted.increment();
+    trackPending(id);
+    return id;
+  }
+
+  /**
+   * The status of a write accepted by this process, or of one replayed from the journal; empty
+   * once it has aged out of the status window.
+   */
+  public Optional<WriteStatus> getStatus(long id) {
+    return Optional.ofNullable(statuses.get(id));
+  }
+
+  public long getAccepted() {
+    return accepted.sum();
+  }
+
+  public long getApplied() {
+    return applied.sum();
+  }
+
+  public long getFailed() {
+    return failed.sum();
+  }
+
+  public long getBatches() {
+    return batches.sum();
+  }
+
+  public long getBacklog() {
+    return journal.getBacklog();
+  }
+
+  public int getJournalSegments() {
+    return journal.getSegmentCount();
+  }
+
+  /** Stops the drainer after the record it is applying; the rest stay journaled for the next run. */
+  @Override
+  public void close() {
+    running = false;
+    drainer.interrupt();
+    try {
+      drainer.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    journal.close();
+  }
+
+  private void drain() {
+    while (running) {
+      try {
+        List<JournalRecord> batch = journal.read(batchSize, POLL_MILLIS);
+        long settled = 0;
+        for (JournalRecord record : batch) {
+          if (!apply(record)) {
+            break;
+          }
+          settled = record.sequence();
+        }
+        if (settled > 0) {
+          journal.checkpoint(settled);
+          batches.increment();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (IOException e) {
+        LOGGER.error("Failed to checkpoint the write journal", e);
+      }
+    }
+  }
+
+  /** Applies one record, retrying transient failures; false if stopped before it settled. */
+  private boolean apply(JournalRecord record) {
+    trackPending(record.sequence());
+    Applier applier = appliers.get(record.entity());
+    for (int attempt = 1; running; attempt++) {
+      try {
+        if (applier == null) {
+          throw new IllegalStateException(String.format("No applier for %s writes", record.entity()));
+        }
+        putStatus(WriteStatus.applied(record.sequence(), applier.apply(record)));
+        applied.increment();
+        return true;
+      } catch (RepositoryException e) {
+        if (!isTransient(e)) {
+          LOGGER.error("Journaled write {} failed permanently", record.sequence(), e);
+          settleFailed(record, e.getMessage());
+          return true;
+        }
+        if (attempt >= maxAttempts) {
+          LOGGER.error("Giving up on journaled write {} after {} attempts", record.sequence(), attempt, e);
+          settleFailed(record, e.getMessage());
+          return true;
+        }
+        LOGGER.warn("Journaled write {} failed, retrying: {}", record.sequence(), e.getMessage());
+        try {
+          Thread.sleep(retryBackoffMillis * attempt);
+        } catch (InterruptedException interrupted) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      } catch (RuntimeException e) {
+        settleFailed(record, e.getMessage());
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Whether a retry can succeed: only failures the database reports as transient qualify. */
+  private static boolean isTransient(Throwable failure) {
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+        return true;
+      }
+      if (cause instanceof SQLException sqlException) {
+        String sqlState = sqlException.getSQLState();
+        return sqlState != null && sqlState.length() >= 2
+            && TRANSIENT_SQL_STATE_CLASSES.contains(sqlState.substring(0, 2));
+      }
+    }
+    return false;
+  }
+
+  private void settleFailed(JournalRecord record, String message) {
+    putStatus(WriteStatus.failed(record.sequence(), message));
+    failed.increment();
+  }
+
+  private void trackPending(long id) {
+    // the drainer may have settled the write before its submitter gets here
+    if (statuses.putIfAbsent(id, WriteStatus.pending(id)) == null) {
+      tracked(id);
+    }
+  }
+
+  private void putStatus(WriteStatus status) {
+    if (statuses.put(status.id(), status) == null) {
+      tracked(status.id());
+    }
+  }
+
+  private void tracked(long id) {
+    statusOrder.add(id);
+    while (statuses.size() > statusCapacity) {
+      Long oldest = statusOrder.poll();
+      if (oldest == null) {
+        break;
+      }
+      statuses.remove(oldest);
+    }
+  }
+
+  public static class Builder {
+    private WriteJournal journal;
+    private final Map<EntityKind, Applier> appliers = new EnumMap<>(EntityKind.class);
+    private int batchSize = 256;
+    private long retryBackoffMillis = 1000;
+    private int maxAttempts = 5;
+    private int statusCapacity = 100_000;
+
+    private Builder() {}
+
+    public Builder setJournal(WriteJournal journal) {
+      this.journal = journal;
+      return this;
+    }
+
+    public Builder setApplier(EntityKind entity, Applier applier) {
+      this.appliers.put(entity, applier);
+      return this;
+    }
+
+    public Builder setBatchSize(int batchSize) {
+      this.batchSize = batchSize;
+      return this;
+    }
+
+    public Builder setRetryBackoffMillis(long retryBackoffMillis) {
+      this.retryBackoffMillis = retryBackoffMillis;
+      return this;
+    }
+
+    public Builder setMaxAttempts(int maxAttempts) {
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    public Builder setStatusCapacity(int statusCapacity) {
+      this.statusCapacity = statusCapacity;
+      return this;
+    }
+
+    public WriteBehindQueue build() {
+      if (journal == null) {
+        throw new IllegalArgumentException("Write journal is required");
+      }
+      if (batchSize <= 0 || maxAttempts <= 0 || statusCapacity <= 0) {
+        throw new IllegalArgumentException("Batch size, max attempts and status capacity must be positive");
+      }
+      if (retryBackoffMillis < 0) {
+        throw new IllegalArgumentException("Retry backoff must not be negative");
+      }
+      return new WriteBehindQueue(this);
+    }
+  }
+}
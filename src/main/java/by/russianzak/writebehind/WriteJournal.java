@@ -0,0 +1,300 @@
+package by.russianzak.writebehind;
+
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of accepted writes, kept in memory-mapped segment files named after the
+ * first sequence number they hold. Each record is framed by its length and a CRC32C of its
+ * contents, and the length is written last, so a record cut short by a crash reads as the end of
+ * the journal and is discarded by the next {@link #open}. A mapped checkpoint file holds the last
+ * sequence applied downstream: reading resumes after it on startup, and segments wholly at or
+ * below it are deleted. An appended record survives a process crash as soon as {@link #append}
+ * returns, since its pages belong to the OS; with {@code forceOnAppend} it also survives a power
+ * loss, at the cost of a flush per record.
+ */
+public class WriteJournal implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(WriteJournal.class);
+
+  private static final String SEGMENT_SUFFIX = ".journal";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+  private static final int FRAME_BYTES = 4 + 4;
+  private static final int FIXED_BYTES = 8 + 1 + 1 + 8;
+  private static final EntityKind[] ENTITY_KINDS = EntityKind.values();
+  private static final Operation[] OPERATIONS = Operation.values();
+
+  private final Path directory;
+  private final int segmentBytes;
+  private final boolean forceOnAppend;
+  private final MappedByteBuffer checkpointBuffer;
+  private final List<Segment> segments = new ArrayList<>();
+  private final CRC32C crc = new CRC32C();
+  private long nextSequence;
+  private long checkpoint;
+  private int readSegment;
+  private int readPosition;
+  private long lastRead;
+
+  private WriteJournal(Path directory, int segmentBytes, boolean forceOnAppend) throws IOException {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.forceOnAppend = forceOnAppend;
+    this.checkpointBuffer = map(directory.resolve(CHECKPOINT_FILE), 8);
+    this.checkpoint = checkpointBuffer.getLong(0);
+
+    List<Path> files;
+    try (Stream<Path> listing = Files.list(directory)) {
+      files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .toList();
+    }
+    long lastSequence = checkpoint;
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      Segment segment = new Segment(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())),
+          file, map(file, 0));
+      lastSequence = Math.max(lastSequence, scan(segment));
+      segments.add(segment);
+    }
+    this.nextSequence = lastSequence + 1;
+    this.lastRead = checkpoint;
+    if (segments.isEmpty()) {
+      roll();
+    }
+    deleteSegments(removeCheckpointed());
+  }
+
+  /** Opens the journal in {@code directory}, replaying whatever a previous run left there. */
+  public static WriteJournal open(Path directory, int segmentBytes, boolean forceOnAppend)
+      throws IOException {
+    if (segmentBytes <= FRAME_BYTES + FIXED_BYTES) {
+      throw new IllegalArgumentException(String.format("Journal segments of %d bytes hold no record",
+          segmentBytes));
+    }
+    Files.createDirectories(directory);
+    return new WriteJournal(directory, segmentBytes, forceOnAppend);
+  }
+
+  /** Appends a record and returns its sequence number, which is never reused. */
+  public synchronized long append(EntityKind entity, Operation operation, long targetId, byte[] body)
+      throws IOException {
+    int length = FIXED_BYTES + body.length;
+    if (length > segmentBytes - FRAME_BYTES) {
+      throw new IllegalArgumentException(String.format(
+          "A %d byte record does not fit a %d byte journal segment", length + FRAME_BYTES, segmentBytes));
+    }
+    Segment head = segments.get(segments.size() - 1);
+    if (head.end + FRAME_BYTES + length > head.buffer.capacity()) {
+      head = roll();
+    }
+    int position = head.end;
+    long sequence = nextSequence;
+    head.buffer.slice(position + FRAME_BYTES, length)
+        .putLong(sequence)
+        .put((byte) entity.ordinal())
+        .put((byte) operation.ordinal())
+        .putLong(targetId)
+        .put(body);
+    head.buffer.putInt(position + 4, checksum(head.buffer.slice(position + FRAME_BYTES, length)));
+    // until the length is written the record reads as the end of the journal
+    head.buffer.putInt(position, length);
+    if (forceOnAppend) {
+      head.buffer.force(position, FRAME_BYTES + length);
+    }
+    head.end = position + FRAME_BYTES + length;
+    nextSequence++;
+    notifyAll();
+    return sequence;
+  }
+
+  /**
+   * Returns up to {@code max} records after the last one read, in sequence order, waiting up to
+   * {@code timeoutMillis} for one to be appended if there are none. The first read after
+   * {@link #open} starts after the checkpoint.
+   */
+  public synchronized List<JournalRecord> read(int max, long timeoutMillis) throws InterruptedException {
+    if (lastRead >= nextSequence - 1 && timeoutMillis > 0) {
+      wait(timeoutMillis);
+    }
+    List<JournalRecord> records = new ArrayList<>();
+    while (records.size() < max) {
+      Segment segment = segments.get(readSegment);
+      JournalRecord record = readPosition < segment.end ? readAt(segment.buffer, readPosition) : null;
+      if (record == null) {
+        if (readSegment == segments.size() - 1) {
+          break;
+        }
+        readSegment++;
+        readPosition = 0;
+        continue;
+      }
+      readPosition += FRAME_BYTES + segment.buffer.getInt(readPosition);
+      if (record.sequence() > lastRead) {
+        records.add(record);
+        lastRead = record.sequence();
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Records that every write up to {@code sequence} has been applied, so a restart does not replay
+   * them, and deletes the segments that hold nothing newer.
+   */
+  public void checkpoint(long sequence) throws IOException {
+    List<Segment> obsolete;
+    synchronized (this) {
+      if (sequence <= checkpoint) {
+        return;
+      }
+      checkpoint = sequence;
+      checkpointBuffer.putLong(0, sequence);
+      obsolete = removeCheckpointed();
+    }
+    // the checkpoint must be durable before the records it covers are deleted
+    checkpointBuffer.force();
+    deleteSegments(obsolete);
+  }
+
+  public synchronized long getLastSequence() {
+    return nextSequence - 1;
+  }
+
+  public synchronized long getCheckpoint() {
+    return checkpoint;
+  }
+
+  /** Writes appended but not yet checkpointed. */
+  public synchronized long getBacklog() {
+    return nextSequence - 1 - checkpoint;
+  }
+
+  public synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  @Override
+  public synchronized void close() {
+    segments.get(segments.size() - 1).buffer.force();
+    checkpointBuffer.force();
+  }
+
+  // ---- segments ----
+
+  private Segment roll() throws IOException {
+    if (!segments.isEmpty() && segments.get(segments.size() - 1).end == 0) {
+      // an empty head too small for the record, left by a run with smaller segments
+      segments.remove(segments.size() - 1);
+    }
+    Path file = directory.resolve(String.format("%020d%s", nextSequence, SEGMENT_SUFFIX));
+    Segment segment = new Segment(nextSequence, file, map(file, segmentBytes));
+    segments.add(segment);
+    return segment;
+  }
+
+  /** Finds the end of the records in {@code segment}, zeroing a torn tail, and returns the last sequence. */
+  private long scan(Segment segment) {
+    MappedByteBuffer buffer = segment.buffer;
+    long lastSequence = 0;
+    int position = 0;
+    JournalRecord record;
+    while ((record = readAt(buffer, position)) != null) {
+      lastSequence = record.sequence();
+      position += FRAME_BYTES + buffer.getInt(position);
+    }
+    if (position <= buffer.capacity() - FRAME_BYTES && buffer.getInt(position) != 0) {
+      LOGGER.warn("Discarding torn journal record in {} at offset {}", segment.file, position);
+      for (int i = position; i < buffer.capacity(); i++) {
+        buffer.put(i, (byte) 0);
+      }
+    }
+    segment.end = position;
+    return lastSequence;
+  }
+
+  private List<Segment> removeCheckpointed() {
+    List<Segment> obsolete = new ArrayList<>();
+    while (segments.size() > 1 && segments.get(1).firstSequence <= checkpoint + 1) {
+      obsolete.add(segments.remove(0));
+      // whatever the reader has not passed yet was already checkpointed
+      if (readSegment > 0) {
+        readSegment--;
+      } else {
+        readPosition = 0;
+      }
+    }
+    return obsolete;
+  }
+
+  private static void deleteSegments(List<Segment> obsolete) throws IOException {
+    for (Segment segment : obsolete) {
+      Files.deleteIfExists(segment.file);
+    }
+  }
+
+  private JournalRecord readAt(MappedByteBuffer buffer, int position) {
+    if (position > buffer.capacity() - FRAME_BYTES) {
+      return null;
+    }
+    int length = buffer.getInt(position);
+    if (length < FIXED_BYTES || length > buffer.capacity() - position - FRAME_BYTES
+        || checksum(buffer.slice(position + FRAME_BYTES, length)) != buffer.getInt(position + 4)) {
+      return null;
+    }
+    ByteBuffer contents = buffer.slice(position + FRAME_BYTES, length);
+    long sequence = contents.getLong();
+    int entity = contents.get();
+    int operation = contents.get();
+    long targetId = contents.getLong();
+    if (entity < 0 || entity >= ENTITY_KINDS.length || operation < 0 || operation >= OPERATIONS.length) {
+      return null;
+    }
+    byte[] body = new byte[contents.remaining()];
+    contents.get(body);
+    return new JournalRecord(sequence, ENTITY_KINDS[entity], OPERATIONS[operation], targetId,
+        new String(body, StandardCharsets.UTF_8));
+  }
+
+  private int checksum(ByteBuffer contents) {
+    crc.reset();
+    crc.update(contents);
+    return (int) crc.getValue();
+  }
+
+  private static MappedByteBuffer map(Path file, long minimumBytes) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(MapMode.READ_WRITE, 0, Math.max(channel.size(), minimumBytes));
+    }
+  }
+
+  private static final class Segment {
+    private final long firstSequence;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private int end;
+
+    private Segment(long firstSequence, Path file, MappedByteBuffer buffer) {
+      this.firstSequence = firstSequence;
+      this.file = file;
+      this.buffer = buffer;
+    }
+  }
+}
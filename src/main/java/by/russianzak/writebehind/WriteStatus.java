@@ -0,0 +1,19 @@
+package by.russianzak.writebehind;
+
+/** What became of a journaled write, as reported by the status endpoint. */
+public record WriteStatus(long id, State state, Long entityId, String message) {
+
+  public enum State { PENDING, APPLIED, FAILED }
+
+  static WriteStatus pending(long id) {
+    return new WriteStatus(id, State.PENDING, null, null);
+  }
+
+  static WriteStatus applied(long id, Long entityId) {
+    return new WriteStatus(id, State.APPLIED, entityId, null);
+  }
+
+  static WriteStatus failed(long id, String message) {
+    return new WriteStatus(id, State.FAILED, null, message);
+  }
+}
@@ -0,0 +1,7 @@
+-- Lookups and deletes by street: houses of a street and the road surfaces of a street.
+-- The existing UNIQUE (house_number, street_id) and the road_surface_street primary key lead with
+-- the other column, so neither can serve these. The road_surface_street index also carries
+-- road_surface_id so the join to road_surface can be answered from the index alone.
+CREATE INDEX house_street_id_idx ON house (street_id);
+
+CREATE INDEX road_surface_street_street_id_idx ON road_surface_street (street_id, road_surface_id);
@@ -0,0 +1,17 @@
+-- Indexes for the filtered, keyset-paged list queries (by.russianzak.repository.query). Each leads
+-- with an equality filter, continues with a sort column and ends with id, the keyset tie-breaker,
+-- so a page is one index range read in order, and the id-only scan never visits the table.
+CREATE INDEX house_street_id_build_date_idx ON house (street_id, build_date, id);
+
+CREATE INDEX house_type_build_date_idx ON house (type, build_date, id);
+
+-- unfiltered and range-filtered sorts
+CREATE INDEX house_build_date_idx ON house (build_date, id);
+
+CREATE INDEX house_num_floors_idx ON house (num_floors, id);
+
+CREATE INDEX street_name_idx ON street (name, id);
+
+CREATE INDEX street_postal_code_id_idx ON street (postal_code, id);
+
+-- road_surface holds one row per surface type and is always read whole, so it gets no index here.
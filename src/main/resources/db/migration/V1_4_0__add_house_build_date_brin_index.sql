@@ -0,0 +1,6 @@
+-- Block range index for build-date range aggregates such as the build-year histogram. It keeps
+-- only the min and max build_date of each block range, a few pages for the whole table, and lets
+-- a range scan skip every block outside the requested dates. It pays off when rows are stored
+-- roughly in build_date order, as when houses are loaded chronologically. The btree
+-- house_build_date_idx stays for ordered keyset pages, which a BRIN index cannot return.
+CREATE INDEX house_build_date_brin_idx ON house USING BRIN (build_date);
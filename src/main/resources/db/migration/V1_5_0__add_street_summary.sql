@@ -0,0 +1,35 @@
+-- Aggregates per street, maintained by the repository write paths (see StreetSummaries) so that
+-- summary reads are one row per street instead of a load of every house and road surface. The
+-- counters are adjusted by deltas in the writing transaction. A street's row goes with the street.
+-- There is one column per HouseEntity.TypeOfBuilding value, so a new type needs a migration here.
+CREATE TABLE street_summary (
+    street_id INT PRIMARY KEY,
+    houses BIGINT NOT NULL DEFAULT 0,
+    residential_houses BIGINT NOT NULL DEFAULT 0,
+    commercial_houses BIGINT NOT NULL DEFAULT 0,
+    garage_houses BIGINT NOT NULL DEFAULT 0,
+    utility_houses BIGINT NOT NULL DEFAULT 0,
+    total_floors BIGINT NOT NULL DEFAULT 0,
+    road_surfaces BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (street_id) REFERENCES street(id) ON DELETE CASCADE
+);
+
+-- the same statement rebuilds the table after a bulk load (DatasetLoader)
+INSERT INTO street_summary (street_id, houses, residential_houses, commercial_houses, garage_houses,
+    utility_houses, total_floors, road_surfaces)
+SELECT s.id, COALESCE(h.houses, 0), COALESCE(h.residential_houses, 0), COALESCE(h.commercial_houses, 0),
+    COALESCE(h.garage_houses, 0), COALESCE(h.utility_houses, 0), COALESCE(h.total_floors, 0),
+    COALESCE(r.road_surfaces, 0)
+FROM street s
+LEFT JOIN (
+    SELECT street_id, COUNT(*) AS houses,
+        SUM(CASE WHEN UPPER(type) = 'RESIDENTIAL' THEN 1 ELSE 0 END) AS residential_houses,
+        SUM(CASE WHEN UPPER(type) = 'COMMERCIAL' THEN 1 ELSE 0 END) AS commercial_houses,
+        SUM(CASE WHEN UPPER(type) = 'GARAGE' THEN 1 ELSE 0 END) AS garage_houses,
+        SUM(CASE WHEN UPPER(type) = 'UTILITY' THEN 1 ELSE 0 END) AS utility_houses,
+        SUM(COALESCE(num_floors, 0)) AS total_floors
+    FROM house GROUP BY street_id
+) h ON h.street_id = s.id
+LEFT JOIN (
+    SELECT street_id, COUNT(*) AS road_surfaces FROM road_surface_street GROUP BY street_id
+) r ON r.street_id = s.id;
@@ -0,0 +1,10 @@
+-- Denormalised read model of GET /street?id= (see StreetDocuments): the response body of each
+-- street, rendered by the service in the transaction of every write that changes it and served
+-- as stored. It is only maintained with repository.street-documents.enabled, which also fills
+-- the table at startup, so the rows start out without a document. The json type keeps the text
+-- exactly as rendered, where jsonb would reorder the keys and cost a conversion on every read.
+CREATE TABLE street_document (
+    street_id INT PRIMARY KEY,
+    document JSON,
+    FOREIGN KEY (street_id) REFERENCES street(id) ON DELETE CASCADE
+);
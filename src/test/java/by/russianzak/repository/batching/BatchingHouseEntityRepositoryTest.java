@@ -0,0 +1,48 @@
+package by.russianzak.repository.batching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.repository.HouseEntityRepository;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchingHouseEntityRepositoryTest {
+
+  private HouseEntityRepository delegate;
+  private BatchingHouseEntityRepository houseRepository;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(HouseEntityRepository.class);
+    houseRepository = new BatchingHouseEntityRepository(delegate, 0, 64);
+  }
+
+  @Test
+  void getById_Existing_LoadsThroughFindAllById() throws RepositoryException {
+    HouseEntity house = HouseEntity.builder().setId(1L).setHouseNumber("1").build();
+    when(delegate.findAllById(argThat(ids -> ids.contains(1L)))).thenReturn(Map.of(1L, house));
+
+    assertSame(house, houseRepository.getById(1L));
+    verify(delegate, never()).findById(1L);
+  }
+
+  @Test
+  void getById_Missing_ThrowsEntityNotFound() throws RepositoryException {
+    when(delegate.findAllById(argThat(ids -> ids.contains(1L)))).thenReturn(Map.of());
+
+    EntityNotFoundException thrown = assertThrows(EntityNotFoundException.class,
+        () -> houseRepository.getById(1L));
+    assertEquals("HouseEntity with id 1 not found", thrown.getMessage());
+  }
+}
@@ -0,0 +1,130 @@
+package by.russianzak.repository.batching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import by.russianzak.exception.RepositoryException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class FindByIdBatcherTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+  private final List<List<Long>> loads = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private Map<Long, String> evenIdsExist(Collection<Long> ids) {
+    loads.add(new ArrayList<>(ids));
+    Map<Long, String> found = new HashMap<>();
+    ids.stream().filter(id -> id % 2 == 0).forEach(id -> found.put(id, "house-" + id));
+    return found;
+  }
+
+  @Test
+  void find_ConcurrentCallsFillBatch_OneLoadWithoutWaitingForWindow() throws Exception {
+    FindByIdBatcher<String> batcher = FindByIdBatcher.<String>builder()
+        .setLoader(this::evenIdsExist)
+        .setWindowMicros(TimeUnit.SECONDS.toMicros(30))
+        .setMaxBatchSize(4)
+        .build();
+    List<Future<Optional<String>>> results = new ArrayList<>();
+
+    for (long id = 1; id <= 4; id++) {
+      long requested = id;
+      results.add(executor.submit(() -> batcher.find(requested)));
+    }
+
+    assertEquals(Optional.empty(), results.get(0).get(5, TimeUnit.SECONDS));
+    assertEquals(Optional.of("house-2"), results.get(1).get(5, TimeUnit.SECONDS));
+    assertEquals(Optional.empty(), results.get(2).get(5, TimeUnit.SECONDS));
+    assertEquals(Optional.of("house-4"), results.get(3).get(5, TimeUnit.SECONDS));
+    assertEquals(1, loads.size());
+    assertEquals(4, loads.get(0).size());
+    assertEquals(1, batcher.getBatches());
+  }
+
+  @Test
+  void find_SameIdTwice_LoadsItOnce() throws Exception {
+    FindByIdBatcher<String> batcher = FindByIdBatcher.<String>builder()
+        .setLoader(this::evenIdsExist)
+        .setWindowMicros(TimeUnit.SECONDS.toMicros(30))
+        .setMaxBatchSize(2)
+        .build();
+
+    Future<Optional<String>> first = executor.submit(() -> batcher.find(2L));
+    Future<Optional<String>> second = executor.submit(() -> batcher.find(2L));
+
+    assertEquals(Optional.of("house-2"), first.get(5, TimeUnit.SECONDS));
+    assertEquals(Optional.of("house-2"), second.get(5, TimeUnit.SECONDS));
+    assertEquals(List.of(List.of(2L)), loads);
+  }
+
+  @Test
+  void find_LoneCall_LoadsAfterWindow() throws RepositoryException {
+    FindByIdBatcher<String> batcher = FindByIdBatcher.<String>builder()
+        .setLoader(this::evenIdsExist)
+        .setWindowMicros(100)
+        .build();
+
+    assertEquals(Optional.of("house-2"), batcher.find(2L));
+    assertEquals(Optional.empty(), batcher.find(3L));
+    assertEquals(2, batcher.getBatches());
+  }
+
+  @Test
+  void find_LoaderFails_EveryCallerGetsException() throws Exception {
+    RepositoryException failure = new RepositoryException("Database is down");
+    FindByIdBatcher<String> batcher = FindByIdBatcher.<String>builder()
+        .setLoader(ids -> {
+          throw failure;
+        })
+        .setWindowMicros(TimeUnit.SECONDS.toMicros(30))
+        .setMaxBatchSize(2)
+        .build();
+
+    Future<Optional<String>> first = executor.submit(() -> batcher.find(1L));
+    Future<Optional<String>> second = executor.submit(() -> batcher.find(2L));
+
+    for (Future<Optional<String>> result : List.of(first, second)) {
+      ExecutionException thrown = assertThrows(ExecutionException.class,
+          () -> result.get(5, TimeUnit.SECONDS));
+      assertSame(failure, thrown.getCause());
+    }
+  }
+
+  @Test
+  void find_AfterBatchCompletes_StartsNewBatch() throws Exception {
+    FindByIdBatcher<String> batcher = FindByIdBatcher.<String>builder()
+        .setLoader(this::evenIdsExist)
+        .setWindowMicros(0)
+        .build();
+
+    batcher.find(2L);
+    batcher.find(4L);
+
+    assertEquals(List.of(List.of(2L), List.of(4L)), loads);
+    assertEquals(2, batcher.getRequests());
+  }
+
+  @Test
+  void build_WithoutLoader_ThrowsIllegalArgument() {
+    assertThrows(IllegalArgumentException.class, () -> FindByIdBatcher.<String>builder().build());
+  }
+}
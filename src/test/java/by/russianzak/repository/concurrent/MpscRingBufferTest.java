@@ -0,0 +1,82 @@
+package by.russianzak.repository.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.concurrent.MpscRingBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class MpscRingBufferTest {
+
+  @Test
+  void constructor_CapacityRoundedToPowerOfTwo() {
+    assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+    assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+  }
+
+  @Test
+  void offer_Full_ReturnsFalse() {
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(2);
+
+    assertTrue(buffer.offer(1));
+    assertTrue(buffer.offer(2));
+    assertFalse(buffer.offer(3));
+    assertEquals(2, buffer.size());
+  }
+
+  @Test
+  void poll_FifoOrderAndReusesSlots() {
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(2);
+    List<Integer> polled = new ArrayList<>();
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(buffer.offer(i));
+      polled.add(buffer.poll());
+    }
+
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), polled);
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  void offer_ConcurrentProducers_NoLossWithinCapacity() throws InterruptedException {
+    int producers = 4;
+    int perProducer = 10_000;
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    CountDownLatch done = new CountDownLatch(producers);
+    for (int p = 0; p < producers; p++) {
+      int base = p * perProducer;
+      executor.execute(() -> {
+        for (int i = 0; i < perProducer; i++) {
+          while (!buffer.offer(base + i)) {
+            Thread.onSpinWait();
+          }
+        }
+        done.countDown();
+      });
+    }
+
+    Set<Integer> consumed = new HashSet<>();
+    while (consumed.size() < producers * perProducer) {
+      Integer value = buffer.poll();
+      if (value != null) {
+        assertTrue(consumed.add(value));
+      }
+    }
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    executor.shutdown();
+
+    assertNull(buffer.poll());
+  }
+}
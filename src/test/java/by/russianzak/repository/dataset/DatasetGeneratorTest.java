@@ -0,0 +1,62 @@
+package by.russianzak.repository.dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.dataset.DatasetGenerator;
+import by.russianzak.dataset.DatasetSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class DatasetGeneratorTest {
+
+  private static DatasetSpec spec(long seed) {
+    return DatasetSpec.builder().setStreets(50).setHouses(2000).setSeed(seed).build();
+  }
+
+  private static List<List<Object>> rows(DatasetGenerator generator) throws Exception {
+    List<List<Object>> rows = new ArrayList<>();
+    generator.houses(values -> rows.add(Arrays.asList(values)));
+    generator.roadSurfaceStreets(values -> rows.add(Arrays.asList(values)));
+    return rows;
+  }
+
+  @Test
+  void houses_SameSeed_SameRows() throws Exception {
+    assertEquals(rows(new DatasetGenerator(spec(7))), rows(new DatasetGenerator(spec(7))));
+    assertNotEquals(rows(new DatasetGenerator(spec(7))), rows(new DatasetGenerator(spec(8))));
+  }
+
+  @Test
+  void houses_Generated_MatchLayoutHelpers() throws Exception {
+    DatasetGenerator generator = new DatasetGenerator(spec(42));
+    Set<String> numbersPerStreet = new HashSet<>();
+    long[] count = new long[1];
+
+    generator.houses(values -> {
+      long id = (Long) values[0];
+      long streetId = (Long) values[5];
+      assertEquals(++count[0], id);
+      assertEquals(streetId, generator.streetOfHouse(id));
+      assertEquals(values[1], generator.houseNumber(id));
+      assertTrue(numbersPerStreet.add(streetId + "/" + values[1]));
+    });
+
+    assertEquals(2000, count[0]);
+  }
+
+  @Test
+  void roadSurfaceStreets_Generated_DistinctPairs() throws Exception {
+    DatasetGenerator generator = new DatasetGenerator(spec(42));
+    Set<List<Object>> pairs = new HashSet<>();
+
+    generator.roadSurfaceStreets(values -> assertTrue(pairs.add(Arrays.asList(values))));
+
+    assertTrue(pairs.size() >= 50);
+  }
+}
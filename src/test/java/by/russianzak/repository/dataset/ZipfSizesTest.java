@@ -0,0 +1,34 @@
+package by.russianzak.repository.dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.dataset.ZipfSizes;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class ZipfSizesTest {
+
+  @Test
+  void of_ValidTotal_SizesAddUpAndDecrease() {
+    long[] sizes = ZipfSizes.of(100_000, 1000, 1.1);
+
+    assertEquals(100_000, Arrays.stream(sizes).sum());
+    for (int k = 1; k < sizes.length; k++) {
+      assertTrue(sizes[k] >= 1);
+      assertTrue(sizes[k] <= sizes[k - 1]);
+    }
+    assertTrue(sizes[0] > 100 * sizes[sizes.length - 1]);
+  }
+
+  @Test
+  void of_TotalEqualsRanks_OnePerRank() {
+    assertTrue(Arrays.stream(ZipfSizes.of(10, 10, 2.0)).allMatch(size -> size == 1));
+  }
+
+  @Test
+  void of_TotalBelowRanks_ThrowsIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> ZipfSizes.of(5, 10, 1.0));
+  }
+}
@@ -0,0 +1,61 @@
+package by.russianzak.repository.db.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.db.impl.LatencyDistribution;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LatencyDistributionTest {
+
+  private final Random random = new Random(1);
+
+  @Test
+  void parse_Fixed_ReturnsConstant() {
+    LatencyDistribution distribution = LatencyDistribution.parse("fixed:1.5ms");
+
+    assertEquals(1_500_000, distribution.sampleNanos(random));
+    assertEquals(0, LatencyDistribution.parse("none").sampleNanos(random));
+  }
+
+  @Test
+  void parse_Uniform_StaysWithinBounds() {
+    LatencyDistribution distribution = LatencyDistribution.parse("uniform:100us,300us");
+
+    for (int i = 0; i < 1000; i++) {
+      long sample = distribution.sampleNanos(random);
+      assertTrue(sample >= 100_000 && sample <= 300_000);
+    }
+  }
+
+  @Test
+  void parse_JitterLargerThanBase_NeverNegative() {
+    LatencyDistribution distribution = LatencyDistribution.parse("jitter:1ms,2ms");
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(distribution.sampleNanos(random) >= 0);
+    }
+  }
+
+  @Test
+  void parse_LogNormal_MedianMatches() {
+    LatencyDistribution distribution = LatencyDistribution.parse("lognormal:2ms,0.5");
+    long[] samples = new long[10_001];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = distribution.sampleNanos(random);
+    }
+    Arrays.sort(samples);
+
+    assertEquals(2_000_000, samples[samples.length / 2], 100_000);
+    assertTrue(samples[samples.length - 1] > 3 * samples[samples.length / 2]);
+  }
+
+  @Test
+  void parse_UnknownKind_ThrowsIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("pareto:1ms"));
+    assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("fixed:1 minute"));
+  }
+}
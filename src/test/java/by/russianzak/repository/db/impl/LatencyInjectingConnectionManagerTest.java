@@ -0,0 +1,117 @@
+package by.russianzak.repository.db.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import by.russianzak.db.ConnectionManager;
+import by.russianzak.db.impl.LatencyDistribution;
+import by.russianzak.db.impl.LatencyInjectingConnectionManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class LatencyInjectingConnectionManagerTest {
+
+  private static final String SQL = "SELECT * FROM house WHERE id = ?";
+
+  @Mock
+  ConnectionManager delegate;
+
+  @Mock
+  Connection connection;
+
+  @Mock
+  PreparedStatement preparedStatement;
+
+  @Mock
+  ResultSet resultSet;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    MockitoAnnotations.openMocks(this);
+    when(delegate.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement(SQL)).thenReturn(preparedStatement);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+  }
+
+  @Test
+  void executeQuery_FixedRoundTrip_DelaysAndDelegates() throws SQLException {
+    LatencyInjectingConnectionManager connectionManager = LatencyInjectingConnectionManager.builder()
+        .setDelegate(delegate)
+        .setRoundTripLatency(LatencyDistribution.fixed(Duration.ofMillis(20)))
+        .build();
+
+    long start = System.nanoTime();
+    ResultSet result = connectionManager.getConnection().prepareStatement(SQL).executeQuery();
+
+    assertSame(resultSet, result);
+    assertTrue(System.nanoTime() - start >= Duration.ofMillis(20).toNanos());
+    assertEquals(1, connectionManager.getRoundTrips());
+  }
+
+  @Test
+  void executeBatch_ThreeStatements_OneRoundTripThreeStatementLatencies() throws SQLException {
+    LatencyInjectingConnectionManager connectionManager = LatencyInjectingConnectionManager.builder()
+        .setDelegate(delegate)
+        .setStatementLatency(LatencyDistribution.fixed(Duration.ofMillis(10)))
+        .build();
+    PreparedStatement statement = connectionManager.getConnection().prepareStatement(SQL);
+    statement.addBatch();
+    statement.addBatch();
+    statement.addBatch();
+
+    long start = System.nanoTime();
+    statement.executeBatch();
+
+    assertTrue(System.nanoTime() - start >= Duration.ofMillis(30).toNanos());
+    assertEquals(1, connectionManager.getRoundTrips());
+  }
+
+  @Test
+  void commit_CountsAsRoundTrip() throws SQLException {
+    LatencyInjectingConnectionManager connectionManager = LatencyInjectingConnectionManager.builder()
+        .setDelegate(delegate)
+        .build();
+
+    connectionManager.getConnection().commit();
+
+    verify(connection).commit();
+    assertEquals(1, connectionManager.getRoundTrips());
+  }
+
+  @Test
+  void executeQuery_AlwaysFailing_ThrowsTransientWithoutReachingDatabase() throws SQLException {
+    LatencyInjectingConnectionManager connectionManager = LatencyInjectingConnectionManager.builder()
+        .setDelegate(delegate)
+        .setFailureRate(1.0)
+        .build();
+    PreparedStatement statement = connectionManager.getConnection().prepareStatement(SQL);
+
+    SQLTransientConnectionException exception = assertThrows(SQLTransientConnectionException.class,
+        statement::executeQuery);
+
+    assertEquals(LatencyInjectingConnectionManager.FAILURE_SQL_STATE, exception.getSQLState());
+    verify(preparedStatement, never()).executeQuery();
+    assertEquals(1, connectionManager.getFailures());
+  }
+
+  @Test
+  void build_FailureRateAboveOne_ThrowsIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> LatencyInjectingConnectionManager.builder()
+        .setDelegate(delegate)
+        .setFailureRate(1.5)
+        .build());
+  }
+}
@@ -0,0 +1,124 @@
+package by.russianzak.repository.db.impl;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import by.russianzak.db.ConnectionManager;
+import by.russianzak.db.JdbcEventListener;
+import by.russianzak.db.impl.ListeningConnectionManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class ListeningConnectionManagerTest {
+
+  @Mock
+  ConnectionManager delegate;
+
+  @Mock
+  Connection connection;
+
+  @Mock
+  PreparedStatement preparedStatement;
+
+  @Mock
+  Statement statement;
+
+  @Mock
+  ResultSet resultSet;
+
+  @Mock
+  JdbcEventListener listener;
+
+  ListeningConnectionManager connectionManager;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    MockitoAnnotations.openMocks(this);
+    when(delegate.getConnection()).thenReturn(connection);
+    connectionManager = new ListeningConnectionManager(delegate, List.of(listener));
+  }
+
+  @Test
+  void getConnection_ReportsAcquisition() throws SQLException {
+    connectionManager.getConnection();
+
+    verify(listener).onConnectionAcquired(anyLong());
+  }
+
+  @Test
+  void executeQuery_PreparedStatement_ReportsPreparedSql() throws SQLException {
+    String sql = "SELECT * FROM house WHERE id = ?";
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.executeQuery()).thenReturn(resultSet);
+
+    ResultSet result = connectionManager.getConnection().prepareStatement(sql).executeQuery();
+
+    assertSame(resultSet, result);
+    InOrder order = inOrder(listener, preparedStatement);
+    order.verify(listener).beforeStatement(sql);
+    order.verify(preparedStatement).executeQuery();
+    order.verify(listener).afterStatement(eq(sql), anyLong(), isNull());
+  }
+
+  @Test
+  void executeUpdate_PlainStatement_ReportsStatementSql() throws SQLException {
+    String sql = "TRUNCATE TABLE house";
+    when(connection.createStatement()).thenReturn(statement);
+    when(statement.executeUpdate(sql)).thenReturn(0);
+
+    connectionManager.getConnection().createStatement().executeUpdate(sql);
+
+    verify(listener).beforeStatement(sql);
+    verify(listener).afterStatement(eq(sql), anyLong(), isNull());
+  }
+
+  @Test
+  void executeUpdate_Failure_ReportsFailureAndRethrows() throws SQLException {
+    String sql = "DELETE FROM house WHERE id = ?";
+    SQLException failure = new SQLException("boom");
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+    when(preparedStatement.executeUpdate()).thenThrow(failure);
+
+    PreparedStatement prepared = connectionManager.getConnection().prepareStatement(sql);
+    SQLException thrown = assertThrows(SQLException.class, prepared::executeUpdate);
+
+    assertSame(failure, thrown);
+    verify(listener).afterStatement(eq(sql), anyLong(), eq(failure));
+  }
+
+  @Test
+  void setParameter_NotReported() throws SQLException {
+    String sql = "SELECT * FROM street WHERE id = ?";
+    when(connection.prepareStatement(sql)).thenReturn(preparedStatement);
+
+    connectionManager.getConnection().prepareStatement(sql).setLong(1, 5L);
+
+    verify(preparedStatement).setLong(1, 5L);
+    verify(listener, never()).beforeStatement(anyString());
+  }
+
+  @Test
+  void commit_DelegatedToConnection() throws SQLException {
+    connectionManager.getConnection().commit();
+
+    verify(connection).commit();
+    verify(listener, never()).beforeStatement(anyString());
+  }
+}
@@ -0,0 +1,324 @@
+package by.russianzak.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.db.impl.ConnectionManagerImpl;
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import by.russianzak.repository.HouseEntityRepository;
+import by.russianzak.repository.RoadSurfaceEntityRepository;
+import by.russianzak.repository.StreetEntityRepository;
+import by.russianzak.repository.mapper.HouseResultSetMapperImpl;
+import by.russianzak.repository.mapper.RoadSurfaceResultSetMapperImpl;
+import by.russianzak.repository.mapper.StreetResultSetMapperImpl;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySchema;
+import by.russianzak.repository.query.QuerySpec;
+import by.russianzak.repository.sql.SqlDialect;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the JDBC repositories against an in-process H2 database in PostgreSQL mode, migrated from
+ * the same Flyway scripts as production, so the whole stack is exercised without Docker.
+ */
+class EmbeddedRepositoryStackTest {
+
+  private static final SqlDialect DIALECT = EmbeddedTestDatabase.DIALECT;
+
+  private ConnectionManagerImpl connectionManager;
+  private HouseEntityRepository houseEntityRepository;
+  private StreetEntityRepository streetEntityRepository;
+  private RoadSurfaceEntityRepository roadSurfaceEntityRepository;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    connectionManager = EmbeddedTestDatabase.open("stack");
+    HouseResultSetMapperImpl houseResultSetMapper = new HouseResultSetMapperImpl();
+    StreetResultSetMapperImpl streetResultSetMapper = new StreetResultSetMapperImpl();
+    RoadSurfaceResultSetMapperImpl roadSurfaceResultSetMapper = new RoadSurfaceResultSetMapperImpl();
+    houseEntityRepository = new HouseEntityRepositoryImpl(houseResultSetMapper, streetResultSetMapper,
+        connectionManager, DIALECT);
+    streetEntityRepository = new StreetEntityRepositoryImpl(houseResultSetMapper, streetResultSetMapper,
+        roadSurfaceResultSetMapper, connectionManager, DIALECT);
+    roadSurfaceEntityRepository = new RoadSurfaceEntityRepositoryImpl(roadSurfaceResultSetMapper,
+        streetResultSetMapper, connectionManager, DIALECT);
+  }
+
+  /** Rebuilds the documents and switches the repositories to ones that keep them. */
+  private void useStreetDocuments() throws RepositoryException {
+    HouseResultSetMapperImpl houseResultSetMapper = new HouseResultSetMapperImpl();
+    StreetResultSetMapperImpl streetResultSetMapper = new StreetResultSetMapperImpl();
+    RoadSurfaceResultSetMapperImpl roadSurfaceResultSetMapper = new RoadSurfaceResultSetMapperImpl();
+    StreetDocuments streetDocuments = new StreetDocuments(houseResultSetMapper, streetResultSetMapper,
+        roadSurfaceResultSetMapper, DIALECT, EmbeddedRepositoryStackTest::render);
+    streetDocuments.rebuild(connectionManager);
+    houseEntityRepository = new HouseEntityRepositoryImpl(houseResultSetMapper, streetResultSetMapper,
+        connectionManager, DIALECT, streetDocuments);
+    streetEntityRepository = new StreetEntityRepositoryImpl(houseResultSetMapper, streetResultSetMapper,
+        roadSurfaceResultSetMapper, connectionManager, DIALECT, streetDocuments);
+    roadSurfaceEntityRepository = new RoadSurfaceEntityRepositoryImpl(roadSurfaceResultSetMapper,
+        streetResultSetMapper, connectionManager, DIALECT, streetDocuments);
+  }
+
+  // sorted, so that a document does not depend on the order in which the sets were loaded
+  private static String render(StreetEntity street) {
+    return street.getName() + " " + street.getHouses().stream().map(HouseEntity::getHouseNumber).sorted().toList()
+        + " " + street.getRoadSurfaces().stream().map(RoadSurfaceEntity::getDescription).sorted().toList();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    EmbeddedTestDatabase.drop(connectionManager);
+  }
+
+  private static StreetEntity street(long postalCode) {
+    RoadSurfaceEntity asphalt = RoadSurfaceEntity.builder().setType(TypeOfRoadSurface.ASPHALT)
+        .setDescription("Smooth").setFrictionCoefficient(0.7).build();
+    StreetEntity street = StreetEntity.builder().setName("Main").setPostalCode(postalCode)
+        .setRoadSurfaces(List.of(asphalt)).build();
+    street.addHouse(house("1", street));
+    return street;
+  }
+
+  private static HouseEntity house(String houseNumber, StreetEntity street) {
+    return HouseEntity.builder().setHouseNumber(houseNumber).setBuildDate(Date.valueOf("2001-01-01"))
+        .setNumFloors(3).setType(TypeOfBuilding.COMMERCIAL).setStreet(street).build();
+  }
+
+  @Test
+  void streetSave_WithHousesAndSurfaces_ReadsBackThroughEveryRepository() throws RepositoryException {
+    StreetEntity saved = streetEntityRepository.save(street(220001L));
+
+    StreetEntity found = streetEntityRepository.getById(saved.getId());
+    assertEquals(1, found.getHouses().size());
+    assertEquals(1, found.getRoadSurfaces().size());
+    HouseEntity house = houseEntityRepository.getById(found.getHouses().get(0).getId());
+    assertEquals(220001L, house.getStreet().getPostalCode());
+    RoadSurfaceEntity asphalt = roadSurfaceEntityRepository.getById(found.getRoadSurfaces().get(0).getId());
+    assertEquals(List.of(saved.getId()), asphalt.getStreets().stream().map(StreetEntity::getId).toList());
+  }
+
+  @Test
+  void houseSave_NewStreet_InsertsBothWithGeneratedIds() throws RepositoryException {
+    HouseEntity first = houseEntityRepository.save(house("1",
+        StreetEntity.builder().setName("Side").setPostalCode(220002L).build()));
+    HouseEntity second = houseEntityRepository.save(house("2", first.getStreet()));
+
+    assertEquals(first.getStreet().getId(), second.getStreet().getId());
+    assertTrue(second.getId() > first.getId());
+    assertEquals(2, houseEntityRepository.getAll().size());
+  }
+
+  @Test
+  void houseSave_Duplicate_ThrowsEntityExists() throws RepositoryException {
+    StreetEntity street = streetEntityRepository.save(street(220001L));
+
+    assertThrows(EntityExistsException.class,
+        () -> houseEntityRepository.save(house("1", street)));
+  }
+
+  @Test
+  void update_ThenDelete_RoundTrips() throws RepositoryException {
+    StreetEntity street = streetEntityRepository.save(street(220001L));
+    street.setName("Renamed");
+
+    assertEquals("Renamed", streetEntityRepository.update(street).getName());
+    assertTrue(streetEntityRepository.deleteById(street.getId()));
+    assertThrows(EntityNotFoundException.class, () -> streetEntityRepository.getById(street.getId()));
+    assertTrue(houseEntityRepository.getAll().isEmpty());
+  }
+
+  @Test
+  void findAllById_MixedIds_LoadsExistingWithRelations() throws RepositoryException {
+    StreetEntity first = streetEntityRepository.save(street(220001L));
+    StreetEntity second = streetEntityRepository.save(street(220002L));
+    Long houseId = first.getHouses().get(0).getId();
+    Long surfaceId = first.getRoadSurfaces().get(0).getId();
+
+    Map<Long, StreetEntity> streets = streetEntityRepository.findAllById(
+        List.of(first.getId(), second.getId(), 999L));
+    Map<Long, HouseEntity> houses = houseEntityRepository.findAllById(List.of(houseId, 999L));
+    Map<Long, RoadSurfaceEntity> surfaces = roadSurfaceEntityRepository.findAllById(List.of(surfaceId));
+
+    assertEquals(Set.of(first.getId(), second.getId()), streets.keySet());
+    assertEquals(1, streets.get(second.getId()).getHouses().size());
+    assertEquals(1, streets.get(second.getId()).getRoadSurfaces().size());
+    assertEquals(220001L, houses.get(houseId).getStreet().getPostalCode());
+    assertEquals(2, surfaces.get(surfaceId).getStreets().size());
+    assertTrue(houseEntityRepository.findAllById(List.of()).isEmpty());
+  }
+
+  @Test
+  void findAllByPostalCode_MixedCodes_LoadsExistingWithRelations() throws RepositoryException {
+    StreetEntity saved = streetEntityRepository.save(street(220001L));
+
+    Map<Long, StreetEntity> streets = streetEntityRepository.findAllByPostalCode(List.of(220001L, 220009L));
+
+    assertEquals(Set.of(220001L), streets.keySet());
+    assertEquals(saved.getId(), streets.get(220001L).getId());
+    assertEquals(1, streets.get(220001L).getHouses().size());
+    assertEquals(1, streets.get(220001L).getRoadSurfaces().size());
+  }
+
+  @Test
+  void count_EstimateAndExact_MatchStoredRows() throws RepositoryException {
+    streetEntityRepository.save(street(220001L));
+    streetEntityRepository.save(street(220002L));
+
+    assertEquals(2, streetEntityRepository.count(true));
+    assertEquals(2, streetEntityRepository.count(false));
+    assertEquals(2, houseEntityRepository.count(false));
+    assertEquals(1, roadSurfaceEntityRepository.count(true));
+  }
+
+  @Test
+  void query_FilterSortAndCursor_PagesThroughKeyset() throws RepositoryException {
+    StreetEntity street = streetEntityRepository.save(street(220001L));
+    streetEntityRepository.save(street(220002L));
+    for (int floors = 4; floors <= 6; floors++) {
+      houseEntityRepository.save(HouseEntity.builder().setHouseNumber("1" + floors)
+          .setBuildDate(Date.valueOf("200" + floors + "-01-01")).setNumFloors(floors)
+          .setType(TypeOfBuilding.RESIDENTIAL).setStreet(street).build());
+    }
+
+    List<Integer> floors = new ArrayList<>();
+    String cursor = null;
+    do {
+      QueryPage<HouseEntity> page = houseEntityRepository.query(QuerySpec.builder(QuerySchema.HOUSE)
+          .setFilter("streetId", street.getId().toString()).setFilter("builtAfter", "1990-01-01")
+          .setSort("-buildDate").setLimit(2).setAfter(cursor).build());
+      page.items().forEach(house -> assertEquals(220001L, house.getStreet().getPostalCode()));
+      page.items().forEach(house -> floors.add(house.getNumFloors()));
+      cursor = page.nextCursor();
+    } while (cursor != null);
+
+    assertEquals(List.of(6, 5, 4, 3), floors);
+  }
+
+  @Test
+  void query_NoMatches_EmptyLastPage() throws RepositoryException {
+    streetEntityRepository.save(street(220001L));
+
+    QueryPage<StreetEntity> page = streetEntityRepository.query(QuerySpec.builder(QuerySchema.STREET)
+        .setFilter("minPostalCode", "220002").build());
+
+    assertTrue(page.items().isEmpty());
+    assertNull(page.nextCursor());
+  }
+
+  @Test
+  void getBuildYearHistogram_DecadeBuckets_CountsInSql() throws RepositoryException {
+    StreetEntity street = streetEntityRepository.save(street(220001L));
+    for (String buildDate : List.of("1995-06-01", "1999-12-31", "2013-03-03")) {
+      houseEntityRepository.save(HouseEntity.builder().setHouseNumber(buildDate)
+          .setBuildDate(Date.valueOf(buildDate)).setNumFloors(2)
+          .setType(TypeOfBuilding.RESIDENTIAL).setStreet(street).build());
+    }
+
+    assertEquals(List.of(new BuildYearBucket(1990, 1999, 2), new BuildYearBucket(2000, 2009, 1),
+            new BuildYearBucket(2010, 2019, 1)),
+        houseEntityRepository.getBuildYearHistogram(10, null, null));
+    assertEquals(List.of(new BuildYearBucket(1999, 1999, 1), new BuildYearBucket(2001, 2001, 1)),
+        houseEntityRepository.getBuildYearHistogram(1, LocalDate.of(1999, 1, 1), LocalDate.of(2013, 3, 3)));
+  }
+
+  @Test
+  void getSummaries_AfterEveryKindOfWrite_MatchStoredRows() throws RepositoryException {
+    StreetEntity main = streetEntityRepository.save(street(220001L));
+    StreetEntity side = streetEntityRepository.save(street(220002L));
+    HouseEntity tower = houseEntityRepository.save(HouseEntity.builder().setHouseNumber("2")
+        .setBuildDate(Date.valueOf("2010-01-01")).setNumFloors(9).setType(TypeOfBuilding.RESIDENTIAL)
+        .setStreet(main).build());
+    HouseEntity moved = houseEntityRepository.getById(side.getHouses().get(0).getId());
+    moved.setHouseNumber("3");
+    moved.setStreet(main);
+    moved.setType(TypeOfBuilding.GARAGE);
+    moved.setNumFloors(1);
+    houseEntityRepository.update(moved);
+    houseEntityRepository.deleteById(tower.getId());
+    RoadSurfaceEntity gravel = roadSurfaceEntityRepository.save(RoadSurfaceEntity.builder()
+        .setType(TypeOfRoadSurface.GRAVEL).setDescription("Loose").setFrictionCoefficient(0.5)
+        .setStreets(List.of(side)).build());
+    roadSurfaceEntityRepository.deleteById(main.getRoadSurfaces().get(0).getId());
+    roadSurfaceEntityRepository.save(RoadSurfaceEntity.builder().setType(TypeOfRoadSurface.ASPHALT)
+        .setDescription("New").setFrictionCoefficient(0.7).setStreets(List.of(main)).build());
+
+    StreetSummary mainSummary = streetEntityRepository.findSummaryById(main.getId()).orElseThrow();
+    assertEquals(2, mainSummary.houses());
+    assertEquals(Map.of("RESIDENTIAL", 0L, "COMMERCIAL", 1L, "GARAGE", 1L, "UTILITY", 0L),
+        mainSummary.housesByType());
+    assertEquals(2.0, mainSummary.averageFloors());
+    assertEquals(1, mainSummary.roadSurfaces());
+    StreetSummary sideSummary = streetEntityRepository.getSummaries().get(1);
+    assertEquals(side.getId(), sideSummary.streetId());
+    assertEquals(0, sideSummary.houses());
+    assertEquals(1, sideSummary.roadSurfaces());
+    assertEquals(List.of(side.getId()), gravel.getStreets().stream().map(StreetEntity::getId).toList());
+
+    streetEntityRepository.deleteById(side.getId());
+    assertEquals(List.of(main.getId()),
+        streetEntityRepository.getSummaries().stream().map(StreetSummary::streetId).toList());
+  }
+
+  @Test
+  void findDocumentById_AfterEveryKindOfWrite_MatchesStoredStreet() throws RepositoryException {
+    useStreetDocuments();
+    StreetEntity main = streetEntityRepository.save(street(220001L));
+    StreetEntity side = streetEntityRepository.save(street(220002L));
+    HouseEntity tower = houseEntityRepository.save(house("2", main));
+    houseEntityRepository.save(house("4", main));
+    HouseEntity moved = houseEntityRepository.getById(side.getHouses().get(0).getId());
+    moved.setHouseNumber("3");
+    moved.setStreet(main);
+    houseEntityRepository.update(moved);
+    houseEntityRepository.deleteById(tower.getId());
+    RoadSurfaceEntity asphalt = roadSurfaceEntityRepository.getById(main.getRoadSurfaces().get(0).getId());
+    asphalt.setDescription("Resurfaced");
+    roadSurfaceEntityRepository.update(asphalt);
+    RoadSurfaceEntity gravel = roadSurfaceEntityRepository.save(RoadSurfaceEntity.builder()
+        .setType(TypeOfRoadSurface.GRAVEL).setDescription("Loose").setFrictionCoefficient(0.5)
+        .setStreets(List.of(side)).build());
+    main.setName("Renamed");
+    streetEntityRepository.update(main);
+
+    assertEquals("Renamed [1, 3, 4] [Resurfaced]", streetEntityRepository.findDocumentById(main.getId()).orElseThrow());
+    assertEquals("Main [] [Loose, Resurfaced]", streetEntityRepository.findDocumentById(side.getId()).orElseThrow());
+    for (StreetEntity street : streetEntityRepository.getAll()) {
+      assertEquals(render(street), streetEntityRepository.findDocumentById(street.getId()).orElseThrow());
+    }
+
+    roadSurfaceEntityRepository.deleteById(gravel.getId());
+    assertEquals("Main [] [Resurfaced]", streetEntityRepository.findDocumentById(side.getId()).orElseThrow());
+    streetEntityRepository.deleteById(side.getId());
+    assertTrue(streetEntityRepository.findDocumentById(side.getId()).isEmpty());
+  }
+
+  @Test
+  void findDocumentById_WrittenWhileDisabled_RenderedByRebuild() throws RepositoryException {
+    StreetEntity main = streetEntityRepository.save(street(220001L));
+    assertTrue(streetEntityRepository.findDocumentById(main.getId()).isEmpty());
+
+    useStreetDocuments();
+
+    assertEquals("Main [1] [Smooth]", streetEntityRepository.findDocumentById(main.getId()).orElseThrow());
+  }
+}
@@ -0,0 +1,51 @@
+package by.russianzak.repository.impl;
+
+import by.russianzak.db.impl.ConnectionManagerImpl;
+import by.russianzak.repository.sql.H2Dialect;
+import by.russianzak.repository.sql.SqlDialect;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/** In-process H2 database in PostgreSQL mode, migrated from the production Flyway scripts. */
+final class EmbeddedTestDatabase {
+
+  static final SqlDialect DIALECT = new H2Dialect();
+
+  private EmbeddedTestDatabase() {}
+
+  static ConnectionManagerImpl open(String name) throws Exception {
+    ConnectionManagerImpl connectionManager = new ConnectionManagerImpl(String.format(
+        "jdbc:h2:mem:%s;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        name), "sa", "sa");
+    Path migrations = Path.of(EmbeddedTestDatabase.class.getClassLoader().getResource("db/migration").toURI());
+    try (Connection connection = connectionManager.getConnection();
+        Statement statement = connection.createStatement();
+        Stream<Path> files = Files.list(migrations)) {
+      List<Path> scripts = files.filter(file -> file.getFileName().toString().endsWith(".sql"))
+          .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+          .toList();
+      for (Path script : scripts) {
+        for (String sql : Files.readString(script, StandardCharsets.UTF_8).split(";")) {
+          if (!sql.isBlank()) {
+            statement.execute(DIALECT.adaptMigration(sql));
+          }
+        }
+      }
+    }
+    return connectionManager;
+  }
+
+  static void drop(ConnectionManagerImpl connectionManager) throws Exception {
+    try (Connection connection = connectionManager.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("DROP ALL OBJECTS");
+    }
+    connectionManager.getDataSource().close();
+  }
+}
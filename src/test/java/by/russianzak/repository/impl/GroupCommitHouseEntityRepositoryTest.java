@@ -0,0 +1,123 @@
+package by.russianzak.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import by.russianzak.db.impl.ConnectionManagerImpl;
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.mapper.HouseResultSetMapperImpl;
+import by.russianzak.repository.mapper.StreetResultSetMapperImpl;
+import jakarta.persistence.EntityExistsException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GroupCommitHouseEntityRepositoryTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+  private ConnectionManagerImpl connectionManager;
+  private HouseEntityRepositoryImpl houseEntityRepository;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    connectionManager = EmbeddedTestDatabase.open("group_commit");
+    houseEntityRepository = new HouseEntityRepositoryImpl(new HouseResultSetMapperImpl(),
+        new StreetResultSetMapperImpl(), connectionManager, EmbeddedTestDatabase.DIALECT);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    executor.shutdownNow();
+    EmbeddedTestDatabase.drop(connectionManager);
+  }
+
+  private GroupCommitHouseEntityRepository groupCommit(long windowMicros, int maxGroupSize) {
+    return GroupCommitHouseEntityRepository.builder()
+        .setDelegate(houseEntityRepository)
+        .setConnectionManager(connectionManager)
+        .setWindowMicros(windowMicros)
+        .setMaxGroupSize(maxGroupSize)
+        .build();
+  }
+
+  private static HouseEntity house(String houseNumber) {
+    StreetEntity street = StreetEntity.builder().setName("Main").setPostalCode(220001L).build();
+    return HouseEntity.builder().setHouseNumber(houseNumber).setBuildDate(Date.valueOf("2001-01-01"))
+        .setNumFloors(3).setType(TypeOfBuilding.RESIDENTIAL).setStreet(street).build();
+  }
+
+  private List<Future<HouseEntity>> saveConcurrently(GroupCommitHouseEntityRepository repository,
+      String... houseNumbers) {
+    List<Future<HouseEntity>> results = new ArrayList<>();
+    for (String houseNumber : houseNumbers) {
+      results.add(executor.submit(() -> repository.save(house(houseNumber))));
+    }
+    return results;
+  }
+
+  @Test
+  void save_ConcurrentSaves_CommitTogether() throws Exception {
+    GroupCommitHouseEntityRepository repository = groupCommit(TimeUnit.SECONDS.toMicros(30), 4);
+
+    for (Future<HouseEntity> result : saveConcurrently(repository, "1", "2", "3", "4")) {
+      assertNotNull(result.get(10, TimeUnit.SECONDS).getId());
+    }
+
+    assertEquals(1, repository.getGroups());
+    assertEquals(4.0, repository.getBatchingFactor());
+    List<HouseEntity> saved = houseEntityRepository.getAll();
+    assertEquals(4, saved.size());
+    assertEquals(1, saved.stream().map(house -> house.getStreet().getId()).distinct().count());
+  }
+
+  @Test
+  void save_OneConflictInGroup_FailsOnlyThatSave() throws Exception {
+    houseEntityRepository.save(house("1"));
+    GroupCommitHouseEntityRepository repository = groupCommit(TimeUnit.SECONDS.toMicros(30), 3);
+
+    List<Future<HouseEntity>> results = saveConcurrently(repository, "2", "1", "3");
+
+    assertNotNull(results.get(0).get(10, TimeUnit.SECONDS).getId());
+    ExecutionException conflict = assertThrows(ExecutionException.class,
+        () -> results.get(1).get(10, TimeUnit.SECONDS));
+    assertInstanceOf(EntityExistsException.class, conflict.getCause());
+    assertNotNull(results.get(2).get(10, TimeUnit.SECONDS).getId());
+    assertEquals(3, houseEntityRepository.getAll().size());
+    try (Connection connection = connectionManager.getConnection()) {
+      assertEquals(3, StreetSummaries.selectAll(connection, EmbeddedTestDatabase.DIALECT).get(0).houses());
+    }
+  }
+
+  @Test
+  void save_LoneSave_CommitsAfterWindow() throws RepositoryException {
+    GroupCommitHouseEntityRepository repository = groupCommit(100, 32);
+
+    HouseEntity saved = repository.save(house("1"));
+
+    assertEquals(saved.getId(), houseEntityRepository.getById(saved.getId()).getId());
+    assertThrows(EntityExistsException.class, () -> repository.save(house("1")));
+    assertEquals(2, repository.getGroups());
+  }
+
+  @Test
+  void save_InvalidEntity_ThrowsBeforeJoiningGroup() {
+    GroupCommitHouseEntityRepository repository = groupCommit(100, 32);
+
+    assertThrows(IllegalArgumentException.class, () -> repository.save(null));
+    assertEquals(0, repository.getGroups());
+  }
+}
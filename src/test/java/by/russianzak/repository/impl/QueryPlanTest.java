@@ -0,0 +1,378 @@
+package by.russianzak.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.dataset.DatasetGenerator;
+import by.russianzak.dataset.DatasetLoader;
+import by.russianzak.dataset.DatasetSpec;
+import by.russianzak.db.ConnectionManager;
+import by.russianzak.db.JdbcEventListener;
+import by.russianzak.db.impl.ConnectionManagerImpl;
+import by.russianzak.db.impl.ListeningConnectionManager;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.HouseEntityRepository;
+import by.russianzak.repository.RoadSurfaceEntityRepository;
+import by.russianzak.repository.StreetEntityRepository;
+import by.russianzak.repository.mapper.HouseResultSetMapperImpl;
+import by.russianzak.repository.mapper.RoadSurfaceResultSetMapperImpl;
+import by.russianzak.repository.mapper.StreetResultSetMapperImpl;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySchema;
+import by.russianzak.repository.query.QuerySpec;
+import by.russianzak.repository.sql.PostgreSqlDialect;
+import by.russianzak.servlet.mapper.StreetEntityDtoMapper;
+import by.russianzak.servlet.mapper.StreetEntityDtoMapperImpl;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs {@code EXPLAIN} for every SQL statement the repositories issue against a generated dataset
+ * and fails when a hot statement plans a sequential scan. The statements are first captured by
+ * driving every repository operation, so a new statement without a catalogue entry fails too.
+ */
+@Testcontainers
+public class QueryPlanTest {
+
+  private static final DatasetSpec DATASET = DatasetSpec.builder()
+      .setStreets(20_000)
+      .setHouses(400_000)
+      .build();
+  // four rows at most: scanning it is always the cheapest plan
+  private static final Set<String> LOOKUP_TABLES = Set.of("road_surface");
+
+  private static final Set<String> capturedSql = ConcurrentHashMap.newKeySet();
+  private static ConnectionManagerImpl connectionManager;
+  private static Map<String, PlannedStatement> catalogue;
+
+  @Container
+  public static final PostgreSQLContainer<?> container =
+      new PostgreSQLContainer<>("postgres:15")
+          .withDatabaseName("my_database")
+          .withUsername("postgres")
+          .withPassword("root");
+
+  private record PlannedStatement(boolean hot, Object... params) {}
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    container.start();
+    connectionManager = new ConnectionManagerImpl(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    migrate();
+    captureRepositoryStatements();
+
+    DatasetGenerator generator = new DatasetGenerator(DATASET);
+    try (Connection connection = connectionManager.getConnection()) {
+      new DatasetLoader().load(connection, generator);
+    }
+    streetDocuments().rebuild(connectionManager);
+    try (Connection connection = connectionManager.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("ANALYZE street_document");
+    }
+    catalogue = catalogue(generator);
+  }
+
+  @AfterAll
+  static void tearDown() {
+    container.stop();
+  }
+
+  @Test
+  void catalogue_AllRepositoryStatements_Covered() {
+    Set<String> missing = new TreeSet<>(capturedSql);
+    missing.removeAll(catalogue.keySet());
+
+    assertTrue(missing.isEmpty(), "Statements without a plan check: " + missing);
+  }
+
+  @TestFactory
+  Stream<DynamicTest> explain_HotStatement_NoSequentialScan() {
+    return catalogue.entrySet().stream().map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+      List<String> scanned = new ArrayList<>();
+      collectSequentialScans(explain(entry.getKey(), entry.getValue().params()), scanned);
+      scanned.removeAll(LOOKUP_TABLES);
+      if (entry.getValue().hot()) {
+        assertEquals(List.of(), scanned, "Sequential scan in plan of: " + entry.getKey());
+      }
+    }));
+  }
+
+  private static void migrate() throws Exception {
+    Path migrations = Path.of(QueryPlanTest.class.getClassLoader().getResource("db/migration").toURI());
+    try (Connection connection = connectionManager.getConnection();
+        Statement statement = connection.createStatement();
+        Stream<Path> files = Files.list(migrations)) {
+      for (Path script : files.sorted(Comparator.comparing(Path::toString)).toList()) {
+        statement.execute(Files.readString(script, StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  private static void captureRepositoryStatements() throws Exception {
+    JdbcEventListener recorder = new JdbcEventListener() {
+      @Override
+      public void beforeStatement(String sql) {
+        capturedSql.add(sql);
+      }
+    };
+    ConnectionManager listening = new ListeningConnectionManager(connectionManager, List.of(recorder));
+    StreetDocuments streetDocuments = streetDocuments();
+    HouseEntityRepository houses = new HouseEntityRepositoryImpl(new HouseResultSetMapperImpl(),
+        new StreetResultSetMapperImpl(), listening, new PostgreSqlDialect(), streetDocuments);
+    StreetEntityRepository streets = new StreetEntityRepositoryImpl(new HouseResultSetMapperImpl(),
+        new StreetResultSetMapperImpl(), new RoadSurfaceResultSetMapperImpl(), listening,
+        new PostgreSqlDialect(), streetDocuments);
+    RoadSurfaceEntityRepository roadSurfaces = new RoadSurfaceEntityRepositoryImpl(
+        new RoadSurfaceResultSetMapperImpl(), new StreetResultSetMapperImpl(), listening,
+        new PostgreSqlDialect(), streetDocuments);
+
+    StreetEntity street = StreetEntity.builder().setName("Main Street").setPostalCode(1L)
+        .setRoadSurfaces(List.of(roadSurface(TypeOfRoadSurface.ASPHALT, List.of())))
+        .build();
+    street.setHouses(Set.of(house("1", street)));
+    streets.save(street);
+    streets.getById(street.getId());
+    streets.findDocumentById(street.getId());
+    streets.update(street);
+    streets.getAll();
+    streets.findAllById(List.of(street.getId()));
+    streets.findAllByPostalCode(List.of(street.getPostalCode()));
+    streets.getSummaries();
+    streets.findSummaryById(street.getId());
+    streets.count(false);
+    streets.count(true);
+    streets.query(QuerySpec.builder(QuerySchema.STREET).setSort("name").build());
+
+    HouseEntity house = houses.save(house("2", street));
+    houses.save(house("1", StreetEntity.builder().setName("Side Street").setPostalCode(2L).build()));
+    houses.getById(house.getId());
+    houses.update(house);
+    houses.getAll();
+    houses.findAllById(List.of(house.getId()));
+    houses.count(false);
+    houses.count(true);
+    QueryPage<HouseEntity> page = houses.query(QuerySpec.builder(QuerySchema.HOUSE)
+        .setFilter("streetId", street.getId().toString()).setSort("-buildDate").setLimit(1).build());
+    houses.query(QuerySpec.builder(QuerySchema.HOUSE).setFilter("streetId", street.getId().toString())
+        .setSort("-buildDate").setLimit(1).setAfter(page.nextCursor()).build());
+    houses.query(QuerySpec.builder(QuerySchema.HOUSE).setFilter("type", TypeOfBuilding.RESIDENTIAL.getValue())
+        .setSort("buildDate").build());
+    houses.getBuildYearHistogram(10, LocalDate.of(1990, 1, 1), LocalDate.of(1991, 1, 1));
+    houses.deleteById(house.getId());
+
+    RoadSurfaceEntity roadSurface = roadSurfaces.save(roadSurface(TypeOfRoadSurface.GRAVEL,
+        List.of(street, StreetEntity.builder().setName("Back Street").setPostalCode(3L).build())));
+    roadSurfaces.getById(roadSurface.getId());
+    roadSurfaces.update(roadSurface);
+    roadSurfaces.getAll();
+    roadSurfaces.findAllById(List.of(roadSurface.getId()));
+    roadSurfaces.count(false);
+    roadSurfaces.count(true);
+    roadSurfaces.query(QuerySpec.builder(QuerySchema.ROAD_SURFACE).setFilter("minFriction", "0.5")
+        .setSort("-frictionCoefficient").build());
+    roadSurfaces.deleteById(roadSurface.getId());
+
+    streetDocuments.rebuild(listening);
+    streets.deleteById(street.getId());
+  }
+
+  private static StreetDocuments streetDocuments() {
+    Gson gson = new Gson();
+    StreetEntityDtoMapper mapper = new StreetEntityDtoMapperImpl();
+    return new StreetDocuments(new HouseResultSetMapperImpl(), new StreetResultSetMapperImpl(),
+        new RoadSurfaceResultSetMapperImpl(), new PostgreSqlDialect(), street -> gson.toJson(mapper.map(street)));
+  }
+
+  private static Map<String, PlannedStatement> catalogue(DatasetGenerator generator) {
+    // a street of median size: large enough to matter, typical for the skewed distribution
+    int streetId = IntStream.rangeClosed(1, DATASET.getStreets()).boxed()
+        .sorted(Comparator.comparingLong(generator::getStreetSize))
+        .toList().get(DATASET.getStreets() / 2);
+    long houseId = DATASET.getHouses() / 2;
+    long postalCode = DatasetGenerator.postalCode(streetId);
+    long roadSurfaceId = TypeOfRoadSurface.values().length;
+    Date buildDate = Date.valueOf(LocalDate.of(1990, 1, 1));
+    String houseType = TypeOfBuilding.RESIDENTIAL.getValue();
+    String surfaceType = TypeOfRoadSurface.DIRT.getValue();
+
+    Map<String, PlannedStatement> statements = new LinkedHashMap<>();
+    statements.put("SELECT * FROM street WHERE id = ?", hot(streetId));
+    statements.put("SELECT * FROM street WHERE id = ANY(?)", hot((Object) ids(streetId, streetId + 1)));
+    statements.put("SELECT id FROM street WHERE postal_code = ?", hot(postalCode));
+    statements.put("SELECT * FROM street WHERE postal_code = ANY(?)", hot((Object) ids(postalCode)));
+    statements.put("INSERT INTO street (name, postal_code) VALUES (?, ?) RETURNING id", hot("New Street", 1L));
+    statements.put("UPDATE street SET name = ?, postal_code = ? WHERE id = ?",
+        hot("Renamed Street", postalCode, streetId));
+    statements.put("DELETE FROM street WHERE id = ?", hot(streetId));
+
+    statements.put("SELECT * FROM house WHERE id = ?", hot(houseId));
+    statements.put("SELECT * FROM house WHERE id = ANY(?)", hot((Object) ids(houseId, houseId + 1)));
+    statements.put("SELECT * FROM house WHERE street_id = ?", hot(streetId));
+    statements.put("SELECT * FROM house WHERE street_id = ANY(?)", hot((Object) ids(streetId, streetId + 1)));
+    statements.put("SELECT id FROM house WHERE house_number = ? AND street_id = ?",
+        hot(generator.houseNumber(houseId), generator.streetOfHouse(houseId)));
+    statements.put("INSERT INTO house (house_number, build_date, num_floors, type, street_id) VALUES (?, ?, ?, ?, ?) RETURNING id",
+        hot("0", buildDate, 3, houseType, streetId));
+    statements.put("UPDATE house SET house_number = ?, build_date = ?, num_floors = ?, type = ?, street_id = ? WHERE id = ?",
+        hot("0", buildDate, 3, houseType, streetId, houseId));
+    statements.put("DELETE FROM house WHERE id = ?", hot(houseId));
+    statements.put("DELETE FROM house WHERE street_id = ?", hot(streetId));
+
+    statements.put("SELECT * FROM road_surface WHERE id = ?", hot(roadSurfaceId));
+    statements.put("SELECT * FROM road_surface WHERE id = ANY(?)", hot((Object) ids(roadSurfaceId)));
+    statements.put("SELECT id FROM road_surface WHERE type = ?", hot(surfaceType));
+    statements.put("INSERT INTO road_surface (type, description, friction_coefficient) VALUES (?, ?, ?) RETURNING id",
+        hot(surfaceType, "Loose", 0.4));
+    statements.put("UPDATE road_surface SET type = ?, description = ?, friction_coefficient = ? WHERE id = ?",
+        hot(surfaceType, "Loose", 0.4, roadSurfaceId));
+    statements.put("DELETE FROM road_surface WHERE id = ?", hot(roadSurfaceId));
+
+    statements.put("SELECT road_surface.* FROM road_surface "
+        + "INNER JOIN road_surface_street ON road_surface.id = road_surface_street.road_surface_id "
+        + "WHERE road_surface_street.street_id = ?", hot(streetId));
+    statements.put("SELECT road_surface.*, road_surface_street.street_id AS link_id FROM road_surface "
+        + "INNER JOIN road_surface_street ON road_surface.id = road_surface_street.road_surface_id "
+        + "WHERE road_surface_street.street_id = ANY(?)", hot((Object) ids(streetId, streetId + 1)));
+    statements.put("INSERT INTO road_surface_street (road_surface_id, street_id) VALUES (?, ?)",
+        hot(roadSurfaceId, streetId));
+    statements.put("DELETE FROM road_surface_street WHERE street_id = ?", hot(streetId));
+
+    statements.put("SELECT street_id, type, num_floors FROM house WHERE id = ? FOR UPDATE", hot(houseId));
+    statements.put("SELECT id FROM road_surface WHERE id = ? FOR UPDATE", hot(roadSurfaceId));
+    statements.put("SELECT * FROM street_summary WHERE street_id = ?", hot(streetId));
+    statements.put("INSERT INTO street_summary (street_id) VALUES (?)", hot(streetId));
+    statements.put("UPDATE street_summary SET houses = houses + ?, "
+        + "residential_houses = residential_houses + ?, commercial_houses = commercial_houses + ?, "
+        + "garage_houses = garage_houses + ?, utility_houses = utility_houses + ?, "
+        + "total_floors = total_floors + ?, road_surfaces = road_surfaces + ? WHERE street_id = ?",
+        hot(1L, 1L, 0L, 0L, 0L, 3L, 0L, streetId));
+    statements.put("SELECT document FROM street_document WHERE street_id = ?", hot(streetId));
+    statements.put("SELECT street_id FROM street_document WHERE street_id = ANY(?) ORDER BY street_id FOR UPDATE",
+        hot((Object) ids(streetId, streetId + 1)));
+    statements.put("INSERT INTO street_document (street_id) VALUES (?)", hot(streetId));
+    statements.put("UPDATE street_document SET document = CAST(? AS json) WHERE street_id = ?",
+        hot("{}", streetId));
+
+    // every surface is shared by a large share of all streets, scanning is the right plan
+    statements.put("SELECT street.* FROM street "
+        + "INNER JOIN road_surface_street ON road_surface_street.street_id = street.id "
+        + "WHERE road_surface_street.road_surface_id = ?", fanOut(roadSurfaceId));
+    statements.put("SELECT street.*, road_surface_street.road_surface_id AS link_id FROM street "
+        + "INNER JOIN road_surface_street ON road_surface_street.street_id = street.id "
+        + "WHERE road_surface_street.road_surface_id = ANY(?)", fanOut((Object) ids(roadSurfaceId)));
+    statements.put("DELETE FROM road_surface_street WHERE road_surface_id = ?", fanOut(roadSurfaceId));
+    statements.put("SELECT street_id FROM road_surface_street WHERE road_surface_id = ?", fanOut(roadSurfaceId));
+    // one row per street: the whole table is the answer
+    statements.put("SELECT * FROM street_summary ORDER BY street_id", fanOut());
+    // run once per service start, over every street
+    statements.put("SELECT street_id FROM street_document WHERE street_id > ? ORDER BY street_id LIMIT ?",
+        fanOut(0L, 500));
+    statements.put("INSERT INTO street_document (street_id) SELECT id FROM street WHERE NOT EXISTS "
+        + "(SELECT 1 FROM street_document WHERE street_document.street_id = street.id)", fanOut());
+    statements.put("SELECT * FROM street", fanOut());
+    statements.put("SELECT * FROM house", fanOut());
+    statements.put("SELECT * FROM road_surface", fanOut());
+    statements.put("SELECT COUNT(*) FROM street", fanOut());
+    statements.put("SELECT COUNT(*) FROM house", fanOut());
+    statements.put("SELECT COUNT(*) FROM road_surface", fanOut());
+    statements.put("SELECT CASE WHEN relpages > 0 AND reltuples >= 0 "
+        + "THEN (reltuples / relpages * (pg_relation_size(oid) / current_setting('block_size')::integer))::bigint "
+        + "ELSE -1 END FROM pg_class WHERE oid = to_regclass(?)", hot("house"));
+    statements.put("SELECT id, build_date FROM house WHERE street_id = ? "
+        + "ORDER BY build_date DESC, id DESC LIMIT ?", hot(streetId, 101));
+    statements.put("SELECT id, build_date FROM house WHERE street_id = ? AND (build_date, id) < (?, ?) "
+        + "ORDER BY build_date DESC, id DESC LIMIT ?", hot(streetId, buildDate, houseId, 101));
+    statements.put("SELECT id, build_date FROM house WHERE type = ? ORDER BY build_date, id LIMIT ?",
+        hot(houseType, 101));
+    statements.put("SELECT id, name FROM street ORDER BY name, id LIMIT ?", hot(101));
+    // one year of build dates: a small range the planner should read through an index
+    statements.put("SELECT CAST(EXTRACT(YEAR FROM build_date) AS INTEGER) / ? * ? AS from_year, "
+        + "COUNT(*) AS houses FROM house WHERE build_date >= ? AND build_date < ? "
+        + "GROUP BY from_year ORDER BY from_year", hot(10, 10, buildDate, Date.valueOf(LocalDate.of(1991, 1, 1))));
+    statements.put("SELECT id, friction_coefficient FROM road_surface WHERE friction_coefficient >= ? "
+        + "ORDER BY friction_coefficient DESC, id DESC LIMIT ?", hot(0.5, 101));
+    return statements;
+  }
+
+  private static Long[] ids(long... ids) {
+    return Arrays.stream(ids).boxed().toArray(Long[]::new);
+  }
+
+  private static PlannedStatement hot(Object... params) {
+    return new PlannedStatement(true, params);
+  }
+
+  private static PlannedStatement fanOut(Object... params) {
+    return new PlannedStatement(false, params);
+  }
+
+  private static JsonElement explain(String sql, Object[] params) throws Exception {
+    try (Connection connection = connectionManager.getConnection();
+        PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+      for (int i = 0; i < params.length; i++) {
+        statement.setObject(i + 1, params[i]);
+      }
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return JsonParser.parseString(resultSet.getString(1)).getAsJsonArray().get(0)
+            .getAsJsonObject().get("Plan");
+      }
+    }
+  }
+
+  private static void collectSequentialScans(JsonElement node, List<String> relations) {
+    JsonObject plan = node.getAsJsonObject();
+    if ("Seq Scan".equals(plan.get("Node Type").getAsString())) {
+      relations.add(plan.get("Relation Name").getAsString());
+    }
+    if (plan.has("Plans")) {
+      plan.getAsJsonArray("Plans").forEach(child -> collectSequentialScans(child, relations));
+    }
+  }
+
+  private static HouseEntity house(String number, StreetEntity street) {
+    return HouseEntity.builder().setHouseNumber(number).setNumFloors(3)
+        .setType(TypeOfBuilding.RESIDENTIAL).setBuildDate(new java.util.Date()).setStreet(street)
+        .build();
+  }
+
+  private static RoadSurfaceEntity roadSurface(TypeOfRoadSurface type, List<StreetEntity> streets) {
+    return RoadSurfaceEntity.builder().setType(type).setDescription("Test surface")
+        .setFrictionCoefficient(0.5).setStreets(streets).build();
+  }
+}
@@ -0,0 +1,82 @@
+package by.russianzak.repository.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.jfr.JfrRepositoryProxy;
+import by.russianzak.jfr.RepositoryOperationEvent;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.repository.HouseEntityRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class JfrRepositoryProxyTest {
+
+  @Mock
+  HouseEntityRepository repository;
+
+  HouseEntityRepository proxy;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    proxy = JfrRepositoryProxy.wrap(HouseEntityRepository.class, repository, "house");
+  }
+
+  @Test
+  void getAll_RecordingEnabled_CommitsEventWithRowCount() throws Exception {
+    when(repository.getAll()).thenReturn(List.of(new HouseEntity(), new HouseEntity()));
+
+    List<RecordedEvent> events = record(() -> proxy.getAll());
+
+    assertEquals(1, events.size());
+    RecordedEvent event = events.get(0);
+    assertEquals("house", event.getString("entity"));
+    assertEquals("getAll", event.getString("method"));
+    assertEquals(2, event.getInt("rowCount"));
+    assertFalse(event.getBoolean("failed"));
+  }
+
+  @Test
+  void getAll_RepositoryFails_CommitsFailedEventAndRethrows() throws Exception {
+    when(repository.getAll()).thenThrow(new RepositoryException("boom", new SQLException("boom")));
+
+    List<RecordedEvent> events = record(() -> assertThrows(RepositoryException.class, proxy::getAll));
+
+    assertEquals(1, events.size());
+    assertTrue(events.get(0).getBoolean("failed"));
+  }
+
+  private List<RecordedEvent> record(ThrowingRunnable action) throws Exception {
+    Path file = Files.createTempFile("repository-events", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(RepositoryOperationEvent.NAME);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals(RepositoryOperationEvent.NAME))
+          .toList();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private interface ThrowingRunnable {
+    void run() throws Exception;
+  }
+}
@@ -0,0 +1,116 @@
+package by.russianzak.repository.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.logging.JsonLayout;
+import by.russianzak.logging.RingBufferAppender;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.MDC;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RingBufferAppenderTest {
+
+  Path file;
+  RingBufferAppender appender;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    file = Files.createTempFile("ring-buffer-appender", ".log");
+    appender = new RingBufferAppender();
+    appender.setName("test");
+    appender.setFile(file.toString());
+    appender.setBufferSize(64);
+    appender.setOverflowPolicy("block");
+    appender.setLayout(new JsonLayout());
+    appender.activateOptions();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    appender.close();
+    Files.deleteIfExists(file);
+  }
+
+  @Test
+  void doAppend_BlockPolicy_WritesEveryEventInOrder() throws Exception {
+    for (int i = 0; i < 1000; i++) {
+      appender.doAppend(event(Level.INFO, "event " + i, null));
+    }
+    appender.close();
+
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals(1000, lines.size());
+    for (int i = 0; i < lines.size(); i++) {
+      JsonObject json = JsonParser.parseString(lines.get(i)).getAsJsonObject();
+      assertEquals("event " + i, json.get("message").getAsString());
+    }
+    assertEquals(0, appender.getDropped());
+  }
+
+  @Test
+  void doAppend_MdcAndThrowable_CapturedOnCallingThread() throws Exception {
+    MDC.put("http.route", "/house");
+    try {
+      appender.doAppend(event(Level.ERROR, "quote \" and\nnewline",
+          new IllegalStateException("boom")));
+    } finally {
+      MDC.remove("http.route");
+    }
+    appender.close();
+
+    JsonObject json = JsonParser.parseString(
+        Files.readAllLines(file, StandardCharsets.UTF_8).get(0)).getAsJsonObject();
+    assertEquals("ERROR", json.get("level").getAsString());
+    assertEquals("quote \" and\nnewline", json.get("message").getAsString());
+    assertEquals(Thread.currentThread().getName(), json.get("thread").getAsString());
+    assertEquals("/house", json.getAsJsonObject("mdc").get("http.route").getAsString());
+    assertTrue(json.get("exception").getAsString().contains("IllegalStateException: boom"));
+  }
+
+  @Test
+  void doAppend_LayoutThrows_WriterKeepsDrainingUnderBlockPolicy() throws Exception {
+    appender.close();
+    appender = new RingBufferAppender();
+    appender.setName("failing");
+    appender.setFile(file.toString());
+    appender.setBufferSize(64);
+    appender.setOverflowPolicy("block");
+    appender.setLayout(new JsonLayout() {
+      @Override
+      public String format(LoggingEvent event) {
+        if (event.getRenderedMessage().startsWith("poison")) {
+          throw new IllegalStateException("Cannot format " + event.getRenderedMessage());
+        }
+        return super.format(event);
+      }
+    });
+    appender.activateOptions();
+
+    assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+      for (int i = 0; i < 1000; i++) {
+        appender.doAppend(event(Level.INFO, (i % 2 == 0 ? "poison " : "event ") + i, null));
+      }
+    });
+    appender.close();
+
+    assertEquals(500, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+  }
+
+  private LoggingEvent event(Level level, String message, Throwable throwable) {
+    Logger logger = Logger.getLogger(RingBufferAppenderTest.class);
+    return new LoggingEvent(Logger.class.getName(), logger, level, message, throwable);
+  }
+}
@@ -0,0 +1,143 @@
+package by.russianzak.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.HouseEntityRepository;
+import by.russianzak.repository.StreetEntityRepository;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InMemoryHouseEntityRepositoryTest {
+
+  private InMemoryStore store;
+  private HouseEntityRepository houseEntityRepository;
+  private StreetEntityRepository streetEntityRepository;
+
+  @BeforeEach
+  void setUp() {
+    store = new InMemoryStore(16);
+    houseEntityRepository = new InMemoryHouseEntityRepository(store);
+    streetEntityRepository = new InMemoryStreetEntityRepository(store);
+  }
+
+  private static HouseEntity house(String houseNumber, long postalCode) {
+    return HouseEntity.builder().setHouseNumber(houseNumber).setBuildDate(Date.valueOf("1990-05-17"))
+        .setNumFloors(9).setType(TypeOfBuilding.RESIDENTIAL)
+        .setStreet(StreetEntity.builder().setName("Street " + postalCode).setPostalCode(postalCode).build())
+        .build();
+  }
+
+  @Test
+  void save_NewStreet_CreatesStreetAndIndexesHouse() throws RepositoryException {
+    HouseEntity saved = houseEntityRepository.save(house("12A", 220001L));
+
+    HouseEntity found = houseEntityRepository.getById(saved.getId());
+    assertEquals("12A", found.getHouseNumber());
+    assertEquals(Date.valueOf("1990-05-17"), found.getBuildDate());
+    assertEquals(220001L, found.getStreet().getPostalCode());
+    assertEquals(1, streetEntityRepository.getById(saved.getStreet().getId()).getHouses().size());
+  }
+
+  @Test
+  void save_ExistingStreet_ReusesStreet() throws RepositoryException {
+    HouseEntity first = houseEntityRepository.save(house("1", 220001L));
+    HouseEntity second = houseEntityRepository.save(house("2", 220001L));
+
+    assertEquals(first.getStreet().getId(), second.getStreet().getId());
+    assertEquals(1, streetEntityRepository.getAll().size());
+  }
+
+  @Test
+  void save_DuplicateNumberOnStreet_ThrowsEntityExists() throws RepositoryException {
+    houseEntityRepository.save(house("1", 220001L));
+
+    assertThrows(EntityExistsException.class, () -> houseEntityRepository.save(house("1", 220001L)));
+  }
+
+  @Test
+  void update_MovedToOtherStreet_UpdatesStreetIndex() throws RepositoryException {
+    HouseEntity house = houseEntityRepository.save(house("1", 220001L));
+    long oldStreetId = house.getStreet().getId();
+    house.setStreet(StreetEntity.builder().setName("Other").setPostalCode(220002L).build());
+
+    houseEntityRepository.update(house);
+
+    assertTrue(streetEntityRepository.getById(oldStreetId).getHouses().isEmpty());
+    assertEquals(1, streetEntityRepository.getById(house.getStreet().getId()).getHouses().size());
+  }
+
+  @Test
+  void update_Missing_ThrowsEntityNotFound() {
+    HouseEntity house = house("1", 220001L);
+    house.setId(99L);
+
+    assertThrows(EntityNotFoundException.class, () -> houseEntityRepository.update(house));
+  }
+
+  @Test
+  void deleteById_Existing_RemovesFromStreet() throws RepositoryException {
+    HouseEntity house = houseEntityRepository.save(house("1", 220001L));
+
+    assertTrue(houseEntityRepository.deleteById(house.getId()));
+    assertFalse(houseEntityRepository.deleteById(house.getId()));
+    assertTrue(houseEntityRepository.findById(house.getId()).isEmpty());
+    assertTrue(streetEntityRepository.getById(house.getStreet().getId()).getHouses().isEmpty());
+  }
+
+  @Test
+  void save_ConcurrentSameNumber_ExactlyOneWins() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        results.add(executor.submit(() -> {
+          try {
+            houseEntityRepository.save(house("7", 220001L));
+            return true;
+          } catch (EntityExistsException e) {
+            return false;
+          }
+        }));
+      }
+      int wins = 0;
+      for (Future<Boolean> result : results) {
+        wins += result.get() ? 1 : 0;
+      }
+
+      assertEquals(1, wins);
+      assertEquals(1, store.getStreetCount());
+      assertEquals(1, store.getHouseCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void getBuildYearHistogram_BoundedRange_CountsPerBucket() throws RepositoryException {
+    for (String buildDate : List.of("1984-02-02", "1989-12-31", "1990-01-01", "2004-04-04")) {
+      HouseEntity house = house(buildDate, 220001L);
+      house.setBuildDate(Date.valueOf(buildDate));
+      houseEntityRepository.save(house);
+    }
+
+    assertEquals(List.of(new BuildYearBucket(1985, 1989, 1), new BuildYearBucket(1990, 1994, 1)),
+        houseEntityRepository.getBuildYearHistogram(5, LocalDate.of(1985, 1, 1), LocalDate.of(2000, 1, 1)));
+  }
+}
@@ -0,0 +1,76 @@
+package by.russianzak.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.RoadSurfaceEntityRepository;
+import by.russianzak.repository.StreetEntityRepository;
+import jakarta.persistence.EntityExistsException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InMemoryRoadSurfaceEntityRepositoryTest {
+
+  private RoadSurfaceEntityRepository roadSurfaceEntityRepository;
+  private StreetEntityRepository streetEntityRepository;
+
+  @BeforeEach
+  void setUp() {
+    InMemoryStore store = new InMemoryStore(16);
+    roadSurfaceEntityRepository = new InMemoryRoadSurfaceEntityRepository(store);
+    streetEntityRepository = new InMemoryStreetEntityRepository(store);
+  }
+
+  private static RoadSurfaceEntity gravel(long... postalCodes) {
+    List<StreetEntity> streets = java.util.Arrays.stream(postalCodes)
+        .mapToObj(code -> StreetEntity.builder().setName("Street " + code).setPostalCode(code).build())
+        .toList();
+    return RoadSurfaceEntity.builder().setType(TypeOfRoadSurface.GRAVEL).setDescription("Loose")
+        .setFrictionCoefficient(0.45).setStreets(streets).build();
+  }
+
+  @Test
+  void save_WithStreets_CreatesStreetsAndLinks() throws RepositoryException {
+    RoadSurfaceEntity saved = roadSurfaceEntityRepository.save(gravel(220001L, 220002L));
+
+    assertEquals(2, roadSurfaceEntityRepository.getById(saved.getId()).getStreets().size());
+    for (StreetEntity street : streetEntityRepository.getAll()) {
+      assertEquals(TypeOfRoadSurface.GRAVEL.getValue(), street.getRoadSurfaces().get(0).getType());
+    }
+  }
+
+  @Test
+  void save_DuplicateType_ThrowsEntityExists() throws RepositoryException {
+    roadSurfaceEntityRepository.save(gravel());
+
+    assertThrows(EntityExistsException.class, () -> roadSurfaceEntityRepository.save(gravel()));
+  }
+
+  @Test
+  void update_NewType_MovesTypeIndex() throws RepositoryException {
+    RoadSurfaceEntity surface = roadSurfaceEntityRepository.save(gravel(220001L));
+    surface.setType(TypeOfRoadSurface.DIRT);
+
+    RoadSurfaceEntity updated = roadSurfaceEntityRepository.update(surface);
+
+    assertEquals(1, updated.getStreets().size());
+    roadSurfaceEntityRepository.save(gravel());
+    assertEquals(2, roadSurfaceEntityRepository.getAll().size());
+  }
+
+  @Test
+  void deleteById_Existing_UnlinksStreets() throws RepositoryException {
+    RoadSurfaceEntity surface = roadSurfaceEntityRepository.save(gravel(220001L));
+
+    assertTrue(roadSurfaceEntityRepository.deleteById(surface.getId()));
+    assertFalse(roadSurfaceEntityRepository.deleteById(surface.getId()));
+    assertTrue(streetEntityRepository.getAll().get(0).getRoadSurfaces().isEmpty());
+  }
+}
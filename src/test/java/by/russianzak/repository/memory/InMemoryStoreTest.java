@@ -0,0 +1,86 @@
+package by.russianzak.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import by.russianzak.dataset.DatasetGenerator;
+import by.russianzak.dataset.DatasetSpec;
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.repository.HouseEntityRepository;
+import by.russianzak.repository.StreetEntityRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class InMemoryStoreTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void snapshot_Restored_SameEntitiesAndSequences() throws Exception {
+    InMemoryStore store = new InMemoryStore(8);
+    store.load(new DatasetGenerator(DatasetSpec.builder().setStreets(20).setHouses(500).build()));
+    StreetEntityRepository streets = new InMemoryStreetEntityRepository(store);
+    Path file = directory.resolve("repository.snapshot");
+
+    store.snapshot(file);
+    InMemoryStore restored = InMemoryStore.open(file, 8);
+
+    assertEquals(20, restored.getStreetCount());
+    assertEquals(500, restored.getHouseCount());
+    StreetEntityRepository restoredStreets = new InMemoryStreetEntityRepository(restored);
+    assertEquals(describe(streets.getAll()), describe(restoredStreets.getAll()));
+
+    HouseEntityRepository houses = new InMemoryHouseEntityRepository(restored);
+    HouseEntity house = houses.save(HouseEntity.builder().setHouseNumber("new")
+        .setBuildDate(Date.valueOf("2020-02-02")).setNumFloors(1).setType(TypeOfBuilding.GARAGE)
+        .setStreet(StreetEntity.builder().setName("Street 1")
+            .setPostalCode(DatasetGenerator.postalCode(1)).build()).build());
+    assertEquals(501L, house.getId());
+  }
+
+  @Test
+  void snapshot_Overwritten_KeepsLatest() throws IOException, RepositoryException {
+    InMemoryStore store = new InMemoryStore(8);
+    StreetEntityRepository streets = new InMemoryStreetEntityRepository(store);
+    Path file = directory.resolve("repository.snapshot");
+    streets.save(StreetEntity.builder().setName("First").setPostalCode(1L).build());
+    store.snapshot(file);
+    streets.save(StreetEntity.builder().setName("Second").setPostalCode(2L).build());
+    store.snapshot(file);
+
+    assertEquals(2, InMemoryStore.open(file, 8).getStreetCount());
+    assertEquals(List.of("repository.snapshot"),
+        Files.list(directory).map(path -> path.getFileName().toString()).toList());
+  }
+
+  @Test
+  void open_NotASnapshot_Throws() throws IOException {
+    Path file = Files.writeString(directory.resolve("garbage"), "not a snapshot at all");
+
+    assertThrows(IOException.class, () -> InMemoryStore.open(file, 8));
+  }
+
+  @Test
+  void constructor_StripesNotPowerOfTwo_Throws() {
+    assertThrows(IllegalArgumentException.class, () -> new InMemoryStore(12));
+  }
+
+  private static List<String> describe(List<StreetEntity> streets) {
+    return streets.stream().sorted(Comparator.comparing(StreetEntity::getId))
+        .map(street -> street + " " + street.getName() + " " + street.getHouses().stream()
+            .sorted(Comparator.comparing(HouseEntity::getId)).map(HouseEntity::toString).toList()
+            + " " + street.getRoadSurfaces().stream().map(surface -> surface.getType()
+            + surface.getDescription() + surface.getFrictionCoefficient()).sorted().toList())
+        .toList();
+  }
+}
@@ -0,0 +1,147 @@
+package by.russianzak.repository.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import by.russianzak.repository.HouseEntityRepository;
+import by.russianzak.repository.RoadSurfaceEntityRepository;
+import by.russianzak.repository.StreetEntityRepository;
+import jakarta.persistence.EntityExistsException;
+import java.sql.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InMemoryStreetEntityRepositoryTest {
+
+  private StreetEntityRepository streetEntityRepository;
+  private HouseEntityRepository houseEntityRepository;
+  private RoadSurfaceEntityRepository roadSurfaceEntityRepository;
+
+  @BeforeEach
+  void setUp() {
+    InMemoryStore store = new InMemoryStore(16);
+    streetEntityRepository = new InMemoryStreetEntityRepository(store);
+    houseEntityRepository = new InMemoryHouseEntityRepository(store);
+    roadSurfaceEntityRepository = new InMemoryRoadSurfaceEntityRepository(store);
+  }
+
+  private static StreetEntity street(long postalCode) {
+    RoadSurfaceEntity asphalt = RoadSurfaceEntity.builder().setType(TypeOfRoadSurface.ASPHALT)
+        .setDescription("Smooth").setFrictionCoefficient(0.7).build();
+    StreetEntity street = StreetEntity.builder().setName("Main").setPostalCode(postalCode)
+        .setRoadSurfaces(List.of(asphalt)).build();
+    street.addHouse(HouseEntity.builder().setHouseNumber("1").setBuildDate(Date.valueOf("2001-01-01"))
+        .setNumFloors(3).setType(TypeOfBuilding.COMMERCIAL).setStreet(street).build());
+    return street;
+  }
+
+  @Test
+  void save_WithHousesAndSurfaces_LinksBothWays() throws RepositoryException {
+    StreetEntity saved = streetEntityRepository.save(street(220001L));
+
+    StreetEntity found = streetEntityRepository.getById(saved.getId());
+    assertEquals(1, found.getHouses().size());
+    assertEquals(found.getId(), found.getHouses().get(0).getStreet().getId());
+    RoadSurfaceEntity asphalt = found.getRoadSurfaces().get(0);
+    assertEquals(List.of(220001L), roadSurfaceEntityRepository.getById(asphalt.getId()).getStreets()
+        .stream().map(StreetEntity::getPostalCode).toList());
+  }
+
+  @Test
+  void save_SurfaceTypeExists_ReusesSurface() throws RepositoryException {
+    streetEntityRepository.save(street(220001L));
+    streetEntityRepository.save(street(220002L));
+
+    assertEquals(1, roadSurfaceEntityRepository.getAll().size());
+    assertEquals(2, roadSurfaceEntityRepository.getAll().get(0).getStreets().size());
+  }
+
+  @Test
+  void save_DuplicatePostalCode_ThrowsEntityExists() throws RepositoryException {
+    streetEntityRepository.save(street(220001L));
+
+    assertThrows(EntityExistsException.class, () -> streetEntityRepository.save(street(220001L)));
+  }
+
+  @Test
+  void update_PostalCodeTaken_ThrowsAndKeepsIndex() throws RepositoryException {
+    streetEntityRepository.save(street(220001L));
+    StreetEntity other = streetEntityRepository.save(street(220002L));
+    other.setPostalCode(220001L);
+
+    assertThrows(RepositoryException.class, () -> streetEntityRepository.update(other));
+    assertEquals(220002L, streetEntityRepository.getById(other.getId()).getPostalCode());
+  }
+
+  @Test
+  void update_NewPostalCode_FreesOldOne() throws RepositoryException {
+    StreetEntity street = streetEntityRepository.save(street(220001L));
+    street.setPostalCode(220009L);
+
+    StreetEntity updated = streetEntityRepository.update(street);
+
+    assertEquals(1, updated.getHouses().size());
+    streetEntityRepository.save(street(220001L));
+    assertEquals(2, streetEntityRepository.getAll().size());
+  }
+
+  @Test
+  void findAllByPostalCode_MixedCodes_ReturnsExistingByCode() throws RepositoryException {
+    StreetEntity street = streetEntityRepository.save(street(220001L));
+
+    Map<Long, StreetEntity> found = streetEntityRepository.findAllByPostalCode(List.of(220001L, 220009L));
+
+    assertEquals(Set.of(220001L), found.keySet());
+    assertEquals(street.getId(), found.get(220001L).getId());
+    assertEquals(1, found.get(220001L).getHouses().size());
+  }
+
+  @Test
+  void deleteById_Existing_RemovesHousesAndLinks() throws RepositoryException {
+    StreetEntity street = streetEntityRepository.save(street(220001L));
+    Long houseId = street.getHouses().get(0).getId();
+    Long surfaceId = street.getRoadSurfaces().get(0).getId();
+
+    assertTrue(streetEntityRepository.deleteById(street.getId()));
+
+    assertTrue(houseEntityRepository.findById(houseId).isEmpty());
+    assertTrue(roadSurfaceEntityRepository.getById(surfaceId).getStreets().isEmpty());
+  }
+
+  @Test
+  void count_AfterSaves_CountsEveryEntity() throws RepositoryException {
+    streetEntityRepository.save(street(220001L));
+    streetEntityRepository.save(street(220002L));
+
+    assertEquals(2, streetEntityRepository.count(false));
+    assertEquals(2, houseEntityRepository.count(true));
+    assertEquals(1, roadSurfaceEntityRepository.count(false));
+  }
+
+  @Test
+  void getSummaries_HousesAndSurfaces_AggregatesPerStreet() throws RepositoryException {
+    StreetEntity main = streetEntityRepository.save(street(220001L));
+    StreetEntity side = streetEntityRepository.save(street(220002L));
+    houseEntityRepository.save(HouseEntity.builder().setHouseNumber("2").setBuildDate(Date.valueOf("2010-01-01"))
+        .setNumFloors(8).setType(TypeOfBuilding.RESIDENTIAL).setStreet(main).build());
+
+    List<StreetSummary> summaries = streetEntityRepository.getSummaries();
+
+    assertEquals(List.of(main.getId(), side.getId()), summaries.stream().map(StreetSummary::streetId).toList());
+    assertEquals(new StreetSummary(main.getId(), 2,
+        Map.of("RESIDENTIAL", 1L, "COMMERCIAL", 1L, "GARAGE", 0L, "UTILITY", 0L), 11, 5.5, 1), summaries.get(0));
+    assertEquals(summaries.get(1), streetEntityRepository.findSummaryById(side.getId()).orElseThrow());
+    assertTrue(streetEntityRepository.findSummaryById(side.getId() + 100).isEmpty());
+  }
+}
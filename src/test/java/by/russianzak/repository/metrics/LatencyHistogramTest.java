@@ -0,0 +1,65 @@
+package by.russianzak.repository.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.metrics.LatencyHistogram;
+import by.russianzak.metrics.LatencyHistogram.Snapshot;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void snapshot_NoValues_ReturnsZeroes() {
+    Snapshot snapshot = new LatencyHistogram().snapshot();
+
+    assertEquals(0, snapshot.getCount());
+    assertEquals(0, snapshot.getPercentile(99));
+    assertEquals(0.0, snapshot.getMean());
+  }
+
+  @Test
+  void snapshot_RecordedValues_CountSumAndMax() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000);
+    histogram.record(3_000);
+    histogram.record(5_000);
+
+    Snapshot snapshot = histogram.snapshot();
+
+    assertEquals(3, snapshot.getCount());
+    assertEquals(9_000, snapshot.getSum());
+    assertEquals(5_000, snapshot.getMax());
+    assertEquals(3_000.0, snapshot.getMean());
+  }
+
+  @Test
+  void percentile_UniformValues_WithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 10_000; value++) {
+      histogram.record(value * 1_000);
+    }
+
+    Snapshot snapshot = histogram.snapshot();
+
+    assertWithin(5_000_000, snapshot.getPercentile(50));
+    assertWithin(9_900_000, snapshot.getPercentile(99));
+    assertEquals(10_000_000, snapshot.getPercentile(100));
+  }
+
+  @Test
+  void record_NegativeValue_CountedAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+
+    Snapshot snapshot = histogram.snapshot();
+
+    assertEquals(1, snapshot.getCount());
+    assertEquals(0, snapshot.getPercentile(50));
+  }
+
+  private static void assertWithin(long expected, long actual) {
+    assertTrue(actual >= expected && actual <= expected * 1.25,
+        String.format("Expected %s to be within 25%% above %s", actual, expected));
+  }
+}
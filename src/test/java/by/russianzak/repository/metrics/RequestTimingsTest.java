@@ -0,0 +1,54 @@
+package by.russianzak.repository.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.metrics.RequestTimings;
+import by.russianzak.metrics.RequestTimings.Phase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class RequestTimingsTest {
+
+  @AfterEach
+  void tearDown() {
+    RequestTimings.end();
+  }
+
+  @Test
+  void record_NoActiveRequest_Ignored() {
+    RequestTimings.record(Phase.SQL, 1_000_000);
+
+    assertFalse(RequestTimings.isActive());
+    assertEquals(0, RequestTimings.start());
+  }
+
+  @Test
+  void record_ActiveRequest_AccumulatesPerPhase() {
+    RequestTimings timings = RequestTimings.begin();
+
+    RequestTimings.record(Phase.SQL, 1_000_000);
+    RequestTimings.record(Phase.SQL, 2_500_000);
+    RequestTimings.record(Phase.CONNECTION, 100_000);
+
+    assertEquals(3_500_000, timings.getNanos(Phase.SQL));
+    assertEquals(2, timings.getCount(Phase.SQL));
+    assertEquals(100_000, timings.getNanos(Phase.CONNECTION));
+  }
+
+  @Test
+  void toHeaderValue_RecordedPhases_ServerTimingSyntax() {
+    RequestTimings timings = RequestTimings.begin();
+    RequestTimings.record(Phase.CONNECTION, 250_000);
+    RequestTimings.record(Phase.SQL, 1_000_000);
+    RequestTimings.record(Phase.SQL, 2_000_000);
+
+    String header = timings.toHeaderValue();
+
+    assertTrue(header.startsWith(
+        "conn;dur=0.250;desc=\"Connection acquisition\", db;dur=3.000;desc=\"SQL execution x2\", total;dur="),
+        header);
+    assertFalse(header.contains("json"));
+  }
+}
@@ -0,0 +1,65 @@
+package by.russianzak.repository.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.metrics.HikariPoolMetrics;
+import by.russianzak.metrics.SaturationMonitor;
+import by.russianzak.metrics.TomcatExecutorMetrics;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SaturationMonitorTest {
+
+  @Test
+  void update_PoolExhaustedWithWaiters_Saturated() {
+    SaturationMonitor monitor = new SaturationMonitor(1.0, 0.9);
+
+    monitor.update(Map.of(HikariPoolMetrics.ACTIVE, 10, HikariPoolMetrics.PENDING, 5,
+        HikariPoolMetrics.MAX, 10));
+
+    assertEquals(1.5, monitor.getPool());
+    assertTrue(monitor.isSaturated());
+  }
+
+  @Test
+  void update_ThreadsBusier_ScoreFollowsThreads() {
+    SaturationMonitor monitor = new SaturationMonitor(1.0, 0.9);
+
+    monitor.update(Map.of(HikariPoolMetrics.ACTIVE, 1, HikariPoolMetrics.MAX, 10,
+        TomcatExecutorMetrics.BUSY, 150, TomcatExecutorMetrics.QUEUE_DEPTH, 0,
+        TomcatExecutorMetrics.MAX, 200));
+
+    assertEquals(0.75, monitor.getScore());
+    assertFalse(monitor.isSaturated());
+  }
+
+  @Test
+  void update_SingleSpike_SmoothedBelowThreshold() {
+    SaturationMonitor monitor = new SaturationMonitor(0.3, 0.9);
+    Map<String, Number> idle = Map.of(HikariPoolMetrics.ACTIVE, 0, HikariPoolMetrics.MAX, 10);
+    Map<String, Number> busy = Map.of(HikariPoolMetrics.ACTIVE, 10, HikariPoolMetrics.MAX, 10);
+
+    monitor.update(idle);
+    monitor.update(busy);
+
+    assertEquals(0.3, monitor.getScore(), 1e-9);
+    assertFalse(monitor.isSaturated());
+  }
+
+  @Test
+  void update_MissingCapacity_ZeroDemand() {
+    SaturationMonitor monitor = new SaturationMonitor(0.5, 0.9);
+
+    monitor.update(Map.of(HikariPoolMetrics.ACTIVE, 10));
+
+    assertEquals(0.0, monitor.getScore());
+  }
+
+  @Test
+  void constructor_InvalidAlpha_ThrowsIllegalArgumentException() {
+    assertThrows(IllegalArgumentException.class, () -> new SaturationMonitor(0, 0.9));
+  }
+}
@@ -0,0 +1,114 @@
+package by.russianzak.repository.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.StreetEntity;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class QuerySpecTest {
+
+  private static HouseEntity house(long id, long streetId, String buildDate, int numFloors) {
+    return HouseEntity.builder().setId(id).setHouseNumber(Long.toString(id))
+        .setBuildDate(Date.valueOf(LocalDate.parse(buildDate))).setNumFloors(numFloors)
+        .setType(TypeOfBuilding.RESIDENTIAL)
+        .setStreet(StreetEntity.builder().setId(streetId).build())
+        .build();
+  }
+
+  @Test
+  void getSql_FiltersSortAndCursor_CompilesKeysetQuery() {
+    QuerySpec<HouseEntity> first = QuerySpec.builder(QuerySchema.HOUSE)
+        .setFilter("streetId", "7").setSort("-buildDate").setLimit(2).build();
+    String cursor = first.cursorAfter(new QuerySpec.Key(LocalDate.of(2001, 6, 30), 42));
+
+    QuerySpec<HouseEntity> next = QuerySpec.builder(QuerySchema.HOUSE)
+        .setFilter("streetId", "7").setSort("-buildDate").setAfter(cursor).build();
+
+    assertEquals("SELECT id, build_date FROM house WHERE street_id = ? "
+        + "ORDER BY build_date DESC, id DESC LIMIT ?", first.getSql());
+    assertEquals("SELECT id, build_date FROM house WHERE street_id = ? AND (build_date, id) < (?, ?) "
+        + "ORDER BY build_date DESC, id DESC LIMIT ?", next.getSql());
+  }
+
+  @Test
+  void getSql_SameFiltersInOtherOrder_SharesStatement() {
+    QuerySpec<HouseEntity> first = QuerySpec.builder(QuerySchema.HOUSE)
+        .setFilter("minFloors", "3").setFilter("streetId", "7").build();
+    QuerySpec<HouseEntity> second = QuerySpec.builder(QuerySchema.HOUSE)
+        .setFilter("streetId", "8").setFilter("minFloors", "5").build();
+
+    assertEquals("house?minFloors&streetId&sort=id", first.getShape());
+    assertSame(first.getSql(), second.getSql());
+    assertEquals("SELECT id FROM house WHERE num_floors >= ? AND street_id = ? ORDER BY id LIMIT ?",
+        first.getSql());
+  }
+
+  @Test
+  void apply_FollowingCursors_VisitsMatchesOnceInOrder() {
+    List<HouseEntity> houses = List.of(
+        house(1, 7, "1990-01-01", 2), house(2, 7, "2005-05-05", 9), house(3, 8, "2010-10-10", 5),
+        house(4, 7, "2005-05-05", 4), house(5, 7, "1975-03-03", 1));
+
+    List<Long> visited = new ArrayList<>();
+    String cursor = null;
+    do {
+      QuerySpec.Builder<HouseEntity> builder = QuerySpec.builder(QuerySchema.HOUSE)
+          .setFilter("streetId", "7").setSort("-buildDate").setLimit(2);
+      QueryPage<HouseEntity> page = builder.setAfter(cursor).build().apply(houses);
+      page.items().forEach(house -> visited.add(house.getId()));
+      cursor = page.nextCursor();
+    } while (cursor != null);
+
+    assertEquals(List.of(4L, 2L, 1L, 5L), visited);
+  }
+
+  @Test
+  void apply_LastPageExactlyFull_HasNoCursor() {
+    QueryPage<HouseEntity> page = QuerySpec.builder(QuerySchema.HOUSE).setFilter("minFloors", "4")
+        .setLimit(2).build().apply(List.of(house(1, 7, "1990-01-01", 5), house(2, 7, "1990-01-01", 4)));
+
+    assertEquals(2, page.items().size());
+    assertNull(page.nextCursor());
+  }
+
+  @Test
+  void setFilter_UnknownParameter_ThrowsIllegalArgument() {
+    assertThrows(IllegalArgumentException.class,
+        () -> QuerySpec.builder(QuerySchema.HOUSE).setFilter("street_id; DROP TABLE house", "1"));
+  }
+
+  @Test
+  void setFilter_InvalidValue_ThrowsIllegalArgument() {
+    assertThrows(IllegalArgumentException.class,
+        () -> QuerySpec.builder(QuerySchema.HOUSE).setFilter("builtAfter", "yesterday"));
+  }
+
+  @Test
+  void setSort_UnknownField_ThrowsIllegalArgument() {
+    assertThrows(IllegalArgumentException.class, () -> QuerySpec.builder(QuerySchema.STREET).setSort("-houses"));
+  }
+
+  @Test
+  void build_CursorOfOtherSort_ThrowsIllegalArgument() {
+    String cursor = QuerySpec.builder(QuerySchema.HOUSE).setSort("numFloors").build()
+        .cursorAfter(new QuerySpec.Key(3, 10));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> QuerySpec.builder(QuerySchema.HOUSE).setSort("buildDate").setAfter(cursor).build());
+  }
+
+  @Test
+  void build_LimitAboveMaximum_ThrowsIllegalArgument() {
+    assertThrows(IllegalArgumentException.class,
+        () -> QuerySpec.builder(QuerySchema.ROAD_SURFACE).setLimit(QuerySpec.MAX_LIMIT + 1).build());
+  }
+}
@@ -0,0 +1,107 @@
+package by.russianzak.repository.service.coalescing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.service.StreetEntityService;
+import by.russianzak.service.coalescing.CoalescingStreetEntityService;
+import by.russianzak.service.coalescing.ReadCoalescer;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CoalescingStreetEntityServiceTest {
+
+  private StreetEntityService delegate;
+  private CoalescingStreetEntityService streetService;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(StreetEntityService.class);
+    ReadCoalescer coalescer = ReadCoalescer.builder().setTtlMillis(60_000).build();
+    streetService = new CoalescingStreetEntityService(delegate, coalescer);
+  }
+
+  private static StreetEntity street(long id) {
+    return StreetEntity.builder().setId(id).setName("Main Street").setPostalCode(12345L).build();
+  }
+
+  @Test
+  void getById_Repeated_LoadsOnce() throws RepositoryException {
+    StreetEntity street = street(1L);
+    when(delegate.getById(1L)).thenReturn(street);
+
+    streetService.getById(1L);
+
+    assertSame(street, streetService.getById(1L));
+    verify(delegate, times(1)).getById(1L);
+  }
+
+  @Test
+  void readOperations_SameId_AreCachedSeparately() throws RepositoryException {
+    StreetEntity street = street(1L);
+    when(delegate.getById(1L)).thenReturn(street);
+    when(delegate.findById(1L)).thenReturn(Optional.of(street));
+    when(delegate.getAll()).thenReturn(List.of(street));
+
+    assertSame(street, streetService.getById(1L));
+    assertEquals(Optional.of(street), streetService.findById(1L));
+    assertEquals(List.of(street), streetService.getAll());
+  }
+
+  @Test
+  void update_AfterRead_NextReadReloads() throws RepositoryException {
+    StreetEntity street = street(1L);
+    when(delegate.getById(1L)).thenReturn(street);
+    when(delegate.update(street)).thenReturn(street);
+    streetService.getById(1L);
+
+    streetService.update(street);
+    streetService.getById(1L);
+
+    verify(delegate, times(2)).getById(1L);
+  }
+
+  @Test
+  void findDocumentById_RepeatedThenUpdated_LoadsOnceUntilTheWrite() throws RepositoryException {
+    StreetEntity street = street(1L);
+    when(delegate.findDocumentById(1L)).thenReturn(Optional.of("{\"id\":1}"));
+    when(delegate.getById(1L)).thenReturn(street);
+    when(delegate.update(street)).thenReturn(street);
+
+    streetService.findDocumentById(1L);
+    assertEquals(Optional.of("{\"id\":1}"), streetService.findDocumentById(1L));
+    streetService.getById(1L);
+    verify(delegate, times(1)).findDocumentById(1L);
+
+    streetService.update(street);
+    streetService.findDocumentById(1L);
+
+    verify(delegate, times(2)).findDocumentById(1L);
+    verify(delegate, times(1)).getById(1L);
+  }
+
+  @Test
+  void save_Failing_StillInvalidates() throws RepositoryException {
+    StreetEntity street = street(1L);
+    when(delegate.getAll()).thenReturn(List.of(street));
+    when(delegate.save(street)).thenThrow(new RepositoryException("Duplicate"));
+    streetService.getAll();
+
+    try {
+      streetService.save(street);
+    } catch (RepositoryException ignored) {
+      // the write may have failed half way, the cache must not outlive it
+    }
+    streetService.getAll();
+
+    verify(delegate, times(2)).getAll();
+  }
+}
@@ -0,0 +1,194 @@
+package by.russianzak.repository.service.coalescing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.service.coalescing.ReadCoalescer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ReadCoalescerTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+  private final AtomicLong clock = new AtomicLong();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private ReadCoalescer cached(long ttlMillis, long staleMillis) {
+    return ReadCoalescer.builder().setTtlMillis(ttlMillis).setStaleMillis(staleMillis)
+        .setTtlJitter(0).setClock(clock::get).build();
+  }
+
+  private void advanceMillis(long millis) {
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  private static void block(CountDownLatch latch) throws RepositoryException {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new RepositoryException("Interrupted", e);
+    }
+  }
+
+  @Test
+  void load_ConcurrentSameKey_SharesOneLoad() throws Exception {
+    ReadCoalescer coalescer = ReadCoalescer.builder().build();
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    List<Future<String>> results = new ArrayList<>();
+
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> coalescer.load("street-1", () -> {
+        calls.incrementAndGet();
+        block(release);
+        return "Main";
+      })));
+    }
+    while (coalescer.getJoined() < 7) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertEquals("Main", result.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, calls.get());
+    assertEquals(1, coalescer.getLoads());
+  }
+
+  @Test
+  void load_LoaderFails_EveryWaiterGetsSameException() throws Exception {
+    ReadCoalescer coalescer = ReadCoalescer.builder().build();
+    CountDownLatch release = new CountDownLatch(1);
+    RepositoryException failure = new RepositoryException("Database is down");
+    List<Future<Object>> results = new ArrayList<>();
+
+    for (int i = 0; i < 4; i++) {
+      results.add(executor.submit(() -> {
+        try {
+          return coalescer.load("street-1", () -> {
+            block(release);
+            throw failure;
+          });
+        } catch (RepositoryException e) {
+          return e;
+        }
+      }));
+    }
+    while (coalescer.getJoined() < 3) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    for (Future<Object> result : results) {
+      assertSame(failure, result.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void load_NoTtl_LoadsEverySequentialCall() throws RepositoryException {
+    ReadCoalescer coalescer = ReadCoalescer.builder().build();
+    AtomicInteger calls = new AtomicInteger();
+
+    coalescer.load("street-1", calls::incrementAndGet);
+    coalescer.load("street-1", calls::incrementAndGet);
+
+    assertEquals(2, calls.get());
+    assertEquals(0, coalescer.getSize());
+  }
+
+  @Test
+  void load_WithinTtl_ServesCachedValue() throws RepositoryException {
+    ReadCoalescer coalescer = cached(100, 0);
+    AtomicInteger calls = new AtomicInteger();
+
+    coalescer.load("street-1", calls::incrementAndGet);
+    advanceMillis(99);
+
+    assertEquals(1, (int) coalescer.load("street-1", calls::incrementAndGet));
+    assertEquals(1, coalescer.getHits());
+  }
+
+  @Test
+  void load_ExpiredWithinStaleWindow_OneCallerRefreshesOthersGetStale() throws Exception {
+    ReadCoalescer coalescer = cached(100, 1000);
+    coalescer.load("street-1", () -> "old");
+    advanceMillis(150);
+    CountDownLatch refreshing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Future<String> refresher = executor.submit(() -> coalescer.load("street-1", () -> {
+      refreshing.countDown();
+      block(release);
+      return "new";
+    }));
+    refreshing.await();
+
+    assertEquals("old", coalescer.load("street-1", () -> "unexpected"));
+    assertEquals(1, coalescer.getStaleHits());
+    release.countDown();
+    assertEquals("new", refresher.get(5, TimeUnit.SECONDS));
+    assertEquals("new", coalescer.load("street-1", () -> "unexpected"));
+  }
+
+  @Test
+  void load_PastStaleWindow_Reloads() throws RepositoryException {
+    ReadCoalescer coalescer = cached(100, 100);
+    coalescer.load("street-1", () -> "old");
+    advanceMillis(250);
+
+    assertEquals("new", coalescer.load("street-1", () -> "new"));
+    assertEquals(0, coalescer.getStaleHits());
+  }
+
+  @Test
+  void invalidateAll_DropsCachedValues() throws RepositoryException {
+    ReadCoalescer coalescer = cached(100, 0);
+    coalescer.load("street-1", () -> "old");
+
+    coalescer.invalidateAll();
+
+    assertEquals("new", coalescer.load("street-1", () -> "new"));
+  }
+
+  @Test
+  void invalidateAll_DuringLoad_LaterCallersDoNotJoinOrSeeIt() throws Exception {
+    ReadCoalescer coalescer = cached(100, 0);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<String> before = executor.submit(() -> coalescer.load("street-1", () -> {
+      loading.countDown();
+      block(release);
+      return "before write";
+    }));
+    loading.await();
+
+    coalescer.invalidateAll();
+    assertEquals("after write", coalescer.load("street-1", () -> "after write"));
+    release.countDown();
+
+    assertEquals("before write", before.get(5, TimeUnit.SECONDS));
+    assertEquals("after write", coalescer.load("street-1", () -> "unexpected"));
+  }
+
+  @Test
+  void build_JitterOutOfRange_ThrowsIllegalArgument() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ReadCoalescer.builder().setTtlJitter(1).build());
+  }
+}
@@ -0,0 +1,178 @@
+package by.russianzak.repository.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import by.russianzak.metrics.ThreadAllocation;
+import by.russianzak.model.HouseEntity;
+import by.russianzak.model.HouseEntity.TypeOfBuilding;
+import by.russianzak.model.RoadSurfaceEntity;
+import by.russianzak.model.RoadSurfaceEntity.TypeOfRoadSurface;
+import by.russianzak.model.StreetEntity;
+import by.russianzak.service.HouseEntityService;
+import by.russianzak.service.RoadSurfaceEntityService;
+import by.russianzak.service.StreetEntityService;
+import by.russianzak.servlet.HouseEntityServlet;
+import by.russianzak.servlet.RoadSurfaceEntityServlet;
+import by.russianzak.servlet.StreetEntityServlet;
+import by.russianzak.servlet.mapper.HouseEntityDtoMapperImpl;
+import by.russianzak.servlet.mapper.RoadSurfaceEntityDtoMapperImpl;
+import by.russianzak.servlet.mapper.StreetEntityDtoMapperImpl;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fails when a route allocates more per request than its budget in
+ * {@code allocation-budgets.properties}. Services are stubbed, so the measurement covers request
+ * parsing, DTO mapping and serialization plus a small constant for the stubs themselves. When a
+ * change raises allocation on purpose, update the budget in the same commit.
+ */
+class AllocationBudgetTest {
+
+  private static final int WARMUP_ITERATIONS = 20_000;
+  private static final int MEASURED_ITERATIONS = 101;
+  private static final Date BUILD_DATE = Date.valueOf("1987-06-15");
+
+  private static Properties budgets;
+
+  HttpServletRequest request;
+  HttpServletResponse response;
+  Gson gson;
+
+  @BeforeAll
+  static void loadBudgets() throws Exception {
+    budgets = new Properties();
+    try (InputStream in = AllocationBudgetTest.class.getClassLoader()
+        .getResourceAsStream("allocation-budgets.properties")) {
+      assertNotNull(in, "allocation-budgets.properties is missing");
+      budgets.load(in);
+    }
+  }
+
+  @BeforeEach
+  void setUp() throws Exception {
+    assumeTrue(ThreadAllocation.isSupported(), "JVM does not report per-thread allocation");
+    request = mock(HttpServletRequest.class, withSettings().stubOnly());
+    response = mock(HttpServletResponse.class, withSettings().stubOnly());
+    when(request.getParameter("id")).thenReturn("1");
+    when(response.getWriter()).thenAnswer(invocation -> new PrintWriter(Writer.nullWriter()));
+    gson = new GsonBuilder().setDateFormat("dd-MM-yyyy").create();
+  }
+
+  @Test
+  void getHouse_ById_WithinBudget() throws Exception {
+    HouseEntityService service = mock(HouseEntityService.class, withSettings().stubOnly());
+    when(service.getById(anyLong())).thenReturn(house(1, street(1)));
+    HouseEntityServlet servlet = new HouseEntityServlet(service, new HouseEntityDtoMapperImpl(), gson);
+
+    assertWithinBudget("GET /house?id", () -> servlet.doGet(request, response));
+  }
+
+  @Test
+  void getStreet_ById_WithinBudget() throws Exception {
+    StreetEntityService service = mock(StreetEntityService.class, withSettings().stubOnly());
+    when(service.getById(anyLong())).thenReturn(streetWithChildren(1, 10, 2));
+    StreetEntityServlet servlet = new StreetEntityServlet(service, new StreetEntityDtoMapperImpl(), gson);
+
+    assertWithinBudget("GET /street?id", () -> servlet.doGet(request, response));
+  }
+
+  @Test
+  void getStreet_ByIdFromDocument_WithinBudget() throws Exception {
+    String document = gson.toJson(new StreetEntityDtoMapperImpl().map(streetWithChildren(1, 10, 2)));
+    StreetEntityService service = mock(StreetEntityService.class, withSettings().stubOnly());
+    when(service.findDocumentById(anyLong())).thenReturn(Optional.of(document));
+    StreetEntityServlet servlet = new StreetEntityServlet(service, new StreetEntityDtoMapperImpl(), gson);
+
+    assertWithinBudget("GET /street?id (document)", () -> servlet.doGet(request, response));
+  }
+
+  @Test
+  void getRoadSurface_ById_WithinBudget() throws Exception {
+    RoadSurfaceEntityService service = mock(RoadSurfaceEntityService.class, withSettings().stubOnly());
+    when(service.getById(anyLong())).thenReturn(roadSurfaceWithStreets(1, 10));
+    RoadSurfaceEntityServlet servlet = new RoadSurfaceEntityServlet(service,
+        new RoadSurfaceEntityDtoMapperImpl(), gson);
+
+    assertWithinBudget("GET /road-surface?id", () -> servlet.doGet(request, response));
+  }
+
+  private static void assertWithinBudget(String route, Runnable request) {
+    String budget = budgets.getProperty(route);
+    assertNotNull(budget, "No allocation budget for " + route);
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      request.run();
+    }
+    long[] samples = new long[MEASURED_ITERATIONS];
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      long start = ThreadAllocation.currentThreadAllocatedBytes();
+      request.run();
+      samples[i] = ThreadAllocation.currentThreadAllocatedBytes() - start;
+    }
+    Arrays.sort(samples);
+    long median = samples[MEASURED_ITERATIONS / 2];
+
+    assertTrue(median <= Long.parseLong(budget), String.format(
+        "%s allocated %d bytes per request, budget is %s", route, median, budget));
+  }
+
+  private static StreetEntity street(long id) {
+    return StreetEntity.builder().setId(id).setName("Nezavisimosti " + id).setPostalCode(220000 + id)
+        .build();
+  }
+
+  private static HouseEntity house(long id, StreetEntity street) {
+    return HouseEntity.builder().setId(id).setHouseNumber(Long.toString(id)).setBuildDate(BUILD_DATE)
+        .setNumFloors(5).setType(TypeOfBuilding.RESIDENTIAL).setStreet(street).build();
+  }
+
+  private static RoadSurfaceEntity roadSurface(long id) {
+    return RoadSurfaceEntity.builder().setId(id).setType(TypeOfRoadSurface.values()[(int) (id % 4)])
+        .setDescription("Surface " + id).setFrictionCoefficient(0.5).build();
+  }
+
+  private static StreetEntity streetWithChildren(long id, int houses, int roadSurfaces) {
+    StreetEntity street = street(id);
+    Set<HouseEntity> houseEntities = new HashSet<>();
+    for (int i = 1; i <= houses; i++) {
+      houseEntities.add(house(i, street));
+    }
+    Set<RoadSurfaceEntity> roadSurfaceEntities = new HashSet<>();
+    for (int i = 1; i <= roadSurfaces; i++) {
+      roadSurfaceEntities.add(roadSurface(i));
+    }
+    street.setHouses(houseEntities);
+    street.setRoadSurfaces(roadSurfaceEntities);
+    return street;
+  }
+
+  private static RoadSurfaceEntity roadSurfaceWithStreets(long id, int streets) {
+    RoadSurfaceEntity roadSurface = roadSurface(id);
+    Set<StreetEntity> streetEntities = new HashSet<>();
+    for (int i = 1; i <= streets; i++) {
+      streetEntities.add(street(i));
+    }
+    roadSurface.setStreets(streetEntities);
+    return roadSurface;
+  }
+}
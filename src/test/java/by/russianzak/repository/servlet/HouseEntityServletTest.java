@@ -1,6 +1,7 @@
 package by.russianzak.repository.servlet;
 
 import by.russianzak.exception.RepositoryException;
+import by.russianzak.model.BuildYearBucket;
 import by.russianzak.model.HouseEntity;
 import by.russianzak.model.StreetEntity;
 import by.russianzak.service.HouseEntityService;
@@ -8,9 +9,13 @@ import by.russianzak.servlet.HouseEntityServlet;
 import by.russianzak.servlet.dto.RequestHouseEntityDto;
 import by.russianzak.servlet.dto.ResponseHouseEntityDto;
 import by.russianzak.servlet.mapper.HouseEntityDtoMapper;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import by.russianzak.writebehind.WriteBehindQueue;
 import com.google.gson.Gson;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,9 +26,13 @@ import org.mockito.MockitoAnnotations;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 class HouseEntityServletTest {
@@ -77,6 +86,26 @@ class HouseEntityServletTest {
     verify(response, times(1)).setContentType("application/json");
   }
 
+  @Test
+  void postRequest_PreferRespondAsync_ReturnsAcceptedWithStatusUrl() throws IOException, RepositoryException {
+    WriteBehindQueue writeBehindQueue = mock(WriteBehindQueue.class);
+    servlet = new HouseEntityServlet(houseService, mapper, gson, writeBehindQueue);
+    when(request.getHeader("Prefer")).thenReturn("respond-async, wait=5");
+    when(request.getReader()).thenReturn(reader);
+    when(gson.fromJson(any(BufferedReader.class), eq(RequestHouseEntityDto.class)))
+        .thenReturn(new RequestHouseEntityDto());
+    when(mapper.map(any(RequestHouseEntityDto.class))).thenReturn(new HouseEntity());
+    when(gson.toJson(any(Object.class))).thenReturn("{}");
+    when(writeBehindQueue.submit(EntityKind.HOUSE, Operation.SAVE, 0, "{}")).thenReturn(42L);
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doPost(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_ACCEPTED);
+    verify(response, times(1)).setHeader("Location", "/write-status?id=42");
+    verify(houseService, never()).save(any(HouseEntity.class));
+  }
+
   @Test
   void postRequest_EntityExistsException_ReturnsBadRequest() throws IOException, RepositoryException {
     when(request.getReader()).thenReturn(reader);
@@ -261,4 +290,98 @@ class HouseEntityServletTest {
     verify(response, times(1)).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
     verify(response, times(1)).setContentType("application/json");
   }
+
+  @Test
+  void getRequest_Ids_LooksUpDistinctIdsOnce() throws IOException, RepositoryException {
+    when(request.getParameter("ids")).thenReturn("3,1,3");
+    HouseEntity house = new HouseEntity();
+    when(houseService.findAllById(Set.of(3L, 1L))).thenReturn(Map.of(1L, house));
+    when(mapper.map(house)).thenReturn(new ResponseHouseEntityDto());
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doGet(request, response);
+
+    verify(houseService, times(1)).findAllById(Set.of(3L, 1L));
+    verify(houseService, never()).getAll();
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+  }
+
+  @Test
+  void headRequest_Collection_ReportsEstimateWithoutLoading() throws ServletException, IOException, RepositoryException {
+    when(houseService.count(false)).thenReturn(1200L);
+
+    servlet.doHead(request, response);
+
+    verify(response, times(1)).setHeader("X-Total-Count", "1200");
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+    verify(response, never()).getWriter();
+    verify(houseService, never()).getAll();
+  }
+
+  @Test
+  void getRequest_CountExact_CountsRows() throws IOException, RepositoryException {
+    when(request.getPathInfo()).thenReturn("/count");
+    when(request.getParameter("exact")).thenReturn("true");
+    when(houseService.count(true)).thenReturn(1187L);
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doGet(request, response);
+
+    verify(houseService, never()).count(false);
+    verify(response, times(1)).setHeader("X-Total-Count", "1187");
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+  }
+
+  @Test
+  void getRequest_CountWithFilter_ReturnsBadRequest() throws IOException, RepositoryException {
+    when(request.getPathInfo()).thenReturn("/count");
+    when(request.getParameterMap()).thenReturn(Map.of("streetId", new String[] {"7"}));
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doGet(request, response);
+
+    verify(houseService, never()).count(anyBoolean());
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+  }
+
+  @Test
+  void headRequest_BuildYearStats_AnswersForStatsNotCount() throws ServletException, IOException, RepositoryException {
+    when(request.getPathInfo()).thenReturn("/stats/build-year");
+    when(request.getMethod()).thenReturn("HEAD");
+    when(houseService.getBuildYearHistogram(1, null, null)).thenReturn(List.of());
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doHead(request, response);
+
+    verify(houseService, never()).count(anyBoolean());
+    verify(houseService, times(1)).getBuildYearHistogram(1, null, null);
+    verify(response, never()).setHeader(eq("X-Total-Count"), anyString());
+  }
+
+  @Test
+  void getRequest_BuildYearStats_PassesBucketAndExclusiveBounds() throws IOException, RepositoryException {
+    when(request.getPathInfo()).thenReturn("/stats/build-year");
+    when(request.getParameter("bucket")).thenReturn("10y");
+    when(request.getParameter("builtAfter")).thenReturn("1949-12-31");
+    List<BuildYearBucket> buckets = List.of(new BuildYearBucket(1950, 1959, 42));
+    when(houseService.getBuildYearHistogram(10, LocalDate.of(1950, 1, 1), null)).thenReturn(buckets);
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doGet(request, response);
+
+    verify(gson, times(1)).toJson(buckets);
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+  }
+
+  @Test
+  void getRequest_BuildYearStatsInvalidBucket_ReturnsBadRequest() throws IOException, RepositoryException {
+    when(request.getPathInfo()).thenReturn("/stats/build-year");
+    when(request.getParameter("bucket")).thenReturn("decade");
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doGet(request, response);
+
+    verify(houseService, never()).getBuildYearHistogram(anyInt(), any(), any());
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+  }
 }
@@ -2,6 +2,9 @@ package by.russianzak.repository.servlet;
 
 import by.russianzak.exception.RepositoryException;
 import by.russianzak.model.StreetEntity;
+import by.russianzak.model.StreetSummary;
+import by.russianzak.repository.query.QueryPage;
+import by.russianzak.repository.query.QuerySpec;
 import by.russianzak.service.StreetEntityService;
 import by.russianzak.servlet.StreetEntityServlet;
 import by.russianzak.servlet.dto.RequestStreetEntityDto;
@@ -9,11 +12,15 @@ import by.russianzak.servlet.dto.ResponseStreetEntityDto;
 import by.russianzak.servlet.mapper.StreetEntityDtoMapper;
 import by.russianzak.servlet.mapper.StreetEntityDtoMapperImpl;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import jakarta.persistence.EntityExistsException;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -21,6 +28,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -216,4 +229,120 @@ class StreetEntityServletTest {
     verify(response, times(1)).setContentType("application/json");
   }
 
+
+  @Test
+  void getRequest_StoredDocument_WrittenAsStored() throws IOException, RepositoryException {
+    when(request.getParameter("id")).thenReturn("1");
+    String document = "{\"id\":1,\"name\":\"First street\",\"postalCode\":111}";
+    when(streetService.findDocumentById(1L)).thenReturn(Optional.of(document));
+    StringWriter body = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(body));
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+    verify(streetService, never()).getById(anyLong());
+    assertEquals(document, body.toString());
+  }
+
+  @Test
+  void getRequest_PostalCodes_ReturnsResultsInRequestOrder() throws IOException, RepositoryException {
+    when(request.getParameter("postalCodes")).thenReturn("222,111,222");
+    StreetEntity street = StreetEntity.builder().setId(1L).setName("First street").setPostalCode(111L).build();
+    when(streetService.findAllByPostalCode(Set.of(222L, 111L))).thenReturn(Map.of(111L, street));
+    StringWriter body = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(body));
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+    List<JsonObject> results = new ArrayList<>();
+    JsonParser.parseString(body.toString()).getAsJsonArray().forEach(result -> results.add(result.getAsJsonObject()));
+    assertEquals(List.of(222L, 111L, 222L), results.stream().map(result -> result.get("key").getAsLong()).toList());
+    assertEquals(List.of(404, 200, 404), results.stream().map(result -> result.get("status").getAsInt()).toList());
+    assertEquals("First street", results.get(1).getAsJsonObject("entity").get("name").getAsString());
+  }
+
+  @Test
+  void getRequest_InvalidIds_ReturnsBadRequest() throws IOException {
+    when(request.getParameter("ids")).thenReturn("1,abc");
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+    verifyNoInteractions(streetService);
+  }
+
+  @Test
+  void getRequest_FilterAndLimit_ReturnsPageWithCursor() throws IOException, RepositoryException {
+    when(request.getParameterMap()).thenReturn(Map.of("name", new String[] {"First street"},
+        "limit", new String[] {"1"}));
+    StreetEntity street = StreetEntity.builder().setId(1L).setName("First street").setPostalCode(111L).build();
+    when(streetService.query(any())).thenReturn(new QueryPage<>(List.of(street), "next-page"));
+    StringWriter body = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(body));
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+    verify(streetService, never()).getAll();
+    JsonObject page = JsonParser.parseString(body.toString()).getAsJsonObject();
+    assertEquals("next-page", page.get("nextCursor").getAsString());
+    assertEquals("First street", page.getAsJsonArray("items").get(0).getAsJsonObject().get("name").getAsString());
+  }
+
+  @Test
+  void getRequest_UnknownSort_ReturnsBadRequest() throws IOException, RepositoryException {
+    when(request.getParameterMap()).thenReturn(Map.of("sort", new String[] {"-houses"}));
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+    verify(streetService, never()).query(ArgumentMatchers.<QuerySpec<StreetEntity>>any());
+  }
+
+  @Test
+  void getRequest_Summary_ListsSummariesWithoutLoadingStreets() throws IOException, RepositoryException {
+    when(request.getPathInfo()).thenReturn("/summary");
+    when(streetService.getSummaries()).thenReturn(List.of(StreetSummary.of(7L, 2, new long[] {1, 1, 0, 0}, 7, 1)));
+    StringWriter body = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(body));
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+    verify(streetService, never()).getAll();
+    JsonObject summary = JsonParser.parseString(body.toString()).getAsJsonArray().get(0).getAsJsonObject();
+    assertEquals(7L, summary.get("streetId").getAsLong());
+    assertEquals(1L, summary.getAsJsonObject("housesByType").get("COMMERCIAL").getAsLong());
+    assertEquals(3.5, summary.get("averageFloors").getAsDouble());
+  }
+
+  @Test
+  void headRequest_Summary_AnswersForSummaryNotCount() throws ServletException, IOException, RepositoryException {
+    when(request.getPathInfo()).thenReturn("/summary");
+    when(request.getMethod()).thenReturn("HEAD");
+    when(streetService.getSummaries()).thenReturn(List.of());
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doHead(request, response);
+
+    verify(streetService, never()).count(anyBoolean());
+    verify(streetService, times(1)).getSummaries();
+    verify(response, never()).setHeader(eq("X-Total-Count"), anyString());
+  }
+
+  @Test
+  void getRequest_SummaryOfMissingStreet_ReturnsNotFound() throws IOException, RepositoryException {
+    when(request.getPathInfo()).thenReturn("/summary");
+    when(request.getParameter("streetId")).thenReturn("42");
+    when(streetService.findSummaryById(42L)).thenReturn(Optional.empty());
+    when(response.getWriter()).thenReturn(printWriter);
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_NOT_FOUND);
+  }
 }
@@ -0,0 +1,75 @@
+package by.russianzak.repository.servlet;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import by.russianzak.servlet.WriteStatusServlet;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import by.russianzak.writebehind.WriteBehindQueue;
+import by.russianzak.writebehind.WriteJournal;
+import com.google.gson.Gson;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteStatusServletTest {
+
+  @TempDir
+  Path directory;
+
+  HttpServletRequest request;
+  HttpServletResponse response;
+  StringWriter body;
+  WriteBehindQueue writeBehindQueue;
+  WriteStatusServlet servlet;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    request = mock(HttpServletRequest.class);
+    response = mock(HttpServletResponse.class);
+    body = new StringWriter();
+    when(response.getWriter()).thenReturn(new PrintWriter(body));
+    // not started, so accepted writes stay pending
+    writeBehindQueue = WriteBehindQueue.builder()
+        .setJournal(WriteJournal.open(directory, 4096, false))
+        .build();
+    servlet = new WriteStatusServlet(writeBehindQueue, new Gson());
+  }
+
+  @Test
+  void getRequest_AcceptedWrite_ReturnsPending() throws IOException {
+    long id = writeBehindQueue.submit(EntityKind.STREET, Operation.SAVE, 0, "{}");
+    when(request.getParameter("id")).thenReturn(String.valueOf(id));
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_OK);
+    Assertions.assertTrue(body.toString().contains("\"state\":\"PENDING\""));
+  }
+
+  @Test
+  void getRequest_UnknownWrite_ReturnsNotFound() {
+    when(request.getParameter("id")).thenReturn("42");
+
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_NOT_FOUND);
+  }
+
+  @Test
+  void getRequest_MissingId_ReturnsBadRequest() {
+    servlet.doGet(request, response);
+
+    verify(response, times(1)).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+  }
+}
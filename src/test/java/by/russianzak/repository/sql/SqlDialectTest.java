@@ -0,0 +1,68 @@
+package by.russianzak.repository.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SqlDialectTest {
+
+  @Test
+  void forName_KnownNames_ReturnsDialect() {
+    assertInstanceOf(H2Dialect.class, SqlDialect.forName("H2"));
+    assertEquals(PostgreSqlDialect.NAME, SqlDialect.forName("postgresql").getName());
+  }
+
+  @Test
+  void forName_UnknownName_ThrowsIllegalArgument() {
+    assertThrows(IllegalArgumentException.class, () -> SqlDialect.forName("oracle"));
+  }
+
+  @Test
+  void sql_EveryStatement_HasTextInEveryDialect() {
+    for (SqlDialect dialect : new SqlDialect[] {new PostgreSqlDialect(), new H2Dialect()}) {
+      for (SqlStatement statement : SqlStatement.values()) {
+        assertNotNull(dialect.sql(statement), dialect.getName() + " " + statement);
+      }
+    }
+  }
+
+  @Test
+  void sql_Inserts_ReturnIdOnlyOnPostgreSql() {
+    assertTrue(new PostgreSqlDialect().sql(SqlStatement.HOUSE_INSERT).endsWith("RETURNING id"));
+    assertFalse(new H2Dialect().sql(SqlStatement.HOUSE_INSERT).contains("RETURNING"));
+    assertEquals(new PostgreSqlDialect().sql(SqlStatement.HOUSE_SELECT_BY_ID),
+        new H2Dialect().sql(SqlStatement.HOUSE_SELECT_BY_ID));
+  }
+
+  @Test
+  void adaptMigration_KeyDefault_MovesDefaultBeforeConstraint() {
+    String sql = "id INT PRIMARY KEY DEFAULT nextval('street_id_sequence')";
+
+    assertEquals("id INT DEFAULT nextval('street_id_sequence') PRIMARY KEY",
+        new H2Dialect().adaptMigration(sql));
+    assertEquals(sql, new PostgreSqlDialect().adaptMigration(sql));
+  }
+
+  @Test
+  void adaptMigration_BrinIndex_CreatesOrdinaryIndex() {
+    String sql = "CREATE INDEX house_build_date_brin_idx ON house USING BRIN (build_date)";
+
+    assertEquals("CREATE INDEX house_build_date_brin_idx ON house (build_date)",
+        new H2Dialect().adaptMigration(sql));
+    assertEquals(sql, new PostgreSqlDialect().adaptMigration(sql));
+  }
+
+  @Test
+  void adaptMigration_JsonColumn_StoresText() {
+    String sql = "CREATE TABLE street_document (street_id INT PRIMARY KEY, document JSON)";
+
+    assertEquals("CREATE TABLE street_document (street_id INT PRIMARY KEY, document CHARACTER LARGE OBJECT)",
+        new H2Dialect().adaptMigration(sql));
+    assertEquals(sql, new PostgreSqlDialect().adaptMigration(sql));
+  }
+}
@@ -0,0 +1,80 @@
+package by.russianzak.repository.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.tracing.NdjsonFileSpanExporter;
+import by.russianzak.tracing.Tracer;
+import com.google.gson.Gson;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NdjsonFileSpanExporterTest {
+
+  @TempDir
+  Path root;
+
+  private NdjsonFileSpanExporter exporter;
+
+  @AfterEach
+  void tearDown() {
+    if (exporter != null) {
+      exporter.close();
+    }
+  }
+
+  @Test
+  void export_WritesOneLinePerSpan() throws Exception {
+    Path directory = root.resolve("traces");
+    exporter = new NdjsonFileSpanExporter(directory, 64, 1024 * 1024, 2, new Gson());
+    Tracer tracer = new Tracer(exporter, 1.0);
+
+    tracer.startServerSpan("GET /house", null).end();
+    tracer.startServerSpan("GET /street", null).end();
+    exporter.close();
+
+    List<String> lines = Files.readAllLines(directory.resolve("spans.ndjson"), StandardCharsets.UTF_8);
+    assertEquals(2, lines.size());
+    assertTrue(lines.get(1).contains("\"name\":\"GET /street\""));
+    assertEquals(0, exporter.getDropped());
+  }
+
+  @Test
+  void export_FileCannotBeReopened_DropsSpansAndResumesOnceItCan() throws Exception {
+    Path directory = root.resolve("traces");
+    // every span rotates the file, so each one reopens it
+    exporter = new NdjsonFileSpanExporter(directory, 64, 1, 2, new Gson());
+    Tracer tracer = new Tracer(exporter, 1.0);
+    Files.delete(directory.resolve("spans.ndjson"));
+    Files.delete(directory);
+
+    tracer.startServerSpan("GET /lost", null).end();
+    await(() -> exporter.getDropped() == 1);
+    Files.createDirectories(directory);
+    tracer.startServerSpan("GET /written", null).end();
+
+    Path rotated = directory.resolve("spans.1.ndjson");
+    await(() -> Files.exists(rotated));
+    List<String> lines = Files.readAllLines(rotated, StandardCharsets.UTF_8);
+    assertEquals(1, lines.size());
+    assertTrue(lines.get(0).contains("\"name\":\"GET /written\""));
+    assertEquals(1, exporter.getDropped());
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("Condition not met in time");
+      }
+      Thread.sleep(5);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package by.russianzak.repository.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.tracing.TraceContext;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class TraceContextTest {
+
+  private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+  @Test
+  void parse_ValidHeader_ReturnsContext() {
+    TraceContext context = TraceContext.parse(TRACEPARENT).orElseThrow();
+
+    assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", context.traceId());
+    assertEquals("00f067aa0ba902b7", context.spanId());
+    assertTrue(context.sampled());
+    assertEquals(TRACEPARENT, context.toTraceparent());
+  }
+
+  @Test
+  void parse_NotSampledFlag_ReturnsUnsampled() {
+    TraceContext context = TraceContext.parse(
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00").orElseThrow();
+
+    assertFalse(context.sampled());
+  }
+
+  @Test
+  void parse_InvalidHeaders_ReturnsEmpty() {
+    assertEquals(Optional.empty(), TraceContext.parse(null));
+    assertEquals(Optional.empty(), TraceContext.parse("garbage"));
+    assertEquals(Optional.empty(),
+        TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+    assertEquals(Optional.empty(),
+        TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01"));
+    assertEquals(Optional.empty(),
+        TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+    assertEquals(Optional.empty(),
+        TraceContext.parse("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"));
+  }
+
+  @Test
+  void parse_FutureVersionWithExtraFields_Accepted() {
+    assertTrue(TraceContext.parse(
+        "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra").isPresent());
+  }
+}
@@ -0,0 +1,88 @@
+package by.russianzak.repository.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.service.HouseEntityService;
+import by.russianzak.tracing.Span;
+import by.russianzak.tracing.Span.Kind;
+import by.russianzak.tracing.SpanExporter;
+import by.russianzak.tracing.TraceContext;
+import by.russianzak.tracing.Tracer;
+import by.russianzak.tracing.TracingProxy;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class TracerTest {
+
+  List<Span> exported;
+  Tracer tracer;
+
+  @BeforeEach
+  void setUp() {
+    exported = new ArrayList<>();
+    SpanExporter exporter = exported::add;
+    tracer = new Tracer(exporter, 1.0);
+  }
+
+  @Test
+  void startServerSpan_RemoteParent_ContinuesTrace() {
+    TraceContext remote = TraceContext.parse(
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01").orElseThrow();
+
+    Span span = tracer.startServerSpan("GET /house", remote);
+    span.end();
+
+    assertEquals(remote.traceId(), span.getContext().traceId());
+    assertEquals(remote.spanId(), span.getParentSpanId());
+    assertNotEquals(remote.spanId(), span.getContext().spanId());
+    assertEquals(List.of(span), exported);
+    assertNull(tracer.currentSpan());
+  }
+
+  @Test
+  void startSpan_NestedSpans_ParentRestoredAndChildExportedFirst() {
+    Span server = tracer.startServerSpan("GET /street", null);
+    Span child = tracer.startSpan("db.statement", Kind.CLIENT);
+
+    assertSame(child, tracer.currentSpan());
+    child.end();
+    assertSame(server, tracer.currentSpan());
+    server.end();
+
+    assertEquals(List.of(child, server), exported);
+    assertEquals(server.getContext().spanId(), child.getParentSpanId());
+    assertEquals(server.getContext().traceId(), child.getContext().traceId());
+  }
+
+  @Test
+  void startServerSpan_UnsampledParent_NotExported() {
+    TraceContext remote = TraceContext.parse(
+        "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00").orElseThrow();
+
+    tracer.startServerSpan("GET /house", remote).end();
+
+    assertTrue(exported.isEmpty());
+  }
+
+  @Test
+  void wrap_ServiceThrows_SpanRecordsErrorAndRethrows() throws Exception {
+    HouseEntityService service = Mockito.mock(HouseEntityService.class);
+    Mockito.when(service.getById(1L)).thenThrow(new EntityNotFoundException("missing"));
+    HouseEntityService traced = TracingProxy.wrap(HouseEntityService.class, service, tracer);
+
+    assertThrows(EntityNotFoundException.class, () -> traced.getById(1L));
+
+    assertEquals(1, exported.size());
+    assertEquals("HouseEntityService.getById", exported.get(0).getName());
+    assertTrue(exported.get(0).getError().contains("missing"));
+  }
+}
@@ -0,0 +1,173 @@
+package by.russianzak.repository.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.exception.RepositoryException;
+import by.russianzak.writebehind.JournalRecord;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import by.russianzak.writebehind.WriteBehindQueue;
+import by.russianzak.writebehind.WriteBehindQueue.Applier;
+import by.russianzak.writebehind.WriteJournal;
+import by.russianzak.writebehind.WriteStatus;
+import by.russianzak.writebehind.WriteStatus.State;
+import jakarta.persistence.EntityExistsException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteBehindQueueTest {
+
+  @TempDir
+  Path directory;
+
+  private final List<String> applied = new CopyOnWriteArrayList<>();
+  private WriteBehindQueue queue;
+
+  @AfterEach
+  void tearDown() {
+    if (queue != null) {
+      queue.close();
+    }
+  }
+
+  private WriteBehindQueue start(Applier applier) throws Exception {
+    queue = WriteBehindQueue.builder()
+        .setJournal(WriteJournal.open(directory, 4096, false))
+        .setApplier(EntityKind.HOUSE, applier)
+        .setRetryBackoffMillis(1)
+        .setMaxAttempts(3)
+        .build();
+    queue.start();
+    return queue;
+  }
+
+  private Long recordApplied(JournalRecord record) {
+    applied.add(record.body());
+    return 100 + record.sequence();
+  }
+
+  private static WriteStatus awaitSettled(WriteBehindQueue queue, long id) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (System.nanoTime() < deadline) {
+      WriteStatus status = queue.getStatus(id).orElse(null);
+      if (status != null && status.state() != State.PENDING) {
+        return status;
+      }
+      Thread.sleep(5);
+    }
+    throw new AssertionError("Write " + id + " was not applied in time");
+  }
+
+  @Test
+  void submit_AppliesInOrderAndReportsEntityIds() throws Exception {
+    WriteBehindQueue queue = start(this::recordApplied);
+
+    long first = queue.submit(EntityKind.HOUSE, Operation.SAVE, 0, "first");
+    long second = queue.submit(EntityKind.HOUSE, Operation.UPDATE, 5, "second");
+
+    assertEquals(new WriteStatus(second, State.APPLIED, 100 + second, null), awaitSettled(queue, second));
+    assertEquals(State.APPLIED, awaitSettled(queue, first).state());
+    assertEquals(List.of("first", "second"), applied);
+    assertEquals(2, queue.getApplied());
+  }
+
+  @Test
+  void submit_ApplierRejectsWrite_FailsItAndKeepsDraining() throws Exception {
+    WriteBehindQueue queue = start(record -> {
+      if (record.body().equals("duplicate")) {
+        throw new EntityExistsException("House already exists");
+      }
+      return recordApplied(record);
+    });
+
+    long duplicate = queue.submit(EntityKind.HOUSE, Operation.SAVE, 0, "duplicate");
+    long next = queue.submit(EntityKind.HOUSE, Operation.SAVE, 0, "next");
+
+    assertEquals(new WriteStatus(duplicate, State.FAILED, null, "House already exists"),
+        awaitSettled(queue, duplicate));
+    assertEquals(State.APPLIED, awaitSettled(queue, next).state());
+    assertEquals(1, queue.getFailed());
+  }
+
+  @Test
+  void submit_RepositoryFailure_RetriesBeforeLaterWrites() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    WriteBehindQueue queue = start(record -> {
+      if (record.body().equals("flaky") && attempts.incrementAndGet() < 3) {
+        throw new RepositoryException("Connection refused",
+            new SQLTransientConnectionException("Connection refused", "08001"));
+      }
+      return recordApplied(record);
+    });
+
+    queue.submit(EntityKind.HOUSE, Operation.SAVE, 0, "flaky");
+    long next = queue.submit(EntityKind.HOUSE, Operation.SAVE, 0, "next");
+
+    assertEquals(State.APPLIED, awaitSettled(queue, next).state());
+    assertEquals(3, attempts.get());
+    assertEquals(List.of("flaky", "next"), applied);
+  }
+
+  @Test
+  void submit_ConstraintViolation_FailsWithoutRetryingOrStallingLaterWrites() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    WriteBehindQueue queue = WriteBehindQueue.builder()
+        .setJournal(WriteJournal.open(directory, 4096, false))
+        .setApplier(EntityKind.HOUSE, record -> {
+          if (record.body().equals("too long")) {
+            attempts.incrementAndGet();
+            throw new RepositoryException("Error occurred while saving HouseEntity",
+                new SQLException("value too long for type character varying(255)", "22001"));
+          }
+          return recordApplied(record);
+        })
+        .setRetryBackoffMillis(TimeUnit.MINUTES.toMillis(1))
+        .build();
+    this.queue = queue;
+    queue.start();
+
+    long poison = queue.submit(EntityKind.HOUSE, Operation.SAVE, 0, "too long");
+    long next = queue.submit(EntityKind.HOUSE, Operation.SAVE, 0, "next");
+
+    assertEquals(State.APPLIED, awaitSettled(queue, next).state());
+    assertEquals(State.FAILED, awaitSettled(queue, poison).state());
+    assertEquals(1, attempts.get());
+    assertEquals(List.of("next"), applied);
+  }
+
+  @Test
+  void start_JournalLeftByPreviousRun_ReplaysUnappliedWrites() throws Exception {
+    WriteJournal journal = WriteJournal.open(directory, 4096, false);
+    journal.append(EntityKind.HOUSE, Operation.SAVE, 0, "applied".getBytes());
+    long pending = journal.append(EntityKind.HOUSE, Operation.SAVE, 0, "pending".getBytes());
+    journal.checkpoint(pending - 1);
+    journal.close();
+
+    WriteBehindQueue queue = start(this::recordApplied);
+
+    assertEquals(State.APPLIED, awaitSettled(queue, pending).state());
+    assertEquals(List.of("pending"), applied);
+  }
+
+  @Test
+  void getStatus_UnknownWrite_Empty() throws Exception {
+    WriteBehindQueue queue = start(this::recordApplied);
+
+    assertTrue(queue.getStatus(42).isEmpty());
+  }
+
+  @Test
+  void build_WithoutJournal_ThrowsIllegalArgument() {
+    assertThrows(IllegalArgumentException.class, () -> WriteBehindQueue.builder().build());
+  }
+}
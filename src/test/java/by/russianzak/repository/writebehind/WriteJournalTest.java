@@ -0,0 +1,113 @@
+package by.russianzak.repository.writebehind;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import by.russianzak.writebehind.JournalRecord;
+import by.russianzak.writebehind.JournalRecord.EntityKind;
+import by.russianzak.writebehind.JournalRecord.Operation;
+import by.russianzak.writebehind.WriteJournal;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteJournalTest {
+
+  @TempDir
+  Path directory;
+
+  private static byte[] body(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.toString().endsWith(".journal")).sorted().toList();
+    }
+  }
+
+  @Test
+  void read_AfterAppend_ReturnsRecordsInOrder() throws Exception {
+    WriteJournal journal = WriteJournal.open(directory, 4096, false);
+
+    long first = journal.append(EntityKind.HOUSE, Operation.SAVE, 0, body("{\"houseNumber\":\"1\"}"));
+    long second = journal.append(EntityKind.STREET, Operation.UPDATE, 7, body("{\"name\":\"Main\"}"));
+
+    List<JournalRecord> records = journal.read(10, 0);
+    assertEquals(List.of(
+        new JournalRecord(first, EntityKind.HOUSE, Operation.SAVE, 0, "{\"houseNumber\":\"1\"}"),
+        new JournalRecord(second, EntityKind.STREET, Operation.UPDATE, 7, "{\"name\":\"Main\"}")), records);
+    assertTrue(journal.read(10, 0).isEmpty());
+    assertEquals(2, journal.getBacklog());
+  }
+
+  @Test
+  void open_AfterCheckpoint_ReplaysOnlyLaterRecords() throws Exception {
+    WriteJournal journal = WriteJournal.open(directory, 4096, false);
+    journal.append(EntityKind.HOUSE, Operation.SAVE, 0, body("applied"));
+    long pending = journal.append(EntityKind.HOUSE, Operation.SAVE, 0, body("pending"));
+    journal.checkpoint(pending - 1);
+    journal.close();
+
+    WriteJournal reopened = WriteJournal.open(directory, 4096, false);
+
+    List<JournalRecord> records = reopened.read(10, 0);
+    assertEquals(1, records.size());
+    assertEquals("pending", records.get(0).body());
+    assertEquals(pending + 1, reopened.append(EntityKind.HOUSE, Operation.SAVE, 0, body("next")));
+  }
+
+  @Test
+  void append_PastSegmentEnd_RollsAndCheckpointDeletesOldSegments() throws Exception {
+    WriteJournal journal = WriteJournal.open(directory, 128, false);
+    long last = 0;
+    for (int i = 0; i < 10; i++) {
+      last = journal.append(EntityKind.ROAD_SURFACE, Operation.SAVE, 0, body("surface-" + i));
+    }
+    assertTrue(segmentFiles().size() > 1);
+    assertEquals(10, journal.read(100, 0).size());
+
+    journal.checkpoint(last);
+
+    assertEquals(1, segmentFiles().size());
+    assertEquals(0, journal.getBacklog());
+  }
+
+  @Test
+  void open_TornTail_DiscardsItAndKeepsAppending() throws Exception {
+    WriteJournal journal = WriteJournal.open(directory, 4096, false);
+    journal.append(EntityKind.HOUSE, Operation.SAVE, 0, body("complete"));
+    journal.append(EntityKind.HOUSE, Operation.SAVE, 0, body("torn"));
+    journal.close();
+    Path segment = segmentFiles().get(0);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      // corrupt the last byte of the second record's body, as a crash mid-copy would
+      long secondRecordEnd = 2L * (8 + 18) + "complete".length() + "torn".length();
+      channel.write(ByteBuffer.wrap(new byte[] {'x'}), secondRecordEnd - 1);
+    }
+
+    WriteJournal reopened = WriteJournal.open(directory, 4096, false);
+    long next = reopened.append(EntityKind.HOUSE, Operation.SAVE, 0, body("after"));
+
+    List<JournalRecord> records = reopened.read(10, 0);
+    assertEquals(List.of("complete", "after"), records.stream().map(JournalRecord::body).toList());
+    assertEquals(2, next);
+  }
+
+  @Test
+  void append_RecordLargerThanSegment_ThrowsIllegalArgument() throws Exception {
+    WriteJournal journal = WriteJournal.open(directory, 64, false);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> journal.append(EntityKind.HOUSE, Operation.SAVE, 0, new byte[64]));
+  }
+}